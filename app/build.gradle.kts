@@ -33,6 +33,11 @@ android {
         viewBinding = true
     }
 
+    testOptions {
+        // JVM tests run Firestore's CustomClassMapper, which logs warnings through android.util.Log
+        unitTests.isReturnDefaultValues = true
+    }
+
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
@@ -40,6 +45,7 @@ android {
 }
 
 dependencies {
+    implementation(project(":core"))
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.activity)
@@ -0,0 +1,130 @@
+package com.example.shiftsync.data;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.shiftsync.models.Shift;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.MemoryCacheSettings;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * בדיקת עומס למנוע השיבוץ מול ה-Firestore Emulator (מריצים קודם: firebase emulators:start --only firestore).
+ * הרבה Threads מאשרים בו-זמנית יותר בקשות ממה שיש מקומות. בסוף, בכל משמרת:
+ * מספר המשובצים במפת assignments הוא בדיוק requiredWorkers (הקיבולת נשמרת),
+ * assignedUserIds זהה לרשימת המשובצים במפה, השם של כל עובד נשמר ליד ה-uid שלו,
+ * שאר הבקשות נשארות ממתינות, ושדות המבנה הישן לא נכתבים.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AssignmentEngineStressTest {
+
+    // כתובת המחשב המארח מתוך האמולטור של אנדרואיד
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 8080;
+
+    private static final int SHIFTS = 5;
+    private static final int REQUIRED = 3;
+    private static final int REQUESTS_PER_SHIFT = 20;
+    private static final int THREADS = 16;
+
+    @BeforeClass
+    public static void useEmulator() {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        db.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+        db.setFirestoreSettings(new FirebaseFirestoreSettings.Builder()
+                .setLocalCacheSettings(MemoryCacheSettings.newBuilder().build())
+                .build());
+    }
+
+    @Test
+    public void concurrentApprovalsNeverOverAssign() throws Exception {
+        ShiftWriter writer = ShiftWriter.getInstance();
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        long start = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(30);
+
+        // יצירת המשמרות ובקשות ההרשמה
+        List<Shift> shifts = new ArrayList<>();
+        List<String[]> approvals = new ArrayList<>();
+        for (int s = 0; s < SHIFTS; s++) {
+            Shift shift = new Shift("stress_" + run + "_" + s, start, start + TimeUnit.HOURS.toMillis(8), REQUIRED, "");
+            Tasks.await(writer.createShift(shift));
+            for (int u = 0; u < REQUESTS_PER_SHIFT; u++) {
+                String uid = "worker_" + run + "_" + u;
+                Tasks.await(writer.requestSignUp(shift, uid, nameFor(uid)));
+                approvals.add(new String[]{shift.getShiftId(), uid});
+            }
+            shifts.add(shift);
+        }
+        Collections.shuffle(approvals);
+
+        // כל האישורים במקביל, משוחררים יחד
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (String[] approval : approvals) {
+            pool.execute(() -> {
+                try {
+                    go.await();
+                    Tasks.await(writer.approve(approval[0], approval[1], nameFor(approval[1])));
+                    approved.incrementAndGet();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof AssignmentEngine.AssignmentRejectedException) {
+                        rejected.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+        go.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.MINUTES));
+
+        assertEquals("transactions that failed outright", 0, failed.get());
+        assertEquals(SHIFTS * REQUIRED, approved.get());
+        assertEquals(SHIFTS * (REQUESTS_PER_SHIFT - REQUIRED), rejected.get());
+
+        for (Shift created : shifts) {
+            DocumentSnapshot doc = Tasks.await(FirebaseFirestore.getInstance()
+                    .collection("shifts").document(created.getShiftId()).get());
+            Shift shift = ShiftMapper.fromSnapshot(doc);
+            assertNotNull(shift);
+
+            // אין שיבוץ יתר, ולכל עובד נשמר השם שלו
+            List<String> ids = shift.getAssignedUserIds();
+            assertEquals(REQUIRED, ids.size());
+            assertEquals(ids, doc.get("assignedUserIds"));
+            for (String uid : shift.getAssignments().keySet()) {
+                assertEquals(nameFor(uid), shift.nameOf(uid));
+            }
+            assertEquals(REQUESTS_PER_SHIFT - REQUIRED, shift.pendingUserIds().size());
+            assertFalse(doc.contains(ShiftMapper.LEGACY_PENDING_IDS));
+        }
+    }
+
+    private static String nameFor(String uid) {
+        return "Worker " + uid.substring(uid.lastIndexOf('_') + 1);
+    }
+}
@@ -9,25 +9,21 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.shiftsync.models.Announcement;
 import java.text.SimpleDateFormat;
-import java.util.List;
 import java.util.Locale;
 
 //הצגת ההודעה בrecyclerview
-public class AnnouncementsAdapter extends RecyclerView.Adapter<AnnouncementsAdapter.ViewHolder> {
+public class AnnouncementsAdapter extends StableIdListAdapter<Announcement, AnnouncementsAdapter.ViewHolder> {
 
     //מאזין ללחיצה
     public interface OnDeleteClickListener {
         void onDeleteClick(Announcement announcement);
     }
 
-    // רשימת ההודעות להצגה
-    private List<Announcement> list;
-
     private OnDeleteClickListener listener;
 
     //בנאי
-    public AnnouncementsAdapter(List<Announcement> list, OnDeleteClickListener listener) {
-        this.list = list;
+    public AnnouncementsAdapter(OnDeleteClickListener listener) {
+        super(ItemDiffs.ANNOUNCEMENTS);
         this.listener = listener;
     }
 
@@ -45,7 +41,7 @@ public class AnnouncementsAdapter extends RecyclerView.Adapter<AnnouncementsAdap
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         // שליפת האובייקט הספציפי מהרשימה לפי המיקום
-        Announcement item = list.get(position);
+        Announcement item = getItem(position);
 
         // הצגת הנתונים הבסיסיים
         holder.tvTitle.setText(item.getTitle());
@@ -70,12 +66,6 @@ public class AnnouncementsAdapter extends RecyclerView.Adapter<AnnouncementsAdap
         }
     }
 
-    //החזרת מספר פריטים ברשימה לטעינה של הrecyclerview
-    @Override
-    public int getItemCount() {
-        return list == null ? 0 : list.size();
-    }
-
     //viewholder לXML
     public static class ViewHolder extends RecyclerView.ViewHolder {
         TextView tvTitle, tvContent, tvDate, tvAuthor;
@@ -3,28 +3,44 @@ import android.content.Intent;
 import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.provider.MediaStore;
+import android.util.Log;
 import android.view.View;
 import android.widget.Toast;
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
+import com.example.shiftsync.data.AnnouncementMapper;
+import com.example.shiftsync.data.LocalStore;
+import com.example.shiftsync.data.PayrollLedger;
+import com.example.shiftsync.data.ProfileImageStore;
+import com.example.shiftsync.data.SessionCache;
+import com.example.shiftsync.data.ShiftMapper;
+import com.example.shiftsync.data.ShiftWriter;
+import com.example.shiftsync.data.StartupBootstrap;
+import com.example.shiftsync.data.SyncEngine;
+import com.example.shiftsync.data.TracedFirestore;
+import com.example.shiftsync.data.UserMapper;
 import com.example.shiftsync.databinding.ActivityEmployeeBinding;
 import com.example.shiftsync.models.Announcement;
 import com.example.shiftsync.models.Shift;
 import com.example.shiftsync.models.User;
+import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Locale;
 
 //מסך עובד
 public class EmployeeActivity extends AppCompatActivity {
 
+    private static final String TAG = "EmployeeActivity";
+
     // קישור לרכיבי התצוגה
     private ActivityEmployeeBinding binding;
 
@@ -35,6 +51,15 @@ public class EmployeeActivity extends AppCompatActivity {
     // בחירת תמונה מהגלריה
     private ActivityResultLauncher<Intent> imagePickerLauncher;
 
+    // עותק מקומי של הנתונים - מוצג מיד, עד שמגיעה התשובה מהשרת
+    private LocalStore localStore;
+
+    // הנתון המתאים כבר הגיע מהשרת (ואז לא דורסים אותו בעותק המקומי)
+    private boolean nextShiftFromServer;
+    private boolean nextShiftFromLocal;
+    private boolean announcementFromServer;
+    private boolean nameFromServer;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -43,9 +68,17 @@ public class EmployeeActivity extends AppCompatActivity {
         binding = ActivityEmployeeBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
+        // מדידת זמן הפתיחה: עד הפריים הראשון ועד שכל ארבעת החלקים מולאו
+        StartupTrace.begin(this, getIntent().getStringExtra(StartupTrace.EXTRA_ROUTE),
+                "name", "nextShift", "salary", "announcement");
+
         // הפעלת מופעי פיירבייס
         mAuth = FirebaseAuth.getInstance();
         db = FirebaseFirestore.getInstance();
+        localStore = LocalStore.getInstance(this);
+
+        // עדכון המאגר המקומי ברקע (רק מה שהשתנה מאז הסנכרון הקודם)
+        SyncEngine.getInstance(this).sync();
 
         // הפעלת מנגנון בחירת תמונה
         setupImagePicker();
@@ -63,7 +96,7 @@ public class EmployeeActivity extends AppCompatActivity {
             Toast.makeText(this, "מרענן נתונים...", Toast.LENGTH_SHORT).show();
             loadEmployeeData();
             loadNextShift();
-            calculateMonthlySalary();
+            reconcileMonthlySalary(); // ברענון ידני מחשבים מחדש כדי לתפוס סטיות בספר
             loadLatestAnnouncement();
         });
 
@@ -81,6 +114,7 @@ public class EmployeeActivity extends AppCompatActivity {
 
         // התנתקות מהמערכת
         binding.btnLogout.setOnClickListener(v -> {
+            StartupBootstrap.getInstance(this).clear(); // מחיקת התפקיד השמור
             mAuth.signOut(); // ניתוק מ-Firebase Auth
             // מעבר למסך התחברות ומחיקת היסטוריית המסכים (כדי שלא יוכל לחזור אחורה)
             startActivity(new Intent(this, LoginActivity.class).setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK));
@@ -90,75 +124,105 @@ public class EmployeeActivity extends AppCompatActivity {
 
     //טעינת הודעות מנהל
     private void loadLatestAnnouncement() {
-        db.collection("announcements")
+        localStore.getLatestAnnouncement().addOnSuccessListener(this, announcement -> {
+            if (announcement != null && !announcementFromServer) showAnnouncement(announcement);
+        });
+
+        TracedFirestore.listen("announcements.latest", db.collection("announcements")
                 .orderBy("timestamp", Query.Direction.DESCENDING) // מיון לפי זמן (מהחדש לישן)
-                .limit(1) // אנחנו רוצים רק את ההודעה הכי חדשה
-                .addSnapshotListener((value, error) -> {
+                .limit(1), // אנחנו רוצים רק את ההודעה הכי חדשה
+                (value, error) -> {
                     if (error != null) {
+                        // בלי חיבור נשארת ההודעה מהמאגר המקומי (אם יש)
+                        StartupTrace.ready("announcement");
+                        if (!announcementFromServer) return;
                         binding.cardAnnouncement.setVisibility(View.GONE);
                         return;
                     }
 
-                    if (value != null && !value.isEmpty()) {
-                        DocumentSnapshot doc = value.getDocuments().get(0);
-                        Announcement announcement = doc.toObject(Announcement.class);
+                    // תוצאה מהמטמון של Firestore בלבד (ריקה) לא מסתירה את ההודעה המקומית
+                    if (value == null || value.getMetadata().isFromCache() && value.isEmpty()) return;
+                    announcementFromServer = true;
 
-                        if (announcement != null) {
-                            binding.cardAnnouncement.setVisibility(View.VISIBLE);
-
-                            //  הזנת התוכן (כותרת, תוכן, תאריך)
-                            binding.tvAnnTitle.setText(announcement.getTitle());
-                            binding.tvAnnContent.setText(announcement.getContent());
+                    if (!value.isEmpty()) {
+                        DocumentSnapshot doc = value.getDocuments().get(0);
+                        Announcement announcement = AnnouncementMapper.fromSnapshot(doc);
 
-                            java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("dd/MM/yyyy", java.util.Locale.getDefault());
-                            binding.tvAnnDate.setText(sdf.format(announcement.getTimestamp()));
-                        }
+                        if (announcement != null) showAnnouncement(announcement);
                     } else {
                         // אם אין הודעות בכלל במסד הנתונים נסתיר את הכרטיס
                         binding.cardAnnouncement.setVisibility(View.GONE);
+                        StartupTrace.ready("announcement");
                     }
                 });
     }
 
+    private void showAnnouncement(Announcement announcement) {
+        binding.cardAnnouncement.setVisibility(View.VISIBLE);
+
+        //  הזנת התוכן (כותרת, תוכן, תאריך)
+        binding.tvAnnTitle.setText(announcement.getTitle());
+        binding.tvAnnContent.setText(announcement.getContent());
+
+        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
+        binding.tvAnnDate.setText(sdf.format(announcement.getTimestamp()));
+        StartupTrace.ready("announcement");
+    }
+
     //מציאת המשמרת הבאה של העובד
     private void loadNextShift() {
         long now = System.currentTimeMillis();
         String uid = mAuth.getCurrentUser().getUid();
+        long queryStart = SystemClock.elapsedRealtime();
+
+        // קודם מהמאגר המקומי (מיידי), ואז מהשרת
+        localStore.getNextShift(uid, now).addOnSuccessListener(this, shift -> {
+            Log.d(TAG, "loadNextShift (local): " + (SystemClock.elapsedRealtime() - queryStart) + "ms");
+            if (shift == null || nextShiftFromServer) return;
+            nextShiftFromLocal = true;
+            showNextShift(shift);
+        });
 
-        // שאילתה: כל המשמרות שזמן ההתחלה שלהן הוא בעתיד, ממוינות לפי זמן עולה
-        db.collection("shifts")
-                .whereGreaterThan("startTime", now)
-                .orderBy("startTime", Query.Direction.ASCENDING)
-                .get()
+        // שאילתה: רק המשמרות שהעובד משובץ אליהן, שמתחילות בעתיד, ממוינות לפי זמן - ומסמך אחד בלבד.
+        // כך עלות המסך תלויה רק במשמרות של העובד עצמו ולא בכמות המשמרות בכל החברה.
+        // בפתיחה השאילתה כבר יצאה מ-StartupBootstrap, ולוקחים את התוצאה שלה.
+        Task<QuerySnapshot> query = StartupBootstrap.getInstance(this).takeQuery(StartupBootstrap.NEXT_SHIFT, uid);
+        if (query == null) query = TracedFirestore.get("shifts.nextShift", StartupBootstrap.nextShiftQuery(db, uid, now));
+        query
                 .addOnSuccessListener(queryDocumentSnapshots -> {
-                    Shift nextShift = null;
+                    Log.d(TAG, "loadNextShift: " + (SystemClock.elapsedRealtime() - queryStart) + "ms, "
+                            + queryDocumentSnapshots.size() + " docs");
 
-                    // מחפשים את המשמרת הראשונה שהעובד משובץ אליה
-                    for (DocumentSnapshot doc : queryDocumentSnapshots.getDocuments()) {
-                        Shift shift = doc.toObject(Shift.class);
-                        if (shift != null && shift.getAssignedUserIds() != null && shift.getAssignedUserIds().contains(uid)) {
-                            nextShift = shift;
-                            break;
-                        }
-                    }
-
-                    // עדכון התצוגה במסך
-                    if (nextShift != null) {
-                        SimpleDateFormat dateF = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
-                        SimpleDateFormat timeF = new SimpleDateFormat("HH:mm", Locale.getDefault());
-                        binding.tvNextShiftDate.setText(dateF.format(nextShift.getStartTime()));
-                        binding.tvNextShiftTime.setText(timeF.format(nextShift.getStartTime()) + " - " + timeF.format(nextShift.getEndTime()));
-                    } else {
-                        binding.tvNextShiftDate.setText("אין משמרות קרובות");
-                        binding.tvNextShiftTime.setText("--:--");
+                    nextShiftFromServer = true;
+                    Shift nextShift = null;
+                    if (!queryDocumentSnapshots.isEmpty()) {
+                        nextShift = ShiftMapper.fromSnapshot(queryDocumentSnapshots.getDocuments().get(0));
                     }
+                    showNextShift(nextShift);
                 })
                 .addOnFailureListener(e -> {
-                    // טיפול בשגיאות
+                    // טיפול בשגיאות (אם כבר מוצגת משמרת מהמאגר המקומי - משאירים אותה)
+                    Log.e(TAG, "loadNextShift failed", e);
+                    StartupTrace.ready("nextShift");
+                    if (nextShiftFromLocal) return;
                     binding.tvNextShiftDate.setText("שגיאה בטעינה");
                 });
     }
 
+    // עדכון התצוגה במסך
+    private void showNextShift(Shift nextShift) {
+        if (nextShift != null) {
+            SimpleDateFormat dateF = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
+            SimpleDateFormat timeF = new SimpleDateFormat("HH:mm", Locale.getDefault());
+            binding.tvNextShiftDate.setText(dateF.format(nextShift.getStartTime()));
+            binding.tvNextShiftTime.setText(timeF.format(nextShift.getStartTime()) + " - " + timeF.format(nextShift.getEndTime()));
+        } else {
+            binding.tvNextShiftDate.setText("אין משמרות קרובות");
+            binding.tvNextShiftTime.setText("--:--");
+        }
+        StartupTrace.ready("nextShift");
+    }
+
 
       //הגדרת ה-Launcher לטיפול בתוצאה של בחירת תמונה מהגלריה
 
@@ -176,11 +240,12 @@ public class EmployeeActivity extends AppCompatActivity {
                             Bitmap resized = ImageUtils.resizeBitmap(bitmap, 500);
 
                             // הצגה מיידית למשתמש
+                            // (ביטול טעינה ישנה שעוד רצה ברקע, כדי שלא תדרוס את התמונה החדשה)
+                            ProfileImageLoader.getInstance().cancel(binding.ivProfileImage);
                             binding.ivProfileImage.setImageBitmap(resized);
 
-                            // שמירה בפיירבייס
-                            String base64Image = ImageUtils.bitmapToString(resized);
-                            saveImageToFirebase(base64Image);
+                            // שמירה בפיירבייס (במאגר התמונות)
+                            saveImageToFirebase(resized);
 
                         } catch (IOException e) {
                             Toast.makeText(this, "שגיאה בטעינת תמונה", Toast.LENGTH_SHORT).show();
@@ -190,69 +255,86 @@ public class EmployeeActivity extends AppCompatActivity {
         );
     }
 
-    //שמירת התמונה בפיירבייס
-    private void saveImageToFirebase(String base64Image) {
+    //שמירת התמונה במאגר התמונות ועדכון ה-hash במסמך המשתמש
+    private void saveImageToFirebase(Bitmap image) {
         if (mAuth.getCurrentUser() == null) return;
-        db.collection("users").document(mAuth.getCurrentUser().getUid())
-                .update("profileImage", base64Image)
+        ProfileImageStore.getInstance(this).saveProfileImage(mAuth.getCurrentUser().getUid(), image)
                 .addOnSuccessListener(aVoid -> Toast.makeText(this, "תמונת פרופיל עודכנה!", Toast.LENGTH_SHORT).show());
     }
 
     //טעינת פרטי העובד בראש המסך
     private void loadEmployeeData() {
         if (mAuth.getCurrentUser() == null) return;
-        db.collection("users").document(mAuth.getCurrentUser().getUid()).get()
+        String uid = mAuth.getCurrentUser().getUid();
+
+        // השם השמור מוצג מיד (ואם אין - מהמאגר המקומי)
+        String cachedName = SessionCache.getInstance(this).getFullName(uid);
+        if (cachedName != null) {
+            showName(cachedName);
+        } else {
+            localStore.getUser(uid).addOnSuccessListener(this, summary -> {
+                if (summary != null && !nameFromServer) showName(summary.getFullName());
+            });
+        }
+
+        Task<DocumentSnapshot> userDoc = StartupBootstrap.getInstance(this).takeDocument(StartupBootstrap.USER, uid);
+        if (userDoc == null) userDoc = TracedFirestore.get("users.doc", db.collection("users").document(uid));
+        userDoc
                 .addOnSuccessListener(documentSnapshot -> {
                     if (documentSnapshot.exists()) {
-                        User user = documentSnapshot.toObject(User.class);
+                        User user = UserMapper.fromSnapshot(documentSnapshot);
                         if (user != null) {
-                            binding.tvWelcomeTitle.setText("שלום, " + user.getFullName());
+                            nameFromServer = true;
+                            showName(user.getFullName());
 
-                            // אם קיימת תמונה שמורה, נטען אותה
-                            if (user.getProfileImage() != null && !user.getProfileImage().isEmpty()) {
-                                Bitmap bmp = ImageUtils.stringToBitmap(user.getProfileImage());
-                                if (bmp != null) binding.ivProfileImage.setImageBitmap(bmp);
+                            // אם קיימת תמונה שמורה, נטען אותה (מהמאגר לפי ה-hash, או מהשדה הישן)
+                            int sizePx = (int) (60 * getResources().getDisplayMetrics().density);
+                            ProfileImageLoader.getInstance().load(binding.ivProfileImage, documentSnapshot.getId(),
+                                    user.getProfileImageHash(), user.getProfileImage(), sizePx, R.mipmap.ic_launcher_round);
+
+                            // תמונה ישנה בתוך מסמך המשתמש - מעבירים אותה למאגר
+                            if (user.getProfileImageHash() == null && user.getProfileImage() != null && !user.getProfileImage().isEmpty()) {
+                                ProfileImageStore.getInstance(this).migrateInlineImage(documentSnapshot.getId(), user.getProfileImage());
                             }
                         }
                     }
                 });
     }
 
-    //חישוב שכר חודשי
+    private void showName(String fullName) {
+        binding.tvWelcomeTitle.setText("שלום, " + fullName);
+        StartupTrace.ready("name");
+    }
+
+    //שכר חודשי משוער - קריאה של מסמך אחד מספר השכר של החודש הנוכחי
     private void calculateMonthlySalary() {
         String uid = mAuth.getCurrentUser().getUid();
+        PayrollLedger ledger = ShiftWriter.getInstance().getLedger();
+        long now = System.currentTimeMillis();
 
-        // שליפת נתוני המשתמש לקבלת התעריף השעתי
-        db.collection("users").document(uid).get().addOnSuccessListener(userDoc -> {
-            if (!userDoc.exists()) return;
-
-            Double rate = userDoc.getDouble("hourlyRate");
-            if (rate == null) rate = 0.0;
-            final double hourlyRate = rate;
-
-            // הגדרת טווח הזמנים: מתחילת החודש ועד עכשיו (או סוף החודש)
-            Calendar startOfMonth = Calendar.getInstance();
-            startOfMonth.set(Calendar.DAY_OF_MONTH, 1);
-            startOfMonth.set(Calendar.HOUR_OF_DAY, 0);
-
-            // שאילתה למשמרות החודש
-            db.collection("shifts")
-                    .whereArrayContains("assignedUserIds", uid)
-                    .whereGreaterThanOrEqualTo("startTime", startOfMonth.getTimeInMillis())
-                    .get()
-                    .addOnSuccessListener(shiftsSnap -> {
-                        double totalHours = 0;
-                        for (DocumentSnapshot doc : shiftsSnap.getDocuments()) {
-                            Shift s = doc.toObject(Shift.class);
-                            if (s != null) {
-                                // חישוב משך המשמרת בשעות
-                                long duration = s.getEndTime() - s.getStartTime();
-                                totalHours += (double) duration / (1000 * 60 * 60);
-                            }
-                        }
-                        // עדכון התצוגה עם הסימן ש"ח
-                        binding.tvMonthlySalary.setText(String.format(Locale.getDefault(), "₪%.2f", totalHours * hourlyRate));
-                    });
+        // בפתיחה הקריאה כבר יצאה מ-StartupBootstrap
+        Task<DocumentSnapshot> ledgerDoc = StartupBootstrap.getInstance(this).takeDocument(StartupBootstrap.LEDGER, uid);
+        if (ledgerDoc == null) ledgerDoc = TracedFirestore.get("payroll.ledger", ledger.ledgerRef(uid, now));
+        ledgerDoc.addOnSuccessListener(doc -> {
+            if (PayrollLedger.isReconciled(doc)) {
+                showMonthlySalary(doc.getDouble(PayrollLedger.FIELD_AMOUNT));
+            } else {
+                // הספר עוד לא קיים לחודש הזה - חישוב ראשוני מהמשמרות ושמירה
+                reconcileMonthlySalary();
+            }
         });
     }
+
+    //חישוב מחדש של ספר השכר מהמשמרות עצמן (תיקון סטיות)
+    private void reconcileMonthlySalary() {
+        String uid = mAuth.getCurrentUser().getUid();
+        ShiftWriter.getInstance().getLedger().reconcile(uid, System.currentTimeMillis())
+                .addOnSuccessListener(ledger -> showMonthlySalary((Double) ledger.get(PayrollLedger.FIELD_AMOUNT)));
+    }
+
+    private void showMonthlySalary(double amount) {
+        // עדכון התצוגה עם הסימן ש"ח
+        binding.tvMonthlySalary.setText(String.format(Locale.getDefault(), "₪%.2f", amount));
+        StartupTrace.ready("salary");
+    }
 }
\ No newline at end of file
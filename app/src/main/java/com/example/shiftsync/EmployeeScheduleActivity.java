@@ -3,37 +3,52 @@ package com.example.shiftsync;
 import android.os.Bundle;
 import android.widget.Toast;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
+import com.example.shiftsync.data.CalendarRanges;
+import com.example.shiftsync.data.FirestoreStore;
+import com.example.shiftsync.data.ShiftConflicts;
+import com.example.shiftsync.data.ShiftRepository;
+import com.example.shiftsync.data.ShiftService;
+import com.example.shiftsync.data.ShiftWriter;
+import com.example.shiftsync.data.UserDirectory;
 import com.example.shiftsync.databinding.ActivityEmployeeScheduleBinding;
 import com.example.shiftsync.models.Shift;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FieldValue;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.List;
 import java.util.Locale;
 
 //לוח משמרות עובד
 public class EmployeeScheduleActivity extends AppCompatActivity {
 
     private ActivityEmployeeScheduleBinding binding;
-    private FirebaseFirestore db;
     private FirebaseAuth mAuth;
 
     // שימוש באדפטר הייעודי לעובד
     private EmployeeShiftsAdapter adapter;
 
-    private List<Shift> shiftsList;
     private Calendar selectedDate;
     private String currentUserId;
     private String currentUserName = "Employee"; // שם ברירת מחדל עד לטעינה
 
+    // מאגר המשמרות המשותף (מאזין אחד לכל חודש במקום מאזין לכל יום)
+    private ShiftRepository shiftRepository;
+
+    // רענון הרשימה רק כששינוי מהשרת נוגע ליום המוצג
+    private final ShiftRepository.OnShiftsChangedListener shiftsListener = changes -> {
+        long selectedDay = CalendarRanges.dayKey(selectedDate.getTimeInMillis());
+        for (ShiftRepository.ShiftChange change : changes) {
+            if (change.touchesDay(selectedDay)) {
+                showShiftsForSelectedDate();
+                return;
+            }
+        }
+    };
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -41,15 +56,14 @@ public class EmployeeScheduleActivity extends AppCompatActivity {
         setContentView(binding.getRoot());
 
         // אתחול פיירבייס
-        db = FirebaseFirestore.getInstance();
         mAuth = FirebaseAuth.getInstance();
+        shiftRepository = ShiftRepository.getInstance();
 
         // בדיקה למניעת קריסה אם אין משתמש מחובר
         if (mAuth.getCurrentUser() != null) {
             currentUserId = mAuth.getCurrentUser().getUid();
         }
 
-        shiftsList = new ArrayList<>();
         selectedDate = Calendar.getInstance();
 
         // טעינת שם העובד מבסיס הנתונים
@@ -61,21 +75,31 @@ public class EmployeeScheduleActivity extends AppCompatActivity {
         // הגדרת לוח השנה
         setupCalendar();
 
-        // טעינה ראשונית של משמרות להיום
-        loadShiftsForDate(selectedDate);
-
         // כפתור חזרה
         binding.btnBack.setOnClickListener(v -> finish());
     }
 
-    //טעינת משתמש נוכחי
+    //הרשמה למאגר המשמרות וטעינת היום הנבחר
+    @Override
+    protected void onStart() {
+        super.onStart();
+        shiftRepository.addListener(shiftsListener);
+        loadShiftsForDate(selectedDate);
+    }
+
+    //הפסקת ההאזנה כשהמסך מוסתר
+    @Override
+    protected void onStop() {
+        super.onStop();
+        shiftRepository.removeListener(shiftsListener);
+    }
+
+    //טעינת שם המשתמש הנוכחי (מהתקציר במדריך המשתמשים, לא מהמסמך המלא)
     private void loadUserName() {
         if (currentUserId == null) return;
 
-        db.collection("users").document(currentUserId).get().addOnSuccessListener(doc -> {
-            if (doc.exists() && doc.getString("fullName") != null) {
-                currentUserName = doc.getString("fullName");
-            }
+        UserDirectory.getInstance().getName(currentUserId).addOnSuccessListener(name -> {
+            if (name != null) currentUserName = name;
         });
     }
 
@@ -84,7 +108,7 @@ public class EmployeeScheduleActivity extends AppCompatActivity {
         binding.rvShifts.setLayoutManager(new LinearLayoutManager(this));
 
         // יצירת האדפטר עם הממשק לטיפול בלחיצות
-        adapter = new EmployeeShiftsAdapter(shiftsList, currentUserId, new EmployeeShiftsAdapter.OnShiftActionListener() {
+        adapter = new EmployeeShiftsAdapter(currentUserId, new EmployeeShiftsAdapter.OnShiftActionListener() {
             @Override
             public void onSignUp(Shift shift) {
                 // הרשמה למשמרת
@@ -111,63 +135,77 @@ public class EmployeeScheduleActivity extends AppCompatActivity {
         });
     }
 
-    //טעינת משמרות לפי תאריך
+    //טעינת משמרות לפי תאריך (מהזיכרון של המאגר, מאזין לשרת נפתח רק פעם אחת לכל חודש)
     private void loadShiftsForDate(Calendar date) {
-        // חישוב תחילת היום (00:00) וסוף היום (23:59)
-        Calendar startOfDay = (Calendar) date.clone();
-        startOfDay.set(Calendar.HOUR_OF_DAY, 0); startOfDay.set(Calendar.MINUTE, 0); startOfDay.set(Calendar.SECOND, 0); startOfDay.set(Calendar.MILLISECOND, 0);
-
-        Calendar endOfDay = (Calendar) date.clone();
-        endOfDay.set(Calendar.HOUR_OF_DAY, 23); endOfDay.set(Calendar.MINUTE, 59); endOfDay.set(Calendar.SECOND, 59);
-
         // עדכון כותרת הטקסט במסך
         SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
         binding.tvDateTitle.setText("משמרות לתאריך: " + sdf.format(date.getTime()));
 
-        // יבוא משמרות בטווח המבוקש מהפיירבייס
-        db.collection("shifts")
-                .whereGreaterThanOrEqualTo("startTime", startOfDay.getTimeInMillis())
-                .whereLessThanOrEqualTo("startTime", endOfDay.getTimeInMillis())
-                .addSnapshotListener((value, error) -> {
-                    if (error != null) return;
-
-                    shiftsList.clear();
-                    if (value != null) {
-                        for (DocumentSnapshot doc : value.getDocuments()) {
-                            Shift shift = doc.toObject(Shift.class);
-                            if (shift != null) shiftsList.add(shift);
-                        }
-                    }
-                    // רענון התצוגה באדפטר
-                    adapter.notifyDataSetChanged();
-                });
+        shiftRepository.ensureMonthLoaded(date);
+        showShiftsForSelectedDate();
+    }
+
+    //הצגת המשמרות של היום הנבחר
+    private void showShiftsForSelectedDate() {
+        // רענון התצוגה באדפטר (רק משמרות שהשתנו מצויירות מחדש)
+        adapter.submitList(shiftRepository.getShiftsForDay(selectedDate));
     }
 
 
      //ביצוע הרשמה למשמרת (הוספה לרשימת הממתינים)
+     //קודם בודקים מול המשמרות שהעובד כבר משובץ/ממתין בהן: חפיפה חוסמת, מנוחה קצרה דורשת אישור
+     //משמרת בקצה החודש יכולה להתנגש במשמרת מחודש סמוך שלא טעון - אז בודקים גם מול השרת
 
     private void signUpForShift(Shift shift) {
-        db.collection("shifts").document(shift.getShiftId())
-                .update(
-                        "pendingUserIds", FieldValue.arrayUnion(currentUserId),
-                        "pendingUserNames", FieldValue.arrayUnion(currentUserName)
-                )
+        ShiftConflicts.Conflict conflict = ShiftConflicts.check(shiftRepository.getBookedIntervals(currentUserId),
+                shift.getStartTime(), shift.getEndTime(), shift.getShiftId());
+        if (conflict != null || shiftRepository.isRangeLoaded(
+                ShiftConflicts.contextStart(shift.getStartTime()), ShiftConflicts.contextEnd(shift.getEndTime()))) {
+            handleSignUpConflict(shift, conflict);
+            return;
+        }
+
+        ShiftService shifts = FirestoreStore.getInstance().getShiftService();
+        FirestoreStore.task(shifts.checkAssignment(currentUserId, shift.getShiftId(), shift.getStartTime(), shift.getEndTime()))
+                .addOnSuccessListener(serverConflict -> handleSignUpConflict(shift, serverConflict))
+                // אם הבדיקה עצמה נכשלה (למשל אין רשת) - לא חוסמים את ההרשמה
+                .addOnFailureListener(e -> sendSignUp(shift));
+    }
+
+    private void handleSignUpConflict(Shift shift, ShiftConflicts.Conflict conflict) {
+        if (conflict == null) {
+            sendSignUp(shift);
+        } else if (conflict.overlap) {
+            Toast.makeText(this, "המשמרת חופפת למשמרת אחרת שלך (" + formatShift(conflict.other) + ")", Toast.LENGTH_LONG).show();
+        } else {
+            new AlertDialog.Builder(this)
+                    .setTitle("מנוחה קצרה")
+                    .setMessage("יש לך משמרת קרובה (" + formatShift(conflict.other) + ") בלי מספיק מנוחה ביניהן. להירשם בכל זאת?")
+                    .setPositiveButton("כן", (d, w) -> sendSignUp(shift))
+                    .setNegativeButton("לא", null)
+                    .show();
+        }
+    }
+
+    private void sendSignUp(Shift shift) {
+        ShiftWriter.getInstance().requestSignUp(shift, currentUserId, currentUserName)
                 .addOnSuccessListener(aVoid -> Toast.makeText(this, "בקשה נשלחה למנהל", Toast.LENGTH_SHORT).show())
-                .addOnFailureListener(e -> Toast.makeText(this, "שגיאה בשליחת בקשה", Toast.LENGTH_SHORT).show());
+                .addOnFailureListener(e -> Toast.makeText(this, "שגיאה בשליחת בקשה: " + e.getMessage(), Toast.LENGTH_SHORT).show());
     }
 
 
      //ביטול הרשמה
 
     private void cancelSignUp(Shift shift) {
-        db.collection("shifts").document(shift.getShiftId())
-                .update(
-                        "pendingUserIds", FieldValue.arrayRemove(currentUserId),
-                        "pendingUserNames", FieldValue.arrayRemove(currentUserName),
-                        "assignedUserIds", FieldValue.arrayRemove(currentUserId),
-                        "assignedUserNames", FieldValue.arrayRemove(currentUserName)
-                )
+        ShiftWriter.getInstance().cancelSignUp(shift, currentUserId, currentUserName)
                 .addOnSuccessListener(aVoid -> Toast.makeText(this, "ההרשמה בוטלה", Toast.LENGTH_SHORT).show())
                 .addOnFailureListener(e -> Toast.makeText(this, "שגיאה בביטול", Toast.LENGTH_SHORT).show());
     }
-}
\ No newline at end of file
+
+    // תאריך ושעות של משמרת להודעות
+    private static String formatShift(Shift shift) {
+        SimpleDateFormat date = new SimpleDateFormat("dd/MM HH:mm", Locale.getDefault());
+        SimpleDateFormat time = new SimpleDateFormat("HH:mm", Locale.getDefault());
+        return date.format(shift.getStartTime()) + "-" + time.format(shift.getEndTime());
+    }
+}
@@ -16,13 +16,11 @@ import androidx.cardview.widget.CardView;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.shiftsync.models.Shift;
 import java.text.SimpleDateFormat;
-import java.util.List;
 import java.util.Locale;
 
 //אדפטר לרשימת משמרות בתצוגת עובד
-public class EmployeeShiftsAdapter extends RecyclerView.Adapter<EmployeeShiftsAdapter.ViewHolder> {
+public class EmployeeShiftsAdapter extends StableIdListAdapter<Shift, EmployeeShiftsAdapter.ViewHolder> {
 
-    private List<Shift> shiftsList;
     private String currentUserId;
     private OnShiftActionListener listener;
 
@@ -31,8 +29,8 @@ public class EmployeeShiftsAdapter extends RecyclerView.Adapter<EmployeeShiftsAd
         void onCancel(Shift shift);
     }
 
-    public EmployeeShiftsAdapter(List<Shift> shiftsList, String currentUserId, OnShiftActionListener listener) {
-        this.shiftsList = shiftsList;
+    public EmployeeShiftsAdapter(String currentUserId, OnShiftActionListener listener) {
+        super(ItemDiffs.SHIFTS);
         this.currentUserId = currentUserId;
         this.listener = listener;
     }
@@ -47,20 +45,20 @@ public class EmployeeShiftsAdapter extends RecyclerView.Adapter<EmployeeShiftsAd
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Shift shift = shiftsList.get(position);
+        Shift shift = getItem(position);
 
         //  הצגת זמני המשמרת
         SimpleDateFormat sdf = new SimpleDateFormat("HH:mm", Locale.getDefault());
         holder.tvTime.setText(sdf.format(shift.getStartTime()) + " - " + sdf.format(shift.getEndTime()));
 
         //  חישוב והצגת תפוסה
-        int currentRegistered = (shift.getAssignedUserIds() != null) ? shift.getAssignedUserIds().size() : 0;
+        int currentRegistered = shift.assignedCount();
         int maxRequired = shift.getRequiredWorkers();
         holder.tvStatus.setText("תפוסה: " + currentRegistered + "/" + maxRequired);
 
         //  בדיקת הסטטוס של המשתמש הנוכחי מול המשמרת
-        boolean amISignedUp = shift.getAssignedUserIds() != null && shift.getAssignedUserIds().contains(currentUserId);
-        boolean amIPending = shift.getPendingUserIds() != null && shift.getPendingUserIds().contains(currentUserId);
+        boolean amISignedUp = shift.isAssigned(currentUserId);
+        boolean amIPending = shift.isPending(currentUserId);
         boolean isFull = currentRegistered >= maxRequired;
 
         // --- ברירת מחדל: הסתרת כפתור היומן ---
@@ -127,11 +125,6 @@ public class EmployeeShiftsAdapter extends RecyclerView.Adapter<EmployeeShiftsAd
         }
     }
 
-    @Override
-    public int getItemCount() {
-        return shiftsList == null ? 0 : shiftsList.size();
-    }
-
     //viewholder
     public static class ViewHolder extends RecyclerView.ViewHolder {
         TextView tvTime, tvStatus;
@@ -7,34 +7,34 @@ import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
-import com.example.shiftsync.models.User;
+import com.example.shiftsync.models.UserSummary;
+import java.util.ArrayList;
 import java.util.List;
 
 //בדומה לרשימת ההודעות - אדפטר לרשימת העובדים לחיבור לתצוגה
-public class EmployeesAdapter extends RecyclerView.Adapter<EmployeesAdapter.ViewHolder> {
+public class EmployeesAdapter extends StableIdListAdapter<UserSummary, EmployeesAdapter.ViewHolder> {
 
 
     public interface OnEmployeeClickListener {
-        void onDeleteClick(User user); // לחיצה על פח אשפה
-        void onEditClick(User user);   // לחיצה על עיפרון (עריכת שכר)
+        void onDeleteClick(UserSummary user); // לחיצה על פח אשפה
+        void onEditClick(UserSummary user);   // לחיצה על עיפרון (עריכת שכר)
     }
 
-    // רשימת העובדים שמוצגת כרגע על המסך
-    private List<User> employees;
-
     // המאזין לאירועים
     private OnEmployeeClickListener listener;
 
+    // גודל תמונת הפרופיל בשורה (כמו ב-item_employee.xml)
+    private static final int PROFILE_SIZE_DP = 50;
+
     //בנאי
-    public EmployeesAdapter(List<User> employees, OnEmployeeClickListener listener) {
-        this.employees = employees;
+    public EmployeesAdapter(OnEmployeeClickListener listener) {
+        super(ItemDiffs.USERS);
         this.listener = listener;
     }
 
-    //עדכון הרשימה
-    public void updateList(List<User> newList) {
-        this.employees = newList;
-        notifyDataSetChanged(); // פקודה ל-RecyclerView לצייר מחדש את הכל
+    //עדכון הרשימה - רק שורות שהשתנו מצויירות מחדש (ההשוואה מתבצעת ברקע)
+    public void updateList(List<UserSummary> newList) {
+        submitList(new ArrayList<>(newList));
     }
 
     //אותן פונקציות בסיסיות של הrecyclerview
@@ -48,30 +48,27 @@ public class EmployeesAdapter extends RecyclerView.Adapter<EmployeesAdapter.View
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        User user = employees.get(position);
+        UserSummary user = getItem(position);
 
         //  הצגת טקסטים
         holder.tvName.setText(user.getFullName());
         holder.tvId.setText("ת.ז: " + user.getIdNumber());
         holder.tvRate.setText("שכר שעתי: " + user.getHourlyRate());
 
-        //  טיפול בתמונת פרופיל
-
-        if (user.getProfileImage() != null && !user.getProfileImage().isEmpty()) {
-            holder.ivProfile.setImageBitmap(ImageUtils.stringToBitmap(user.getProfileImage()));
-        } else {
-            holder.ivProfile.setImageResource(R.mipmap.ic_launcher_round);
-        }
+        //  טיפול בתמונת פרופיל - פענוח ברקע ובגודל השורה, עם מטמון
+        int sizePx = (int) (PROFILE_SIZE_DP * holder.itemView.getResources().getDisplayMetrics().density);
+        ProfileImageLoader.getInstance().load(holder.ivProfile, user, sizePx, R.mipmap.ic_launcher_round);
 
         //  הגדרת כפתורי הפעולה (עריכה ומחיקה)
         holder.btnDelete.setOnClickListener(v -> listener.onDeleteClick(user));
         holder.btnEdit.setOnClickListener(v -> listener.onEditClick(user));
     }
 
-
+    //שורה שיצאה מהמסך - ביטול טעינת התמונה שלה אם עוד לא הסתיימה
     @Override
-    public int getItemCount() {
-        return employees == null ? 0 : employees.size();
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        super.onViewRecycled(holder);
+        ProfileImageLoader.getInstance().cancel(holder.ivProfile);
     }
 
 
@@ -1,6 +1,7 @@
 package com.example.shiftsync;
 
 import android.os.Bundle;
+import android.util.Log;
 import android.widget.EditText;
 import android.widget.Toast;
 // שים לב: חשוב לייבא את ה-SearchView הנכון (של AndroidX) לתאימות
@@ -11,9 +12,12 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.example.shiftsync.models.User;
+import com.example.shiftsync.data.EmployeeSearchIndex;
+import com.example.shiftsync.data.ShiftWriter;
+import com.example.shiftsync.data.TracedFirestore;
+import com.example.shiftsync.data.UserDirectory;
+import com.example.shiftsync.models.UserSummary;
 import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -21,8 +25,8 @@ import java.util.List;
 //מסך ניהול העובדים (של המנהל)
 public class EmployeesListActivity extends AppCompatActivity {
 
-    // אובייקט לחיבור למסד הנתונים
-    private FirebaseFirestore db;
+    // מדריך המשתמשים (תקצירים קטנים במקום מסמכי המשתמש המלאים)
+    private UserDirectory directory;
 
     // רכיבי הממשק (UI)
     private RecyclerView rvEmployees;   // הרשימה הויזואלית
@@ -31,15 +35,18 @@ public class EmployeesListActivity extends AppCompatActivity {
 
     // רשימה שמחזיקה את  העובדים שנטענו מהשרת
     // אנחנו שומרים אותה בצד כדי שנוכל לסנן ממנה תוצאות בלי לבקש שוב מהשרת בכל אות שמקלידים
-    private List<User> fullList;
+    private List<UserSummary> fullList;
+
+    // אינדקס החיפוש על הרשימה המלאה (נבנה מחדש רק כשהרשימה משתנה, לא בכל הקשה)
+    private EmployeeSearchIndex searchIndex = new EmployeeSearchIndex(new ArrayList<>());
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_employees_list);
 
-        // אתחול פיירבייס
-        db = FirebaseFirestore.getInstance();
+        // אתחול מדריך המשתמשים
+        directory = UserDirectory.getInstance();
 
         // קישור לרכיבים בקובץ ה-XML
         rvEmployees = findViewById(R.id.rvEmployees);
@@ -55,14 +62,14 @@ public class EmployeesListActivity extends AppCompatActivity {
         rvEmployees.setLayoutManager(new LinearLayoutManager(this));
 
         // יצירת האדפטר והגדרת הפעולות ללחיצות על כפתורים בתוך כל שורה
-        adapter = new EmployeesAdapter(new ArrayList<>(), new EmployeesAdapter.OnEmployeeClickListener() {
+        adapter = new EmployeesAdapter(new EmployeesAdapter.OnEmployeeClickListener() {
             @Override
-            public void onDeleteClick(User user) {
+            public void onDeleteClick(UserSummary user) {
                 //  הפעלת פונקציית המחיקה
                 deleteEmployee(user);
             }
             @Override
-            public void onEditClick(User user) {
+            public void onEditClick(UserSummary user) {
                 //  הפעלת דיאלוג עריכת שכר
                 showEditRateDialog(user);
             }
@@ -78,23 +85,29 @@ public class EmployeesListActivity extends AppCompatActivity {
         setupSearch();
     }
 
-    //עכדון רשימת העובדים מהפיירבייס
+    //עכדון רשימת העובדים מהפיירבייס (מהתקצירים במדריך המשתמשים)
     private void loadEmployees() {
-        db.collection("users")
-                .whereEqualTo("role", User.ROLE_EMPLOYEE)
-                .addSnapshotListener((value, error) -> {
+        backfillDirectoryOnce();
+
+        TracedFirestore.listen("userSummaries.employees", directory.employees(),
+                (value, error) -> {
                     if (error != null) return; // במקרה של שגיאה, יוצאים
 
                     fullList.clear(); // מנקים את הרשימה הישנה
 
                     if (value != null) {
-                        // המרה של כל מסמך לאובייקט User והוספה לרשימה המלאה
+                        // המרה של כל מסמך לתקציר והוספה לרשימה המלאה (וגם למטמון של המדריך)
                         for (DocumentSnapshot doc : value.getDocuments()) {
-                            fullList.add(doc.toObject(User.class));
+                            UserSummary user = doc.toObject(UserSummary.class);
+                            if (user == null || user.getFullName() == null) continue;
+                            user.setUid(doc.getId());
+                            fullList.add(user);
+                            directory.remember(user);
                         }
                     }
-                    // טעינה ראשונית מציגה את כולם (ללא סינון)
-                    adapter.updateList(fullList);
+                    // בניית האינדקס מחדש והצגה לפי החיפוש הנוכחי (ריק = כולם)
+                    searchIndex = new EmployeeSearchIndex(fullList);
+                    filter(searchView.getQuery().toString());
                 });
     }
 
@@ -117,37 +130,39 @@ public class EmployeesListActivity extends AppCompatActivity {
         });
     }
 
-    //סינון הרשימה בהתאם לחיפוש
-    private void filter(String text) {
-        List<User> filteredList = new ArrayList<>();
-
-        for (User user : fullList) {
+    /**
+     * עובדים שנרשמו לפני שנוסף מדריך המשתמשים קיימים רק באוסף users.
+     * כותבים להם תקציר (ומעבירים תמונות ישנות למאגר התמונות) פעם אחת לכל המערכת -
+     * הסימון נשמר בשרת, כך שאחרי המילוי הראשון כל פתיחה של המסך עולה קריאה של מסמך אחד.
+     */
+    private void backfillDirectoryOnce() {
+        directory.backfill(this)
+                .addOnFailureListener(e -> Log.e("EmployeesList", "Directory backfill failed", e));
+    }
 
-            if (user.getFullName().toLowerCase().contains(text.toLowerCase()) ||
-                    user.getIdNumber().contains(text)) {
-                filteredList.add(user);
-            }
-        }
+    //סינון הרשימה בהתאם לחיפוש (באינדקס - כל מילה בחיפוש היא תחילית של מילה בשם או בת.ז)
+    private void filter(String text) {
+        List<UserSummary> filteredList = searchIndex.search(text);
 
-        // עדכון האדפטר עם הרשימה המסוננת בלבד
+        // עדכון האדפטר עם הרשימה המסוננת - רק שורות שנוספו/הוסרו משתנות על המסך
         adapter.updateList(filteredList);
     }
 
     //מחיקת עובד מהמערכת
-    private void deleteEmployee(User user) {
+    private void deleteEmployee(UserSummary user) {
         new AlertDialog.Builder(this)
                 .setTitle("מחיקת עובד")
                 .setMessage("למחוק את " + user.getFullName() + "?")
                 .setPositiveButton("כן", (d, w) -> {
-                    // ביצוע המחיקה ב-Firestore
-                    db.collection("users").document(user.getUid()).delete();
+                    // ביצוע המחיקה ב-Firestore (גם המסמך וגם התקציר)
+                    directory.deleteUser(user.getUid());
                 })
                 .setNegativeButton("לא", null)
                 .show();
     }
 
     //עריכת שכר שעתי של עובד
-    private void showEditRateDialog(User user) {
+    private void showEditRateDialog(UserSummary user) {
         // יצירת שדה הקלט
         EditText input = new EditText(this);
         input.setHint("שכר שעתי חדש");
@@ -162,7 +177,10 @@ public class EmployeesListActivity extends AppCompatActivity {
                     try {
                         // המרת הקלט למספר ועדכון בפיירבייס
                         double newRate = Double.parseDouble(input.getText().toString());
-                        db.collection("users").document(user.getUid()).update("hourlyRate", newRate);
+                        directory.updateUser(user.getUid(), "hourlyRate", newRate)
+                                // ספר השכר של החודש נשען על התעריף הישן - חישוב מחדש לפי התעריף החדש
+                                .addOnSuccessListener(aVoid -> ShiftWriter.getInstance().getLedger()
+                                        .reconcile(user.getUid(), System.currentTimeMillis()));
                     } catch (NumberFormatException e) {
                         Toast.makeText(this, "ערך לא תקין", Toast.LENGTH_SHORT).show();
                     }
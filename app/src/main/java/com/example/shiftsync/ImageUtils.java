@@ -24,6 +24,17 @@ public class ImageUtils {
         // בדיקת תקינות: אם אין תמונה, מחזירים null
         if (bitmap == null) return null;
 
+        // המרה למערך של בתים (byte array)
+        byte[] b = bitmapToJpeg(bitmap);
+
+        // המרה סופית למחרוזת Base64 (פורמט טקסטואלי שמייצג מידע בינארי)
+        return Base64.encodeToString(b, Base64.DEFAULT);
+    }
+
+    /**
+     * דחיסת תמונה ל-JPEG (מערך בתים), כפי שהיא נשמרת במאגר התמונות.
+     */
+    public static byte[] bitmapToJpeg(Bitmap bitmap) {
         // יצירת "זרם" (Stream) לכתיבת בתים בזיכרון
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
@@ -32,12 +43,7 @@ public class ImageUtils {
         // 2. איכות 70% (פשרה טובה בין איכות לגודל הקובץ).
         // התוצאה נכתבת לתוך ה-baos.
         bitmap.compress(Bitmap.CompressFormat.JPEG, 70, baos);
-
-        // המרה למערך של בתים (byte array)
-        byte[] b = baos.toByteArray();
-
-        // המרה סופית למחרוזת Base64 (פורמט טקסטואלי שמייצג מידע בינארי)
-        return Base64.encodeToString(b, Base64.DEFAULT);
+        return baos.toByteArray();
     }
 
     /**
@@ -61,6 +67,57 @@ public class ImageUtils {
         }
     }
 
+    /**
+     * המרת מחרוזת Base64 לתמונה מוקטנת לגודל התצוגה (Downsampling).
+     * במקום לפענח את התמונה המלאה ואז להקטין, קוראים קודם רק את המידות (inJustDecodeBounds)
+     * ומפענחים ישירות בגודל קטן יותר בעזרת inSampleSize - חוסך זמן וזיכרון.
+     * פעולה כבדה - יש לקרוא לה מחוץ ל-UI Thread.
+     *
+     * @param encodedString - המחרוזת המוצפנת שהגיעה מהמסד נתונים.
+     * @param reqWidth - הרוחב הרצוי בפיקסלים.
+     * @param reqHeight - הגובה הרצוי בפיקסלים.
+     * @return Bitmap - התמונה המוקטנת (או null אם הייתה שגיאה).
+     */
+    public static Bitmap decodeSampledBitmap(String encodedString, int reqWidth, int reqHeight) {
+        try {
+            return decodeSampledBitmap(Base64.decode(encodedString, Base64.DEFAULT), reqWidth, reqHeight);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * כמו הפונקציה הקודמת, אבל ישירות ממערך בתים (תמונה ממאגר התמונות / מהמטמון בדיסק).
+     */
+    public static Bitmap decodeSampledBitmap(byte[] bytes, int reqWidth, int reqHeight) {
+        try {
+            // שלב 1: קריאת המידות בלבד (בלי להקצות זיכרון לתמונה)
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+
+            // שלב 2: פענוח בפועל בגודל מוקטן
+            options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+            options.inJustDecodeBounds = false;
+            return BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * חישוב יחס ההקטנה (חזקה של 2) כך ששתי הצלעות עדיין לא יהיו קטנות מהגודל הרצוי.
+     */
+    public static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
+        int inSampleSize = 1;
+        if (reqWidth <= 0 || reqHeight <= 0) return inSampleSize;
+
+        while ((width / (inSampleSize * 2)) >= reqWidth && (height / (inSampleSize * 2)) >= reqHeight) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
     /**
      * פונקציה להקטנת תמונה (Resize) תוך שמירה על יחס רוחב/גובה (Aspect Ratio).
      * חובה להשתמש בה לפני השמירה!
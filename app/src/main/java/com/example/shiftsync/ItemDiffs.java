@@ -0,0 +1,81 @@
+package com.example.shiftsync;
+
+import com.example.shiftsync.models.Announcement;
+import com.example.shiftsync.models.Shift;
+import com.example.shiftsync.models.ShiftRequestItem;
+import com.example.shiftsync.models.UserSummary;
+
+import java.util.Objects;
+
+/**
+ * פונקציות ההשוואה (DiffUtil) של המודלים שמוצגים ברשימות.
+ * נמצאות במקום אחד כי אותו מודל (למשל Shift) מוצג בכמה אדפטרים.
+ */
+public final class ItemDiffs {
+
+    private ItemDiffs() { }
+
+    // משמרת: כל השדות משפיעים על התצוגה (שעות, תפוסה, סטטוס העובד, הערות)
+    public static final StableIdListAdapter.ItemDiff<Shift> SHIFTS = new StableIdListAdapter.ItemDiff<Shift>() {
+        @Override
+        public String idOf(Shift item) {
+            return item.getShiftId();
+        }
+
+        @Override
+        public boolean sameContents(Shift a, Shift b) {
+            return a.getStartTime() == b.getStartTime()
+                    && a.getEndTime() == b.getEndTime()
+                    && a.getRequiredWorkers() == b.getRequiredWorkers()
+                    && Objects.equals(a.getNotes(), b.getNotes())
+                    && Objects.equals(a.getAssignments(), b.getAssignments());
+        }
+    };
+
+    // עובד: השדות שמוצגים בשורה (שם, ת.ז, שכר ותמונה)
+    public static final StableIdListAdapter.ItemDiff<UserSummary> USERS = new StableIdListAdapter.ItemDiff<UserSummary>() {
+        @Override
+        public String idOf(UserSummary item) {
+            return item.getUid();
+        }
+
+        @Override
+        public boolean sameContents(UserSummary a, UserSummary b) {
+            return Objects.equals(a.getFullName(), b.getFullName())
+                    && Objects.equals(a.getIdNumber(), b.getIdNumber())
+                    && a.getHourlyRate() == b.getHourlyRate()
+                    && Objects.equals(a.getProfileImageHash(), b.getProfileImageHash());
+        }
+    };
+
+    // הודעה: כותרת, תוכן, זמן וכותב
+    public static final StableIdListAdapter.ItemDiff<Announcement> ANNOUNCEMENTS = new StableIdListAdapter.ItemDiff<Announcement>() {
+        @Override
+        public String idOf(Announcement item) {
+            return item.getId();
+        }
+
+        @Override
+        public boolean sameContents(Announcement a, Announcement b) {
+            return a.getTimestamp() == b.getTimestamp()
+                    && Objects.equals(a.getTitle(), b.getTitle())
+                    && Objects.equals(a.getContent(), b.getContent())
+                    && Objects.equals(a.getAuthorName(), b.getAuthorName());
+        }
+    };
+
+    // בקשת שיבוץ: המזהה הוא מזהה מסמך הבקשה (משמרת + עובד)
+    public static final StableIdListAdapter.ItemDiff<ShiftRequestItem> REQUESTS = new StableIdListAdapter.ItemDiff<ShiftRequestItem>() {
+        @Override
+        public String idOf(ShiftRequestItem item) {
+            return item.getRequestId();
+        }
+
+        @Override
+        public boolean sameContents(ShiftRequestItem a, ShiftRequestItem b) {
+            return a.getShift().getStartTime() == b.getShift().getStartTime()
+                    && a.getShift().getEndTime() == b.getShift().getEndTime()
+                    && Objects.equals(a.getUserName(), b.getUserName());
+        }
+    };
+}
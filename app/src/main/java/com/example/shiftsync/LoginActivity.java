@@ -6,10 +6,12 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.shiftsync.data.SessionCache;
+import com.example.shiftsync.data.StartupBootstrap;
+import com.example.shiftsync.data.UserMapper;
 import com.example.shiftsync.databinding.ActivityLoginBinding;
 import com.example.shiftsync.models.User;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 //מסך ההתחברות
 public class LoginActivity extends AppCompatActivity {
@@ -20,9 +22,6 @@ public class LoginActivity extends AppCompatActivity {
     // רכיב האימות של פיירבייס אחראי על בדיקת אימייל וסיסמה
     private FirebaseAuth mAuth;
 
-    // רכיב מסד הנתונים של פיירבייס אחראי על שליפת נתוני המשתמש
-    private FirebaseFirestore db;
-
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -34,7 +33,6 @@ public class LoginActivity extends AppCompatActivity {
         //  אתחול המופעים של פיירבייס
         // מקבלים את המופע הקיים של האפליקציה כדי שנוכל להשתמש בו
         mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
 
         //  הגדרת מאזין לכפתור ההתחברות
         // ברגע שהמשתמש לוחץ על התחבר הפונקציה loginUser תופעל
@@ -61,6 +59,9 @@ public class LoginActivity extends AppCompatActivity {
         //  ביצוע ההתחברות מול פיירבייס
         mAuth.signInWithEmailAndPassword(email, password)
                 .addOnSuccessListener(authResult -> {
+                    // שאילתות המסך הראשי יוצאות כבר עכשיו, במקביל לבדיקת התפקיד
+                    StartupBootstrap.getInstance(this).start();
+
                     // שליחת מזהה משתמש לבדיקת תפקיד
                     checkUserRole(authResult.getUser().getUid());
                 })
@@ -72,16 +73,19 @@ public class LoginActivity extends AppCompatActivity {
 
     //בדיקת תפקיד המשתמש
     private void checkUserRole(String uid) {
-        // פנייה לאוסף "users" ושליפת המסמך שמזהה שלו הוא ה-UID.
-        db.collection("users").document(uid).get()
+        // פנייה לאוסף "users" ושליפת המסמך שמזהה שלו הוא ה-UID (הקריאה שכבר יצאה ב-StartupBootstrap).
+        StartupBootstrap.getInstance(this).getUser(uid)
                 .addOnSuccessListener(documentSnapshot -> {
                     // בדיקה האם המסמך באמת קיים
                     if (documentSnapshot.exists()) {
 
                         // המרת המסמך (JSON) לאובייקט Java מסוג User
-                        User user = documentSnapshot.toObject(User.class);
+                        User user = UserMapper.fromSnapshot(documentSnapshot);
 
                         if (user != null) {
+                            // שמירת התפקיד, כדי שבפתיחה הבאה הניווט יהיה מיידי
+                            SessionCache.getInstance(this).save(uid, user);
+
                             // אם ההמרה הצליחה, אנו בודקים את התפקיד ומנווטים בהתאם
                             navigateBasedOnRole(user.getRole());
                         }
@@ -2,27 +2,22 @@ package com.example.shiftsync;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.os.Handler; // משמש להרצת קוד עם השהייה
-import android.os.Looper;  // משמש לגישה ל-Thread הראשי (UI Thread)
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.shiftsync.data.SessionCache;
+import com.example.shiftsync.data.StartupBootstrap;
+import com.example.shiftsync.data.UserMapper;
 import com.example.shiftsync.models.User;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.FirebaseFirestore;
 
-//מסך הפתיחה - טעינה של 3 שניות, בדיקת האם משתמש מחובר ומעבר למסך המתאים
+//מסך הפתיחה - בדיקת האם משתמש מחובר ומעבר מיידי למסך המתאים
 public class MainActivity extends AppCompatActivity {
 
-    // קבוע המגדיר את זמן ההשהייה
-    // בזמן הזה המשתמש יראה את הלוגו
-    private static final int SPLASH_DELAY = 3000;
-
-    // אובייקטים לחיבור לפיירבייס
-    private FirebaseAuth mAuth; // לבדיקת המשתמש המחובר
-    private FirebaseFirestore db; // לבדיקת התפקיד
+    // אובייקט לבדיקת המשתמש המחובר
+    private FirebaseAuth mAuth;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -31,12 +26,14 @@ public class MainActivity extends AppCompatActivity {
         setContentView(R.layout.activity_main);
 
         mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
 
-        new Handler(Looper.getMainLooper()).postDelayed(() -> {
-            checkUserStatus();
+        // הפעלת מדידת Firestore מבחוץ (adb), גם בגרסת Production
+        if (getIntent().hasExtra(MetricsOverlay.EXTRA_METRICS)) {
+            MetricsOverlay.setEnabled(this, getIntent().getBooleanExtra(MetricsOverlay.EXTRA_METRICS, false));
+        }
 
-        }, SPLASH_DELAY);
+        // בלי השהייה: שאילתות המסך הראשי כבר רצות מעליית התהליך (StartupBootstrap)
+        checkUserStatus();
     }
 
 
@@ -45,6 +42,12 @@ public class MainActivity extends AppCompatActivity {
         FirebaseUser currentUser = mAuth.getCurrentUser();
 
         if (currentUser != null) {
+            // תפקיד שמור מהפעם הקודמת -> ניווט מיד (מסמך המשתמש נבדק ברקע ומעדכן את השמור)
+            String cachedRole = SessionCache.getInstance(this).getRole(currentUser.getUid());
+            if (cachedRole != null) {
+                navigateByRole(cachedRole, StartupTrace.ROUTE_CACHED);
+                return;
+            }
 
             // בדיקת תפקיד המשתמש המחובר
             checkRoleAndNavigate(currentUser.getUid());
@@ -56,24 +59,18 @@ public class MainActivity extends AppCompatActivity {
 
     //בדיקת תפקיד וניווט
     private void checkRoleAndNavigate(String uid) {
-        // שליפת המסמך של המשתמש מאוסף המשתמשים
-        db.collection("users").document(uid).get()
+        // שליפת המסמך של המשתמש מאוסף המשתמשים (הקריאה שכבר יצאה בעליית התהליך, אם יש)
+        StartupBootstrap.getInstance(this).getUser(uid)
                 .addOnSuccessListener(documentSnapshot -> {
                     // בדיקה האם המסמך קיים
                     if (documentSnapshot.exists()) {
 
                         // המרה לאובייקט User
-                        User user = documentSnapshot.toObject(User.class);
+                        User user = UserMapper.fromSnapshot(documentSnapshot);
 
                         if (user != null) {
-                            // בדיקת התפקיד
-                            if (User.ROLE_MANAGER.equals(user.getRole())) {
-                                // אם מנהל -> לך למסך מנהל
-                                navigateToActivity(ManagerActivity.class);
-                            } else {
-                                // אחרת (עובד) -> לך למסך עובד
-                                navigateToActivity(EmployeeActivity.class);
-                            }
+                            SessionCache.getInstance(this).save(uid, user);
+                            navigateByRole(user.getRole(), StartupTrace.ROUTE_NETWORK);
                         } else {
                             // אם היתה בעיה בהמרה, חזור להתחברות
                             navigateToLogin();
@@ -103,9 +100,12 @@ public class MainActivity extends AppCompatActivity {
         finish(); // סגירת ה-Splash Screen
     }
 
-    //מעבר למסך עובד/מנהל
-    private void navigateToActivity(Class<?> targetActivity) {
+    //מעבר למסך עובד/מנהל לפי התפקיד
+    private void navigateByRole(String role, String route) {
+        // אם מנהל -> מסך מנהל, אחרת (עובד) -> מסך עובד
+        Class<?> targetActivity = User.ROLE_MANAGER.equals(role) ? ManagerActivity.class : EmployeeActivity.class;
         Intent intent = new Intent(MainActivity.this, targetActivity);
+        intent.putExtra(StartupTrace.EXTRA_ROUTE, route);
         // ניקוי ההיסטוריה: מונע חזרה למסך הפתיחה בלחיצה על Back
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
         startActivity(intent);
@@ -6,19 +6,21 @@ import android.view.View;
 import android.widget.EditText;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.shiftsync.data.AnnouncementFeed;
+import com.example.shiftsync.data.SyncEngine;
+import com.example.shiftsync.data.UserDirectory;
 import com.example.shiftsync.models.Announcement;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.WriteBatch;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -34,7 +36,10 @@ public class ManageAnnouncementsActivity extends AppCompatActivity {
 
     // ניהול הנתונים והתצוגה
     private AnnouncementsAdapter adapter;
-    private List<Announcement> list;
+    private AnnouncementFeed feed;
+
+    // כמה שורות לפני הקצה מתחילים לטעון את הדף הבא
+    private static final int PREFETCH_DISTANCE = 5;
 
     // משתנה לשמירת שם המנהל שמפרסם את ההודעה (ברירת מחדל "Manager" עד שייטען השם האמיתי)
     private String currentManagerName = "Manager";
@@ -57,14 +62,13 @@ public class ManageAnnouncementsActivity extends AppCompatActivity {
         // הגדרת כפתור חזרה למסך הקודם
         findViewById(R.id.btnBack).setOnClickListener(v -> finish());
 
-        // אתחול הרשימה והגדרת ה-RecyclerView
-        list = new ArrayList<>();
+        // הגדרת ה-RecyclerView
         rvAnnouncements.setLayoutManager(new LinearLayoutManager(this));
 
         // יצירת האדפטר.
         // הפרמטר השני הוא "Lambda Expression" שמגדיר מה קורה כשלוחצים על כפתור המחיקה בשורה.
         // אנחנו מעבירים פונקציה שתקרא ל-deleteAnnouncement עם הפריט שנבחר.
-        adapter = new AnnouncementsAdapter(list, item -> deleteAnnouncement(item));
+        adapter = new AnnouncementsAdapter(item -> deleteAnnouncement(item));
         rvAnnouncements.setAdapter(adapter);
 
         // הגדרת לחיצה על כפתור הפלוס (+) -> פתיחת דיאלוג הוספה
@@ -81,36 +85,44 @@ public class ManageAnnouncementsActivity extends AppCompatActivity {
 
         String uid = FirebaseAuth.getInstance().getCurrentUser().getUid();
 
-        // שליפת פרטי המשתמש מאוסף "users"
-        db.collection("users").document(uid).get().addOnSuccessListener(d -> {
-            if (d.exists() && d.getString("fullName") != null) {
-                currentManagerName = d.getString("fullName");
-            }
+        // שליפת השם מהתקציר במדריך המשתמשים
+        UserDirectory.getInstance().getName(uid).addOnSuccessListener(name -> {
+            if (name != null) currentManagerName = name;
         });
     }
 
-    //טעינת רשימת ההודעות מהפיירבייס
+    /**
+     * טעינת ההודעות בדפים (AnnouncementFeed): רק הדף החדש ביותר חי,
+     * ודפים ישנים נטענים כשמתקרבים לסוף הרשימה (או שוב, כשחוזרים למעלה אחרי שנזרקו מהזיכרון).
+     */
     private void loadAnnouncements() {
-        db.collection("announcements")
-                .orderBy("timestamp", Query.Direction.DESCENDING) // מיון: מהחדש לישן
-                .addSnapshotListener((value, error) -> {
-                    if (error != null) {
-                        Toast.makeText(this, "שגיאה בטעינת הודעות", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
-
-                    list.clear(); // ניקוי הרשימה הישנה למניעת כפילויות
-
-                    if (value != null) {
-                        // המרת כל מסמך לאובייקט Announcement והוספה לרשימה
-                        for (DocumentSnapshot doc : value.getDocuments()) {
-                            Announcement announcement = doc.toObject(Announcement.class);
-                            if (announcement != null) list.add(announcement);
-                        }
-                    }
-                    // עדכון התצוגה
-                    adapter.notifyDataSetChanged();
-                });
+        feed = new AnnouncementFeed(db, new AnnouncementFeed.Listener() {
+            @Override
+            public void onChanged(List<Announcement> items) {
+                // עדכון התצוגה (רק הודעות שנוספו/השתנו מצויירות מחדש)
+                adapter.submitList(items);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Toast.makeText(ManageAnnouncementsActivity.this, "שגיאה בטעינת הודעות", Toast.LENGTH_SHORT).show();
+            }
+        });
+        feed.start();
+
+        // טעינה מוקדמת (Prefetch) כשנשארו מעט שורות עד הקצה
+        LinearLayoutManager layoutManager = (LinearLayoutManager) rvAnnouncements.getLayoutManager();
+        rvAnnouncements.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                int count = adapter.getItemCount();
+                if (dy > 0 && layoutManager.findLastVisibleItemPosition() >= count - PREFETCH_DISTANCE) {
+                    feed.loadOlder();
+                } else if (dy < 0 && layoutManager.findFirstVisibleItemPosition() <= PREFETCH_DISTANCE) {
+                    feed.loadNewer();
+                }
+            }
+        });
     }
 
     //חלון הוספת הודעה חדשה
@@ -160,11 +172,24 @@ public class ManageAnnouncementsActivity extends AppCompatActivity {
                 .setTitle("מחיקת הודעה")
                 .setMessage("האם למחוק את ההודעה: " + item.getTitle() + "?")
                 .setPositiveButton("כן", (d, w) -> {
-                    // ביצוע המחיקה ב-Firestore לפי ה-ID של ההודעה
-                    db.collection("announcements").document(item.getId()).delete()
-                            .addOnSuccessListener(aVoid -> Toast.makeText(this, "נמחק", Toast.LENGTH_SHORT).show());
+                    // ביצוע המחיקה ב-Firestore לפי ה-ID של ההודעה, יחד עם רישום המחיקה לסנכרון
+                    WriteBatch batch = db.batch();
+                    batch.delete(db.collection("announcements").document(item.getId()));
+                    SyncEngine.recordDeletion(batch, db, SyncEngine.ANNOUNCEMENTS, item.getId());
+                    batch.commit()
+                            .addOnSuccessListener(aVoid -> {
+                                // הודעה מדף ישן לא מתעדכנת מהמאזין החי
+                                feed.remove(item.getId());
+                                Toast.makeText(this, "נמחק", Toast.LENGTH_SHORT).show();
+                            });
                 })
                 .setNegativeButton("לא", null)
                 .show();
     }
-}
\ No newline at end of file
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        feed.stop();
+    }
+}
@@ -5,33 +5,51 @@ import android.graphics.Bitmap;
 import android.graphics.Color;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.provider.MediaStore;
+import android.util.Log;
 import android.widget.Toast;
 
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.shiftsync.data.CompanyPayroll;
+import com.example.shiftsync.data.LocalStore;
+import com.example.shiftsync.data.ProfileImageStore;
+import com.example.shiftsync.data.SessionCache;
+import com.example.shiftsync.data.ShiftWriter;
+import com.example.shiftsync.data.StaffingStats;
+import com.example.shiftsync.data.StartupBootstrap;
+import com.example.shiftsync.data.SyncEngine;
+import com.example.shiftsync.data.TracedFirestore;
+import com.example.shiftsync.data.UserDirectory;
 import com.example.shiftsync.databinding.ActivityManagerBinding;
-import com.example.shiftsync.models.Shift;
 import com.github.mikephil.charting.components.Legend;
 import com.github.mikephil.charting.data.PieData;
 import com.github.mikephil.charting.data.PieDataSet;
 import com.github.mikephil.charting.data.PieEntry;
 import com.github.mikephil.charting.formatter.ValueFormatter;
+import com.google.android.gms.tasks.CancellationTokenSource;
+import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.io.IOException;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
+import java.util.Locale;
 
 //מסך מנהל
 public class ManagerActivity extends AppCompatActivity {
 
+    private static final String TAG = "ManagerActivity";
+
     // גישה לרכיבי ה-XML באמצעות ViewBinding
     private ActivityManagerBinding binding;
 
@@ -42,6 +60,14 @@ public class ManagerActivity extends AppCompatActivity {
     // משתנה לטיפול בתוצאה של בחירת תמונה מהגלריה
     private ActivityResultLauncher<Intent> imagePickerLauncher;
 
+    // השם כבר הגיע מהשרת (ואז לא דורסים אותו בעותק המקומי)
+    private boolean nameFromServer;
+
+    // דוח השכר של כל העובדים שרץ כרגע (קריאת המשמרות, שני הקבצים והדיאלוג) - מבוטל ב-onDestroy
+    private CancellationTokenSource payrollCancellation;
+    private final ReportExporter.Progress[] payrollExports = new ReportExporter.Progress[2];
+    private AlertDialog payrollDialog;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -50,10 +76,16 @@ public class ManagerActivity extends AppCompatActivity {
         binding = ActivityManagerBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
+        // מדידת זמן הפתיחה: עד הפריים הראשון ועד שהשם והסטטיסטיקה מולאו
+        StartupTrace.begin(this, getIntent().getStringExtra(StartupTrace.EXTRA_ROUTE), "name", "stats");
+
         // אתחול Firebase
         mAuth = FirebaseAuth.getInstance();
         db = FirebaseFirestore.getInstance();
 
+        // עדכון המאגר המקומי ברקע (רק מה שהשתנה מאז הסנכרון הקודם)
+        SyncEngine.getInstance(this).sync();
+
         //  אתחול מנגנון בחירת התמונה (חייב להתבצע לפני השימוש)
         setupImagePicker();
 
@@ -86,11 +118,12 @@ public class ManagerActivity extends AppCompatActivity {
                             Bitmap resized = ImageUtils.resizeBitmap(bitmap, 500);
 
                             // עדכון מיידי במסך (כדי שהמשתמש יראה שהצליח)
+                            // (ביטול טעינה ישנה שעוד רצה ברקע, כדי שלא תדרוס את התמונה החדשה)
+                            ProfileImageLoader.getInstance().cancel(binding.ivProfileImage);
                             binding.ivProfileImage.setImageBitmap(resized);
 
-                            // המרה ל-Base64 ושמירה בשרת ברקע
-                            String base64 = ImageUtils.bitmapToString(resized);
-                            saveImageToFirebase(base64);
+                            // שמירה במאגר התמונות ברקע
+                            saveImageToFirebase(resized);
 
                         } catch (IOException e) {
                             Toast.makeText(this, "שגיאה בטעינת תמונה", Toast.LENGTH_SHORT).show();
@@ -109,13 +142,12 @@ public class ManagerActivity extends AppCompatActivity {
     }
 
     /**
-     * עדכון שדה 'profileImage' במסמך המשתמש ב-Firestore.
+     * שמירת התמונה במאגר התמונות ועדכון ה-hash שלה במסמך המשתמש ב-Firestore.
      */
-    private void saveImageToFirebase(String base64Image) {
+    private void saveImageToFirebase(Bitmap image) {
         FirebaseUser user = mAuth.getCurrentUser();
         if (user != null) {
-            db.collection("users").document(user.getUid())
-                    .update("profileImage", base64Image)
+            ProfileImageStore.getInstance(this).saveProfileImage(user.getUid(), image)
                     .addOnSuccessListener(aVoid -> Toast.makeText(this, "התמונה נשמרה בהצלחה", Toast.LENGTH_SHORT).show())
                     .addOnFailureListener(e -> Toast.makeText(this, "שגיאה בשמירה בשרת", Toast.LENGTH_SHORT).show());
         }
@@ -126,22 +158,48 @@ public class ManagerActivity extends AppCompatActivity {
      */
     private void loadManagerDetails() {
         if(mAuth.getCurrentUser() == null) return;
+        String uid = mAuth.getCurrentUser().getUid();
+
+        // השם השמור מוצג מיד (ואם אין - מהמאגר המקומי), עד שמגיע המסמך מהשרת
+        String cachedName = SessionCache.getInstance(this).getFullName(uid);
+        if (cachedName != null) {
+            showName(cachedName);
+        } else {
+            LocalStore.getInstance(this).getUser(uid).addOnSuccessListener(this, summary -> {
+                if (summary != null && !nameFromServer) showName(summary.getFullName());
+            });
+        }
 
-        db.collection("users").document(mAuth.getCurrentUser().getUid()).get()
+        // בפתיחה הקריאה כבר יצאה מ-StartupBootstrap
+        Task<DocumentSnapshot> userDoc = StartupBootstrap.getInstance(this).takeDocument(StartupBootstrap.USER, uid);
+        if (userDoc == null) userDoc = TracedFirestore.get("users.doc", db.collection("users").document(uid));
+        userDoc
                 .addOnSuccessListener(doc -> {
                     if(doc.exists()) {
+                        nameFromServer = true;
                         // עדכון כותרת "שלום, [שם]"
-                        binding.tvWelcomeTitle.setText("שלום, " + doc.getString("fullName"));
-
-                        // טעינת תמונה אם קיימת
-                        String img = doc.getString("profileImage");
-                        if(img != null && !img.isEmpty()) {
-                            binding.ivProfileImage.setImageBitmap(ImageUtils.stringToBitmap(img));
+                        showName(doc.getString("fullName"));
+
+                        // טעינת תמונה אם קיימת (מהמאגר לפי ה-hash, או מהשדה הישן)
+                        String hash = doc.getString(ProfileImageStore.FIELD_PROFILE_IMAGE_HASH);
+                        String img = doc.getString(ProfileImageStore.FIELD_PROFILE_IMAGE);
+                        int sizePx = (int) (60 * getResources().getDisplayMetrics().density);
+                        ProfileImageLoader.getInstance().load(binding.ivProfileImage, doc.getId(), hash, img,
+                                sizePx, R.mipmap.ic_launcher_round);
+
+                        // תמונה ישנה בתוך מסמך המשתמש - מעבירים אותה למאגר
+                        if (hash == null && img != null && !img.isEmpty()) {
+                            ProfileImageStore.getInstance(this).migrateInlineImage(doc.getId(), img);
                         }
                     }
                 });
     }
 
+    private void showName(String fullName) {
+        binding.tvWelcomeTitle.setText("שלום, " + fullName);
+        StartupTrace.ready("name");
+    }
+
     /**
      * הגדרות עיצוב ראשוניות לגרף העוגה (PieChart).
      * מסיר תוויות מיותרות ומגדיר את המקרא (Legend).
@@ -159,55 +217,74 @@ public class ManagerActivity extends AppCompatActivity {
     }
 
     /**
-     * חישוב סטטיסטיקה חודשית:
-     * 1. מגדיר טווח זמנים לחודש הנוכחי.
-     * 2. שולף את כל המשמרות בטווח הזה.
-     * 3. מחשב כמה משמרות מלאות וכמה עובדים חסרים.
+     * טעינת סטטיסטיקה חודשית:
+     * 1. קריאה של מסמך המונים stats/{yyyy-MM} שמתעדכן בכל שיבוץ (מסמך אחד).
+     * 2. רק אם המסמך עוד לא קיים - חישוב ידני מכל משמרות החודש ושמירת התוצאה כמסמך מונים.
+     * זמן כל מסלול נרשם ללוג כדי שנוכל להשוות ביניהם.
      */
     private void calculateMonthlyStats() {
-        // חישוב תחילת החודש וסוף החודש הנוכחי
-        Calendar start = Calendar.getInstance();
-        start.set(Calendar.DAY_OF_MONTH, 1);
-        start.set(Calendar.HOUR_OF_DAY, 0);
-
-        Calendar end = (Calendar) start.clone();
-        end.add(Calendar.MONTH, 1);
-
-        // שליפת המשמרות
-        db.collection("shifts")
-                .whereGreaterThanOrEqualTo("startTime", start.getTimeInMillis())
-                .whereLessThan("startTime", end.getTimeInMillis())
-                .get()
-                .addOnSuccessListener(snap -> {
-                    int total = 0;   // סה"כ משמרות
-                    int full = 0;    // כמה מהן מאוישות מלא
-                    int missing = 0; // סה"כ עובדים שחסרים בכל המשמרות יחד
-
-                    for(DocumentSnapshot d : snap.getDocuments()){
-                        Shift s = d.toObject(Shift.class);
-                        if(s != null){
-                            total++;
-                            // בדיקה כמה רשומים בפועל
-                            int curr = (s.getAssignedUserIds() != null) ? s.getAssignedUserIds().size() : 0;
-
-                            if(curr >= s.getRequiredWorkers()) {
-                                full++; // המשמרת מלאה
-                            } else {
-                                missing += (s.getRequiredWorkers() - curr); // מוסיפים את ההפרש למונה החוסרים
-                            }
-                        }
+        long queryStart = SystemClock.elapsedRealtime();
+        StaffingStats stats = ShiftWriter.getInstance().getStats();
+
+        // בפתיחה הקריאה כבר יצאה מ-StartupBootstrap
+        Task<DocumentSnapshot> statsDoc = mAuth.getCurrentUser() == null ? null
+                : StartupBootstrap.getInstance(this).takeDocument(StartupBootstrap.STATS, mAuth.getCurrentUser().getUid());
+        if (statsDoc == null) statsDoc = TracedFirestore.get("stats.month", stats.statsRef(System.currentTimeMillis()));
+        statsDoc
+                .addOnSuccessListener(doc -> {
+                    Long total = doc.getLong(StaffingStats.FIELD_TOTAL_SHIFTS);
+                    Long full = doc.getLong(StaffingStats.FIELD_FULL_SHIFTS);
+                    Long missing = doc.getLong(StaffingStats.FIELD_MISSING_WORKERS);
+
+                    // מסמך שלא עבר ספירה מלאה מכיל רק הפרשים - במקרה כזה סופרים מחדש
+                    if (total != null && full != null && missing != null && doc.getLong(StaffingStats.FIELD_RECOUNTED_AT) != null) {
+                        Log.d(TAG, "monthly stats from counters: " + (SystemClock.elapsedRealtime() - queryStart) + "ms");
+                        showMonthlyStats(total.intValue(), full.intValue(), missing.intValue());
+                    } else {
+                        calculateMonthlyStatsFromShifts();
                     }
+                })
+                .addOnFailureListener(e -> calculateMonthlyStatsFromShifts());
+    }
 
-                    // עדכון הטקסטים במסך
-                    binding.tvStatTotalShifts.setText(String.valueOf(total));
-                    binding.tvStatFullShifts.setText(String.valueOf(full));
-                    binding.tvStatMissingWorkers.setText(String.valueOf(missing));
-
-                    // עדכון הגרף הוויזואלי
-                    updatePieChartData(total, full);
+    /**
+     * מסלול גיבוי: ספירה מלאה של משמרות החודש ושמירתה כמסמך המונים (StaffingStats.recount).
+     * הכתיבה מוגנת בטרנזקציה, כך ששיבוץ שנכנס בזמן הספירה לא נדרס.
+     */
+    private void calculateMonthlyStatsFromShifts() {
+        long queryStart = SystemClock.elapsedRealtime();
+
+        ShiftWriter.getInstance().getStats().recount(System.currentTimeMillis())
+                .addOnSuccessListener(counts -> {
+                    Log.d(TAG, "monthly stats from " + counts.total + " shifts: " + (SystemClock.elapsedRealtime() - queryStart) + "ms");
+                    showMonthlyStats(counts.total, counts.full, counts.missing);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "monthly stats recount failed", e);
+                    showMonthlyStatsUnavailable();
                 });
     }
 
+    // הנתונים לא נטענו - מציגים מקף במקום מספרים, ומסמנים שהחלק הזה של המסך מוכן
+    private void showMonthlyStatsUnavailable() {
+        binding.tvStatTotalShifts.setText("-");
+        binding.tvStatFullShifts.setText("-");
+        binding.tvStatMissingWorkers.setText("-");
+        binding.pieChart.clear();
+        Toast.makeText(this, "שגיאה בטעינת נתוני החודש", Toast.LENGTH_SHORT).show();
+        StartupTrace.ready("stats");
+    }
+
+    // עדכון הטקסטים במסך והגרף הוויזואלי
+    private void showMonthlyStats(int total, int full, int missing) {
+        binding.tvStatTotalShifts.setText(String.valueOf(total));
+        binding.tvStatFullShifts.setText(String.valueOf(full));
+        binding.tvStatMissingWorkers.setText(String.valueOf(missing));
+
+        updatePieChartData(total, full);
+        StartupTrace.ready("stats");
+    }
+
     /**
      * עדכון הנתונים בתוך גרף העוגה.
      * @param total - סה"כ משמרות.
@@ -263,6 +340,9 @@ public class ManagerActivity extends AppCompatActivity {
         // מעבר לבקשות לאישור
         binding.btnManageRequests.setOnClickListener(v -> startActivity(new Intent(this, ShiftRequestsActivity.class)));
 
+        // דוח שכר לכל העובדים (CSV + PDF)
+        binding.btnPayrollExport.setOnClickListener(v -> showPayrollExportDialog());
+
         // מעבר ללוח הודעות (כפתור שהוספנו לאחרונה)
         binding.btnAnnouncements.setOnClickListener(v -> {
             Intent intent = new Intent(ManagerActivity.this, ManageAnnouncementsActivity.class);
@@ -271,10 +351,123 @@ public class ManagerActivity extends AppCompatActivity {
 
         // כפתור התנתקות
         binding.btnLogout.setOnClickListener(v -> {
+            StartupBootstrap.getInstance(this).clear(); // מחיקת התפקיד השמור
             mAuth.signOut(); // ניתוק מ-Firebase
             // חזרה למסך הכניסה ומחיקת היסטוריה
             startActivity(new Intent(this, LoginActivity.class).setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK));
             finish();
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * בחירת החודש לדוח השכר של החברה (החודש הנוכחי או הקודם).
+     */
+    private void showPayrollExportDialog() {
+        Calendar previous = Calendar.getInstance();
+        previous.add(Calendar.MONTH, -1);
+        long[] months = {System.currentTimeMillis(), previous.getTimeInMillis()};
+        String[] options = {"החודש הנוכחי", "החודש הקודם"};
+
+        new AlertDialog.Builder(this)
+                .setTitle("דוח שכר לכל העובדים")
+                .setItems(options, (dialog, which) -> exportCompanyPayroll(months[which]))
+                .show();
+    }
+
+    /**
+     * הפקת דוח השכר של כל העובדים לחודש אחד:
+     * קריאת המשמרות בדפים וצבירה לפי עובד (CompanyPayroll), ואז כתיבת CSV ו-PDF לתיקיית ההורדות.
+     * הכל ברקע, עם דיאלוג התקדמות וכפתור ביטול.
+     */
+    private void exportCompanyPayroll(long timeInMonth) {
+        cancelCompanyPayroll();
+        CancellationTokenSource cancellation = new CancellationTokenSource();
+        payrollCancellation = cancellation;
+
+        AlertDialog progressDialog = new AlertDialog.Builder(this)
+                .setTitle("דוח שכר")
+                .setMessage("קורא משמרות...")
+                .setCancelable(false)
+                .setNegativeButton("ביטול", (d, w) -> cancelCompanyPayroll())
+                .show();
+        payrollDialog = progressDialog;
+
+        new CompanyPayroll(db, UserDirectory.getInstance())
+                .load(timeInMonth, read -> {
+                    if (isFinishing() || isDestroyed()) return;
+                    progressDialog.setMessage("נקראו " + read + " משמרות...");
+                }, cancellation.getToken())
+                .addOnSuccessListener(report -> {
+                    if (isFinishing() || isDestroyed() || cancellation.getToken().isCancellationRequested()) return;
+                    progressDialog.setMessage("כותב קבצים...");
+                    String name = "Payroll_" + new SimpleDateFormat("yyyy-MM", Locale.US).format(report.monthStart);
+
+                    // שני הקבצים נכתבים אחד אחרי השני; הדיאלוג נסגר כשה-PDF מסתיים
+                    payrollExports[0] = ReportExporter.export(this, name + ".csv", "text/csv",
+                            (out, progress) -> PayrollReportFiles.writeCsv(out, progress, report),
+                            payrollFileListener(null));
+                    payrollExports[1] = ReportExporter.export(this, name + ".pdf", "application/pdf",
+                            (out, progress) -> PayrollReportFiles.writePdf(out, progress, report),
+                            payrollFileListener(progressDialog));
+                })
+                .addOnCanceledListener(() -> {
+                    if (isFinishing() || isDestroyed()) return;
+                    progressDialog.dismiss();
+                })
+                .addOnFailureListener(e -> {
+                    if (isFinishing() || isDestroyed()) return;
+                    progressDialog.dismiss();
+                    Toast.makeText(this, "שגיאה בהפקת הדוח: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                });
+    }
+
+    // ביטול הדוח שרץ (אם יש): עצירת קריאת המשמרות, ביטול כתיבת הקבצים (הקבצים החלקיים נמחקים) וסגירת הדיאלוג
+    private void cancelCompanyPayroll() {
+        if (payrollCancellation != null) {
+            payrollCancellation.cancel();
+            payrollCancellation = null;
+        }
+        for (int i = 0; i < payrollExports.length; i++) {
+            if (payrollExports[i] != null) payrollExports[i].cancel();
+            payrollExports[i] = null;
+        }
+        if (payrollDialog != null) {
+            payrollDialog.dismiss();
+            payrollDialog = null;
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        cancelCompanyPayroll();
+    }
+
+    // תוצאות הכתיבה של קובץ אחד מהדוח (הדיאלוג נסגר רק עם הקובץ האחרון)
+    private ReportExporter.Listener payrollFileListener(AlertDialog dialogToDismiss) {
+        return new ReportExporter.Listener() {
+            @Override
+            public void onProgress(int done, int total) { }
+
+            @Override
+            public void onSaved(String fileName) {
+                if (isFinishing() || isDestroyed()) return;
+                if (dialogToDismiss != null) dialogToDismiss.dismiss();
+                Toast.makeText(ManagerActivity.this, "נשמר בהורדות: " + fileName, Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onCancelled() {
+                if (isFinishing() || isDestroyed()) return;
+                if (dialogToDismiss != null) dialogToDismiss.dismiss();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                if (isFinishing() || isDestroyed()) return;
+                if (dialogToDismiss != null) dialogToDismiss.dismiss();
+                Toast.makeText(ManagerActivity.this, "שגיאה בשמירת הקובץ: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            }
+        };
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.shiftsync;
 
 import android.app.TimePickerDialog;
+import android.content.SharedPreferences;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.Button;
+import android.widget.CheckBox;
 import android.widget.EditText;
 import android.widget.Toast;
 
@@ -13,20 +16,27 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.shiftsync.data.BulkResult;
+import com.example.shiftsync.data.CalendarRanges;
+import com.example.shiftsync.data.FirestoreStore;
+import com.example.shiftsync.data.ShiftRepository;
+import com.example.shiftsync.data.ShiftService;
+import com.example.shiftsync.data.ShiftTemplateStore;
+import com.example.shiftsync.data.ShiftWriter;
+import com.example.shiftsync.data.StaffingSolver;
 import com.example.shiftsync.databinding.ActivityManagerScheduleBinding;
 import com.example.shiftsync.models.Shift;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FieldValue;
-import com.google.firebase.firestore.FirebaseFirestore;
+import com.example.shiftsync.models.ShiftRequestItem;
+import com.example.shiftsync.models.ShiftTemplate;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * מסך ניהול הלו"ז (Manager Schedule).
@@ -35,21 +45,35 @@ import java.util.UUID;
  */
 public class ManagerScheduleActivity extends AppCompatActivity {
 
+    private static final String PREFS_NAME = "manager_schedule";
+    private static final String KEY_ASSIGNMENTS_MIGRATED = "assignments_migrated";
+
     // קישור לרכיבי ה-XML
     private ActivityManagerScheduleBinding binding;
 
-    // חיבור למסד הנתונים
-    private FirebaseFirestore db;
-
     // אדפטר לרשימת המשמרות
     private ShiftsAdapter adapter;
 
-    // רשימת המשמרות שמוצגת כרגע על המסך
-    private List<Shift> shiftsList;
-
     // התאריך שנבחר בלוח השנה (ברירת מחדל: היום)
     private Calendar selectedDate;
 
+    // Thread ברקע להרצת מנוע השיבוץ (החישוב לא רץ על ה-UI Thread)
+    private final ExecutorService solverExecutor = Executors.newSingleThreadExecutor();
+
+    // מאגר המשמרות המשותף (מאזין אחד לכל חודש במקום מאזין לכל יום)
+    private ShiftRepository shiftRepository;
+
+    // מקבל את השינויים מהמאגר ומרענן את הרשימה רק אם נגעו ביום המוצג
+    private final ShiftRepository.OnShiftsChangedListener shiftsListener = changes -> {
+        long selectedDay = CalendarRanges.dayKey(selectedDate.getTimeInMillis());
+        for (ShiftRepository.ShiftChange change : changes) {
+            if (change.touchesDay(selectedDay)) {
+                showShiftsForSelectedDate();
+                return;
+            }
+        }
+    };
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -57,24 +81,70 @@ public class ManagerScheduleActivity extends AppCompatActivity {
         setContentView(binding.getRoot());
 
         // אתחול משתנים
-        db = FirebaseFirestore.getInstance();
-        shiftsList = new ArrayList<>();
+        shiftRepository = ShiftRepository.getInstance();
         selectedDate = Calendar.getInstance();
 
+        // המרת משמרות ישנות למבנה השיבוצים החדש (פעם אחת)
+        migrateAssignmentsOnce();
+
         // הגדרת הרשימה והאדפטר
         setupRecyclerView();
 
         // הגדרת מאזין ללוח השנה
         setupCalendar();
 
-        // טעינה ראשונית של המשמרות להיום
-        loadShiftsForDate(selectedDate);
-
         // כפתור חזרה
         binding.btnBack.setOnClickListener(v -> finish());
 
         // כפתור הוספת משמרת חדשה (+)
         binding.fabAddShift.setOnClickListener(v -> showAddShiftDialog());
+
+        // תבניות משמרות חוזרות (יצירת משמרות לשבוע/חודש/רבעון בבת אחת)
+        binding.btnTemplates.setOnClickListener(v -> showTemplatesDialog());
+
+        // הצעת שיבוץ אוטומטי לכל המשמרות החסרות בחודש הנבחר
+        binding.btnAutoSchedule.setOnClickListener(v -> proposeAutoSchedule());
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        solverExecutor.shutdownNow();
+    }
+
+    /**
+     * משמרות שנוצרו לפני מפת assignments שומרות את העובדים ברשימות מקבילות של מזהים ושמות.
+     * הקריאה שלהן עובדת גם כך (ShiftMapper), אבל בפעם הראשונה שהמסך נפתח במכשיר ממירים את כולן.
+     */
+    private void migrateAssignmentsOnce() {
+        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+        if (prefs.getBoolean(KEY_ASSIGNMENTS_MIGRATED, false)) return;
+
+        ShiftWriter.getInstance().migrateAssignments()
+                .addOnSuccessListener(count -> {
+                    Log.d("ManagerSchedule", "Migrated assignments of " + count + " shifts");
+                    prefs.edit().putBoolean(KEY_ASSIGNMENTS_MIGRATED, true).apply();
+                })
+                .addOnFailureListener(e -> Log.e("ManagerSchedule", "Assignments migration failed", e));
+    }
+
+    /**
+     * הרשמה למאגר המשמרות כשהמסך גלוי וטעינת היום הנבחר.
+     */
+    @Override
+    protected void onStart() {
+        super.onStart();
+        shiftRepository.addListener(shiftsListener);
+        loadShiftsForDate(selectedDate);
+    }
+
+    /**
+     * הפסקת ההאזנה כשהמסך מוסתר (המאגר סוגר את המאזינים כשאף מסך לא משתמש בו).
+     */
+    @Override
+    protected void onStop() {
+        super.onStop();
+        shiftRepository.removeListener(shiftsListener);
     }
 
     /**
@@ -84,11 +154,11 @@ public class ManagerScheduleActivity extends AppCompatActivity {
     private void setupRecyclerView() {
         binding.rvShifts.setLayoutManager(new LinearLayoutManager(this));
 
-        adapter = new ShiftsAdapter(shiftsList, new ShiftsAdapter.OnShiftClickListener() {
+        adapter = new ShiftsAdapter(new ShiftsAdapter.OnShiftClickListener() {
             @Override
-            public void onDeleteClick(int position) {
+            public void onDeleteClick(Shift shift) {
                 // לחיצה על פח האשפה -> מחיקת המשמרת
-                deleteShift(shiftsList.get(position));
+                deleteShift(shift);
             }
 
             @Override
@@ -103,6 +173,8 @@ public class ManagerScheduleActivity extends AppCompatActivity {
                 showShiftEmployeesDialog(shift);
             }
         });
+        // תג התנגשות מאינדקס האינטרוולים של המאגר
+        adapter.setConflictChecker(shiftRepository::hasAssignmentConflict);
 
         binding.rvShifts.setAdapter(adapter);
     }
@@ -113,21 +185,10 @@ public class ManagerScheduleActivity extends AppCompatActivity {
      */
     private void showShiftEmployeesDialog(Shift shift) {
         // שלב 1: הכנת הנתונים לאדפטר הפנימי.
-        // האובייקט Shift מחזיק שתי רשימות נפרדות (IDs ו-Names).
-        // אנחנו מאחדים אותן לרשימה אחת של אובייקטים מסוג EmployeeItem כדי שיהיה קל להציג.
+        // כל עובד משובץ הוא רשומה במפת השיבוצים של המשמרת (מזהה + שם), לפי סדר השיבוץ.
         List<ShiftEmployeesAdapter.EmployeeItem> employees = new ArrayList<>();
-
-        if (shift.getAssignedUserIds() != null && !shift.getAssignedUserIds().isEmpty()) {
-            for (int i = 0; i < shift.getAssignedUserIds().size(); i++) {
-                String id = shift.getAssignedUserIds().get(i);
-                String name = "עובד"; // שם ברירת מחדל למקרה של אי-תאימות
-
-                // שליפת השם מהרשימה המקבילה (אם קיים)
-                if (shift.getAssignedUserNames() != null && shift.getAssignedUserNames().size() > i) {
-                    name = shift.getAssignedUserNames().get(i);
-                }
-                employees.add(new ShiftEmployeesAdapter.EmployeeItem(id, name));
-            }
+        for (String id : shift.getAssignedUserIds()) {
+            employees.add(new ShiftEmployeesAdapter.EmployeeItem(id, shift.nameOf(id)));
         }
 
         // שלב 2: יצירת הדיאלוג (Pop-up window)
@@ -157,12 +218,11 @@ public class ManagerScheduleActivity extends AppCompatActivity {
 
     /**
      * הסרת עובד ממשמרת.
-     * שימוש בפקודת arrayRemove של Firestore כדי למחוק את העובד מהרשימות בצורה בטוחה.
+     * העובד נמחק ממפת השיבוצים לפי ה-uid שלו (גם כשיש שני עובדים באותו שם),
+     * יחד עם הפחתת המשמרת מספר השכר החודשי שלו.
      */
     private void removeEmployeeFromShift(Shift shift, ShiftEmployeesAdapter.EmployeeItem item, AlertDialog dialog) {
-        db.collection("shifts").document(shift.getShiftId())
-                .update("assignedUserIds", FieldValue.arrayRemove(item.id),
-                        "assignedUserNames", FieldValue.arrayRemove(item.name))
+        ShiftWriter.getInstance().removeAssignment(shift, item.id, item.name)
                 .addOnSuccessListener(aVoid -> {
                     Toast.makeText(this, "העובד הוסר בהצלחה", Toast.LENGTH_SHORT).show();
                     dialog.dismiss(); // סגירת הדיאלוג כדי לרענן את הנתונים ברקע
@@ -182,42 +242,25 @@ public class ManagerScheduleActivity extends AppCompatActivity {
     }
 
     /**
-     * טעינת משמרות לפי טווח תאריכים (מתחילת היום ועד סופו).
+     * טעינת משמרות ליום הנבחר.
+     * המאגר פותח מאזין אחד לכל החודש (רק בפעם הראשונה), וכל מעבר בין ימים נענה מהזיכרון.
      */
     private void loadShiftsForDate(Calendar date) {
-        // חישוב 00:00:00
-        Calendar startOfDay = (Calendar) date.clone();
-        startOfDay.set(Calendar.HOUR_OF_DAY, 0);
-        startOfDay.set(Calendar.MINUTE, 0);
-        startOfDay.set(Calendar.SECOND, 0);
-        startOfDay.set(Calendar.MILLISECOND, 0);
-
-        // חישוב 23:59:59
-        Calendar endOfDay = (Calendar) date.clone();
-        endOfDay.set(Calendar.HOUR_OF_DAY, 23);
-        endOfDay.set(Calendar.MINUTE, 59);
-        endOfDay.set(Calendar.SECOND, 59);
-
         // עדכון הכותרת
         SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
         binding.tvDateTitle.setText("משמרות לתאריך: " + sdf.format(date.getTime()));
 
-        // ביצוע השאילתה
-        db.collection("shifts")
-                .whereGreaterThanOrEqualTo("startTime", startOfDay.getTimeInMillis())
-                .whereLessThanOrEqualTo("startTime", endOfDay.getTimeInMillis())
-                .addSnapshotListener((value, error) -> {
-                    if (error != null) return;
-
-                    shiftsList.clear();
-                    if (value != null) {
-                        for (DocumentSnapshot doc : value.getDocuments()) {
-                            Shift shift = doc.toObject(Shift.class);
-                            if (shift != null) shiftsList.add(shift);
-                        }
-                    }
-                    adapter.notifyDataSetChanged();
-                });
+        shiftRepository.ensureMonthLoaded(date);
+        showShiftsForSelectedDate();
+    }
+
+    /**
+     * הצגת המשמרות של היום הנבחר מתוך הזיכרון של המאגר.
+     * המאגר מחזיר רשימה חדשה, והאדפטר מצייר מחדש רק משמרות שהשתנו.
+     * תגי ההתנגשות מתעדכנים אחרי ההחלה (שינוי ביום אחר יכול ליצור או לבטל התנגשות).
+     */
+    private void showShiftsForSelectedDate() {
+        adapter.submitList(shiftRepository.getShiftsForDay(selectedDate), adapter::refreshConflicts);
     }
 
     /**
@@ -262,7 +305,7 @@ public class ManagerScheduleActivity extends AppCompatActivity {
 
                 // יצירת אובייקט Shift ושמירה ב-Firestore
                 Shift s = new Shift(id, calStart.getTimeInMillis(), calEnd.getTimeInMillis(), req, notes);
-                db.collection("shifts").document(id).set(s)
+                ShiftWriter.getInstance().createShift(s)
                         .addOnSuccessListener(aVoid -> Toast.makeText(this, "המשמרת נוצרה", Toast.LENGTH_SHORT).show());
 
             } catch (Exception e) {
@@ -312,14 +355,8 @@ public class ManagerScheduleActivity extends AppCompatActivity {
                 int req = Integer.parseInt(etWorkers.getText().toString());
                 String notes = etNotes.getText().toString();
 
-                // יצירת מפה (Map) עם השדות שרוצים לעדכן בלבד
-                Map<String, Object> updates = new HashMap<>();
-                updates.put("startTime", calStart.getTimeInMillis());
-                updates.put("endTime", calEnd.getTimeInMillis());
-                updates.put("requiredWorkers", req);
-                updates.put("notes", notes); // עדכון ההערות
-
-                db.collection("shifts").document(shift.getShiftId()).update(updates)
+                // עדכון השדות בלבד (וספר השכר של המשובצים אם השעות השתנו)
+                ShiftWriter.getInstance().updateShift(shift, calStart.getTimeInMillis(), calEnd.getTimeInMillis(), req, notes)
                         .addOnSuccessListener(aVoid -> Toast.makeText(this, "המשמרת עודכנה", Toast.LENGTH_SHORT).show());
             } catch (Exception e) {
                 Toast.makeText(this, "שגיאה בעדכון", Toast.LENGTH_SHORT).show();
@@ -336,8 +373,188 @@ public class ManagerScheduleActivity extends AppCompatActivity {
         new AlertDialog.Builder(this)
                 .setTitle("מחיקה")
                 .setMessage("למחוק את המשמרת?")
-                .setPositiveButton("כן", (d,w)-> db.collection("shifts").document(shift.getShiftId()).delete())
+                .setPositiveButton("כן", (d,w)-> ShiftWriter.getInstance().deleteShift(shift))
                 .setNegativeButton("לא", null)
                 .show();
     }
-}
\ No newline at end of file
+
+    /**
+     * רשימת תבניות המשמרות. בחירה בתבנית פותחת את יצירת המשמרות ממנה,
+     * והאפשרות האחרונה ברשימה יוצרת תבנית חדשה.
+     */
+    private void showTemplatesDialog() {
+        ShiftTemplateStore.getInstance().getAll()
+                .addOnSuccessListener(templates -> {
+                    String[] names = new String[templates.size() + 1];
+                    for (int i = 0; i < templates.size(); i++) {
+                        names[i] = templates.get(i).getName();
+                    }
+                    names[templates.size()] = "+ תבנית חדשה";
+
+                    new AlertDialog.Builder(this)
+                            .setTitle("תבניות משמרות")
+                            .setItems(names, (d, which) -> {
+                                if (which == templates.size()) {
+                                    showAddTemplateDialog();
+                                } else {
+                                    showGenerateDialog(templates.get(which));
+                                }
+                            })
+                            .show();
+                })
+                .addOnFailureListener(e -> Toast.makeText(this, "שגיאה בטעינת התבניות", Toast.LENGTH_SHORT).show());
+    }
+
+    /**
+     * יצירת המשמרות של תבנית, החל מהתאריך הנבחר בלוח השנה.
+     * אפשר להריץ שוב על אותו טווח - משמרות שכבר נוצרו מהתבנית לא ישוכפלו.
+     */
+    private void showGenerateDialog(ShiftTemplate template) {
+        String[] ranges = {"שבוע", "חודש", "3 חודשים"};
+        int[] months = {0, 1, 3};
+
+        new AlertDialog.Builder(this)
+                .setTitle("יצירת משמרות: " + template.getName())
+                .setItems(ranges, (d, which) -> {
+                    Calendar from = (Calendar) selectedDate.clone();
+                    Calendar to = (Calendar) selectedDate.clone();
+                    if (months[which] == 0) {
+                        to.add(Calendar.DAY_OF_MONTH, 7);
+                    } else {
+                        to.add(Calendar.MONTH, months[which]);
+                    }
+
+                    ShiftTemplateStore.getInstance().generate(template, from.getTimeInMillis(), to.getTimeInMillis())
+                            .addOnSuccessListener(count -> Toast.makeText(this, "נוצרו " + count + " משמרות", Toast.LENGTH_SHORT).show())
+                            .addOnFailureListener(e -> Toast.makeText(this, "שגיאה ביצירת המשמרות", Toast.LENGTH_SHORT).show());
+                })
+                .setNeutralButton("מחק תבנית", (d, w) -> ShiftTemplateStore.getInstance().delete(template.getTemplateId()))
+                .setNegativeButton("ביטול", null)
+                .show();
+    }
+
+    /**
+     * דיאלוג ליצירת תבנית חדשה: שם, ימים בשבוע, שעות, כמות עובדים והערות.
+     */
+    private void showAddTemplateDialog() {
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        View dialogView = LayoutInflater.from(this).inflate(R.layout.dialog_shift_template, null);
+        builder.setView(dialogView);
+
+        EditText etName = dialogView.findViewById(R.id.etTemplateName);
+        EditText etStart = dialogView.findViewById(R.id.etTemplateStartTime);
+        EditText etEnd = dialogView.findViewById(R.id.etTemplateEndTime);
+        EditText etWorkers = dialogView.findViewById(R.id.etTemplateRequiredWorkers);
+        EditText etNotes = dialogView.findViewById(R.id.etTemplateNotes);
+
+        // תיבות הימים, לפי הסדר של Calendar.SUNDAY (1) עד Calendar.SATURDAY (7)
+        int[] dayBoxes = {R.id.cbSunday, R.id.cbMonday, R.id.cbTuesday, R.id.cbWednesday,
+                R.id.cbThursday, R.id.cbFriday, R.id.cbSaturday};
+
+        // השעות שנבחרו, בדקות מחצות
+        int[] minutes = {8 * 60, 16 * 60};
+
+        etStart.setOnClickListener(v -> new TimePickerDialog(this, (view, hour, minute) -> {
+            minutes[0] = hour * 60 + minute;
+            etStart.setText(String.format(Locale.getDefault(), "%02d:%02d", hour, minute));
+        }, 8, 0, true).show());
+
+        etEnd.setOnClickListener(v -> new TimePickerDialog(this, (view, hour, minute) -> {
+            minutes[1] = hour * 60 + minute;
+            etEnd.setText(String.format(Locale.getDefault(), "%02d:%02d", hour, minute));
+        }, 16, 0, true).show());
+
+        builder.setPositiveButton("שמור", (d, w) -> {
+            try {
+                String name = etName.getText().toString().trim();
+                int req = Integer.parseInt(etWorkers.getText().toString());
+                List<Integer> days = new ArrayList<>();
+                for (int i = 0; i < dayBoxes.length; i++) {
+                    if (((CheckBox) dialogView.findViewById(dayBoxes[i])).isChecked()) days.add(Calendar.SUNDAY + i);
+                }
+                if (name.isEmpty() || days.isEmpty()) throw new IllegalArgumentException();
+
+                // משמרת שמסתיימת לפני שהתחילה עוברת את חצות
+                int duration = minutes[1] - minutes[0];
+                if (duration <= 0) duration += 24 * 60;
+
+                ShiftTemplate template = new ShiftTemplate(null, name, days, minutes[0], duration, req,
+                        etNotes.getText().toString());
+                ShiftTemplateStore.getInstance().save(template)
+                        .addOnSuccessListener(aVoid -> showGenerateDialog(template));
+            } catch (Exception e) {
+                Toast.makeText(this, "נא למלא שם, ימים וכמות עובדים", Toast.LENGTH_SHORT).show();
+            }
+        });
+        builder.setNegativeButton("ביטול", null);
+        builder.show();
+    }
+
+    /**
+     * שיבוץ אוטומטי לחודש הנבחר: טעינת משמרות החודש ושבוע לפניו ואחריו, חישוב תוכנית ברקע (StaffingSolver),
+     * ואחרי אישור המנהל - אישור כל הבקשות שבתוכנית בפעולה מרובה אחת.
+     * המשמרות שמחוץ לחודש הן הקשר בלבד: השיבוצים שלהן נבדקים מול המנוחה והשעות השבועיות, אבל לא מוצעים בהן שיבוצים.
+     */
+    private void proposeAutoSchedule() {
+        binding.btnAutoSchedule.setEnabled(false);
+        long timeInMonth = selectedDate.getTimeInMillis();
+        long monthStart = CalendarRanges.monthStart(timeInMonth);
+        long monthEnd = CalendarRanges.monthEnd(timeInMonth);
+        ShiftService shiftService = FirestoreStore.getInstance().getShiftService();
+        FirestoreStore.task(shiftService.shiftsAroundMonth(timeInMonth, StaffingSolver.CONTEXT_MILLIS))
+                .addOnSuccessListener(loaded -> {
+                    if (isDestroyed()) return;
+
+                    List<Shift> month = new ArrayList<>();
+                    List<Shift> context = new ArrayList<>();
+                    for (Shift shift : loaded) {
+                        if (shift.getStartTime() >= monthStart && shift.getStartTime() < monthEnd) month.add(shift);
+                        else context.add(shift);
+                    }
+
+                    solverExecutor.execute(() -> {
+                        StaffingSolver.Plan plan = new StaffingSolver(StaffingSolver.Constraints.defaults()).solve(month, context);
+                        runOnUiThread(() -> {
+                            binding.btnAutoSchedule.setEnabled(true);
+                            if (!isFinishing()) showAutoSchedulePlan(plan);
+                        });
+                    });
+                })
+                .addOnFailureListener(e -> {
+                    binding.btnAutoSchedule.setEnabled(true);
+                    Toast.makeText(this, "שגיאה בטעינת המשמרות", Toast.LENGTH_SHORT).show();
+                });
+    }
+
+    private void showAutoSchedulePlan(StaffingSolver.Plan plan) {
+        if (plan.proposals.isEmpty()) {
+            Toast.makeText(this, "אין בקשות שאפשר לשבץ (חסרים: " + plan.missingBefore + ")", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        List<ShiftRequestItem> items = new ArrayList<>();
+        for (StaffingSolver.Proposal proposal : plan.proposals) {
+            items.add(new ShiftRequestItem(proposal.shift, proposal.userId, proposal.userName));
+        }
+
+        new AlertDialog.Builder(this)
+                .setTitle("שיבוץ אוטומטי")
+                .setMessage("הוצעו " + plan.proposals.size() + " שיבוצים מתוך הבקשות הממתינות.\n"
+                        + "עובדים חסרים בחודש: " + plan.missingBefore + " ← " + plan.missingAfter + "\n"
+                        + "(ללא חפיפות, עם מנוחה בין משמרות ועד 45 שעות בשבוע)")
+                .setPositiveButton("אשר הכל", (d, w) -> ShiftWriter.getInstance().approveAll(items)
+                        .addOnSuccessListener(results -> {
+                            int approved = 0, conflicts = 0;
+                            for (BulkResult result : results) {
+                                if (result.isSuccessful()) approved++;
+                                else if (result.getOutcome() == BulkResult.Outcome.CONFLICT) conflicts++;
+                            }
+                            String summary = "שובצו " + approved + " מתוך " + results.size();
+                            if (conflicts > 0) summary += " (" + conflicts + " נעצרו בגלל התנגשות)";
+                            Toast.makeText(this, summary, Toast.LENGTH_SHORT).show();
+                        })
+                        .addOnFailureListener(e -> Toast.makeText(this, "שגיאה: " + e.getMessage(), Toast.LENGTH_SHORT).show()))
+                .setNegativeButton("ביטול", null)
+                .show();
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.shiftsync;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.graphics.Color;
+import android.graphics.Typeface;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.TypedValue;
+import android.view.Gravity;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import com.example.shiftsync.data.FirestoreMetrics;
+
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * שכבת מדדים על המסך (Metrics Overlay).
+ * מעדכנת את FirestoreMetrics איזה מסך בחזית, וכשהמדידה פעילה מציגה בפינת המסך
+ * את מדדי הקריאות של המסך הנוכחי (מתעדכן כל שנייה).
+ * לחיצה על השכבה מייצאת קובץ Trace לתיקיית ההורדות, לחיצה ארוכה מאפסת את המדדים.
+ * המדידה פעילה כברירת מחדל בגרסת Debug; בגרסת Production מפעילים אותה דרך מסך הפתיחה:
+ * adb shell am start -n com.example.shiftsync/.MainActivity --ez metrics true
+ */
+public class MetricsOverlay implements Application.ActivityLifecycleCallbacks {
+
+    // Extra למסך הפתיחה שמפעיל/מכבה את המדידה
+    public static final String EXTRA_METRICS = "metrics";
+
+    private static final String PREFS_NAME = "metrics";
+    private static final String KEY_ENABLED = "enabled";
+
+    private static final long REFRESH_MILLIS = 1000;
+    private static final int MAX_LABELS = 5;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final FirestoreMetrics metrics = FirestoreMetrics.getInstance();
+
+    private TextView overlay;
+    private String screen;
+
+    private final Runnable refresh = new Runnable() {
+        @Override
+        public void run() {
+            if (overlay == null) return;
+            overlay.setText(metrics.summary(screen, MAX_LABELS));
+            handler.postDelayed(this, REFRESH_MILLIS);
+        }
+    };
+
+    private MetricsOverlay() { }
+
+    // נקרא פעם אחת מ-ShiftSyncApp, לפני הקריאות הראשונות ל-Firestore
+    public static void install(Application app) {
+        boolean debuggable = (app.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        boolean enabled = app.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getBoolean(KEY_ENABLED, debuggable);
+        FirestoreMetrics.getInstance().setEnabled(enabled);
+        app.registerActivityLifecycleCallbacks(new MetricsOverlay());
+    }
+
+    // הפעלה או כיבוי של המדידה (נשמר גם לפתיחות הבאות)
+    public static void setEnabled(Context context, boolean enabled) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().putBoolean(KEY_ENABLED, enabled).apply();
+        FirestoreMetrics.getInstance().setEnabled(enabled);
+        if (!enabled) FirestoreMetrics.getInstance().reset();
+    }
+
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+        // השאילתות של onCreate כבר שייכות למסך החדש
+        metrics.setCurrentScreen(activity.getClass().getSimpleName());
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity) {
+        // חזרה למסך קודם (כפתור חזור)
+        screen = activity.getClass().getSimpleName();
+        metrics.setCurrentScreen(screen);
+        if (metrics.isEnabled()) show(activity);
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity) {
+        handler.removeCallbacks(refresh);
+        if (overlay != null) {
+            ((ViewGroup) overlay.getParent()).removeView(overlay);
+            overlay = null;
+        }
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) { }
+
+    @Override
+    public void onActivityStopped(Activity activity) { }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState) { }
+
+    @Override
+    public void onActivityDestroyed(Activity activity) { }
+
+    private void show(Activity activity) {
+        TextView view = new TextView(activity);
+        view.setTypeface(Typeface.MONOSPACE);
+        view.setTextSize(TypedValue.COMPLEX_UNIT_SP, 10);
+        view.setTextColor(Color.WHITE);
+        view.setBackgroundColor(0xB0000000);
+        int padding = (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 6, activity.getResources().getDisplayMetrics());
+        view.setPadding(padding, padding, padding, padding);
+        view.setElevation(100f);
+
+        view.setOnClickListener(v -> exportTrace(activity));
+        view.setOnLongClickListener(v -> {
+            metrics.reset();
+            Toast.makeText(activity, "המדדים אופסו", Toast.LENGTH_SHORT).show();
+            return true;
+        });
+
+        FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT, Gravity.BOTTOM | Gravity.START);
+        ((ViewGroup) activity.findViewById(android.R.id.content)).addView(view, params);
+        overlay = view;
+        handler.post(refresh);
+    }
+
+    // ייצוא הקובץ ברקע, דרך אותו מנגנון של דוחות השכר
+    private void exportTrace(Activity activity) {
+        String time = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date());
+        String fileName = "firestore_trace_" + time + ".json";
+        Context context = activity.getApplicationContext();
+
+        ReportExporter.export(context, fileName, "application/json",
+                (out, progress) -> {
+                    Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                    metrics.writeTrace(writer);
+                },
+                new ReportExporter.Listener() {
+                    @Override
+                    public void onProgress(int done, int total) { }
+
+                    @Override
+                    public void onSaved(String name) {
+                        Toast.makeText(context, "הקובץ נשמר בהורדות: " + name, Toast.LENGTH_LONG).show();
+                    }
+
+                    @Override
+                    public void onCancelled() { }
+
+                    @Override
+                    public void onError(Exception e) {
+                        Toast.makeText(context, "שגיאה בייצוא: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
+}
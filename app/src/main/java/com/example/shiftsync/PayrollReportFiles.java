@@ -0,0 +1,108 @@
+package com.example.shiftsync;
+
+import com.example.shiftsync.data.CompanyPayroll;
+import com.example.shiftsync.data.PayrollAggregator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * כתיבת דוח השכר של החברה לקבצים (CSV ו-PDF).
+ * שתי הפונקציות רצות ברקע דרך ReportExporter, ועוברות על שורות הדוח פעם אחת.
+ */
+public class PayrollReportFiles {
+
+    private PayrollReportFiles() { }
+
+    /**
+     * קובץ CSV: שורה לכל עובד. מתחיל ב-BOM כדי ש-Excel יציג את העברית נכון.
+     */
+    public static void writeCsv(OutputStream out, ReportExporter.Progress progress, CompanyPayroll.Report report) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write('\uFEFF');
+        writer.write("uid,name,shifts,hours,hourly_rate,amount\n");
+
+        List<PayrollAggregator.Line> lines = report.lines;
+        for (int i = 0; i < lines.size(); i++) {
+            progress.checkCancelled();
+            PayrollAggregator.Line line = lines.get(i);
+            writer.write(csv(line.uid));
+            writer.write(',');
+            writer.write(csv(line.name));
+            writer.write(',');
+            writer.write(Integer.toString(line.shiftCount));
+            writer.write(String.format(Locale.US, ",%.2f,%.2f,%.2f\n", line.hours, line.hourlyRate, line.amount));
+            progress.update(i + 1, lines.size());
+        }
+        writer.flush();
+    }
+
+    /**
+     * קובץ PDF בשלושה חלקים: סיכום כללי, שכר לפי עובד, ועובדים שחסר להם תעריף.
+     */
+    public static void writePdf(OutputStream out, ReportExporter.Progress progress, CompanyPayroll.Report report) throws IOException {
+        SimpleDateFormat monthFormat = new SimpleDateFormat("MM/yyyy", Locale.getDefault());
+        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
+
+        ReportPdfWriter writer = new ReportPdfWriter("דוח שכר חברה - " + monthFormat.format(report.monthStart));
+        try {
+            // 1. סיכום כללי
+            List<String> summary = new ArrayList<>();
+            summary.add("תאריך הפקה: " + dateFormat.format(new Date()));
+            summary.add("משמרות בחודש: " + report.shiftCount);
+            summary.add("עובדים ששובצו: " + report.lines.size());
+            summary.add(String.format(Locale.getDefault(), "סה\"כ שעות: %.1f", report.totalHours));
+            writer.startSection("סיכום", summary, new String[0], new int[0]);
+            writer.addTotal(String.format(Locale.getDefault(), "סה\"כ לתשלום: ₪%.2f", report.totalAmount));
+
+            // 2. שורה לכל עובד
+            String[] columns = {"עובד", "משמרות", "שעות", "תעריף", "סכום"};
+            int[] offsets = {0, 190, 260, 330, 410};
+            writer.startSection("שכר לפי עובד", Collections.emptyList(), columns, offsets);
+            List<PayrollAggregator.Line> missingRate = new ArrayList<>();
+            for (int i = 0; i < report.lines.size(); i++) {
+                progress.checkCancelled();
+                PayrollAggregator.Line line = report.lines.get(i);
+                writer.addRow(line.name,
+                        Integer.toString(line.shiftCount),
+                        String.format(Locale.getDefault(), "%.1f", line.hours),
+                        String.format(Locale.getDefault(), "%.2f", line.hourlyRate),
+                        String.format(Locale.getDefault(), "₪%.2f", line.amount));
+                if (!line.known || line.hourlyRate <= 0) missingRate.add(line);
+                progress.update(i + 1, report.lines.size());
+            }
+
+            // 3. שורות שצריך לבדוק לפני תשלום
+            if (!missingRate.isEmpty()) {
+                writer.startSection("לבדיקה: עובדים ללא תעריף", Collections.emptyList(),
+                        new String[]{"עובד", "שעות", "סיבה"}, new int[]{0, 200, 280});
+                for (PayrollAggregator.Line line : missingRate) {
+                    writer.addRow(line.name,
+                            String.format(Locale.getDefault(), "%.1f", line.hours),
+                            line.known ? "תעריף 0" : "לא נמצא במדריך");
+                }
+            }
+
+            progress.checkCancelled();
+            writer.writeTo(out);
+        } finally {
+            writer.close();
+        }
+    }
+
+    // שדה CSV עם מירכאות כשצריך
+    private static String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
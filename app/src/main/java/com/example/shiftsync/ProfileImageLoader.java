@@ -0,0 +1,136 @@
+package com.example.shiftsync;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import com.example.shiftsync.data.ProfileImageStore;
+import com.example.shiftsync.models.UserSummary;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * טוען תמונות פרופיל (Profile Image Loader).
+ * הקריאה (ממאגר התמונות או מהמטמון בדיסק) והפענוח מתבצעים ברקע ובגודל של התצוגה (inSampleSize),
+ * והתוצאה נשמרת במטמון בזיכרון (LruCache) לפי חתימת התוכן של התמונה,
+ * כך שגלילה חוזרת ברשימה לא מפענחת שוב, ותמונה שהוחלפה לא מוצגת מהמטמון הישן.
+ * כשהשורה ממוחזרת (Recycled) הטעינה הקודמת שלה מבוטלת.
+ */
+public class ProfileImageLoader {
+
+    private static ProfileImageLoader instance;
+
+    private final LruCache<String, Bitmap> cache;
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // הטעינה הפעילה של כל ImageView (נגיש רק מה-UI Thread)
+    private final Map<ImageView, Request> activeRequests = new WeakHashMap<>();
+
+    private static class Request {
+        final String key;
+        Future<?> future;
+
+        Request(String key) {
+            this.key = key;
+        }
+    }
+
+    private ProfileImageLoader() {
+        // שמינית מהזיכרון שמוקצה לאפליקציה (ב-KB)
+        int cacheSizeKb = (int) (Runtime.getRuntime().maxMemory() / 1024 / 8);
+        cache = new LruCache<String, Bitmap>(cacheSizeKb) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount() / 1024;
+            }
+        };
+    }
+
+    public static synchronized ProfileImageLoader getInstance() {
+        if (instance == null) {
+            instance = new ProfileImageLoader();
+        }
+        return instance;
+    }
+
+    /**
+     * הצגת תמונת פרופיל של משתמש ב-ImageView.
+     * @param view - התצוגה שבה תוצג התמונה.
+     * @param user - תקציר המשתמש (התמונה נלקחת מה-hash שלו במאגר התמונות).
+     * @param sizePx - גודל התצוגה בפיקסלים (התמונה מפוענחת לגודל הזה בערך).
+     * @param placeholderRes - תמונת ברירת מחדל עד שהטעינה מסתיימת (או כשאין תמונה).
+     */
+    public void load(ImageView view, UserSummary user, int sizePx, int placeholderRes) {
+        load(view, user.getUid(), user.getProfileImageHash(), null, sizePx, placeholderRes);
+    }
+
+    /**
+     * הצגת תמונת פרופיל לפי השדות של מסמך המשתמש.
+     * @param imageHash - ה-hash של התמונה במאגר התמונות (עדיף, אם קיים).
+     * @param legacyImage - התמונה כ-Base64 ממסמך משתמש שעוד לא הועבר למאגר (או null).
+     */
+    public void load(ImageView view, String uid, String imageHash, String legacyImage, int sizePx, int placeholderRes) {
+        cancel(view);
+
+        if (imageHash != null && !imageHash.isEmpty()) {
+            // התמונה במאגר: המפתח הוא התוכן עצמו, כך שאותה תמונה משותפת בין מסכים ולא מתיישנת
+            ProfileImageStore store = ProfileImageStore.getInstance(view.getContext());
+            start(view, imageHash + ":" + sizePx, placeholderRes, () -> {
+                byte[] bytes = store.getBytesBlocking(imageHash);
+                return bytes == null ? null : ImageUtils.decodeSampledBitmap(bytes, sizePx, sizePx);
+            });
+        } else if (legacyImage != null && !legacyImage.isEmpty()) {
+            // String שומר את ה-hashCode שלו אחרי החישוב הראשון, כך שבגלילות הבאות זה לא עולה כלום
+            start(view, uid + ":" + legacyImage.hashCode() + ":" + sizePx, placeholderRes,
+                    () -> ImageUtils.decodeSampledBitmap(legacyImage, sizePx, sizePx));
+        } else {
+            view.setImageResource(placeholderRes);
+        }
+    }
+
+    private void start(ImageView view, String key, int placeholderRes, Callable<Bitmap> decoder) {
+        Bitmap cached = cache.get(key);
+        if (cached != null) {
+            view.setImageBitmap(cached);
+            return;
+        }
+
+        view.setImageResource(placeholderRes);
+        Request request = new Request(key);
+        activeRequests.put(view, request);
+        request.future = executor.submit(() -> {
+            Bitmap bitmap;
+            try {
+                bitmap = decoder.call();
+            } catch (Exception e) {
+                return;
+            }
+            if (bitmap == null) return;
+            cache.put(key, bitmap);
+
+            mainHandler.post(() -> {
+                // מציגים רק אם ה-ImageView עדיין מחכה לאותה תמונה (לא מוחזר לשורה אחרת בינתיים)
+                if (activeRequests.get(view) == request) {
+                    activeRequests.remove(view);
+                    view.setImageBitmap(bitmap);
+                }
+            });
+        });
+    }
+
+    // ביטול טעינה שעוד לא הסתיימה (למשל כשהשורה ממוחזרת)
+    public void cancel(ImageView view) {
+        Request previous = activeRequests.remove(view);
+        if (previous != null && previous.future != null) {
+            previous.future.cancel(true);
+        }
+    }
+}
@@ -8,11 +8,11 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.shiftsync.data.UserDirectory;
 import com.example.shiftsync.databinding.ActivityRegisterBinding;
 import com.example.shiftsync.models.User;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 /**
  * מסך ההרשמה (Register Screen).
@@ -28,9 +28,6 @@ public class RegisterActivity extends AppCompatActivity {
     // רכיב האימות (ליצירת משתמש חדש)
     private FirebaseAuth mAuth;
 
-    // רכיב מסד הנתונים (לשמירת פרטי המשתמש המורחבים)
-    private FirebaseFirestore db;
-
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -41,7 +38,6 @@ public class RegisterActivity extends AppCompatActivity {
 
         // אתחול מופעי Firebase
         mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
 
         // --- לוגיקת שדה קוד מנהל ---
         // אנו מאזינים לשינויים בכפתורי הבחירה (Radio Buttons).
@@ -157,9 +153,9 @@ public class RegisterActivity extends AppCompatActivity {
         // (UID, FullName, ID Number, Email, Role, Hourly Rate)
         User newUser = new User(uid, name, idNum, email, role, initialRate);
 
-        // שמירה באוסף "users".
+        // שמירה באוסף "users" (וגם התקציר במדריך המשתמשים, באותו Batch).
         // אנו משתמשים ב-UID כשם המסמך (.document(uid)) כדי שיהיה קל למצוא אותו בעתיד.
-        db.collection("users").document(uid).set(newUser)
+        UserDirectory.getInstance().createUser(newUser)
                 .addOnSuccessListener(aVoid -> {
                     // הכל עבר בהצלחה!
                     binding.progressBar.setVisibility(View.GONE);
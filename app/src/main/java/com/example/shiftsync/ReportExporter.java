@@ -0,0 +1,145 @@
+package com.example.shiftsync;
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Environment;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.MediaStore;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ייצוא דוחות לתיקיית ההורדות ברקע (Report Exporter).
+ * הדוח נכתב ישירות ל-stream של הקובץ ב-MediaStore על Thread רקע (דוח אחד בכל פעם),
+ * עם עדכוני התקדמות ואפשרות ביטול. הקובץ מסומן "בהכנה" (IS_PENDING) עד שהכתיבה מסתיימת,
+ * וקובץ של ייצוא שבוטל או נכשל נמחק.
+ * כל הקריאות ל-Listener מתבצעות ב-UI Thread.
+ */
+public class ReportExporter {
+
+    // דוחות רצים אחד אחרי השני, כדי ששני ייצואים גדולים לא יתחרו על הזיכרון
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * כתיבת תוכן הדוח. רצה ברקע.
+     */
+    public interface Job {
+        void write(OutputStream out, Progress progress) throws IOException;
+    }
+
+    /**
+     * תוצאות הייצוא (ב-UI Thread).
+     */
+    public interface Listener {
+        void onProgress(int done, int total);
+        void onSaved(String fileName);
+        void onCancelled();
+        void onError(Exception e);
+    }
+
+    /**
+     * התקדמות וביטול של ייצוא אחד.
+     * ה-Job מדווח התקדמות וקורא ל-checkCancelled בין שורות.
+     */
+    public static class Progress {
+        private final Listener listener;
+        private volatile boolean cancelled;
+        private int lastPercent = -1;
+
+        Progress(Listener listener) {
+            this.listener = listener;
+        }
+
+        // עדכון המסך רק כשהאחוז משתנה (לא על כל שורה)
+        public void update(int done, int total) {
+            int percent = total == 0 ? 100 : (int) (done * 100L / total);
+            if (percent == lastPercent) return;
+            lastPercent = percent;
+            mainHandler.post(() -> listener.onProgress(done, total));
+        }
+
+        public void checkCancelled() {
+            if (cancelled) throw new CancellationException();
+        }
+
+        // ביטול הייצוא (אפשר לקרוא מה-UI Thread)
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private ReportExporter() { }
+
+    /**
+     * התחלת ייצוא.
+     * @param fileName - שם הקובץ בתיקיית ההורדות.
+     * @param mimeType - למשל application/pdf או text/csv.
+     * @return אובייקט ההתקדמות, שדרכו אפשר לבטל.
+     */
+    public static Progress export(Context context, String fileName, String mimeType, Job job, Listener listener) {
+        ContentResolver resolver = context.getApplicationContext().getContentResolver();
+        Progress progress = new Progress(listener);
+
+        executor.execute(() -> {
+            Uri uri = null;
+            try {
+                progress.checkCancelled();
+                uri = createDownload(resolver, fileName, mimeType);
+                if (uri == null) throw new IOException("לא ניתן ליצור קובץ");
+
+                try (OutputStream out = new BufferedOutputStream(resolver.openOutputStream(uri))) {
+                    job.write(out, progress);
+                }
+                progress.checkCancelled();
+                publish(resolver, uri);
+                mainHandler.post(() -> listener.onSaved(fileName));
+            } catch (CancellationException e) {
+                deleteQuietly(resolver, uri);
+                mainHandler.post(listener::onCancelled);
+            } catch (Exception e) {
+                deleteQuietly(resolver, uri);
+                mainHandler.post(() -> listener.onError(e));
+            }
+        });
+        return progress;
+    }
+
+    // יצירת הקובץ בתיקיית ההורדות (באנדרואיד 10 ומעלה - מוסתר עד סיום הכתיבה)
+    private static Uri createDownload(ContentResolver resolver, String fileName, String mimeType) {
+        ContentValues values = new ContentValues();
+        values.put(MediaStore.MediaColumns.DISPLAY_NAME, fileName);
+        values.put(MediaStore.MediaColumns.MIME_TYPE, mimeType);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            values.put(MediaStore.MediaColumns.RELATIVE_PATH, Environment.DIRECTORY_DOWNLOADS);
+            values.put(MediaStore.MediaColumns.IS_PENDING, 1);
+        }
+        return resolver.insert(MediaStore.Files.getContentUri("external"), values);
+    }
+
+    private static void publish(ContentResolver resolver, Uri uri) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            ContentValues values = new ContentValues();
+            values.put(MediaStore.MediaColumns.IS_PENDING, 0);
+            resolver.update(uri, values, null, null);
+        }
+    }
+
+    private static void deleteQuietly(ContentResolver resolver, Uri uri) {
+        if (uri == null) return;
+        try {
+            resolver.delete(uri, null, null);
+        } catch (Exception ignored) {
+            // קובץ חלקי שלא נמחק יישאר מוסתר (IS_PENDING) ויימחק על ידי המערכת
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.shiftsync;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.pdf.PdfDocument;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * כותב דוחות PDF עם מעבר עמודים אוטומטי (Report PDF Writer).
+ * הדוח בנוי מחלקים (Sections): לכל חלק כותרת, שורות פרטים, כותרות עמודות, שורות טבלה וסיכום.
+ * כששורה לא נכנסת בעמוד - העמוד נסגר, נפתח עמוד חדש וכותרות העמודות מצוירות שוב.
+ * עמוד שנסגר (finishPage) עובר לכתיבה של PdfDocument ולא נשאר כאובייקט ב-Java,
+ * ולכן הזיכרון לא גדל עם מספר השורות. אובייקטי ה-Paint נוצרים פעם אחת לכל הדוח.
+ * לא נוגע ב-UI, כך שאפשר להריץ אותו ברקע.
+ */
+public class ReportPdfWriter {
+
+    // גודל דף A4 בנקודות
+    private static final int PAGE_WIDTH = 595;
+    private static final int PAGE_HEIGHT = 842;
+
+    private static final int MARGIN = 50;
+    private static final int ROW_HEIGHT = 24;
+    private static final int FOOTER_HEIGHT = 40;
+
+    // מיקום X של הטקסט (יישור לימין - עברית)
+    private static final int RIGHT = PAGE_WIDTH - MARGIN;
+
+    private final PdfDocument document = new PdfDocument();
+    private final String title;
+
+    private final Paint titlePaint = new Paint();
+    private final Paint headingPaint = new Paint();
+    private final Paint textPaint = new Paint();
+    private final Paint boldPaint = new Paint();
+    private final Paint totalPaint = new Paint();
+    private final Paint footerPaint = new Paint();
+
+    // העמוד הפתוח כרגע
+    private PdfDocument.Page page;
+    private Canvas canvas;
+    private int pageNumber;
+    private int y;
+    private boolean closed;
+
+    // העמודות של החלק הנוכחי (לציור מחדש בעמוד חדש)
+    private String sectionHeading;
+    private String[] columns;
+    private int[] columnOffsets;
+
+    /**
+     * @param title - כותרת הדוח (מופיעה בראש העמוד הראשון).
+     */
+    public ReportPdfWriter(String title) {
+        this.title = title;
+
+        titlePaint.setTextSize(24);
+        titlePaint.setColor(Color.BLUE);
+        titlePaint.setTextAlign(Paint.Align.CENTER);
+        titlePaint.setFakeBoldText(true);
+
+        headingPaint.setTextSize(16);
+        headingPaint.setColor(Color.parseColor("#6200EE"));
+        headingPaint.setTextAlign(Paint.Align.RIGHT);
+        headingPaint.setFakeBoldText(true);
+
+        textPaint.setTextSize(14);
+        textPaint.setColor(Color.BLACK);
+        textPaint.setTextAlign(Paint.Align.RIGHT);
+
+        boldPaint.set(textPaint);
+        boldPaint.setFakeBoldText(true);
+
+        totalPaint.setTextSize(18);
+        totalPaint.setColor(Color.parseColor("#4CAF50"));
+        totalPaint.setTextAlign(Paint.Align.RIGHT);
+        totalPaint.setFakeBoldText(true);
+
+        footerPaint.setTextSize(10);
+        footerPaint.setColor(Color.GRAY);
+        footerPaint.setTextAlign(Paint.Align.CENTER);
+    }
+
+    /**
+     * פתיחת חלק חדש בדוח.
+     * @param heading - כותרת החלק (למשל שם העובד או החודש).
+     * @param details - שורות פרטים מתחת לכותרת (יכול להיות ריק).
+     * @param columns - כותרות העמודות.
+     * @param columnOffsets - המרחק של כל עמודה מהקצה הימני.
+     */
+    public void startSection(String heading, List<String> details, String[] columns, int[] columnOffsets) {
+        this.sectionHeading = heading;
+        this.columns = columns;
+        this.columnOffsets = columnOffsets;
+
+        // כותרת, פרטים, כותרות עמודות ולפחות שתי שורות - אחרת מתחילים בעמוד חדש
+        ensureRoom(ROW_HEIGHT * (details.size() + 5));
+        y += ROW_HEIGHT;
+        canvas.drawText(heading, RIGHT, y, headingPaint);
+        y += 6;
+        for (String line : details) {
+            y += 20;
+            canvas.drawText(line, RIGHT, y, textPaint);
+        }
+        drawColumnHeaders();
+    }
+
+    /**
+     * הוספת שורה לטבלה של החלק הנוכחי (תא לכל עמודה).
+     */
+    public void addRow(String... cells) {
+        if (!ensureRoom(ROW_HEIGHT)) {
+            // עמוד חדש באמצע החלק - הכותרות מצוירות שוב
+            y += ROW_HEIGHT;
+            canvas.drawText(sectionHeading + " (המשך)", RIGHT, y, headingPaint);
+            drawColumnHeaders();
+        }
+        y += ROW_HEIGHT;
+        for (int i = 0; i < cells.length && i < columnOffsets.length; i++) {
+            canvas.drawText(cells[i], RIGHT - columnOffsets[i], y, textPaint);
+        }
+    }
+
+    /**
+     * שורת סיכום מודגשת (בסוף חלק או בסוף הדוח).
+     */
+    public void addTotal(String text) {
+        ensureRoom(ROW_HEIGHT * 2);
+        y += ROW_HEIGHT + 10;
+        canvas.drawText(text, RIGHT, y, totalPaint);
+        y += 10;
+    }
+
+    // מספר העמודים עד עכשיו
+    public int getPageCount() {
+        return pageNumber;
+    }
+
+    /**
+     * סגירת העמוד האחרון וכתיבת המסמך ל-stream. אחרי הקריאה אין להוסיף שורות.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        try {
+            if (page == null) newPage(); // דוח ריק עדיין צריך עמוד
+            finishPage();
+            document.writeTo(out);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * שחרור המסמך (גם בלי לכתוב אותו, למשל כשהייצוא בוטל). אפשר לקרוא יותר מפעם אחת.
+     */
+    public void close() {
+        if (closed) return;
+        closed = true;
+        // PdfDocument לא נסגר כשיש עמוד פתוח
+        if (page != null) document.finishPage(page);
+        page = null;
+        document.close();
+    }
+
+    // ציור כותרות העמודות וקו מפריד
+    private void drawColumnHeaders() {
+        y += ROW_HEIGHT + 6;
+        for (int i = 0; i < columns.length; i++) {
+            canvas.drawText(columns[i], RIGHT - columnOffsets[i], y, boldPaint);
+        }
+        canvas.drawLine(MARGIN, y + 8, RIGHT, y + 8, textPaint);
+        y += 8;
+    }
+
+    /**
+     * מוודא שיש מקום לגובה הנתון בעמוד הנוכחי, ואם לא - עובר לעמוד חדש.
+     * @return true אם נשארנו באותו עמוד.
+     */
+    private boolean ensureRoom(int height) {
+        if (page != null && y + height <= PAGE_HEIGHT - FOOTER_HEIGHT) return true;
+        if (page != null) finishPage();
+        newPage();
+        return false;
+    }
+
+    private void newPage() {
+        pageNumber++;
+        PdfDocument.PageInfo pageInfo = new PdfDocument.PageInfo.Builder(PAGE_WIDTH, PAGE_HEIGHT, pageNumber).create();
+        page = document.startPage(pageInfo);
+        canvas = page.getCanvas();
+        y = MARGIN;
+
+        // כותרת הדוח רק בעמוד הראשון
+        if (pageNumber == 1) {
+            canvas.drawText(title, PAGE_WIDTH / 2f, y, titlePaint);
+            y += 20;
+        }
+    }
+
+    // מספר עמוד בתחתית וסגירת העמוד
+    private void finishPage() {
+        canvas.drawText("עמוד " + pageNumber, PAGE_WIDTH / 2f, PAGE_HEIGHT - FOOTER_HEIGHT / 2f, footerPaint);
+        document.finishPage(page);
+        page = null;
+        canvas = null;
+    }
+}
@@ -4,6 +4,7 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
+import android.widget.CheckBox;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
@@ -12,8 +13,12 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.shiftsync.models.ShiftRequestItem;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 /**
  * אדפטר (Adapter) לניהול רשימת הבקשות לאישור.
@@ -22,15 +27,16 @@ import java.util.Locale;
  * 1. פרטי המשמרת (תאריך ושעה).
  * 2. שם העובד שמבקש להצטרף.
  * 3. כפתורי פעולה (אישור / דחייה).
+ * 4. תיבת בחירה לפעולות מרובות (אישור/דחייה של כמה בקשות יחד).
  */
-public class RequestsAdapter extends RecyclerView.Adapter<RequestsAdapter.ViewHolder> {
-
-    // רשימת הבקשות שמוצגת כרגע
-    private List<ShiftRequestItem> requests;
+public class RequestsAdapter extends StableIdListAdapter<ShiftRequestItem, RequestsAdapter.ViewHolder> {
 
     // המאזין לאירועים (ה-Activity שמממש את הממשק)
     private OnRequestActionListener listener;
 
+    // מזהי הבקשות שנבחרו (לפי מזהה ולא לפי מיקום, כי הרשימה משתנה בזמן אמת)
+    private final Set<String> selectedIds = new LinkedHashSet<>();
+
     /**
      * ממשק (Interface) להעברת אירועי לחיצה חזרה ל-Activity.
      * האדפטר רק מציג את הכפתורים, אך הלוגיקה של "מה קורה כשמאשרים" (עדכון ב-Firebase)
@@ -39,15 +45,17 @@ public class RequestsAdapter extends RecyclerView.Adapter<RequestsAdapter.ViewHo
     public interface OnRequestActionListener {
         void onApprove(ShiftRequestItem item); // המנהל לחץ "אשר"
         void onDeny(ShiftRequestItem item);    // המנהל לחץ "דחה"
+        void onLongPress(ShiftRequestItem item); // לחיצה ארוכה - פעולות על כל המשמרת/היום
+        void onSelectionChanged(int count);    // מספר הבקשות הנבחרות השתנה
     }
 
     /**
      * בנאי (Constructor).
-     * @param requests - רשימת הנתונים להצגה.
+     * רשימת הבקשות מועברת ב-submitList.
      * @param listener - מי שמטפל בלחיצות (ה-Activity).
      */
-    public RequestsAdapter(List<ShiftRequestItem> requests, OnRequestActionListener listener) {
-        this.requests = requests;
+    public RequestsAdapter(OnRequestActionListener listener) {
+        super(ItemDiffs.REQUESTS);
         this.listener = listener;
     }
 
@@ -72,7 +80,7 @@ public class RequestsAdapter extends RecyclerView.Adapter<RequestsAdapter.ViewHo
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         // 1. שליפת הפריט הנוכחי מהרשימה
-        ShiftRequestItem item = requests.get(position);
+        ShiftRequestItem item = getItem(position);
 
         // 2. פרמוט התאריך והשעה להצגה נוחה
         // תבנית לתאריך (למשל: 01/01)
@@ -95,14 +103,58 @@ public class RequestsAdapter extends RecyclerView.Adapter<RequestsAdapter.ViewHo
 
         // בעת לחיצה על "דחה", נקרא לפונקציה onDeny של ה-Activity
         holder.btnDeny.setOnClickListener(v -> listener.onDeny(item));
+
+        // 5. בחירה לפעולות מרובות
+        holder.cbSelect.setOnCheckedChangeListener(null);
+        holder.cbSelect.setChecked(selectedIds.contains(item.getRequestId()));
+        holder.cbSelect.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            if (isChecked) {
+                selectedIds.add(item.getRequestId());
+            } else {
+                selectedIds.remove(item.getRequestId());
+            }
+            listener.onSelectionChanged(selectedIds.size());
+        });
+        holder.itemView.setOnLongClickListener(v -> {
+            listener.onLongPress(item);
+            return true;
+        });
+    }
+
+    // הבקשות הנבחרות שעדיין מוצגות ברשימה
+    public List<ShiftRequestItem> getSelectedItems() {
+        List<ShiftRequestItem> selected = new ArrayList<>();
+        for (ShiftRequestItem item : getCurrentList()) {
+            if (selectedIds.contains(item.getRequestId())) selected.add(item);
+        }
+        return selected;
+    }
+
+    // הוספת בקשות לבחירה (למשל "בחר את כל המשמרת")
+    public void select(List<ShiftRequestItem> items) {
+        for (ShiftRequestItem item : items) {
+            selectedIds.add(item.getRequestId());
+        }
+        notifyItemRangeChanged(0, getItemCount());
+        listener.onSelectionChanged(selectedIds.size());
+    }
+
+    public void clearSelection() {
+        selectedIds.clear();
+        notifyItemRangeChanged(0, getItemCount());
+        listener.onSelectionChanged(0);
     }
 
     /**
-     * מחזירה את מספר הפריטים ברשימה (כדי שה-RecyclerView ידע כמה שורות לצייר).
+     * ניקוי הבחירה מבקשות שכבר יצאו מהרשימה (אושרו/נדחו/בוטלו).
+     * נקרא אחרי כל עדכון של הרשימה.
      */
-    @Override
-    public int getItemCount() {
-        return requests.size();
+    public void retainSelection(List<ShiftRequestItem> items) {
+        Set<String> present = new HashSet<>();
+        for (ShiftRequestItem item : items) {
+            present.add(item.getRequestId());
+        }
+        if (selectedIds.retainAll(present)) listener.onSelectionChanged(selectedIds.size());
     }
 
     /**
@@ -112,6 +164,7 @@ public class RequestsAdapter extends RecyclerView.Adapter<RequestsAdapter.ViewHo
     public static class ViewHolder extends RecyclerView.ViewHolder {
         TextView tvShiftDetails, tvEmployeeName;
         Button btnApprove, btnDeny;
+        CheckBox cbSelect;
 
         public ViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -120,6 +173,7 @@ public class RequestsAdapter extends RecyclerView.Adapter<RequestsAdapter.ViewHo
             tvEmployeeName = itemView.findViewById(R.id.tvEmployeeName);
             btnApprove = itemView.findViewById(R.id.btnApprove);
             btnDeny = itemView.findViewById(R.id.btnDeny);
+            cbSelect = itemView.findViewById(R.id.cbSelect);
         }
     }
 }
\ No newline at end of file
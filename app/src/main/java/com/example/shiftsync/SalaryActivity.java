@@ -1,25 +1,26 @@
 package com.example.shiftsync;
 
-import android.content.ContentValues;
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.pdf.PdfDocument;
-import android.net.Uri;
-import android.os.Build;
 import android.os.Bundle;
-import android.os.Environment;
-import android.provider.MediaStore;
+import android.widget.ProgressBar;
 import android.widget.Toast;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
+import com.example.shiftsync.data.CalendarRanges;
+import com.example.shiftsync.data.FirestoreStore;
+import com.example.shiftsync.data.LocalStore;
+import com.example.shiftsync.data.PayrollCalculator;
+import com.example.shiftsync.data.PayrollLedger;
+import com.example.shiftsync.data.ShiftService;
+import com.example.shiftsync.data.ShiftWriter;
+import com.example.shiftsync.data.TracedFirestore;
+import com.example.shiftsync.data.UserMapper;
 import com.example.shiftsync.databinding.ActivitySalaryBinding;
 import com.example.shiftsync.models.Shift;
 import com.example.shiftsync.models.User;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.io.IOException;
@@ -37,8 +38,8 @@ import java.util.Locale;
  * הפעולות העיקריות:
  * 1. שליפת השכר השעתי של העובד.
  * 2. שליפת כל המשמרות שהעובד ביצע החודש.
- * 3. חישוב מתמטי (שעות * תעריף).
- * 4. יצירת קובץ PDF בצורה גרפית (ציור טקסט וקווים).
+ * 3. הצגת סה"כ השכר מספר השכר החודשי (מסמך מסכם אחד לכל חודש).
+ * 4. יצירת קובץ PDF (חודש או שנה) ברקע, עם מעבר עמודים אוטומטי.
  */
 public class SalaryActivity extends AppCompatActivity {
 
@@ -54,6 +55,13 @@ public class SalaryActivity extends AppCompatActivity {
     private List<Shift> shiftsList;
     private SalaryAdapter adapter;
 
+    // המשמרות כבר הגיעו מהשרת (ואז לא דורסים אותן בעותק המקומי)
+    private boolean shiftsFromServer;
+
+    // הייצוא שרץ כרגע (לביטול), או null
+    private ReportExporter.Progress export;
+    private AlertDialog progressDialog;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -69,6 +77,9 @@ public class SalaryActivity extends AppCompatActivity {
         // הגדרת רשימת התצוגה (RecyclerView)
         binding.rvSalaryShifts.setLayoutManager(new LinearLayoutManager(this));
 
+        // סיכום החודש מגיע מספר השכר (מסמך אחד) ומוצג מיד, בלי לחכות לרשימת המשמרות
+        loadMonthlySummary();
+
         // שלב 1: טעינת נתוני משתמש.
         // אנו חייבים לטעון קודם את המשתמש כדי לקבל את ה"תעריף השעתי" (Hourly Rate).
         // רק אחרי שנקבל אותו, נוכל לטעון את המשמרות ולחשב שכר.
@@ -77,18 +88,18 @@ public class SalaryActivity extends AppCompatActivity {
         // כפתור חזרה
         binding.btnBack.setOnClickListener(v -> finish());
 
-        // כפתור ייצוא ל-PDF -> מפעיל את הפונקציה המורכבת של יצירת המסמך
-        binding.btnExportPdf.setOnClickListener(v -> generatePdfReport());
+        // כפתור ייצוא ל-PDF -> בחירת טווח ויצירת המסמך ברקע
+        binding.btnExportPdf.setOnClickListener(v -> showExportOptions());
     }
 
     /**
      * שליפת נתוני המשתמש (שם ותעריף שעתי) מ-Firestore.
      */
     private void loadUserData() {
-        db.collection("users").document(currentUserId).get()
+        TracedFirestore.get("users.doc", db.collection("users").document(currentUserId))
                 .addOnSuccessListener(documentSnapshot -> {
                     if (documentSnapshot.exists()) {
-                        User user = documentSnapshot.toObject(User.class);
+                        User user = UserMapper.fromSnapshot(documentSnapshot);
                         if (user != null) {
                             // שמירת הנתונים במשתנים הגלובליים
                             userHourlyRate = user.getHourlyRate();
@@ -102,179 +113,222 @@ public class SalaryActivity extends AppCompatActivity {
     }
 
     /**
-     * טעינת המשמרות של החודש הנוכחי וחישוב השכר הכולל.
+     * טעינת סה"כ השכר של החודש מספר השכר החודשי (קריאה של מסמך אחד).
+     * אם הספר עוד לא קיים - מחשבים אותו פעם אחת מהמשמרות ושומרים.
      */
-    private void loadMonthlyShifts() {
-        // חישוב תאריך תחילת החודש (למשל: 1 לינואר 00:00)
-        Calendar startOfMonth = Calendar.getInstance();
-        startOfMonth.set(Calendar.DAY_OF_MONTH, 1);
-        startOfMonth.set(Calendar.HOUR_OF_DAY, 0);
-        startOfMonth.set(Calendar.MINUTE, 0);
-
-        // ביצוע שאילתה מורכבת:
-        // 1. האם ה-ID שלי נמצא ברשימת assignedUserIds? (האם אני משובץ?)
-        // 2. האם תאריך המשמרת גדול או שווה לתחילת החודש?
-        db.collection("shifts")
-                .whereArrayContains("assignedUserIds", currentUserId)
-                .whereGreaterThanOrEqualTo("startTime", startOfMonth.getTimeInMillis())
-                .orderBy("startTime") // סידור כרונולוגי
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    shiftsList.clear();
-                    double totalSalary = 0;
-
-                    // מעבר על כל המשמרות שנמצאו
-                    for (DocumentSnapshot doc : queryDocumentSnapshots.getDocuments()) {
-                        Shift shift = doc.toObject(Shift.class);
-                        if (shift != null) {
-                            shiftsList.add(shift);
-
-                            // חישוב שכר למשמרת בודדת:
-                            // (זמן סיום - זמן התחלה) במילישניות -> המרה לשעות -> כפול תעריף
-                            double hours = (double) (shift.getEndTime() - shift.getStartTime()) / (1000 * 60 * 60);
-                            totalSalary += (hours * userHourlyRate);
-                        }
-                    }
-
-                    // עדכון התצוגה על המסך
-                    // יצירת אדפטר פנימי (SalaryAdapter) להצגת השורות בטבלה
-                    adapter = new SalaryAdapter(shiftsList, userHourlyRate);
-                    binding.rvSalaryShifts.setAdapter(adapter);
+    private void loadMonthlySummary() {
+        PayrollLedger ledger = ShiftWriter.getInstance().getLedger();
+        long now = System.currentTimeMillis();
+
+        TracedFirestore.get("payroll.ledger", ledger.ledgerRef(currentUserId, now)).addOnSuccessListener(doc -> {
+            if (PayrollLedger.isReconciled(doc)) {
+                showTotalSalary(doc.getDouble(PayrollLedger.FIELD_AMOUNT));
+            } else {
+                ledger.reconcile(currentUserId, now)
+                        .addOnSuccessListener(result -> showTotalSalary((Double) result.get(PayrollLedger.FIELD_AMOUNT)));
+            }
+        });
+    }
 
-                    // הצגת הסיכום הכולל בתחתית המסך
-                    binding.tvTotalSalary.setText(String.format(Locale.getDefault(), "₪%.2f", totalSalary));
-                });
+    // הצגת הסיכום הכולל בתחתית המסך
+    private void showTotalSalary(double totalSalary) {
+        binding.tvTotalSalary.setText(String.format(Locale.getDefault(), "₪%.2f", totalSalary));
     }
 
     /**
-     * הפונקציה המרכזית ליצירת ה-PDF.
-     * הפונקציה "מציירת" את הדוח באופן ידני על דף וירטואלי.
+     * טעינת המשמרות של החודש הנוכחי לטבלת הפירוט ולדוח ה-PDF.
      */
-    private void generatePdfReport() {
-        if (shiftsList.isEmpty()) {
-            Toast.makeText(this, "אין נתונים לייצוא", Toast.LENGTH_SHORT).show();
-            return;
-        }
-
-        // יצירת מסמך PDF חדש בזיכרון
-        PdfDocument pdfDocument = new PdfDocument();
-
-        // הגדרת גודל דף (A4 סטנדרטי בפיקסלים: בערך 595x842)
-        PdfDocument.PageInfo pageInfo = new PdfDocument.PageInfo.Builder(595, 842, 1).create();
-
-        // התחלת עמוד מס' 1
-        PdfDocument.Page page = pdfDocument.startPage(pageInfo);
-
-        // Canvas הוא משטח הציור שלנו
-        Canvas canvas = page.getCanvas();
-
-        // Paint מגדיר את סגנון המכחול (צבע, גודל גופן, יישור)
-        Paint paint = new Paint();
-        Paint titlePaint = new Paint();
+    private void loadMonthlyShifts() {
+        // חישוב טווח החודש (מ-1 לחודש 00:00 ועד תחילת החודש הבא)
+        long monthStart = CalendarRanges.monthStart(System.currentTimeMillis());
+        long endOfMonth = CalendarRanges.monthEnd(monthStart);
+
+        // קודם מהמאגר המקומי (מיידי), ואז מהשרת
+        LocalStore.getInstance(this).getShiftsForUser(currentUserId, monthStart, endOfMonth)
+                .addOnSuccessListener(this, shifts -> {
+                    if (!shiftsFromServer) showShifts(shifts);
+                });
 
-        // --- שלב הציור (Drawing) ---
+        // המשמרות שאני משובץ אליהן בחודש הנוכחי, לפי סדר כרונולוגי
+        ShiftService shiftService = FirestoreStore.getInstance().getShiftService();
+        FirestoreStore.task(shiftService.assignedShiftsForMonth(currentUserId, monthStart))
+                .addOnSuccessListener(shifts -> {
+                    shiftsFromServer = true;
+                    showShifts(shifts);
+                });
+    }
 
-        // 1. ציור הכותרת
-        titlePaint.setTextSize(24);
-        titlePaint.setColor(Color.BLUE);
-        titlePaint.setTextAlign(Paint.Align.CENTER); // מרכוז
-        titlePaint.setFakeBoldText(true); // מודגש
-        // ציור הטקסט במרכז הרוחב של הדף, בגובה 50 פיקסלים מלמעלה
-        canvas.drawText("דוח שכר חודשי - ShiftSync", pageInfo.getPageWidth() / 2, 50, titlePaint);
+    // עדכון התצוגה על המסך
+    private void showShifts(List<Shift> shifts) {
+        shiftsList.clear();
+        shiftsList.addAll(shifts);
 
-        // 2. ציור פרטי העובד (בצד ימין - RTL)
-        paint.setTextSize(14);
-        paint.setColor(Color.BLACK);
-        paint.setTextAlign(Paint.Align.RIGHT); // יישור לימין (לעברית)
+        // יצירת אדפטר פנימי (SalaryAdapter) להצגת השורות בטבלה (פעם אחת)
+        if (adapter == null) {
+            adapter = new SalaryAdapter(userHourlyRate);
+            binding.rvSalaryShifts.setAdapter(adapter);
+        }
+        adapter.submitList(new ArrayList<>(shiftsList));
+    }
 
-        int startX = pageInfo.getPageWidth() - 50; // מיקום X: קצת שמאלה מהקצה הימני
-        int startY = 100; // מיקום Y התחלתי
+    /**
+     * בחירת טווח הדוח: החודש הנוכחי (כבר טעון) או 12 החודשים האחרונים.
+     */
+    private void showExportOptions() {
+        String[] options = {"החודש הנוכחי", "12 החודשים האחרונים"};
+        new AlertDialog.Builder(this)
+                .setTitle("הפקת דוח PDF")
+                .setItems(options, (dialog, which) -> {
+                    if (which == 0) {
+                        generatePdfReport(new ArrayList<>(shiftsList));
+                    } else {
+                        loadYearAndExport();
+                    }
+                })
+                .show();
+    }
 
-        canvas.drawText("שם העובד: " + userFullName, startX, startY, paint);
-        canvas.drawText("תאריך הפקה: " + new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault()).format(new Date()), startX, startY + 20, paint);
-        canvas.drawText("תעריף שעתי: " + userHourlyRate + " ₪", startX, startY + 40, paint);
+    // שליפת המשמרות של 12 החודשים האחרונים (כולל החודש הנוכחי) לפי סדר כרונולוגי
+    private void loadYearAndExport() {
+        Calendar from = Calendar.getInstance();
+        from.setTimeInMillis(CalendarRanges.monthStart(System.currentTimeMillis()));
+        from.add(Calendar.MONTH, -11);
+        long to = CalendarRanges.monthEnd(System.currentTimeMillis());
+
+        ShiftService shiftService = FirestoreStore.getInstance().getShiftService();
+        FirestoreStore.task(shiftService.assignedShifts(currentUserId, from.getTimeInMillis(), to))
+                .addOnSuccessListener(this::generatePdfReport)
+                .addOnFailureListener(e -> Toast.makeText(this, "שגיאה בטעינת המשמרות", Toast.LENGTH_SHORT).show());
+    }
 
-        // 3. כותרות הטבלה
-        startY += 80;
-        paint.setFakeBoldText(true);
-        // אנו מציירים את העמודות במרחקים קבועים מה-X ההתחלתי
-        canvas.drawText("תאריך", startX, startY, paint);
-        canvas.drawText("שעות", startX - 150, startY, paint);
-        canvas.drawText("סכום", startX - 300, startY, paint);
+    /**
+     * יצירת דוח ה-PDF ושמירתו בתיקיית ההורדות.
+     * הציור והכתיבה מתבצעים ברקע (ReportExporter) עם מעבר עמודים אוטומטי (ReportPdfWriter),
+     * ובזמן הזה מוצג דיאלוג התקדמות עם כפתור ביטול.
+     * המשמרות ממוינות לפי תאריך, וכל חודש הוא חלק נפרד בדוח עם סיכום משלו.
+     */
+    private void generatePdfReport(List<Shift> shifts) {
+        if (shifts.isEmpty()) {
+            Toast.makeText(this, "אין נתונים לייצוא", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        final String name = userFullName;
+        final double rate = userHourlyRate;
+
+        ProgressBar progressBar = new ProgressBar(this, null, android.R.attr.progressBarStyleHorizontal);
+        progressBar.setMax(shifts.size());
+        progressBar.setPadding(48, 32, 48, 32);
+        progressDialog = new AlertDialog.Builder(this)
+                .setTitle("מפיק דוח...")
+                .setView(progressBar)
+                .setCancelable(false)
+                .setNegativeButton("ביטול", (d, w) -> {
+                    if (export != null) export.cancel();
+                })
+                .show();
 
-        // ציור קו מפריד מתחת לכותרות
-        paint.setFakeBoldText(false);
-        canvas.drawLine(50, startY + 10, pageInfo.getPageWidth() - 50, startY + 10, paint);
+        String fileName = "Salary_Report_" + System.currentTimeMillis() + ".pdf";
+        export = ReportExporter.export(this, fileName, "application/pdf",
+                (out, progress) -> writeSalaryPdf(out, progress, shifts, name, rate),
+                new ReportExporter.Listener() {
+                    @Override
+                    public void onProgress(int done, int total) {
+                        if (isFinishing() || isDestroyed()) return;
+                        progressBar.setProgress(done);
+                    }
 
-        // 4. לולאה לציור שורות הטבלה
-        startY += 40;
-        double totalSum = 0;
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
+                    @Override
+                    public void onSaved(String savedName) {
+                        export = null;
+                        if (isFinishing() || isDestroyed()) return;
+                        dismissProgress();
+                        Toast.makeText(SalaryActivity.this, "הדוח נשמר בהצלחה בתיקיית ההורדות!", Toast.LENGTH_LONG).show();
+                    }
 
-        for (Shift shift : shiftsList) {
-            double hours = (double) (shift.getEndTime() - shift.getStartTime()) / (1000 * 60 * 60);
-            double amount = hours * userHourlyRate;
-            totalSum += amount;
+                    @Override
+                    public void onCancelled() {
+                        export = null;
+                        if (isFinishing() || isDestroyed()) return;
+                        dismissProgress();
+                        Toast.makeText(SalaryActivity.this, "הפקת הדוח בוטלה", Toast.LENGTH_SHORT).show();
+                    }
 
-            // ציור נתוני השורה
-            canvas.drawText(sdf.format(shift.getStartTime()), startX, startY, paint);
-            canvas.drawText(String.format("%.1f", hours), startX - 150, startY, paint);
-            canvas.drawText(String.format("₪%.2f", amount), startX - 300, startY, paint);
+                    @Override
+                    public void onError(Exception e) {
+                        export = null;
+                        if (isFinishing() || isDestroyed()) return;
+                        dismissProgress();
+                        Toast.makeText(SalaryActivity.this, "שגיאה בשמירת הקובץ: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
 
-            startY += 30; // ירידת שורה ב-30 פיקסלים
+    private void dismissProgress() {
+        if (progressDialog != null) {
+            progressDialog.dismiss();
+            progressDialog = null;
         }
-
-        // 5. ציור סיכום סופי (מודגש וירוק)
-        startY += 20;
-        paint.setFakeBoldText(true);
-        paint.setColor(Color.parseColor("#4CAF50")); // ירוק
-        paint.setTextSize(18);
-        canvas.drawText("סה\"כ לתשלום: " + String.format("₪%.2f", totalSum), startX, startY, paint);
-
-        // סיום העמוד
-        pdfDocument.finishPage(page);
-
-        // קריאה לפונקציה ששומרת את הקובץ פיזית
-        savePdfToDownloads(pdfDocument);
     }
 
     /**
-     * שמירת קובץ ה-PDF לתיקיית ההורדות (Downloads) של המכשיר.
-     * שימוש ב-MediaStore (נתמך בגרסאות אנדרואיד חדשות - Scoped Storage).
+     * ציור הדוח (רץ ברקע - בלי גישה לשדות או לתצוגה של המסך).
      */
-    private void savePdfToDownloads(PdfDocument pdfDocument) {
-        // שם קובץ ייחודי (כולל חותמת זמן כדי למנוע דריסת קבצים)
-        String fileName = "Salary_Report_" + System.currentTimeMillis() + ".pdf";
-
-        // הגדרת המאפיינים של הקובץ
-        ContentValues contentValues = new ContentValues();
-        contentValues.put(MediaStore.MediaColumns.DISPLAY_NAME, fileName);
-        contentValues.put(MediaStore.MediaColumns.MIME_TYPE, "application/pdf");
-
-        // באנדרואיד 10 ומעלה, מגדירים את הנתיב היחסי לתיקיית ההורדות
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-            contentValues.put(MediaStore.MediaColumns.RELATIVE_PATH, Environment.DIRECTORY_DOWNLOADS);
-        }
-
-        // יצירת הקובץ במערכת הקבצים
-        Uri uri = getContentResolver().insert(MediaStore.Files.getContentUri("external"), contentValues);
-
+    private static void writeSalaryPdf(OutputStream out, ReportExporter.Progress progress,
+                                       List<Shift> shifts, String name, double rate) throws IOException {
+        // אובייקטי עיצוב ופורמט נוצרים פעם אחת לכל הדוח
+        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
+        SimpleDateFormat monthFormat = new SimpleDateFormat("MM/yyyy", Locale.getDefault());
+        String[] columns = {"תאריך", "שעות", "סכום"};
+        int[] offsets = {0, 150, 300};
+
+        ReportPdfWriter writer = new ReportPdfWriter("דוח שכר - ShiftSync");
         try {
-            if (uri != null) {
-                // פתיחת "צינור" (Stream) לכתיבה לתוך הקובץ שיצרנו
-                OutputStream outputStream = getContentResolver().openOutputStream(uri);
-
-                // כתיבת הנתונים הבינאריים של ה-PDF
-                pdfDocument.writeTo(outputStream);
-
-                // סגירה ושחרור משאבים
-                if (outputStream != null) outputStream.close();
-                pdfDocument.close();
-
-                Toast.makeText(this, "הדוח נשמר בהצלחה בתיקיית ההורדות!", Toast.LENGTH_LONG).show();
+            List<String> details = new ArrayList<>();
+            details.add("שם העובד: " + name);
+            details.add("תאריך הפקה: " + dateFormat.format(new Date()));
+            details.add("תעריף שעתי: " + rate + " ₪");
+
+            double total = 0;
+            double monthTotal = 0;
+            long currentMonth = -1;
+            for (int i = 0; i < shifts.size(); i++) {
+                progress.checkCancelled();
+                Shift shift = shifts.get(i);
+
+                // חלק חדש לכל חודש (פרטי העובד רק בחלק הראשון)
+                long month = CalendarRanges.monthStart(shift.getStartTime());
+                if (month != currentMonth) {
+                    if (currentMonth != -1) writer.addTotal(String.format(Locale.getDefault(), "סה\"כ לחודש: ₪%.2f", monthTotal));
+                    writer.startSection("חודש " + monthFormat.format(month), details, columns, offsets);
+                    details = new ArrayList<>();
+                    currentMonth = month;
+                    monthTotal = 0;
+                }
+
+                double hours = PayrollCalculator.hours(shift);
+                double amount = PayrollCalculator.amount(shift, rate);
+                monthTotal += amount;
+                total += amount;
+                writer.addRow(dateFormat.format(shift.getStartTime()),
+                        String.format(Locale.getDefault(), "%.1f", hours),
+                        String.format(Locale.getDefault(), "₪%.2f", amount));
+                progress.update(i + 1, shifts.size());
             }
-        } catch (IOException e) {
-            Toast.makeText(this, "שגיאה בשמירת הקובץ: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            writer.addTotal(String.format(Locale.getDefault(), "סה\"כ לחודש: ₪%.2f", monthTotal));
+            writer.addTotal(String.format(Locale.getDefault(), "סה\"כ לתשלום: ₪%.2f", total));
+
+            progress.checkCancelled();
+            writer.writeTo(out);
+        } finally {
+            writer.close();
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // ייצוא שעוד רץ מבוטל (הקובץ החלקי נמחק), והדיאלוג נסגר כדי שלא יישאר מחובר לחלון שנהרס
+        if (export != null) export.cancel();
+        dismissProgress();
+    }
+}
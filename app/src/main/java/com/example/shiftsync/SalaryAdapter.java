@@ -6,9 +6,9 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
+import com.example.shiftsync.data.PayrollCalculator;
 import com.example.shiftsync.models.Shift;
 import java.text.SimpleDateFormat;
-import java.util.List;
 import java.util.Locale;
 
 /**
@@ -16,21 +16,18 @@ import java.util.Locale;
  * אחראי להציג כל משמרת כשורה בודדת בדו"ח השכר במסך האפליקציה.
  * האדפטר מבצע חישוב מקומי של השעות והסכום עבור כל משמרת.
  */
-public class SalaryAdapter extends RecyclerView.Adapter<SalaryAdapter.ViewHolder> {
-
-    // רשימת המשמרות שבוצעו החודש
-    private List<Shift> shifts;
+public class SalaryAdapter extends StableIdListAdapter<Shift, SalaryAdapter.ViewHolder> {
 
     // התעריף השעתי של העובד (מועבר מה-Activity כדי לחשב את הסכום)
     private double hourlyRate;
 
     /**
      * בנאי (Constructor).
-     * @param shifts - רשימת המשמרות להצגה.
+     * רשימת המשמרות מועברת ב-submitList.
      * @param hourlyRate - השכר השעתי של העובד (לצורך חישוב עמודת "סכום").
      */
-    public SalaryAdapter(List<Shift> shifts, double hourlyRate) {
-        this.shifts = shifts;
+    public SalaryAdapter(double hourlyRate) {
+        super(ItemDiffs.SHIFTS);
         this.hourlyRate = hourlyRate;
     }
 
@@ -53,17 +50,13 @@ public class SalaryAdapter extends RecyclerView.Adapter<SalaryAdapter.ViewHolder
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         // 1. שליפת המשמרת הנוכחית
-        Shift shift = shifts.get(position);
-
-        // 2. חישוב משך הזמן (Duration)
-        // זמן סיום פחות זמן התחלה (במילי-שניות)
-        long durationMillis = shift.getEndTime() - shift.getStartTime();
+        Shift shift = getItem(position);
 
-        // המרה לשעות (כולל שבר עשרוני, למשל 8.5 שעות)
-        double hours = (double) durationMillis / (1000 * 60 * 60);
+        // 2. חישוב משך הזמן בשעות (כולל שבר עשרוני, למשל 8.5 שעות)
+        double hours = PayrollCalculator.hours(shift);
 
         // 3. חישוב הסכום הכספי למשמרת זו
-        double amount = hours * hourlyRate;
+        double amount = PayrollCalculator.amount(shift, hourlyRate);
 
         // 4. עיצוב תאריך להצגה (יום/חודש/שנה)
         SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
@@ -74,14 +67,6 @@ public class SalaryAdapter extends RecyclerView.Adapter<SalaryAdapter.ViewHolder
         holder.tvAmount.setText(String.format(Locale.getDefault(), "₪%.2f", amount)); // סכום (עם שתי ספרות ומטבע)
     }
 
-    /**
-     * כמות השורות בטבלה.
-     */
-    @Override
-    public int getItemCount() {
-        return shifts.size();
-    }
-
     /**
      * מחלקת ViewHolder - שומרת הפניות לרכיבי הטקסט בשורה.
      */
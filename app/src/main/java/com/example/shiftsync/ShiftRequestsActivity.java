@@ -5,29 +5,37 @@ import android.util.Log;
 import android.view.View;
 import android.widget.Toast;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
+import com.example.shiftsync.data.BulkResult;
+import com.example.shiftsync.data.FirestoreStore;
+import com.example.shiftsync.data.ShiftService;
+import com.example.shiftsync.data.ShiftWriter;
+import com.example.shiftsync.data.TracedFirestore;
 import com.example.shiftsync.databinding.ActivityShiftRequestsBinding;
 import com.example.shiftsync.models.Shift;
+import com.example.shiftsync.models.ShiftRequest;
 import com.example.shiftsync.models.ShiftRequestItem;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FieldValue;
-import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.ListenerRegistration;
 
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * מסך ניהול בקשות (Manager Requests Screen).
  * מסך זה מציג למנהל את כל העובדים שביקשו להירשם למשמרות עתידיות (Pending).
- * המנהל יכול לאשר (להעביר ל-Assigned) או לדחות (להסיר מהרשימה).
+ * המנהל יכול לאשר (להעביר ל-Assigned) או לדחות (להסיר מהרשימה),
+ * גם לכמה בקשות יחד (בחירה מרובה או לחיצה ארוכה על בקשה).
  */
 public class ShiftRequestsActivity extends AppCompatActivity {
 
     private ActivityShiftRequestsBinding binding;
-    private FirebaseFirestore db;
 
     // האדפטר שמציג את רשימת הבקשות
     private RequestsAdapter adapter;
@@ -44,15 +52,13 @@ public class ShiftRequestsActivity extends AppCompatActivity {
         binding = ActivityShiftRequestsBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        // אתחול Firebase
-        db = FirebaseFirestore.getInstance();
         requestItems = new ArrayList<>();
 
         // הגדרת ה-RecyclerView
         binding.recyclerViewRequests.setLayoutManager(new LinearLayoutManager(this));
 
         // יצירת האדפטר והגדרת הפעולות לכל כפתור
-        adapter = new RequestsAdapter(requestItems, new RequestsAdapter.OnRequestActionListener() {
+        adapter = new RequestsAdapter(new RequestsAdapter.OnRequestActionListener() {
             @Override
             public void onApprove(ShiftRequestItem item) {
                 // לחיצה על "אשר"
@@ -64,12 +70,28 @@ public class ShiftRequestsActivity extends AppCompatActivity {
                 // לחיצה על "דחה"
                 denyRequest(item);
             }
+
+            @Override
+            public void onLongPress(ShiftRequestItem item) {
+                // לחיצה ארוכה - פעולות על כל הבקשות של המשמרת / היום
+                showBulkOptions(item);
+            }
+
+            @Override
+            public void onSelectionChanged(int count) {
+                updateBulkBar(count);
+            }
         });
 
         binding.recyclerViewRequests.setAdapter(adapter);
 
         // כפתור חזרה
         binding.btnBack.setOnClickListener(v -> finish());
+
+        // סרגל הפעולות המרובות
+        binding.btnApproveSelected.setOnClickListener(v -> approveAll(adapter.getSelectedItems()));
+        binding.btnDenySelected.setOnClickListener(v -> denyAll(adapter.getSelectedItems()));
+        binding.btnClearSelection.setOnClickListener(v -> adapter.clearSelection());
     }
 
     /**
@@ -96,51 +118,51 @@ public class ShiftRequestsActivity extends AppCompatActivity {
 
     /**
      * הפונקציה המרכזית: טעינת הבקשות והאזנה לשינויים.
+     * מאזינים לאוסף shiftRequests (מסמך לכל בקשה ממתינה) ולא לכל המשמרות העתידיות,
+     * ובכל עדכון מחילים על הרשימה רק את השינויים (DocumentChange) - הוספה, הסרה או הזזה.
+     * האדפטר משווה ברקע את הרשימה החדשה לקודמת ומצייר מחדש רק את השורות שהשתנו.
      */
     private void startListeningForRequests() {
         long now = System.currentTimeMillis();
+        backfillRequestsOnce(now);
+
+        // המאזין מחזיר בפעם הראשונה את כל הבקשות כ-ADDED, ולכן מתחילים מרשימה ריקה
+        requestItems.clear();
+        adapter.submitList(new ArrayList<>());
 
-        // שאילתה: תביא את כל המשמרות העתידיות.
-        // אנו משתמשים ב-addSnapshotListener במקום get() כדי לקבל עדכונים חיים.
-        requestsListener = db.collection("shifts")
-                .whereGreaterThan("startTime", now)
-                .addSnapshotListener((value, error) -> {
+        requestsListener = TracedFirestore.listen("shiftRequests.pending", ShiftWriter.getInstance().getRequests().pendingRequests(now),
+                (value, error) -> {
                     if (error != null) {
                         Log.e("ShiftRequests", "Error loading requests", error);
                         return;
                     }
+                    if (value == null) return;
 
-                    // ניקוי הרשימה לפני טעינה מחדש (למניעת כפילויות)
-                    requestItems.clear();
-
-                    if (value != null) {
-                        // מעבר על כל המשמרות שנמצאו
-                        for (DocumentSnapshot doc : value.getDocuments()) {
-                            Shift shift = doc.toObject(Shift.class);
-
-                            // בדיקה: האם יש בכלל בקשות ממתינות למשמרת הזו?
-                            if (shift != null && shift.getPendingUserIds() != null && !shift.getPendingUserIds().isEmpty()) {
-
-                                // הנתונים שמורים ב-Firestore כשתי רשימות נפרדות (IDs ושמות).
-                                // אנו עוברים עליהן ויוצרים אובייקטים מסוג ShiftRequestItem כדי שנוכל להציג אותם ברשימה שטוחה.
-                                for (int i = 0; i < shift.getPendingUserIds().size(); i++) {
-                                    String uid = shift.getPendingUserIds().get(i);
-
-                                    // שליפת השם (עם הגנה מפני חריגה מגבולות המערך)
-                                    String name = "עובד";
-                                    if (shift.getPendingUserNames() != null && shift.getPendingUserNames().size() > i) {
-                                        name = shift.getPendingUserNames().get(i);
-                                    }
-
-                                    // הוספה לרשימה לתצוגה
-                                    requestItems.add(new ShiftRequestItem(shift, uid, name));
+                    for (DocumentChange change : value.getDocumentChanges()) {
+                        ShiftRequest request = change.getDocument().toObject(ShiftRequest.class);
+                        switch (change.getType()) {
+                            case ADDED:
+                                requestItems.add(change.getNewIndex(), ShiftRequestItem.from(request));
+                                break;
+                            case MODIFIED:
+                                // למשל שעות המשמרת נערכו - ייתכן שגם המיקום ברשימה השתנה
+                                if (change.getOldIndex() != change.getNewIndex()) {
+                                    requestItems.remove(change.getOldIndex());
+                                    requestItems.add(change.getNewIndex(), ShiftRequestItem.from(request));
+                                } else {
+                                    requestItems.set(change.getNewIndex(), ShiftRequestItem.from(request));
                                 }
-                            }
+                                break;
+                            case REMOVED:
+                                // אושרה, נדחתה, בוטלה או שהמשמרת נמחקה
+                                requestItems.remove(change.getOldIndex());
+                                break;
                         }
                     }
 
-                    // עדכון התצוגה
-                    adapter.notifyDataSetChanged();
+                    // ListAdapter דורש רשימה חדשה בכל עדכון (הוא שומר את הקודמת להשוואה)
+                    adapter.submitList(new ArrayList<>(requestItems));
+                    adapter.retainSelection(requestItems);
 
                     // טיפול במצב של "אין בקשות" (Empty State)
                     if (requestItems.isEmpty()) {
@@ -151,36 +173,159 @@ public class ShiftRequestsActivity extends AppCompatActivity {
                 });
     }
 
+    /**
+     * בקשות שנשלחו לפני שנוסף האוסף shiftRequests קיימות רק ברשימות הממתינים של המשמרות.
+     * מעתיקים אותן לאוסף פעם אחת לכל המערכת - הסימון נשמר בשרת,
+     * כך שאחרי המילוי הראשון כל פתיחה של המסך עולה קריאה של מסמך אחד.
+     */
+    private void backfillRequestsOnce(long now) {
+        ShiftWriter.getInstance().getRequests().backfill(now)
+                .addOnFailureListener(e -> Log.e("ShiftRequests", "Backfill failed", e));
+    }
+
     /**
      * אישור בקשה.
-     * הפעולה היא אטומית (Atomic): באותה פעולה אנו מסירים מה-Pending ומוסיפים ל-Assigned.
+     * הפעולה היא טרנזקציה אחת: בדיקה שהמשמרת לא מלאה, הסרה מה-Pending, הוספה ל-Assigned,
+     * סגירת מסמך הבקשה ועדכון ספר השכר החודשי של העובד.
+     * אם מנהל אחר מילא את המשמרת בינתיים - מוצגת הודעה והבקשה נשארת ממתינה.
+     * לפני הכתיבה בודקים שהעובד לא משובץ למשמרת חופפת או קרובה מדי (ShiftConflicts).
      */
     private void approveRequest(ShiftRequestItem item) {
-        db.collection("shifts").document(item.getShift().getShiftId())
-                .update(
-                        // הסרה מרשימות ההמתנה
-                        "pendingUserIds", FieldValue.arrayRemove(item.getUserId()),
-                        "pendingUserNames", FieldValue.arrayRemove(item.getUserName()),
-                        // הוספה לרשימות המשובצים
-                        "assignedUserIds", FieldValue.arrayUnion(item.getUserId()),
-                        "assignedUserNames", FieldValue.arrayUnion(item.getUserName())
-                )
+        Shift shift = item.getShift();
+        ShiftService shifts = FirestoreStore.getInstance().getShiftService();
+        FirestoreStore.task(shifts.checkAssignment(item.getUserId(), shift.getShiftId(), shift.getStartTime(), shift.getEndTime()))
+                .addOnSuccessListener(conflict -> {
+                    if (conflict == null) {
+                        sendApproval(item);
+                        return;
+                    }
+                    // התנגשות - המנהל מחליט אם לאשר בכל זאת
+                    String reason = conflict.overlap ? "משובץ/ת למשמרת חופפת" : "בלי מספיק מנוחה ממשמרת קרובה";
+                    SimpleDateFormat sdf = new SimpleDateFormat("dd/MM HH:mm", Locale.getDefault());
+                    new AlertDialog.Builder(this)
+                            .setTitle("התנגשות במשמרות")
+                            .setMessage(item.getUserName() + " " + reason + " (" + sdf.format(conflict.other.getStartTime()) + "). לאשר בכל זאת?")
+                            .setPositiveButton("אשר", (d, w) -> sendApproval(item))
+                            .setNegativeButton("ביטול", null)
+                            .show();
+                })
+                // אם הבדיקה עצמה נכשלה (למשל אין רשת) - לא חוסמים את האישור
+                .addOnFailureListener(e -> sendApproval(item));
+    }
+
+    private void sendApproval(ShiftRequestItem item) {
+        ShiftWriter.getInstance().approve(item.getShift().getShiftId(), item.getUserId(), item.getUserName())
                 .addOnSuccessListener(aVoid -> Toast.makeText(this, "אושר ✅", Toast.LENGTH_SHORT).show())
                 .addOnFailureListener(e -> Toast.makeText(this, "שגיאה: " + e.getMessage(), Toast.LENGTH_SHORT).show());
     }
 
     /**
      * דחיית בקשה.
-     * מסירה את העובד מרשימת ההמתנה בלבד.
+     * מסירה את העובד מרשימת ההמתנה וסוגרת את מסמך הבקשה.
      */
     private void denyRequest(ShiftRequestItem item) {
-        db.collection("shifts").document(item.getShift().getShiftId())
-                .update(
-                        // הסרה מרשימות ההמתנה (ללא הוספה לשיבוץ)
-                        "pendingUserIds", FieldValue.arrayRemove(item.getUserId()),
-                        "pendingUserNames", FieldValue.arrayRemove(item.getUserName())
-                )
+        // הסרה מרשימות ההמתנה (ללא הוספה לשיבוץ)
+        ShiftWriter.getInstance().deny(item.getShift().getShiftId(), item.getUserId(), item.getUserName())
                 .addOnSuccessListener(aVoid -> Toast.makeText(this, "נדחה ❌", Toast.LENGTH_SHORT).show())
                 .addOnFailureListener(e -> Toast.makeText(this, "שגיאה: " + e.getMessage(), Toast.LENGTH_SHORT).show());
     }
-}
\ No newline at end of file
+
+    // הצגת/הסתרת סרגל הפעולות המרובות לפי מספר הבקשות הנבחרות
+    private void updateBulkBar(int count) {
+        binding.layoutBulkActions.setVisibility(count > 0 ? View.VISIBLE : View.GONE);
+        binding.tvSelectedCount.setText("נבחרו " + count);
+    }
+
+    /**
+     * תפריט פעולות מרובות לפי הבקשה שעליה לחצו לחיצה ארוכה:
+     * אישור כל הבקשות למשמרת (עד שהיא מתמלאת), בחירת כולן, או דחיית כל הבקשות לאותו יום.
+     */
+    private void showBulkOptions(ShiftRequestItem item) {
+        List<ShiftRequestItem> sameShift = new ArrayList<>();
+        List<ShiftRequestItem> sameDay = new ArrayList<>();
+        for (ShiftRequestItem other : requestItems) {
+            if (other.getShift().getShiftId().equals(item.getShift().getShiftId())) sameShift.add(other);
+            if (isSameDay(other.getShift().getStartTime(), item.getShift().getStartTime())) sameDay.add(other);
+        }
+
+        String[] options = {
+                "אשר את כל הבקשות למשמרת (" + sameShift.size() + ") עד התפוסה",
+                "בחר את כל הבקשות למשמרת",
+                "דחה את כל הבקשות ליום הזה (" + sameDay.size() + ")"
+        };
+        new AlertDialog.Builder(this)
+                .setTitle("פעולות מרובות")
+                .setItems(options, (dialog, which) -> {
+                    if (which == 0) approveAll(sameShift);
+                    else if (which == 1) adapter.select(sameShift);
+                    else denyAll(sameDay);
+                })
+                .show();
+    }
+
+    /**
+     * אישור מרובה. כל משמרת נכתבת בטרנזקציה אחת, ובקשות שלא נכנסו (המשמרת התמלאה,
+     * או התנגשות עם משמרת אחרת של העובד) נשארות ממתינות - אותן אפשר לאשר אחת-אחת.
+     */
+    private void approveAll(List<ShiftRequestItem> items) {
+        if (items.isEmpty()) return;
+        setBulkButtonsEnabled(false);
+        ShiftWriter.getInstance().approveAll(items)
+                .addOnSuccessListener(this::showBulkResults)
+                .addOnFailureListener(e -> Toast.makeText(this, "שגיאה: " + e.getMessage(), Toast.LENGTH_SHORT).show())
+                .addOnCompleteListener(task -> setBulkButtonsEnabled(true));
+    }
+
+    // דחייה מרובה
+    private void denyAll(List<ShiftRequestItem> items) {
+        if (items.isEmpty()) return;
+        setBulkButtonsEnabled(false);
+        ShiftWriter.getInstance().denyAll(items)
+                .addOnSuccessListener(this::showBulkResults)
+                .addOnFailureListener(e -> Toast.makeText(this, "שגיאה: " + e.getMessage(), Toast.LENGTH_SHORT).show())
+                .addOnCompleteListener(task -> setBulkButtonsEnabled(true));
+    }
+
+    private void setBulkButtonsEnabled(boolean enabled) {
+        binding.btnApproveSelected.setEnabled(enabled);
+        binding.btnDenySelected.setEnabled(enabled);
+    }
+
+    /**
+     * סיכום תוצאות הפעולה המרובה: אם הכל הצליח - הודעה קצרה,
+     * אחרת דיאלוג עם פירוט הבקשות שלא טופלו ולמה.
+     */
+    private void showBulkResults(List<BulkResult> results) {
+        int approved = 0, denied = 0;
+        StringBuilder problems = new StringBuilder();
+        for (BulkResult result : results) {
+            switch (result.getOutcome()) {
+                case APPROVED: approved++; break;
+                case DENIED: denied++; break;
+                case SHIFT_FULL: problems.append(result.getUserName()).append(" - המשמרת מלאה\n"); break;
+                case CONFLICT: problems.append(result.getUserName()).append(" - ").append(result.getError()).append("\n"); break;
+                case NOT_PENDING: problems.append(result.getUserName()).append(" - הבקשה כבר טופלה\n"); break;
+                case FAILED: problems.append(result.getUserName()).append(" - שגיאה: ").append(result.getError()).append("\n"); break;
+            }
+        }
+
+        String summary = "אושרו: " + approved + ", נדחו: " + denied;
+        if (problems.length() == 0) {
+            Toast.makeText(this, summary, Toast.LENGTH_SHORT).show();
+        } else {
+            new AlertDialog.Builder(this)
+                    .setTitle(summary)
+                    .setMessage(problems.toString().trim())
+                    .setPositiveButton("סגור", null)
+                    .show();
+        }
+    }
+
+    private static boolean isSameDay(long first, long second) {
+        Calendar a = Calendar.getInstance();
+        a.setTimeInMillis(first);
+        Calendar b = Calendar.getInstance();
+        b.setTimeInMillis(second);
+        return a.get(Calendar.YEAR) == b.get(Calendar.YEAR) && a.get(Calendar.DAY_OF_YEAR) == b.get(Calendar.DAY_OF_YEAR);
+    }
+}
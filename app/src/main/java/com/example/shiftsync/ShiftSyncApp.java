@@ -0,0 +1,20 @@
+package com.example.shiftsync;
+
+import android.app.Application;
+
+import com.example.shiftsync.data.StartupBootstrap;
+
+//מחלקת האפליקציה - רצה פעם אחת בעליית התהליך, עוד לפני המסך הראשון
+public class ShiftSyncApp extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        // מדידת קריאות Firestore לפי מסך (לפני הקריאות הראשונות)
+        MetricsOverlay.install(this);
+
+        // שאילתות המסך הראשי יוצאות כבר עכשיו, במקביל לטעינת מסך הפתיחה
+        StartupBootstrap.getInstance(this).start();
+    }
+}
@@ -24,34 +24,56 @@ import java.util.Locale;
  * משמש גם את המנהל (ManagerScheduleActivity) וגם את העובד (EmployeeScheduleActivity).
  * האדפטר אחראי על העיצוב הוויזואלי של כל "קוביה" בלוח המשמרות.
  */
-public class ShiftsAdapter extends RecyclerView.Adapter<ShiftsAdapter.ShiftViewHolder> {
+public class ShiftsAdapter extends StableIdListAdapter<Shift, ShiftsAdapter.ShiftViewHolder> {
 
     /**
      * ממשק (Interface) להגדרת הפעולות האפשריות על משמרת.
      * ה-Activity שמפעיל את האדפטר חייב לממש את הפונקציות האלו.
      */
     public interface OnShiftClickListener {
-        void onDeleteClick(int position); // מחיקת משמרת
+        void onDeleteClick(Shift shift);  // מחיקת משמרת
         void onEditClick(Shift shift);    // עריכת משמרת (שעות/כמות עובדים/הערות)
         void onShiftClick(Shift shift);   // לחיצה כללית על המשמרת (לפתיחת פרטים או הרשמה)
     }
 
-    // רשימת המשמרות להצגה
-    private List<Shift> shiftsList;
+    /**
+     * בדיקת התנגשות שיבוץ למשמרת (מאינדקס האינטרוולים של המאגר, בלי סריקה של כל המשמרות).
+     */
+    public interface ConflictChecker {
+        boolean hasConflict(Shift shift);
+    }
+
+    // Payload לעדכון תג ההתנגשות בלבד (בלי לצייר את כל הכרטיס מחדש)
+    private static final Object PAYLOAD_CONFLICTS = new Object();
 
     // המאזין לאירועים (ה-Activity)
     private OnShiftClickListener listener;
 
+    // בדיקת ההתנגשויות (לא חובה - בלי בודק התג לא מוצג)
+    private ConflictChecker conflictChecker;
+
     /**
      * בנאי (Constructor).
-     * @param shiftsList - רשימת הנתונים.
+     * הרשימה עצמה מועברת ב-submitList בכל עדכון.
      * @param listener - מי שמטפל בלחיצות.
      */
-    public ShiftsAdapter(List<Shift> shiftsList, OnShiftClickListener listener) {
-        this.shiftsList = shiftsList;
+    public ShiftsAdapter(OnShiftClickListener listener) {
+        super(ItemDiffs.SHIFTS);
         this.listener = listener;
     }
 
+    public void setConflictChecker(ConflictChecker conflictChecker) {
+        this.conflictChecker = conflictChecker;
+    }
+
+    /**
+     * עדכון תגי ההתנגשות של השורות המוצגות.
+     * התנגשות תלויה גם במשמרות של ימים אחרים, ולכן DiffUtil לא מזהה אותה - קוראים לזה אחרי submitList.
+     */
+    public void refreshConflicts() {
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_CONFLICTS);
+    }
+
     /**
      * יצירת המראה הוויזואלי של שורה בודדת (ViewHolder).
      * טוען את קובץ ה-XML שנקרא item_shift.
@@ -70,7 +92,7 @@ public class ShiftsAdapter extends RecyclerView.Adapter<ShiftsAdapter.ShiftViewH
     @Override
     public void onBindViewHolder(@NonNull ShiftViewHolder holder, int position) {
         // 1. שליפת המשמרת הנוכחית
-        Shift shift = shiftsList.get(position);
+        Shift shift = getItem(position);
 
         // 2. הצגת השעות בפורמט HH:mm (למשל 08:00 - 16:00)
         SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm", Locale.getDefault());
@@ -99,7 +121,7 @@ public class ShiftsAdapter extends RecyclerView.Adapter<ShiftsAdapter.ShiftViewH
         holder.cardView.setCardBackgroundColor(Color.parseColor(colorHex));
 
         // 4. חישוב סטטוס תפוסה (כמה רשומים מתוך כמה שצריך)
-        int current = (shift.getAssignedUserIds() != null) ? shift.getAssignedUserIds().size() : 0;
+        int current = shift.assignedCount();
         int required = shift.getRequiredWorkers();
 
         if (current >= required) {
@@ -122,9 +144,12 @@ public class ShiftsAdapter extends RecyclerView.Adapter<ShiftsAdapter.ShiftViewH
             holder.tvNotes.setVisibility(View.GONE);
         }
 
-        // 6. הגדרת המאזינים לכפתורים
+        // 6. תג התנגשות (עובד משובץ שיש לו משמרת חופפת)
+        bindConflict(holder, shift);
+
+        // 7. הגדרת המאזינים לכפתורים
         // לחיצה על פח אשפה (מחיקה)
-        holder.btnDelete.setOnClickListener(v -> listener.onDeleteClick(position));
+        holder.btnDelete.setOnClickListener(v -> listener.onDeleteClick(shift));
 
         // לחיצה על עיפרון (עריכה)
         holder.btnEdit.setOnClickListener(v -> listener.onEditClick(shift));
@@ -134,18 +159,27 @@ public class ShiftsAdapter extends RecyclerView.Adapter<ShiftsAdapter.ShiftViewH
     }
 
     /**
-     * כמות הפריטים ברשימה.
+     * עדכון חלקי: כשמגיע רק PAYLOAD_CONFLICTS מעדכנים את התג בלבד.
      */
     @Override
-    public int getItemCount() {
-        return shiftsList == null ? 0 : shiftsList.size();
+    public void onBindViewHolder(@NonNull ShiftViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty() && payloads.stream().allMatch(p -> p == PAYLOAD_CONFLICTS)) {
+            bindConflict(holder, getItem(position));
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
+    private void bindConflict(ShiftViewHolder holder, Shift shift) {
+        boolean conflict = conflictChecker != null && conflictChecker.hasConflict(shift);
+        holder.tvConflict.setVisibility(conflict ? View.VISIBLE : View.GONE);
     }
 
     /**
      * מחלקת ViewHolder - שומרת את ההפניות לרכיבים הגרפיים בשורה.
      */
     public static class ShiftViewHolder extends RecyclerView.ViewHolder {
-        TextView tvTime, tvStatus, tvNotes;
+        TextView tvTime, tvStatus, tvNotes, tvConflict;
         CardView cardView;
         ImageButton btnDelete, btnEdit;
 
@@ -155,6 +189,7 @@ public class ShiftsAdapter extends RecyclerView.Adapter<ShiftsAdapter.ShiftViewH
             tvTime = itemView.findViewById(R.id.tvShiftTime);
             tvStatus = itemView.findViewById(R.id.tvShiftStatus);
             tvNotes = itemView.findViewById(R.id.tvShiftNotes); // שדה ההערות
+            tvConflict = itemView.findViewById(R.id.tvShiftConflict); // תג התנגשות
             cardView = itemView.findViewById(R.id.cardShift);
 
             // כפתורי ניהול (מוצגים/מוסתרים ב-XML או בניהול לוגי אחר אם צריך)
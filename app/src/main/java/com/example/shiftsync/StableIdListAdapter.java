@@ -0,0 +1,83 @@
+package com.example.shiftsync;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * בסיס משותף לכל האדפטרים של הרשימות (Stable-ID List Adapter).
+ * במקום notifyDataSetChanged (שמצייר מחדש את כל השורות), כל מסך מעביר רשימה חדשה ב-submitList,
+ * וה-ListAdapter מחשב ברקע (DiffUtil) אילו שורות נוספו, הוסרו או השתנו - ומצייר מחדש רק אותן.
+ * בנוסף לכל פריט יש מזהה קבוע (shiftId / uid / id של הודעה), כך שהגלילה והאנימציות נשמרות בין עדכונים.
+ */
+public abstract class StableIdListAdapter<T, VH extends RecyclerView.ViewHolder> extends ListAdapter<T, VH> {
+
+    /**
+     * השוואת פריטים עבור DiffUtil.
+     * idOf - המזהה הקבוע של הפריט (אותו פריט גם אם התוכן השתנה).
+     * sameContents - האם כל מה שמוצג בשורה זהה (אם כן, השורה לא מצויירת מחדש).
+     */
+    public abstract static class ItemDiff<T> extends DiffUtil.ItemCallback<T> {
+
+        public abstract String idOf(T item);
+
+        public abstract boolean sameContents(T oldItem, T newItem);
+
+        @Override
+        public boolean areItemsTheSame(@NonNull T oldItem, @NonNull T newItem) {
+            return Objects.equals(idOf(oldItem), idOf(newItem));
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull T oldItem, @NonNull T newItem) {
+            return sameContents(oldItem, newItem);
+        }
+    }
+
+    private final ItemDiff<T> diff;
+
+    // מיפוי מזהה מחרוזת למספר קבוע (RecyclerView דורש מזהה מסוג long), בלי התנגשויות של hashCode.
+    // המפה מכילה רק את הפריטים שברשימה הנוכחית; מספרים לא ממוחזרים, כך שפריט חדש לא יקבל מזהה של פריט שיצא
+    private final Map<String, Long> stableIds = new HashMap<>();
+    private long nextStableId;
+
+    protected StableIdListAdapter(ItemDiff<T> diff) {
+        super(diff);
+        this.diff = diff;
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        String id = diff.idOf(getItem(position));
+        Long stableId = stableIds.get(id);
+        if (stableId == null) {
+            stableId = nextStableId++;
+            stableIds.put(id, stableId);
+        }
+        return stableId;
+    }
+
+    /**
+     * אחרי כל רשימה חדשה המפה נבנית מחדש מהפריטים שבה: פריט שנשאר שומר על המספר שלו,
+     * ופריטים שיצאו מהרשימה נמחקים - אחרת המפה גדלה לאורך כל חיי המסך (למשל במעבר בין חודשים).
+     */
+    @Override
+    public void onCurrentListChanged(@NonNull List<T> previousList, @NonNull List<T> currentList) {
+        super.onCurrentListChanged(previousList, currentList);
+        Map<String, Long> current = new HashMap<>();
+        for (T item : currentList) {
+            String id = diff.idOf(item);
+            Long stableId = stableIds.get(id);
+            current.put(id, stableId != null ? stableId : nextStableId++);
+        }
+        stableIds.clear();
+        stableIds.putAll(current);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.shiftsync;
+
+import android.app.Activity;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * מדידת זמני הפתיחה (Startup Trace), מתחילת התהליך:
+ * 1. זמן עד הפריים הראשון של המסך הראשי.
+ * 2. זמן עד שכל חלקי המסך הראשי מולאו בנתונים (ואז גם reportFullyDrawn, שמופיע ב-logcat של המערכת).
+ * נמדדת רק הפתיחה הראשונה בכל תהליך. התוצאות נרשמות ללוג תחת התג StartupTrace.
+ */
+public class StartupTrace {
+
+    private static final String TAG = "StartupTrace";
+
+    // ה-Extra שמסך הפתיחה מעביר למסך הראשי: איך נבחר המסך
+    public static final String EXTRA_ROUTE = "startupRoute";
+    public static final String ROUTE_CACHED = "cached";
+    public static final String ROUTE_NETWORK = "network";
+
+    // פתיחה שלוקחת יותר מזה היא לא פתיחה קרה (למשל חזרה למסך אחרי התנתקות)
+    private static final long MAX_STARTUP_MILLIS = 60 * 1000L;
+
+    private static boolean started;
+    private static WeakReference<Activity> screen;
+    private static Set<String> pending;
+    private static String route;
+
+    private StartupTrace() { }
+
+    /**
+     * תחילת המדידה במסך הראשי.
+     * @param routeName - איך נבחר המסך (ROUTE_CACHED / ROUTE_NETWORK), או null אם המסך לא נפתח ממסך הפתיחה.
+     * @param parts - החלקים שצריכים להתמלא כדי שהמסך ייחשב מוכן.
+     */
+    public static void begin(Activity activity, String routeName, String... parts) {
+        if (started || routeName == null || sinceProcessStart() > MAX_STARTUP_MILLIS) return;
+        started = true;
+        screen = new WeakReference<>(activity);
+        pending = new HashSet<>(Arrays.asList(parts));
+        route = routeName;
+
+        View decor = activity.getWindow().getDecorView();
+        decor.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                decor.getViewTreeObserver().removeOnPreDrawListener(this);
+                // ההודעה רצה אחרי שהפריים צויר
+                decor.post(() -> Log.i(TAG, "first frame: " + sinceProcessStart() + "ms (" + route + ")"));
+                return true;
+            }
+        });
+    }
+
+    /**
+     * חלק במסך הראשי מולא בנתונים (קריאה נוספת לאותו חלק לא משנה).
+     */
+    public static void ready(String part) {
+        if (pending == null || !pending.remove(part) || !pending.isEmpty()) return;
+        Log.i(TAG, "dashboard populated: " + sinceProcessStart() + "ms (" + route + ")");
+        Activity activity = screen.get();
+        if (activity != null && !activity.isFinishing()) activity.reportFullyDrawn();
+        pending = null;
+        screen = null;
+    }
+
+    private static long sinceProcessStart() {
+        return SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime();
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Announcement;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * לוח ההודעות בדפים (Announcement Feed).
+ * רק הדף החדש ביותר (דף 0) מקבל עדכונים חיים. דפים ישנים יותר נטענים פעם אחת לפי סמן (startAfter על timestamp)
+ * כשהמשתמש מתקרב לסוף הרשימה. בזיכרון נשמרים לכל היותר MAX_PAGES דפים רצופים ("חלון"),
+ * ודפים שיצאו מהחלון נזרקים ונטענים שוב אם חוזרים אליהם.
+ * הסמנים (המסמך האחרון של כל דף) נשמרים תמיד - הם קטנים, ומאפשרים לחזור לכל דף בשאילתה אחת.
+ * כל הפונקציות נקראות מה-UI Thread.
+ */
+public class AnnouncementFeed {
+
+    // הודעות בכל דף
+    public static final int PAGE_SIZE = 20;
+
+    // כמה דפים מוחזקים בזיכרון בבת אחת
+    static final int MAX_PAGES = 5;
+
+    /**
+     * עדכון הרשימה המוצגת.
+     */
+    public interface Listener {
+        void onChanged(List<Announcement> items);
+        void onError(Exception e);
+    }
+
+    private final FirebaseFirestore db;
+    private final Listener listener;
+
+    // הדף החדש ביותר (חי)
+    private ListenerRegistration headRegistration;
+    private List<Announcement> head = new ArrayList<>();
+    private boolean headBounded; // true = הדף החי מוגבל עד הסמן של דף 0 (ולא ב-limit)
+
+    // דפים ישנים: older.get(i) הוא דף i+1, או null אם נזרק מהזיכרון
+    private final List<List<Announcement>> older = new ArrayList<>();
+
+    // cursors.get(i) = המסמך האחרון בדף i
+    private final List<DocumentSnapshot> cursors = new ArrayList<>();
+
+    // החלון המוצג (מספרי דפים, כולל)
+    private int first = 0;
+    private int last = 0;
+
+    // מספר הדף האחרון שקיים, או 1- אם עוד לא הגענו לסוף
+    private int endPage = -1;
+
+    private boolean loading;
+
+    public AnnouncementFeed(FirebaseFirestore db, Listener listener) {
+        this.db = db;
+        this.listener = listener;
+    }
+
+    private Query newestFirst() {
+        return db.collection("announcements").orderBy("timestamp", Query.Direction.DESCENDING);
+    }
+
+    // התחלת ההאזנה לדף החדש ביותר
+    public void start() {
+        listenToHead(newestFirst().limit(PAGE_SIZE));
+    }
+
+    public void stop() {
+        if (headRegistration != null) headRegistration.remove();
+        headRegistration = null;
+    }
+
+    private void listenToHead(Query query) {
+        if (headRegistration != null) headRegistration.remove();
+        headRegistration = TracedFirestore.listen("announcements.head", query, (value, error) -> {
+            if (error != null) {
+                listener.onError(error);
+                return;
+            }
+            if (value == null) return;
+
+            head = parse(value);
+            if (!headBounded) {
+                // כל עוד לא נטען דף 1, הסמן של דף 0 זז עם ההודעה הישנה ביותר בדף החי
+                List<DocumentSnapshot> docs = value.getDocuments();
+                setCursor(0, docs.isEmpty() ? null : docs.get(docs.size() - 1));
+                endPage = docs.size() < PAGE_SIZE ? 0 : -1;
+            }
+            publish();
+        });
+    }
+
+    /**
+     * טעינת הדף הבא (ישן יותר) - כשמתקרבים לסוף הרשימה.
+     */
+    public void loadOlder() {
+        if (loading || (endPage >= 0 && last >= endPage)) return;
+        int page = last + 1;
+        DocumentSnapshot after = page - 1 < cursors.size() ? cursors.get(page - 1) : null;
+        if (after == null) return;
+
+        if (page == 1 && !headBounded) {
+            // מעכשיו הדף החי מכיל את כל מה שחדש מהסמן (גם כשנוספות הודעות), כדי שלא ייפתח פער מול דף 1
+            headBounded = true;
+            listenToHead(newestFirst().endAt(after));
+        }
+
+        loading = true;
+        TracedFirestore.get("announcements.page", newestFirst().startAfter(after).limit(PAGE_SIZE))
+                .addOnSuccessListener(value -> {
+                    loading = false;
+                    List<DocumentSnapshot> docs = value.getDocuments();
+                    if (docs.size() < PAGE_SIZE) endPage = page;
+                    if (!docs.isEmpty()) setCursor(page, docs.get(docs.size() - 1));
+                    setPage(page, parse(value));
+                    last = page;
+
+                    // זריקת הדפים העליונים שיצאו מהחלון (הדף החי ממשיך להאזין)
+                    while (last - first + 1 > MAX_PAGES) {
+                        if (first > 0) setPage(first, null);
+                        first++;
+                    }
+                    publish();
+                })
+                .addOnFailureListener(e -> {
+                    loading = false;
+                    listener.onError(e);
+                });
+    }
+
+    /**
+     * טעינה מחדש של הדף הקודם (חדש יותר) שנזרק - כשגוללים חזרה למעלה.
+     */
+    public void loadNewer() {
+        if (loading || first == 0) return;
+        int page = first - 1;
+
+        if (page == 0) {
+            // הדף החי תמיד בזיכרון
+            showNewer(0);
+            return;
+        }
+
+        loading = true;
+        TracedFirestore.get("announcements.page", newestFirst().startAfter(cursors.get(page - 1)).limit(PAGE_SIZE))
+                .addOnSuccessListener(value -> {
+                    loading = false;
+                    setPage(page, parse(value));
+                    showNewer(page);
+                })
+                .addOnFailureListener(e -> {
+                    loading = false;
+                    listener.onError(e);
+                });
+    }
+
+    private void showNewer(int page) {
+        first = page;
+        // זריקת הדפים התחתונים שיצאו מהחלון
+        while (last - first + 1 > MAX_PAGES) {
+            setPage(last, null);
+            last--;
+        }
+        publish();
+    }
+
+    /**
+     * הסרת הודעה שנמחקה מהדפים הישנים (הדף החי מתעדכן לבד).
+     */
+    public void remove(String announcementId) {
+        for (List<Announcement> page : older) {
+            if (page == null) continue;
+            for (int i = 0; i < page.size(); i++) {
+                if (page.get(i).getId().equals(announcementId)) {
+                    page.remove(i);
+                    publish();
+                    return;
+                }
+            }
+        }
+    }
+
+    // בניית הרשימה המוצגת מהדפים שבחלון (בלי כפילויות בגבול בין דפים)
+    private void publish() {
+        List<Announcement> items = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (int page = first; page <= last; page++) {
+            List<Announcement> content = page == 0 ? head : older.get(page - 1);
+            if (content == null) continue;
+            for (Announcement announcement : content) {
+                if (seen.add(announcement.getId())) items.add(announcement);
+            }
+        }
+        listener.onChanged(items);
+    }
+
+    private void setPage(int page, List<Announcement> content) {
+        while (older.size() < page) older.add(null);
+        older.set(page - 1, content);
+    }
+
+    private void setCursor(int page, DocumentSnapshot cursor) {
+        while (cursors.size() <= page) cursors.add(null);
+        cursors.set(page, cursor);
+    }
+
+    private static List<Announcement> parse(QuerySnapshot value) {
+        List<Announcement> list = new ArrayList<>();
+        for (DocumentSnapshot doc : value.getDocuments()) {
+            Announcement announcement = AnnouncementMapper.fromSnapshot(doc);
+            if (announcement == null) continue;
+            // המזהה משמש את האדפטר כמזהה קבוע לשורה
+            if (announcement.getId() == null) announcement.setId(doc.getId());
+            list.add(announcement);
+        }
+        return list;
+    }
+}
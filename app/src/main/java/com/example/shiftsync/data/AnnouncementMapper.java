@@ -0,0 +1,39 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Announcement;
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.Map;
+
+/**
+ * קריאת הודעה ממסמך Firestore, ישירות ממפת הנתונים (getData) - בלי toObject ו-Reflection.
+ * התוצאה זהה ל-toObject(Announcement.class) (ראו MapperEquivalenceTest), ולכן שדה חדש במודל צריך להתווסף גם כאן.
+ */
+public final class AnnouncementMapper {
+
+    private AnnouncementMapper() { }
+
+    // הודעה מהמסמך, או null אם המסמך לא קיים
+    public static Announcement fromSnapshot(DocumentSnapshot doc) {
+        FirestoreMetrics metrics = FirestoreMetrics.getInstance();
+        if (!metrics.isEnabled()) return fromData(doc.getData());
+
+        long start = System.nanoTime();
+        Announcement announcement = fromData(doc.getData());
+        metrics.recordMapping("Announcement", start);
+        return announcement;
+    }
+
+    // הודעה ממפת הנתונים של מסמך, או null אם אין נתונים
+    public static Announcement fromData(Map<String, Object> data) {
+        if (data == null) return null;
+
+        Announcement announcement = new Announcement();
+        announcement.setId(DocumentFields.string(data, "id"));
+        announcement.setTitle(DocumentFields.string(data, "title"));
+        announcement.setContent(DocumentFields.string(data, "content"));
+        announcement.setTimestamp(DocumentFields.longValue(data, "timestamp"));
+        announcement.setAuthorName(DocumentFields.string(data, "authorName"));
+        return announcement;
+    }
+}
@@ -0,0 +1,386 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Assignment;
+import com.example.shiftsync.models.Shift;
+import com.example.shiftsync.models.ShiftRequest;
+import com.example.shiftsync.models.ShiftRequestItem;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Transaction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * מנוע השיבוץ (Assignment Engine).
+ * כל שינוי במשובצים/ממתינים של משמרת רץ כטרנזקציה (runTransaction):
+ * המשמרת נקראת בתוך הטרנזקציה, נבדקת התפוסה (requiredWorkers), ומפת העובדים (assignments)
+ * נכתבת מחדש במלואה מאותה קריאה, יחד עם שדה האינדקס assignedUserIds שנגזר ממנה.
+ * אם שני מנהלים מאשרים בו-זמנית, Firestore מריץ את אחת הטרנזקציות מחדש על המצב המעודכן,
+ * ולכן משמרת לא יכולה לעבור את מספר העובדים הנדרש.
+ */
+public class AssignmentEngine {
+
+    // ניסיונות חוזרים מעבר לאלו של ה-SDK, כשהטרנזקציה נכשלה בגלל עומס (Contention)
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long BASE_DELAY_MS = 100;
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private static final Random jitter = new Random();
+
+    private final FirebaseFirestore db;
+    private final PayrollLedger ledger;
+    private final StaffingStats stats;
+    private final ShiftRequestIndex requests;
+
+    /**
+     * שגיאה עסקית שמבטלת את הטרנזקציה בלי ניסיון חוזר (המשמרת מלאה, הבקשה כבר לא ממתינה).
+     * הקוד OUT_OF_RANGE נבחר כי ה-SDK לא מריץ מחדש טרנזקציה שנכשלה בקוד הזה.
+     */
+    public static class AssignmentRejectedException extends FirebaseFirestoreException {
+        public AssignmentRejectedException(String message) {
+            super(message, Code.OUT_OF_RANGE);
+        }
+    }
+
+    public AssignmentEngine(FirebaseFirestore db, PayrollLedger ledger, StaffingStats stats, ShiftRequestIndex requests) {
+        this.db = db;
+        this.ledger = ledger;
+        this.stats = stats;
+        this.requests = requests;
+    }
+
+    private DocumentReference shiftRef(String shiftId) {
+        return db.collection("shifts").document(shiftId);
+    }
+
+    /**
+     * בקשת הרשמה: העובד נכנס לממתינים ונוצר מסמך הבקשה - באותה טרנזקציה.
+     * נכשל עם AssignmentRejectedException אם לעובד כבר יש רשומה במשמרת (ממתין או משובץ),
+     * כך שלחיצה חוזרת לא מורידה עובד משובץ חזרה לממתינים ולא מאפסת את זמני הבקשה שלו.
+     */
+    public Task<Void> requestSignUp(String shiftId, String uid, String name) {
+        return withRetry(() -> db.runTransaction((Transaction.Function<Void>) transaction -> {
+            DocumentSnapshot snapshot = transaction.get(shiftRef(shiftId));
+            Shift shift = ShiftMapper.fromSnapshot(snapshot);
+            if (shift == null) {
+                throw new AssignmentRejectedException("המשמרת כבר לא קיימת");
+            }
+
+            Roster roster = new Roster(shift);
+            if (roster.isAssigned(uid)) {
+                throw new AssignmentRejectedException("כבר משובץ במשמרת");
+            }
+            if (roster.isPending(uid)) {
+                throw new AssignmentRejectedException("הבקשה כבר נשלחה");
+            }
+
+            roster.request(uid, name);
+            roster.write(transaction, shiftRef(shiftId));
+            requests.addPending(transaction, shift, uid, name);
+            return null;
+        }));
+    }
+
+    /**
+     * אישור בקשה: בדיקת תפוסה, העברה מהממתינים למשובצים, סגירת מסמך הבקשה
+     * ועדכון ספר השכר ומוני האיוש - הכל באותה טרנזקציה.
+     * @param hourlyRate - התעריף של העובד (נקרא לפני הטרנזקציה, הוא לא חלק מהמצב שעליו מתחרים).
+     */
+    public Task<Void> approve(String shiftId, String uid, String name, double hourlyRate) {
+        return withRetry(() -> db.runTransaction((Transaction.Function<Void>) transaction -> {
+            DocumentSnapshot snapshot = transaction.get(shiftRef(shiftId));
+            Shift shift = ShiftMapper.fromSnapshot(snapshot);
+            if (shift == null) {
+                // המשמרת נמחקה בינתיים - רק סוגרים את הבקשה
+                requests.remove(transaction, shiftId, uid);
+                return null;
+            }
+
+            Roster roster = new Roster(shift);
+            Assignment request = roster.removePending(uid);
+            if (roster.isAssigned(uid)) {
+                // כבר משובץ (למשל לחיצה כפולה) - רק מנקים את הבקשה, בלי לגעת במונים
+                roster.write(transaction, shiftRef(shiftId));
+                requests.resolve(transaction, shiftId, uid, ShiftRequest.STATUS_APPROVED);
+                return null;
+            }
+            if (request == null) {
+                throw new AssignmentRejectedException("הבקשה כבר לא ממתינה");
+            }
+            int before = roster.assignedCount();
+            if (before >= shift.getRequiredWorkers()) {
+                throw new AssignmentRejectedException("המשמרת כבר מלאה");
+            }
+
+            roster.assign(uid, name, request.getRequestedAt());
+            roster.write(transaction, shiftRef(shiftId));
+            requests.resolve(transaction, shiftId, uid, ShiftRequest.STATUS_APPROVED);
+            ledger.applyShift(transaction, uid, shift.getStartTime(), shift.getEndTime(), hourlyRate, 1);
+            stats.changeAssigned(transaction, shift.getStartTime(), shift.getRequiredWorkers(), before, before + 1);
+            return null;
+        }));
+    }
+
+    /**
+     * אישור של כמה בקשות לאותה משמרת בטרנזקציה אחת, לפי הסדר ועד שהמשמרת מתמלאת.
+     * בקשות שלא נכנסו נשארות ממתינות ומקבלות SHIFT_FULL.
+     * הקורא אחראי שמספר הכתיבות לא יעבור את מגבלת Firestore (ראו ShiftWriter.MAX_WRITES).
+     * @param rates - התעריף של כל עובד ברשימה.
+     */
+    public Task<List<BulkResult>> approveAll(String shiftId, List<ShiftRequestItem> items, Map<String, Double> rates) {
+        return withRetry(() -> db.runTransaction((Transaction.Function<List<BulkResult>>) transaction -> {
+            List<BulkResult> results = new ArrayList<>();
+            DocumentSnapshot snapshot = transaction.get(shiftRef(shiftId));
+            Shift shift = ShiftMapper.fromSnapshot(snapshot);
+            if (shift == null) {
+                for (ShiftRequestItem item : items) {
+                    requests.remove(transaction, shiftId, item.getUserId());
+                    results.add(result(shiftId, item, BulkResult.Outcome.NOT_PENDING));
+                }
+                return results;
+            }
+
+            Roster roster = new Roster(shift);
+            int before = roster.assignedCount();
+            boolean changed = false;
+            for (ShiftRequestItem item : items) {
+                String uid = item.getUserId();
+                if (roster.isAssigned(uid)) {
+                    changed |= roster.removePending(uid) != null;
+                    requests.resolve(transaction, shiftId, uid, ShiftRequest.STATUS_APPROVED);
+                    results.add(result(shiftId, item, BulkResult.Outcome.APPROVED));
+                } else if (!roster.isPending(uid)) {
+                    results.add(result(shiftId, item, BulkResult.Outcome.NOT_PENDING));
+                } else if (roster.assignedCount() >= shift.getRequiredWorkers()) {
+                    results.add(result(shiftId, item, BulkResult.Outcome.SHIFT_FULL));
+                } else {
+                    Assignment request = roster.removePending(uid);
+                    roster.assign(uid, item.getUserName(), request.getRequestedAt());
+                    changed = true;
+                    requests.resolve(transaction, shiftId, uid, ShiftRequest.STATUS_APPROVED);
+                    Double rate = rates.get(uid);
+                    ledger.applyShift(transaction, uid, shift.getStartTime(), shift.getEndTime(), rate == null ? 0 : rate, 1);
+                    results.add(result(shiftId, item, BulkResult.Outcome.APPROVED));
+                }
+            }
+
+            if (changed) roster.write(transaction, shiftRef(shiftId));
+            stats.changeAssigned(transaction, shift.getStartTime(), shift.getRequiredWorkers(), before, roster.assignedCount());
+            return results;
+        }));
+    }
+
+    /**
+     * דחייה של כמה בקשות לאותה משמרת בטרנזקציה אחת.
+     */
+    public Task<List<BulkResult>> denyAll(String shiftId, List<ShiftRequestItem> items) {
+        return withRetry(() -> db.runTransaction((Transaction.Function<List<BulkResult>>) transaction -> {
+            List<BulkResult> results = new ArrayList<>();
+            DocumentSnapshot snapshot = transaction.get(shiftRef(shiftId));
+            Shift shift = ShiftMapper.fromSnapshot(snapshot);
+
+            if (shift == null) {
+                for (ShiftRequestItem item : items) {
+                    requests.remove(transaction, shiftId, item.getUserId());
+                    results.add(result(shiftId, item, BulkResult.Outcome.NOT_PENDING));
+                }
+                return results;
+            }
+
+            Roster roster = new Roster(shift);
+            for (ShiftRequestItem item : items) {
+                // בקשה שכבר אושרה או בוטלה בינתיים לא נדרסת
+                if (roster.removePending(item.getUserId()) != null) {
+                    requests.resolve(transaction, shiftId, item.getUserId(), ShiftRequest.STATUS_DENIED);
+                    results.add(result(shiftId, item, BulkResult.Outcome.DENIED));
+                } else {
+                    results.add(result(shiftId, item, BulkResult.Outcome.NOT_PENDING));
+                }
+            }
+            roster.write(transaction, shiftRef(shiftId));
+            return results;
+        }));
+    }
+
+    private static BulkResult result(String shiftId, ShiftRequestItem item, BulkResult.Outcome outcome) {
+        return new BulkResult(shiftId, item.getUserId(), item.getUserName(), outcome);
+    }
+
+    /**
+     * דחיית בקשה: הסרה מהממתינים (יחד עם השם שלו בלבד) וסגירת מסמך הבקשה.
+     */
+    public Task<Void> deny(String shiftId, String uid) {
+        return withRetry(() -> db.runTransaction((Transaction.Function<Void>) transaction -> {
+            DocumentSnapshot snapshot = transaction.get(shiftRef(shiftId));
+            Shift shift = ShiftMapper.fromSnapshot(snapshot);
+            requests.resolve(transaction, shiftId, uid, ShiftRequest.STATUS_DENIED);
+            if (shift == null) return null;
+
+            Roster roster = new Roster(shift);
+            if (roster.removePending(uid) != null) roster.write(transaction, shiftRef(shiftId));
+            return null;
+        }));
+    }
+
+    /**
+     * הוצאת עובד מהמשמרת (גם מהממתינים וגם מהמשובצים).
+     * אם העובד היה משובץ לפי המצב שנקרא בטרנזקציה - המשמרת יורדת מספר השכר ומהמונים.
+     * @param removeRequest - האם למחוק גם את מסמך הבקשה (ביטול ע"י העובד).
+     */
+    public Task<Void> release(String shiftId, String uid, double hourlyRate, boolean removeRequest) {
+        return withRetry(() -> db.runTransaction((Transaction.Function<Void>) transaction -> {
+            DocumentSnapshot snapshot = transaction.get(shiftRef(shiftId));
+            Shift shift = ShiftMapper.fromSnapshot(snapshot);
+            if (removeRequest) requests.remove(transaction, shiftId, uid);
+            if (shift == null) return null;
+
+            Roster roster = new Roster(shift);
+            roster.removePending(uid);
+            int before = roster.assignedCount();
+            boolean wasAssigned = roster.unassign(uid);
+            roster.write(transaction, shiftRef(shiftId));
+
+            if (wasAssigned) {
+                ledger.applyShift(transaction, uid, shift.getStartTime(), shift.getEndTime(), hourlyRate, -1);
+                stats.changeAssigned(transaction, shift.getStartTime(), shift.getRequiredWorkers(), before, before - 1);
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * הרצה חוזרת עם השהיה אקספוננציאלית ורעש אקראי (Exponential Backoff + Jitter),
+     * למקרה שה-SDK מיצה את הניסיונות שלו תחת עומס של אישורים במקביל.
+     */
+    private static <T> Task<T> withRetry(Callable<Task<T>> operation) {
+        TaskCompletionSource<T> result = new TaskCompletionSource<>();
+        attempt(operation, 0, result);
+        return result.getTask();
+    }
+
+    private static <T> void attempt(Callable<Task<T>> operation, int attempt, TaskCompletionSource<T> result) {
+        Task<T> task;
+        try {
+            task = operation.call();
+        } catch (Exception e) {
+            result.setException(e);
+            return;
+        }
+
+        task.addOnCompleteListener(done -> {
+            if (done.isSuccessful()) {
+                result.setResult(done.getResult());
+                return;
+            }
+            Exception e = done.getException();
+            if (attempt + 1 >= MAX_ATTEMPTS || !isContention(e)) {
+                result.setException(e);
+                return;
+            }
+            long delay = BASE_DELAY_MS << attempt;
+            delay += (long) (jitter.nextDouble() * delay);
+            scheduler.schedule(() -> attempt(operation, attempt + 1, result), delay, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    // שגיאות שנובעות מהתנגשות או מעומס זמני, ושווה לנסות שוב
+    private static boolean isContention(Exception e) {
+        if (!(e instanceof FirebaseFirestoreException) || e instanceof AssignmentRejectedException) return false;
+        FirebaseFirestoreException.Code code = ((FirebaseFirestoreException) e).getCode();
+        return code == FirebaseFirestoreException.Code.ABORTED
+                || code == FirebaseFirestoreException.Code.FAILED_PRECONDITION
+                || code == FirebaseFirestoreException.Code.UNAVAILABLE;
+    }
+
+    /**
+     * עותק עבודה של מפת העובדים במשמרת (uid -> שיבוץ).
+     * כל עובד הוא רשומה אחת לפי uid, כך שהסרה מוחקת בדיוק אותו (גם כששני עובדים באותו שם),
+     * ובדיקת "משובץ/ממתין" היא חיפוש במפה.
+     */
+    private static class Roster {
+        final Map<String, Assignment> assignments = new HashMap<>();
+        final long now = System.currentTimeMillis();
+
+        Roster(Shift shift) {
+            for (Map.Entry<String, Assignment> entry : shift.getAssignments().entrySet()) {
+                Assignment a = entry.getValue();
+                assignments.put(entry.getKey(), new Assignment(a.getName(), a.getStatus(), a.getRequestedAt(), a.getAssignedAt()));
+            }
+        }
+
+        int assignedCount() {
+            int count = 0;
+            for (Assignment assignment : assignments.values()) {
+                if (Assignment.STATUS_ASSIGNED.equals(assignment.getStatus())) count++;
+            }
+            return count;
+        }
+
+        boolean isAssigned(String uid) {
+            return hasStatus(uid, Assignment.STATUS_ASSIGNED);
+        }
+
+        boolean isPending(String uid) {
+            return hasStatus(uid, Assignment.STATUS_PENDING);
+        }
+
+        // הוספה לממתינים
+        void request(String uid, String name) {
+            assignments.put(uid, Assignment.pending(name, now));
+        }
+
+        // שיבוץ (ממתין שאושר שומר את זמן הבקשה שלו)
+        void assign(String uid, String name, long requestedAt) {
+            assignments.put(uid, Assignment.assigned(name, requestedAt, now));
+        }
+
+        boolean unassign(String uid) {
+            return removeWithStatus(uid, Assignment.STATUS_ASSIGNED) != null;
+        }
+
+        // הסרה מהממתינים; מחזיר את הבקשה שהוסרה, או null
+        Assignment removePending(String uid) {
+            return removeWithStatus(uid, Assignment.STATUS_PENDING);
+        }
+
+        /**
+         * כתיבת המפה המלאה, יחד עם שדה האינדקס assignedUserIds שנגזר ממנה.
+         * השדות הישנים (רשימות מקבילות) נמחקים - כך כל משמרת שמשתנה עוברת למבנה החדש.
+         */
+        void write(Transaction transaction, DocumentReference ref) {
+            Shift written = new Shift();
+            written.setAssignments(assignments);
+
+            Map<String, Object> update = new HashMap<>();
+            update.put("assignments", assignments);
+            update.put("assignedUserIds", written.getAssignedUserIds());
+            update.put(ShiftMapper.LEGACY_ASSIGNED_NAMES, FieldValue.delete());
+            update.put(ShiftMapper.LEGACY_PENDING_IDS, FieldValue.delete());
+            update.put(ShiftMapper.LEGACY_PENDING_NAMES, FieldValue.delete());
+            update.put(SyncEngine.FIELD_UPDATED_AT, now);
+            transaction.update(ref, update);
+        }
+
+        private boolean hasStatus(String uid, String status) {
+            Assignment assignment = assignments.get(uid);
+            return assignment != null && status.equals(assignment.getStatus());
+        }
+
+        private Assignment removeWithStatus(String uid, String status) {
+            return hasStatus(uid, status) ? assignments.remove(uid) : null;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.shiftsync.data;
+
+import com.google.android.gms.tasks.CancellationToken;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * דוח שכר לכל החברה (Company Payroll).
+ * משמרות החודש נקראות פעם אחת, בדפים לפי startTime, וכל דף נצבר ב-PayrollAggregator ברקע ונזרק.
+ * כך הזיכרון תלוי בגודל דף ובמספר העובדים, לא במספר המשמרות.
+ * בסוף השעות מחוברות לתעריפים מהמדריך (UserDirectory).
+ */
+public class CompanyPayroll {
+
+    // מספר משמרות בכל דף
+    static final int PAGE_SIZE = 1000;
+
+    // הצבירה רצה ברקע, דף אחרי דף (הצובר לא Thread-safe)
+    private static final Executor executor = Executors.newSingleThreadExecutor();
+
+    /**
+     * התקדמות הקריאה (ב-UI Thread).
+     */
+    public interface ProgressListener {
+        void onPage(int shiftsRead);
+    }
+
+    /**
+     * תוצאת הדוח לחודש אחד.
+     */
+    public static class Report {
+        public final long monthStart;
+        public final List<PayrollAggregator.Line> lines;
+        public final int shiftCount;
+        public final double totalHours;
+        public final double totalAmount;
+
+        Report(long monthStart, List<PayrollAggregator.Line> lines, int shiftCount) {
+            this.monthStart = monthStart;
+            this.lines = lines;
+            this.shiftCount = shiftCount;
+            double hours = 0;
+            double amount = 0;
+            for (PayrollAggregator.Line line : lines) {
+                hours += line.hours;
+                amount += line.amount;
+            }
+            this.totalHours = hours;
+            this.totalAmount = amount;
+        }
+    }
+
+    private final FirebaseFirestore db;
+    private final UserDirectory directory;
+
+    public CompanyPayroll(FirebaseFirestore db, UserDirectory directory) {
+        this.db = db;
+        this.directory = directory;
+    }
+
+    /**
+     * חישוב הדוח לחודש שבו נמצא הזמן הנתון.
+     * @param cancellationToken - ביטול בין דפים (המשימה מסתיימת כמבוטלת).
+     */
+    public Task<Report> load(long timeInMonth, ProgressListener listener, CancellationToken cancellationToken) {
+        long monthStart = CalendarRanges.monthStart(timeInMonth);
+        long end = CalendarRanges.monthEnd(monthStart);
+
+        Query month = db.collection("shifts")
+                .whereGreaterThanOrEqualTo("startTime", monthStart)
+                .whereLessThan("startTime", end)
+                .orderBy("startTime")
+                .limit(PAGE_SIZE);
+
+        PayrollAggregator aggregator = new PayrollAggregator();
+        return readPages(month, null, aggregator, listener, cancellationToken)
+                .onSuccessTask(aVoid -> directory.getAll())
+                .onSuccessTask(executor, users ->
+                        Tasks.forResult(new Report(monthStart, aggregator.lines(users), aggregator.getShiftsSeen())));
+    }
+
+    // קריאת דף, צבירה שלו ברקע, והמשך לדף הבא עד שמגיע דף חלקי
+    private Task<Void> readPages(Query query, DocumentSnapshot after, PayrollAggregator aggregator,
+                                 ProgressListener listener, CancellationToken cancellationToken) {
+        if (cancellationToken.isCancellationRequested()) return Tasks.forCanceled();
+
+        Query page = after == null ? query : query.startAfter(after);
+        return TracedFirestore.get("shifts.payrollPage", page)
+                .onSuccessTask(executor, snapshot -> {
+                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                        aggregate(aggregator, doc);
+                    }
+                    return Tasks.forResult(snapshot);
+                })
+                .onSuccessTask(snapshot -> {
+                    List<DocumentSnapshot> docs = snapshot.getDocuments();
+                    listener.onPage(aggregator.getShiftsSeen());
+                    if (docs.size() < PAGE_SIZE) return Tasks.forResult(null);
+                    return readPages(query, docs.get(docs.size() - 1), aggregator, listener, cancellationToken);
+                });
+    }
+
+    // קריאת השדות ישירות מהמסמך (בלי להמיר כל משמרת לאובייקט Shift)
+    @SuppressWarnings("unchecked")
+    private static void aggregate(PayrollAggregator aggregator, DocumentSnapshot doc) {
+        Long start = doc.getLong("startTime");
+        Long end = doc.getLong("endTime");
+        if (start == null || end == null) return;
+        aggregator.addShift((List<String>) doc.get("assignedUserIds"), start, end);
+    }
+}
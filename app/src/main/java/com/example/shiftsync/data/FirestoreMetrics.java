@@ -0,0 +1,395 @@
+package com.example.shiftsync.data;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.Blob;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.GeoPoint;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * מדדי הקריאות ל-Firestore לפי מסך (Firestore Metrics).
+ * לכל מסך ולכל סוג קריאה (label) נשמרים: היסטוגרמת זמנים, מספר קריאות, מסמכים, בתים (הערכה)
+ * וכמה תשובות הגיעו מהמטמון; ולכל מסך - כמה מאזינים פתוחים כרגע ומה היה השיא.
+ * בנוסף נשמרים האירועים האחרונים, שאפשר לייצא כקובץ Trace (פורמט Chrome, נפתח ב-Perfetto).
+ * הקריאות עצמן נמדדות ב-TracedFirestore; כשהמדידה כבויה אין שום רישום.
+ */
+public class FirestoreMetrics {
+
+    // סוגי הקריאות
+    public static final String KIND_GET = "get";
+    public static final String KIND_LISTEN = "listen";
+    public static final String KIND_MAP = "map";
+
+    // המסך לפני שנפתח מסך כלשהו (טעינה מוקדמת ב-ShiftSyncApp)
+    public static final String SCREEN_STARTUP = "startup";
+
+    // כמה אירועים נשמרים לקובץ ה-Trace (האחרונים)
+    private static final int MAX_EVENTS = 5000;
+
+    // כמה מסמכים לכל היותר נפתחים (getData) כדי להעריך את גודל התשובה
+    private static final int MAX_SIZE_SAMPLES = 8;
+
+    /**
+     * מדדים של סוג קריאה אחד במסך אחד.
+     */
+    public static class LabelStats {
+        public final String label;
+        public final String kind;
+        public final LatencyHistogram latency = new LatencyHistogram();
+        public long calls;
+        public long documents;
+        public long bytes;
+        public long fromCache;
+        public long failures;
+
+        LabelStats(String label, String kind) {
+            this.label = label;
+            this.kind = kind;
+        }
+    }
+
+    /**
+     * מדדים של מסך אחד.
+     */
+    public static class ScreenStats {
+        public final String screen;
+        public final Map<String, LabelStats> labels = new LinkedHashMap<>();
+        public int activeListeners;
+        public int peakListeners;
+
+        ScreenStats(String screen) {
+            this.screen = screen;
+        }
+
+        public long documents() {
+            long total = 0;
+            for (LabelStats stats : labels.values()) total += stats.documents;
+            return total;
+        }
+
+        public long bytes() {
+            long total = 0;
+            for (LabelStats stats : labels.values()) total += stats.bytes;
+            return total;
+        }
+    }
+
+    // אירוע אחד בקובץ ה-Trace
+    private static class Event {
+        final String screen;
+        final String label;
+        final String kind;
+        final boolean timed;
+        final long startMicros;
+        final long durationMicros;
+        final int documents;
+        final long bytes;
+        final boolean fromCache;
+        final boolean failed;
+
+        Event(String screen, String label, String kind, boolean timed, long startMicros, long durationMicros,
+              int documents, long bytes, boolean fromCache, boolean failed) {
+            this.screen = screen;
+            this.label = label;
+            this.kind = kind;
+            this.timed = timed;
+            this.startMicros = startMicros;
+            this.durationMicros = durationMicros;
+            this.documents = documents;
+            this.bytes = bytes;
+            this.fromCache = fromCache;
+            this.failed = failed;
+        }
+    }
+
+    private static FirestoreMetrics instance;
+
+    private final Map<String, ScreenStats> screens = new LinkedHashMap<>();
+    private final ArrayDeque<Event> events = new ArrayDeque<>();
+    private final long originNanos = System.nanoTime();
+
+    private volatile boolean enabled;
+    private volatile String currentScreen = SCREEN_STARTUP;
+
+    private FirestoreMetrics() { }
+
+    public static synchronized FirestoreMetrics getInstance() {
+        if (instance == null) {
+            instance = new FirestoreMetrics();
+        }
+        return instance;
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    // המסך שבחזית (מתעדכן מ-MetricsOverlay בכל פתיחה של מסך וחזרה אליו)
+    public String getCurrentScreen() { return currentScreen; }
+    public void setCurrentScreen(String screen) { this.currentScreen = screen; }
+
+    /**
+     * רישום קריאה שהסתיימה.
+     * @param startNanos - System.nanoTime() בתחילת הקריאה.
+     * @param timed - false לעדכון של מאזין (הזמן לא נכנס להיסטוגרמה, רק המסמכים והבתים).
+     */
+    public void record(String screen, String label, String kind, long startNanos, boolean timed,
+                       int documents, long bytes, boolean fromCache) {
+        long now = System.nanoTime();
+        long durationMicros = timed ? (now - startNanos) / 1000 : 0;
+        synchronized (this) {
+            LabelStats stats = labelStats(screen, label, kind);
+            stats.calls++;
+            stats.documents += documents;
+            stats.bytes += bytes;
+            if (fromCache) stats.fromCache++;
+            if (timed) stats.latency.record(durationMicros);
+
+            addEvent(new Event(screen, label, kind, timed, ((timed ? startNanos : now) - originNanos) / 1000,
+                    durationMicros, documents, bytes, fromCache, false));
+        }
+    }
+
+    /**
+     * רישום קריאה שנכשלה (למשל אין הרשאה, או אין רשת ואין מטמון).
+     * הזמן עד הכישלון נכנס להיסטוגרמה, וב-Trace האירוע מסומן כשגיאה.
+     */
+    public void recordFailure(String screen, String label, String kind, long startNanos) {
+        long durationMicros = (System.nanoTime() - startNanos) / 1000;
+        synchronized (this) {
+            LabelStats stats = labelStats(screen, label, kind);
+            stats.calls++;
+            stats.failures++;
+            stats.latency.record(durationMicros);
+            addEvent(new Event(screen, label, kind, true, (startNanos - originNanos) / 1000,
+                    durationMicros, 0, 0, false, true));
+        }
+    }
+
+    /**
+     * זמן המרה של מסמך לאובייקט, במסך הנוכחי.
+     * נכנס רק להיסטוגרמה של סוג ההמרה: המסמך כבר נספר בקריאה שהביאה אותו,
+     * ואירוע לכל מסמך היה דוחק מקובץ ה-Trace את אירועי הקריאות עצמן.
+     */
+    public void recordMapping(String label, long startNanos) {
+        long durationMicros = (System.nanoTime() - startNanos) / 1000;
+        synchronized (this) {
+            LabelStats stats = labelStats(currentScreen, label, KIND_MAP);
+            stats.calls++;
+            stats.latency.record(durationMicros);
+        }
+    }
+
+    private void addEvent(Event event) {
+        if (events.size() == MAX_EVENTS) events.removeFirst();
+        events.addLast(event);
+    }
+
+    public synchronized void listenerAdded(String screen) {
+        ScreenStats stats = screenStats(screen);
+        stats.activeListeners++;
+        stats.peakListeners = Math.max(stats.peakListeners, stats.activeListeners);
+    }
+
+    public synchronized void listenerRemoved(String screen) {
+        ScreenStats stats = screenStats(screen);
+        stats.activeListeners = Math.max(0, stats.activeListeners - 1);
+    }
+
+    // איפוס המדדים (המאזינים שעדיין פתוחים נשארים בספירה)
+    public synchronized void reset() {
+        for (ScreenStats stats : screens.values()) {
+            stats.labels.clear();
+            stats.peakListeners = stats.activeListeners;
+        }
+        events.clear();
+    }
+
+    /**
+     * תקציר טקסט של מסך (לשכבת התצוגה): מונים כלליים, ואז סוגי הקריאות מהיקר לזול (לפי זמן כולל).
+     */
+    public synchronized String summary(String screen, int maxLabels) {
+        ScreenStats stats = screens.get(screen);
+        StringBuilder text = new StringBuilder(screen);
+        if (stats == null) return text.append("\nאין קריאות").toString();
+
+        text.append(String.format(Locale.US, "\nlisteners %d (peak %d) | docs %d | %.1f KB",
+                stats.activeListeners, stats.peakListeners, stats.documents(), stats.bytes() / 1024.0));
+
+        List<LabelStats> labels = new ArrayList<>(stats.labels.values());
+        Collections.sort(labels, (a, b) -> Long.compare(b.latency.getTotal(), a.latency.getTotal()));
+        for (int i = 0; i < labels.size() && i < maxLabels; i++) {
+            LabelStats label = labels.get(i);
+            text.append(String.format(Locale.US, "\n%s %s x%d p50 %s p95 %s max %s docs %d",
+                    label.kind, label.label, label.calls,
+                    millis(label.latency.valueAtPercentile(50)),
+                    millis(label.latency.valueAtPercentile(95)),
+                    millis(label.latency.getMax()),
+                    label.documents));
+            if (label.failures > 0) text.append(" errors ").append(label.failures);
+        }
+        return text.toString();
+    }
+
+    /**
+     * כתיבת קובץ ה-Trace בפורמט Chrome Trace Event (JSON):
+     * כל קריאה היא אירוע עם משך, המסך הוא ה-Thread, ובסוף - סיכום לפי מסך וסוג קריאה.
+     */
+    public void writeTrace(Writer writer) throws IOException {
+        List<Event> snapshot;
+        List<ScreenStats> summary;
+        synchronized (this) {
+            snapshot = new ArrayList<>(events);
+            summary = new ArrayList<>(screens.values());
+        }
+
+        // מספר Thread קבוע לכל מסך, כדי שכל מסך יוצג בשורה משלו
+        Map<String, Integer> threads = new LinkedHashMap<>();
+        for (Event event : snapshot) {
+            if (!threads.containsKey(event.screen)) threads.put(event.screen, threads.size() + 1);
+        }
+
+        writer.write("{\"traceEvents\":[");
+        boolean first = true;
+        for (Map.Entry<String, Integer> thread : threads.entrySet()) {
+            if (!first) writer.write(',');
+            first = false;
+            writer.write("\n{\"ph\":\"M\",\"name\":\"thread_name\",\"pid\":1,\"tid\":" + thread.getValue()
+                    + ",\"args\":{\"name\":" + quote(thread.getKey()) + "}}");
+        }
+        for (Event event : snapshot) {
+            if (!first) writer.write(',');
+            first = false;
+            // קריאה עם זמן = אירוע עם משך; עדכון של מאזין = אירוע רגעי
+            writer.write("\n{\"ph\":\"" + (event.timed ? "X" : "i") + "\""
+                    + ",\"name\":" + quote(event.label)
+                    + ",\"cat\":" + quote(event.kind)
+                    + ",\"pid\":1,\"tid\":" + threads.get(event.screen)
+                    + ",\"ts\":" + event.startMicros
+                    + (event.timed ? ",\"dur\":" + event.durationMicros : ",\"s\":\"t\"")
+                    + ",\"args\":{\"docs\":" + event.documents
+                    + ",\"bytes\":" + event.bytes
+                    + ",\"fromCache\":" + event.fromCache
+                    + (event.failed ? ",\"failed\":true" : "") + "}}");
+        }
+        writer.write("\n],\"summary\":[");
+
+        first = true;
+        synchronized (this) {
+            for (ScreenStats screen : summary) {
+                for (LabelStats label : screen.labels.values()) {
+                    if (!first) writer.write(',');
+                    first = false;
+                    LatencyHistogram latency = label.latency;
+                    writer.write("\n{\"screen\":" + quote(screen.screen)
+                            + ",\"label\":" + quote(label.label)
+                            + ",\"kind\":" + quote(label.kind)
+                            + ",\"calls\":" + label.calls
+                            + ",\"docs\":" + label.documents
+                            + ",\"bytes\":" + label.bytes
+                            + ",\"fromCache\":" + label.fromCache
+                            + ",\"failures\":" + label.failures
+                            + ",\"peakListeners\":" + screen.peakListeners
+                            + ",\"p50Micros\":" + latency.valueAtPercentile(50)
+                            + ",\"p95Micros\":" + latency.valueAtPercentile(95)
+                            + ",\"p99Micros\":" + latency.valueAtPercentile(99)
+                            + ",\"maxMicros\":" + latency.getMax() + "}");
+                }
+            }
+        }
+        writer.write("\n]}\n");
+        writer.flush();
+    }
+
+    /**
+     * הערכת הגודל של רשימת מסמכים מתוך מדגם: עד MAX_SIZE_SAMPLES מסמכים בפיזור שווה,
+     * והממוצע שלהם כפול מספר המסמכים. כך תשובה גדולה לא נפתחת (getData) פעם שנייה במלואה
+     * רק בשביל המדידה, על ה-Thread הראשי.
+     */
+    public static long estimateSize(List<? extends DocumentSnapshot> docs) {
+        int count = docs.size();
+        if (count == 0) return 0;
+        int samples = Math.min(count, MAX_SIZE_SAMPLES);
+        long sampled = 0;
+        for (int i = 0; i < samples; i++) sampled += estimateSize(docs.get((int) ((long) i * count / samples)));
+        return sampled * count / samples;
+    }
+
+    /**
+     * הערכת גודל מסמך בבתים, לפי כללי הגודל של Firestore:
+     * שם המסמך + לכל שדה אורך השם + 1 וגודל הערך, ועוד 32 בתים קבועים.
+     */
+    public static long estimateSize(DocumentSnapshot doc) {
+        if (!doc.exists()) return 0;
+        long size = doc.getReference().getPath().length() + 1 + 32;
+        Map<String, Object> data = doc.getData();
+        return data == null ? size : size + valueSize(data);
+    }
+
+    private static long valueSize(Object value) {
+        if (value == null || value instanceof Boolean) return 1;
+        if (value instanceof String) return ((String) value).getBytes(StandardCharsets.UTF_8).length + 1;
+        if (value instanceof Number || value instanceof Timestamp) return 8;
+        if (value instanceof GeoPoint) return 16;
+        if (value instanceof Blob) return ((Blob) value).toBytes().length;
+        if (value instanceof DocumentReference) return ((DocumentReference) value).getPath().length() + 1;
+        if (value instanceof Map) {
+            long size = 0;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                size += String.valueOf(entry.getKey()).length() + 1 + valueSize(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof List) {
+            long size = 0;
+            for (Object item : (List<?>) value) size += valueSize(item);
+            return size;
+        }
+        return 8;
+    }
+
+    private LabelStats labelStats(String screen, String label, String kind) {
+        ScreenStats stats = screenStats(screen);
+        String key = kind + ":" + label;
+        LabelStats labelStats = stats.labels.get(key);
+        if (labelStats == null) {
+            labelStats = new LabelStats(label, kind);
+            stats.labels.put(key, labelStats);
+        }
+        return labelStats;
+    }
+
+    private ScreenStats screenStats(String screen) {
+        ScreenStats stats = screens.get(screen);
+        if (stats == null) {
+            stats = new ScreenStats(screen);
+            screens.put(screen, stats);
+        }
+        return stats;
+    }
+
+    private static String millis(long micros) {
+        return String.format(Locale.US, "%.1fms", micros / 1000.0);
+    }
+
+    private static String quote(String value) {
+        StringBuilder out = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') out.append('\\').append(c);
+            else if (c < 0x20) out.append(String.format(Locale.US, "\\u%04x", (int) c));
+            else out.append(c);
+        }
+        return out.append('"').toString();
+    }
+}
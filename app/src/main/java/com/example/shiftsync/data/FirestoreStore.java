@@ -0,0 +1,125 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Shift;
+import com.example.shiftsync.models.User;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * המימוש של מאגרי :core מעל Firestore (Firestore Store), ונקודת הגישה לשירותים של :core באפליקציה.
+ * השירותים (ShiftService, PayrollCalculator, StaffingAnalyzer) לא מכירים את Firestore -
+ * הם מקבלים את המאגר הזה, ובבדיקות JVM את InMemoryStore.
+ * התשובות מגיעות ב-Thread הראשי (כמו ב-Task), ומומרות ל-CompletableFuture;
+ * המסכים ממשיכים לעבוד עם Task בעזרת task().
+ */
+public class FirestoreStore implements ShiftStore, UserStore {
+
+    private static FirestoreStore instance;
+
+    private final FirebaseFirestore db;
+    private final ShiftService shifts;
+    private final PayrollCalculator payroll;
+    private final StaffingAnalyzer staffing;
+
+    private FirestoreStore(FirebaseFirestore db) {
+        this.db = db;
+        this.shifts = new ShiftService(this);
+        this.payroll = new PayrollCalculator(this, this);
+        this.staffing = new StaffingAnalyzer(this);
+    }
+
+    public static synchronized FirestoreStore getInstance() {
+        if (instance == null) {
+            instance = new FirestoreStore(FirebaseFirestore.getInstance());
+        }
+        return instance;
+    }
+
+    public ShiftService getShiftService() {
+        return shifts;
+    }
+
+    public PayrollCalculator getPayroll() {
+        return payroll;
+    }
+
+    public StaffingAnalyzer getStaffing() {
+        return staffing;
+    }
+
+    @Override
+    public CompletableFuture<List<Shift>> shiftsBetween(long from, long to) {
+        return shifts("shifts.range", db.collection("shifts")
+                .whereGreaterThanOrEqualTo("startTime", from)
+                .whereLessThan("startTime", to)
+                .orderBy("startTime"));
+    }
+
+    // משתמש באינדקס המורכב assignedUserIds + startTime
+    @Override
+    public CompletableFuture<List<Shift>> assignedShifts(String uid, long from, long to) {
+        return shifts("shifts.assigned", db.collection("shifts")
+                .whereArrayContains("assignedUserIds", uid)
+                .whereGreaterThanOrEqualTo("startTime", from)
+                .whereLessThan("startTime", to)
+                .orderBy("startTime"));
+    }
+
+    @Override
+    public CompletableFuture<User> user(String uid) {
+        return future(TracedFirestore.get("users.doc", db.collection("users").document(uid))
+                .continueWith(task -> UserMapper.fromSnapshot(task.getResult())));
+    }
+
+    private static CompletableFuture<List<Shift>> shifts(String label, Query query) {
+        return future(TracedFirestore.get(label, query).continueWith(task -> {
+            QuerySnapshot snapshot = task.getResult();
+            List<Shift> shifts = new ArrayList<>(snapshot.size());
+            for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                Shift shift = ShiftMapper.fromSnapshot(doc);
+                if (shift != null) shifts.add(shift);
+            }
+            return shifts;
+        }));
+    }
+
+    // Task של Firebase -> CompletableFuture (השגיאה עוברת כמו שהיא)
+    static <T> CompletableFuture<T> future(Task<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        task.addOnCompleteListener(t -> {
+            if (t.isSuccessful()) {
+                future.complete(t.getResult());
+            } else if (t.getException() != null) {
+                future.completeExceptionally(t.getException());
+            } else {
+                future.completeExceptionally(new CancellationException());
+            }
+        });
+        return future;
+    }
+
+    // CompletableFuture -> Task, כדי שהמסכים ימשיכו עם addOnSuccessListener / addOnFailureListener
+    public static <T> Task<T> task(CompletableFuture<T> future) {
+        TaskCompletionSource<T> source = new TaskCompletionSource<>();
+        future.whenComplete((result, error) -> {
+            if (error == null) {
+                source.setResult(result);
+            } else {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                source.setException(cause instanceof Exception ? (Exception) cause : new Exception(cause));
+            }
+        });
+        return source.getTask();
+    }
+}
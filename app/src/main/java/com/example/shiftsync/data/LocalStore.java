@@ -0,0 +1,338 @@
+package com.example.shiftsync.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import com.example.shiftsync.models.Announcement;
+import com.example.shiftsync.models.Assignment;
+import com.example.shiftsync.models.Shift;
+import com.example.shiftsync.models.UserSummary;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * מאגר מקומי (Local Store) - עותק SQLite של המשמרות, תקצירי המשתמשים וההודעות.
+ * המסכים מציגים ממנו מיד בפתיחה (גם בלי רשת), ו-SyncEngine מעדכן אותו ברקע מהשינויים בשרת.
+ * אינדקסים: משמרות לפי startTime, ושיבוצים לפי (עובד, startTime) בטבלה נפרדת,
+ * כך ש"המשמרות שלי בחודש" ו"המשמרת הבאה שלי" הן קריאת אינדקס ולא סריקה.
+ * כל הקריאות והכתיבות רצות על Thread רקע אחד ומחזירות Task.
+ */
+public class LocalStore extends SQLiteOpenHelper {
+
+    private static final String DB_NAME = "shiftsync_local.db";
+    private static final int DB_VERSION = 2;
+
+    private static final String SHIFTS = "shifts";
+    private static final String ASSIGNMENTS = "shift_assignments";
+    private static final String USERS = "users";
+    private static final String ANNOUNCEMENTS = "announcements";
+    private static final String SYNC_STATE = "sync_state";
+
+    private static LocalStore instance;
+
+    // כל הגישה למסד עוברת כאן, אחת אחרי השנייה
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private LocalStore(Context context) {
+        super(context.getApplicationContext(), DB_NAME, null, DB_VERSION);
+    }
+
+    public static synchronized LocalStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new LocalStore(context);
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + SHIFTS + " (id TEXT PRIMARY KEY, start_time INTEGER NOT NULL, end_time INTEGER NOT NULL,"
+                + " required_workers INTEGER NOT NULL, notes TEXT, assignments TEXT,"
+                + " updated_at INTEGER)");
+        db.execSQL("CREATE INDEX idx_shifts_start ON " + SHIFTS + " (start_time)");
+
+        db.execSQL("CREATE TABLE " + ASSIGNMENTS + " (uid TEXT NOT NULL, shift_id TEXT NOT NULL, start_time INTEGER NOT NULL,"
+                + " PRIMARY KEY (uid, shift_id))");
+        db.execSQL("CREATE INDEX idx_assignments_uid_start ON " + ASSIGNMENTS + " (uid, start_time)");
+        db.execSQL("CREATE INDEX idx_assignments_shift ON " + ASSIGNMENTS + " (shift_id)");
+
+        db.execSQL("CREATE TABLE " + USERS + " (uid TEXT PRIMARY KEY, full_name TEXT, id_number TEXT, role TEXT,"
+                + " hourly_rate REAL, profile_image_hash TEXT, updated_at INTEGER)");
+
+        db.execSQL("CREATE TABLE " + ANNOUNCEMENTS + " (id TEXT PRIMARY KEY, title TEXT, content TEXT,"
+                + " timestamp INTEGER NOT NULL, author_name TEXT)");
+        db.execSQL("CREATE INDEX idx_announcements_time ON " + ANNOUNCEMENTS + " (timestamp)");
+
+        // נקודת הסנכרון האחרונה (High-Water Mark) לכל אוסף
+        db.execSQL("CREATE TABLE " + SYNC_STATE + " (collection TEXT PRIMARY KEY, high_water INTEGER NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // המאגר הוא עותק של השרת - בשינוי מבנה מוחקים ומסנכרנים מחדש
+        db.execSQL("DROP TABLE IF EXISTS " + SHIFTS);
+        db.execSQL("DROP TABLE IF EXISTS " + ASSIGNMENTS);
+        db.execSQL("DROP TABLE IF EXISTS " + USERS);
+        db.execSQL("DROP TABLE IF EXISTS " + ANNOUNCEMENTS);
+        db.execSQL("DROP TABLE IF EXISTS " + SYNC_STATE);
+        onCreate(db);
+    }
+
+    // --- משמרות ---
+
+    /**
+     * המשמרות שמתחילות בטווח [from, to), לפי שעת התחלה.
+     */
+    public Task<List<Shift>> getShifts(long from, long to) {
+        return Tasks.call(executor, () -> readShifts(getReadableDatabase().rawQuery(
+                "SELECT * FROM " + SHIFTS + " WHERE start_time >= ? AND start_time < ? ORDER BY start_time",
+                new String[]{String.valueOf(from), String.valueOf(to)})));
+    }
+
+    /**
+     * המשמרות שהעובד משובץ אליהן בטווח [from, to), לפי שעת התחלה.
+     */
+    public Task<List<Shift>> getShiftsForUser(String uid, long from, long to) {
+        return Tasks.call(executor, () -> readShifts(getReadableDatabase().rawQuery(
+                "SELECT s.* FROM " + ASSIGNMENTS + " a JOIN " + SHIFTS + " s ON s.id = a.shift_id"
+                        + " WHERE a.uid = ? AND a.start_time >= ? AND a.start_time < ? ORDER BY a.start_time",
+                new String[]{uid, String.valueOf(from), String.valueOf(to)})));
+    }
+
+    /**
+     * המשמרת הבאה של העובד אחרי הזמן הנתון, או null.
+     */
+    public Task<Shift> getNextShift(String uid, long after) {
+        return Tasks.call(executor, () -> {
+            List<Shift> shifts = readShifts(getReadableDatabase().rawQuery(
+                    "SELECT s.* FROM " + ASSIGNMENTS + " a JOIN " + SHIFTS + " s ON s.id = a.shift_id"
+                            + " WHERE a.uid = ? AND a.start_time > ? ORDER BY a.start_time LIMIT 1",
+                    new String[]{uid, String.valueOf(after)}));
+            return shifts.isEmpty() ? null : shifts.get(0);
+        });
+    }
+
+    // כתיבת משמרות ושורות השיבוץ שלהן (נקרא מ-SyncEngine, על ה-Thread של המאגר)
+    void putShifts(SQLiteDatabase db, List<Shift> shifts) {
+        for (Shift shift : shifts) {
+            ContentValues values = new ContentValues();
+            values.put("id", shift.getShiftId());
+            values.put("start_time", shift.getStartTime());
+            values.put("end_time", shift.getEndTime());
+            values.put("required_workers", shift.getRequiredWorkers());
+            values.put("notes", shift.getNotes());
+            values.put("assignments", toJson(shift.getAssignments()));
+            values.put("updated_at", shift.getUpdatedAt());
+            db.insertWithOnConflict(SHIFTS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+
+            db.delete(ASSIGNMENTS, "shift_id = ?", new String[]{shift.getShiftId()});
+            for (String uid : shift.getAssignedUserIds()) {
+                ContentValues row = new ContentValues();
+                row.put("uid", uid);
+                row.put("shift_id", shift.getShiftId());
+                row.put("start_time", shift.getStartTime());
+                db.insertWithOnConflict(ASSIGNMENTS, null, row, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+        }
+    }
+
+    void deleteShift(SQLiteDatabase db, String shiftId) {
+        db.delete(SHIFTS, "id = ?", new String[]{shiftId});
+        db.delete(ASSIGNMENTS, "shift_id = ?", new String[]{shiftId});
+    }
+
+    private static List<Shift> readShifts(Cursor cursor) {
+        List<Shift> shifts = new ArrayList<>();
+        try {
+            while (cursor.moveToNext()) {
+                Shift shift = new Shift(
+                        cursor.getString(cursor.getColumnIndexOrThrow("id")),
+                        cursor.getLong(cursor.getColumnIndexOrThrow("start_time")),
+                        cursor.getLong(cursor.getColumnIndexOrThrow("end_time")),
+                        cursor.getInt(cursor.getColumnIndexOrThrow("required_workers")),
+                        cursor.getString(cursor.getColumnIndexOrThrow("notes")));
+                shift.setAssignments(fromJson(cursor.getString(cursor.getColumnIndexOrThrow("assignments"))));
+                shift.setUpdatedAt(cursor.getLong(cursor.getColumnIndexOrThrow("updated_at")));
+                shifts.add(shift);
+            }
+        } finally {
+            cursor.close();
+        }
+        return shifts;
+    }
+
+    // --- משתמשים (תקצירים) ---
+
+    // תקציר משתמש, או null אם עוד לא סונכרן
+    public Task<UserSummary> getUser(String uid) {
+        return Tasks.call(executor, () -> {
+            List<UserSummary> users = readUsers(getReadableDatabase().rawQuery(
+                    "SELECT * FROM " + USERS + " WHERE uid = ?", new String[]{uid}));
+            return users.isEmpty() ? null : users.get(0);
+        });
+    }
+
+    void putUsers(SQLiteDatabase db, List<UserSummary> users) {
+        for (UserSummary user : users) {
+            ContentValues values = new ContentValues();
+            values.put("uid", user.getUid());
+            values.put("full_name", user.getFullName());
+            values.put("id_number", user.getIdNumber());
+            values.put("role", user.getRole());
+            values.put("hourly_rate", user.getHourlyRate());
+            values.put("profile_image_hash", user.getProfileImageHash());
+            values.put("updated_at", user.getUpdatedAt());
+            db.insertWithOnConflict(USERS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+        }
+    }
+
+    void deleteUser(SQLiteDatabase db, String uid) {
+        db.delete(USERS, "uid = ?", new String[]{uid});
+    }
+
+    private static List<UserSummary> readUsers(Cursor cursor) {
+        List<UserSummary> users = new ArrayList<>();
+        try {
+            while (cursor.moveToNext()) {
+                UserSummary user = new UserSummary();
+                user.setUid(cursor.getString(cursor.getColumnIndexOrThrow("uid")));
+                user.setFullName(cursor.getString(cursor.getColumnIndexOrThrow("full_name")));
+                user.setIdNumber(cursor.getString(cursor.getColumnIndexOrThrow("id_number")));
+                user.setRole(cursor.getString(cursor.getColumnIndexOrThrow("role")));
+                user.setHourlyRate(cursor.getDouble(cursor.getColumnIndexOrThrow("hourly_rate")));
+                user.setProfileImageHash(cursor.getString(cursor.getColumnIndexOrThrow("profile_image_hash")));
+                user.setUpdatedAt(cursor.getLong(cursor.getColumnIndexOrThrow("updated_at")));
+                users.add(user);
+            }
+        } finally {
+            cursor.close();
+        }
+        return users;
+    }
+
+    // --- הודעות ---
+
+    // ההודעה החדשה ביותר, או null
+    public Task<Announcement> getLatestAnnouncement() {
+        return Tasks.call(executor, () -> {
+            Cursor cursor = getReadableDatabase().rawQuery(
+                    "SELECT * FROM " + ANNOUNCEMENTS + " ORDER BY timestamp DESC LIMIT 1", null);
+            try {
+                if (!cursor.moveToFirst()) return null;
+                return new Announcement(
+                        cursor.getString(cursor.getColumnIndexOrThrow("id")),
+                        cursor.getString(cursor.getColumnIndexOrThrow("title")),
+                        cursor.getString(cursor.getColumnIndexOrThrow("content")),
+                        cursor.getLong(cursor.getColumnIndexOrThrow("timestamp")),
+                        cursor.getString(cursor.getColumnIndexOrThrow("author_name")));
+            } finally {
+                cursor.close();
+            }
+        });
+    }
+
+    void putAnnouncements(SQLiteDatabase db, List<Announcement> announcements) {
+        for (Announcement announcement : announcements) {
+            ContentValues values = new ContentValues();
+            values.put("id", announcement.getId());
+            values.put("title", announcement.getTitle());
+            values.put("content", announcement.getContent());
+            values.put("timestamp", announcement.getTimestamp());
+            values.put("author_name", announcement.getAuthorName());
+            db.insertWithOnConflict(ANNOUNCEMENTS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+        }
+    }
+
+    void deleteAnnouncement(SQLiteDatabase db, String id) {
+        db.delete(ANNOUNCEMENTS, "id = ?", new String[]{id});
+    }
+
+    // --- מצב הסנכרון ---
+
+    long getHighWater(SQLiteDatabase db, String collection) {
+        Cursor cursor = db.rawQuery("SELECT high_water FROM " + SYNC_STATE + " WHERE collection = ?", new String[]{collection});
+        try {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    void setHighWater(SQLiteDatabase db, String collection, long highWater) {
+        ContentValues values = new ContentValues();
+        values.put("collection", collection);
+        values.put("high_water", highWater);
+        db.insertWithOnConflict(SYNC_STATE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /**
+     * הרצת פעולה על המסד בטרנזקציה אחת, על ה-Thread של המאגר (לשימוש SyncEngine).
+     */
+    <T> Task<T> write(Operation<T> operation) {
+        return Tasks.call(executor, () -> {
+            SQLiteDatabase db = getWritableDatabase();
+            db.beginTransaction();
+            try {
+                T result = operation.run(db);
+                db.setTransactionSuccessful();
+                return result;
+            } finally {
+                db.endTransaction();
+            }
+        });
+    }
+
+    interface Operation<T> {
+        T run(SQLiteDatabase db);
+    }
+
+    // מפת השיבוצים נשמרת כאובייקט JSON בעמודה אחת (היא תמיד נקראת ונכתבת יחד עם המשמרת)
+    private static String toJson(Map<String, Assignment> assignments) {
+        JSONObject json = new JSONObject();
+        try {
+            for (Map.Entry<String, Assignment> entry : assignments.entrySet()) {
+                Assignment assignment = entry.getValue();
+                json.put(entry.getKey(), new JSONObject()
+                        .put("name", assignment.getName())
+                        .put("status", assignment.getStatus())
+                        .put("requestedAt", assignment.getRequestedAt())
+                        .put("assignedAt", assignment.getAssignedAt()));
+            }
+        } catch (JSONException ignored) {
+            // לא קורה - המפתחות תמיד מחרוזות
+        }
+        return json.toString();
+    }
+
+    private static Map<String, Assignment> fromJson(String json) {
+        Map<String, Assignment> assignments = new HashMap<>();
+        if (json == null) return assignments;
+        try {
+            JSONObject object = new JSONObject(json);
+            Iterator<String> keys = object.keys();
+            while (keys.hasNext()) {
+                String uid = keys.next();
+                JSONObject entry = object.getJSONObject(uid);
+                assignments.put(uid, new Assignment(entry.optString("name", null), entry.optString("status", null),
+                        entry.optLong("requestedAt"), entry.optLong("assignedAt")));
+            }
+        } catch (JSONException ignored) {
+            // שורה פגומה - הסנכרון הבא יכתוב אותה מחדש
+        }
+        return assignments;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.shiftsync.data;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * סימוני מיגרציות חד-פעמיות בשרת: מסמך migrations/{name} לכל מילוי נתונים ישנים.
+ * הסימון משותף לכל המכשירים, כך שמילוי שכבר הסתיים לא רץ שוב אצל מנהל אחר או אחרי התקנה מחדש.
+ */
+public final class MigrationMarkers {
+
+    public static final String SHIFT_REQUESTS_BACKFILL = "shiftRequestsBackfill";
+    public static final String USER_DIRECTORY_BACKFILL = "userDirectoryBackfill";
+
+    private MigrationMarkers() { }
+
+    private static DocumentReference markerRef(FirebaseFirestore db, String name) {
+        return db.collection("migrations").document(name);
+    }
+
+    /**
+     * הרצת המיגרציה רק אם אין לה סימון בשרת, וסימונה רק אחרי שכל הכתיבות שלה הצליחו.
+     * שתי הרצות במקביל (שני מנהלים) אפשריות, ולכן המיגרציה עצמה צריכה לדלג על מה שכבר נכתב.
+     */
+    static Task<Void> runOnce(FirebaseFirestore db, String name, Supplier<Task<Void>> migration) {
+        DocumentReference ref = markerRef(db, name);
+        return TracedFirestore.get("migrations.marker", ref).onSuccessTask(marker -> {
+            if (marker.exists()) return Tasks.forResult(null);
+
+            return migration.get().onSuccessTask(aVoid -> {
+                Map<String, Object> done = new HashMap<>();
+                done.put("completedAt", System.currentTimeMillis());
+                return ref.set(done);
+            });
+        });
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.shiftsync.data;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * ספר שכר חודשי (Payroll Ledger).
+ * לכל עובד ולכל חודש נשמר מסמך מסכם אחד: users/{uid}/payroll/{yyyy-MM}
+ * עם סה"כ שעות, סכום, מספר משמרות והתעריף השעתי שהיה בזמן העדכון.
+ * המסמך מתעדכן בהדרגה (increment) בכל שיבוץ/הסרה/עריכת משמרת,
+ * כך שמסכי השכר קוראים מסמך אחד במקום להוריד את כל משמרות החודש.
+ */
+public class PayrollLedger {
+
+    // שמות השדות במסמך הספר
+    public static final String FIELD_HOURS = "hours";
+    public static final String FIELD_AMOUNT = "amount";
+    public static final String FIELD_SHIFT_COUNT = "shiftCount";
+    public static final String FIELD_HOURLY_RATE = "hourlyRate";
+    public static final String FIELD_UPDATED_AT = "updatedAt";
+
+    // זמן החישוב המלא האחרון. מסמך בלי השדה הזה נוצר רק מהפרשים ועוד לא ניתן לסמוך עליו
+    public static final String FIELD_RECONCILED_AT = "reconciledAt";
+
+    // כמה פעמים לחשב מחדש כשהספר השתנה בזמן החישוב
+    private static final int MAX_RECONCILE_ATTEMPTS = 3;
+
+    private final FirebaseFirestore db;
+
+    public PayrollLedger(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    // הפניה למסמך הספר של עובד בחודש מסוים
+    public DocumentReference ledgerRef(String uid, long timeInMonth) {
+        return db.collection("users").document(uid)
+                .collection("payroll").document(monthKey(timeInMonth));
+    }
+
+    /**
+     * הוספת (או הפחתת) משמרת לספר של העובד בתוך Batch קיים.
+     * @param sign - 1 לשיבוץ, 1- להסרה.
+     */
+    public void applyShift(WriteBatch batch, String uid, long startTime, long endTime, double hourlyRate, int sign) {
+        // set עם merge יוצר את המסמך אם הוא עוד לא קיים
+        batch.set(ledgerRef(uid, startTime), shiftDelta(startTime, endTime, hourlyRate, sign), SetOptions.merge());
+    }
+
+    // אותו עדכון בתוך טרנזקציה (אישור שיבוץ)
+    public void applyShift(Transaction transaction, String uid, long startTime, long endTime, double hourlyRate, int sign) {
+        transaction.set(ledgerRef(uid, startTime), shiftDelta(startTime, endTime, hourlyRate, sign), SetOptions.merge());
+    }
+
+    private static Map<String, Object> shiftDelta(long startTime, long endTime, double hourlyRate, int sign) {
+        double hours = PayrollCalculator.hoursBetween(startTime, endTime);
+
+        Map<String, Object> delta = new HashMap<>();
+        delta.put(FIELD_HOURS, FieldValue.increment(sign * hours));
+        delta.put(FIELD_AMOUNT, FieldValue.increment(sign * hours * hourlyRate));
+        delta.put(FIELD_SHIFT_COUNT, FieldValue.increment(sign));
+        delta.put(FIELD_HOURLY_RATE, hourlyRate);
+        delta.put(FIELD_UPDATED_AT, System.currentTimeMillis());
+        return delta;
+    }
+
+    /**
+     * האם אפשר להציג את מסמך הספר כמו שהוא (כלומר הוא עבר חישוב מלא לפחות פעם אחת).
+     */
+    public static boolean isReconciled(DocumentSnapshot doc) {
+        return doc.exists() && doc.getDouble(FIELD_AMOUNT) != null && doc.getLong(FIELD_RECONCILED_AT) != null;
+    }
+
+    /**
+     * תיקון (Reconciliation) של הספר: חישוב מחדש מהמשמרות עצמן ודריסת המסמך.
+     * משמש כשהספר חסר, אחרי שינוי תעריף, או ברענון ידני כדי לתפוס סטיות.
+     * זמן העדכון של הספר נקרא לפני החישוב, והדריסה נעשית בטרנזקציה רק אם הוא לא השתנה -
+     * שיבוץ שנכנס בזמן החישוב לא נדרס, והחישוב מתחיל מחדש (עד MAX_RECONCILE_ATTEMPTS פעמים).
+     * @return משימה שמחזירה את המסמך המעודכן (כמפה).
+     */
+    public Task<Map<String, Object>> reconcile(String uid, long timeInMonth) {
+        return reconcile(uid, CalendarRanges.monthStart(timeInMonth), 1);
+    }
+
+    private Task<Map<String, Object>> reconcile(String uid, long monthStart, int attempt) {
+        DocumentReference ref = ledgerRef(uid, monthStart);
+        PayrollCalculator payroll = FirestoreStore.getInstance().getPayroll();
+
+        return TracedFirestore.get("payroll.ledger", ref).onSuccessTask(before -> {
+            Long updatedAt = before.getLong(FIELD_UPDATED_AT);
+            return FirestoreStore.task(payroll.monthlySummary(uid, monthStart)).onSuccessTask(summary -> {
+                long now = System.currentTimeMillis();
+                Map<String, Object> ledger = new HashMap<>();
+                ledger.put(FIELD_HOURS, summary.hours);
+                ledger.put(FIELD_AMOUNT, summary.amount);
+                ledger.put(FIELD_SHIFT_COUNT, summary.shiftCount);
+                ledger.put(FIELD_HOURLY_RATE, summary.hourlyRate);
+                ledger.put(FIELD_UPDATED_AT, now);
+                ledger.put(FIELD_RECONCILED_AT, now);
+
+                return db.runTransaction(transaction -> {
+                    DocumentSnapshot current = transaction.get(ref);
+                    if (!Objects.equals(updatedAt, current.getLong(FIELD_UPDATED_AT))) return false;
+                    transaction.set(ref, ledger);
+                    return true;
+                }).onSuccessTask(written -> written || attempt >= MAX_RECONCILE_ATTEMPTS
+                        ? Tasks.forResult(ledger)
+                        : reconcile(uid, monthStart, attempt + 1));
+            });
+        });
+    }
+
+    // מזהה החודש בפורמט yyyy-MM (למשל 2025-01)
+    public static String monthKey(long timeMillis) {
+        return new SimpleDateFormat("yyyy-MM", Locale.US).format(timeMillis);
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.shiftsync.data;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.Base64;
+import android.util.Log;
+
+import com.example.shiftsync.ImageUtils;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.Blob;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * מאגר תמונות הפרופיל (Profile Image Store).
+ * התמונות נשמרות מחוץ למסמך המשתמש, לפי טביעת SHA-256 של תוכן ה-JPEG (Content-Addressed):
+ * images/{hash} - מסמך כותרת (גודל ומספר חלקים), images/{hash}/chunks/{i} - חלקי התמונה כ-Blob.
+ * במסמך המשתמש נשאר רק profileImageHash (כ-64 תווים), כך שכל קריאה של משתמש (רשימת עובדים, התחברות וכו')
+ * כבר לא מורידה את התמונה עצמה. על המכשיר נשמר עותק בדיסק לפי ה-hash, שלעולם לא מתיישן.
+ */
+public class ProfileImageStore {
+
+    private static final String TAG = "ProfileImageStore";
+
+    public static final String FIELD_PROFILE_IMAGE_HASH = "profileImageHash";
+    public static final String FIELD_PROFILE_IMAGE = "profileImage";
+
+    // גודל חלק (מסמך Firestore מוגבל ל-1MB)
+    private static final int CHUNK_SIZE = 256 * 1024;
+
+    private static ProfileImageStore instance;
+
+    private final FirebaseFirestore db;
+    private final File cacheDir;
+
+    // משתמשים שההעברה שלהם כבר רצה (כדי שעדכוני מאזין חוזרים לא יפעילו אותה שוב)
+    private final Set<String> migrating = new HashSet<>();
+
+    private ProfileImageStore(FirebaseFirestore db, File cacheDir) {
+        this.db = db;
+        this.cacheDir = cacheDir;
+    }
+
+    public static synchronized ProfileImageStore getInstance(Context context) {
+        if (instance == null) {
+            File dir = new File(context.getApplicationContext().getCacheDir(), "profile_images");
+            instance = new ProfileImageStore(FirebaseFirestore.getInstance(), dir);
+        }
+        return instance;
+    }
+
+    private DocumentReference imageRef(String hash) {
+        return db.collection("images").document(hash);
+    }
+
+    /**
+     * שמירת תמונת פרופיל חדשה: העלאה למאגר (אם עוד לא קיימת) ועדכון ה-hash במסמך המשתמש.
+     * השדה הישן profileImage (Base64) נמחק מהמסמך.
+     * @return משימה שמחזירה את ה-hash של התמונה.
+     */
+    public Task<String> saveProfileImage(String uid, Bitmap bitmap) {
+        return saveProfileImage(uid, ImageUtils.bitmapToJpeg(bitmap));
+    }
+
+    /**
+     * העברה של תמונה ישנה (Base64 בתוך מסמך המשתמש) למאגר.
+     * נקרא כשנתקלים במשתמש שעוד לא הועבר (Lazy Migration).
+     */
+    public Task<String> migrateInlineImage(String uid, String base64Image) {
+        if (!migrating.add(uid)) return Tasks.forCanceled();
+
+        byte[] jpeg;
+        try {
+            jpeg = Base64.decode(base64Image, Base64.DEFAULT);
+        } catch (IllegalArgumentException e) {
+            return Tasks.forException(e);
+        }
+        return saveProfileImage(uid, jpeg).addOnCompleteListener(task -> migrating.remove(uid));
+    }
+
+    private Task<String> saveProfileImage(String uid, byte[] jpeg) {
+        String hash = sha256(jpeg);
+        writeToDisk(hash, jpeg);
+
+        return put(hash, jpeg).continueWithTask(task -> {
+            Map<String, Object> update = new HashMap<>();
+            update.put(FIELD_PROFILE_IMAGE_HASH, hash);
+            update.put(FIELD_PROFILE_IMAGE, FieldValue.delete());
+            // דרך מדריך המשתמשים, כדי שגם התקציר יקבל את ה-hash החדש
+            return UserDirectory.getInstance().updateUser(uid, update);
+        }).continueWith(task -> {
+            if (!task.isSuccessful()) throw task.getException();
+            return hash;
+        });
+    }
+
+    /**
+     * העלאת התמונה לפי ה-hash. אם כבר קיימת תמונה עם אותו תוכן - אין מה לכתוב.
+     * החלקים ומסמך הכותרת נכתבים באותו Batch, כך שכותרת קיימת = תמונה שלמה.
+     */
+    private Task<Void> put(String hash, byte[] bytes) {
+        return TracedFirestore.get("profileImages.header", imageRef(hash)).continueWithTask(headerTask -> {
+            if (headerTask.getResult().exists()) return Tasks.forResult(null);
+
+            WriteBatch batch = db.batch();
+            int chunkCount = 0;
+            for (int offset = 0; offset < bytes.length; offset += CHUNK_SIZE) {
+                int length = Math.min(CHUNK_SIZE, bytes.length - offset);
+                byte[] chunk = new byte[length];
+                System.arraycopy(bytes, offset, chunk, 0, length);
+
+                Map<String, Object> chunkDoc = new HashMap<>();
+                chunkDoc.put("index", chunkCount);
+                chunkDoc.put("data", Blob.fromBytes(chunk));
+                batch.set(imageRef(hash).collection("chunks").document(String.valueOf(chunkCount)), chunkDoc);
+                chunkCount++;
+            }
+
+            Map<String, Object> header = new HashMap<>();
+            header.put("size", bytes.length);
+            header.put("chunkCount", chunkCount);
+            header.put("createdAt", System.currentTimeMillis());
+            batch.set(imageRef(hash), header);
+            return batch.commit();
+        });
+    }
+
+    /**
+     * קריאת התמונה (JPEG) לפי ה-hash: קודם מהדיסק, ואם אין - מהשרת (ושמירה בדיסק).
+     * פעולה חוסמת - יש לקרוא לה רק מ-Thread ברקע.
+     * @return הבתים של התמונה, או null אם התמונה לא נמצאה.
+     */
+    public byte[] getBytesBlocking(String hash) throws Exception {
+        byte[] cached = readFromDisk(hash);
+        if (cached != null) return cached;
+
+        DocumentSnapshot header = Tasks.await(TracedFirestore.get("profileImages.header", imageRef(hash)));
+        Long chunkCount = header.getLong("chunkCount");
+        if (!header.exists() || chunkCount == null) return null;
+
+        QuerySnapshot chunks = Tasks.await(TracedFirestore.get("profileImages.chunks", imageRef(hash).collection("chunks").orderBy("index")));
+        if (chunks.size() != chunkCount) return null;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (DocumentSnapshot chunk : chunks.getDocuments()) {
+            Blob data = chunk.getBlob("data");
+            if (data == null) return null;
+            out.write(data.toBytes());
+        }
+        byte[] bytes = out.toByteArray();
+
+        // בדיקת שלמות: התוכן חייב להתאים ל-hash שלפיו הוא נשמר
+        if (!hash.equals(sha256(bytes))) {
+            Log.w(TAG, "Hash mismatch for image " + hash);
+            return null;
+        }
+        writeToDisk(hash, bytes);
+        return bytes;
+    }
+
+    // --- מטמון בדיסק (תיקיית ה-cache של האפליקציה, המערכת מפנה אותה כשחסר מקום) ---
+
+    private File cacheFile(String hash) {
+        return new File(cacheDir, hash + ".jpg");
+    }
+
+    private byte[] readFromDisk(String hash) {
+        File file = cacheFile(hash);
+        if (!file.exists()) return null;
+
+        try (FileInputStream in = new FileInputStream(file)) {
+            byte[] bytes = new byte[(int) file.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) return null;
+                read += n;
+            }
+            return bytes;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void writeToDisk(String hash, byte[] bytes) {
+        if (!cacheDir.exists() && !cacheDir.mkdirs()) return;
+
+        // כתיבה לקובץ זמני והחלפה - כדי שקובץ חלקי לא ייקרא כתמונה
+        File tmp = new File(cacheDir, hash + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not cache image " + hash, e);
+            return;
+        }
+        if (!tmp.renameTo(cacheFile(hash))) tmp.delete();
+    }
+
+    // טביעת SHA-256 של התוכן (hex)
+    public static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.shiftsync.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.example.shiftsync.models.User;
+
+/**
+ * פרטי המשתמש המחובר שנשמרים במכשיר (Session Cache): תפקיד ושם מלא.
+ * כך מסך הפתיחה מנווט מיד למסך הנכון, בלי לחכות לקריאת users/{uid} מהשרת.
+ * הערכים מתעדכנים בכל פעם שמסמך המשתמש נקרא מהשרת, ונמחקים בהתנתקות.
+ */
+public class SessionCache {
+
+    private static final String PREFS_NAME = "session";
+    private static final String KEY_UID = "uid";
+    private static final String KEY_ROLE = "role";
+    private static final String KEY_FULL_NAME = "fullName";
+
+    private static SessionCache instance;
+
+    private final SharedPreferences prefs;
+
+    private SessionCache(SharedPreferences prefs) {
+        this.prefs = prefs;
+    }
+
+    public static synchronized SessionCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new SessionCache(context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE));
+        }
+        return instance;
+    }
+
+    // התפקיד השמור, או null אם נשמר עבור משתמש אחר / לא נשמר בכלל
+    public String getRole(String uid) {
+        return uid.equals(prefs.getString(KEY_UID, null)) ? prefs.getString(KEY_ROLE, null) : null;
+    }
+
+    // השם השמור, או null
+    public String getFullName(String uid) {
+        return uid.equals(prefs.getString(KEY_UID, null)) ? prefs.getString(KEY_FULL_NAME, null) : null;
+    }
+
+    public void save(String uid, User user) {
+        prefs.edit()
+                .putString(KEY_UID, uid)
+                .putString(KEY_ROLE, user.getRole())
+                .putString(KEY_FULL_NAME, user.getFullName())
+                .apply();
+    }
+
+    // בהתנתקות, או כשמסמך המשתמש כבר לא קיים
+    public void clear() {
+        prefs.edit().clear().apply();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Shift;
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.Map;
+
+/**
+ * קריאת משמרת ממסמך Firestore - כל הקריאות של משמרות עוברות כאן.
+ * השדות נקראים ישירות ממפת הנתונים של המסמך (getData), בלי toObject:
+ * toObject ממפה דרך Reflection בכל מסמך, וזה היה רוב זמן ה-CPU בלולאות של הבקשות, המונים והשכר.
+ * ההמרה עצמה (כולל המרת המסמכים הישנים) נמצאת ב-ShiftDocument שב-:core.
+ * התוצאה זהה ל-toObject(Shift.class) (ראו MapperEquivalenceTest), ולכן שדה חדש במודל צריך להתווסף גם שם.
+ */
+public final class ShiftMapper {
+
+    // השדות הישנים (נמחקים מהמסמך בכתיבה הבאה של הרשימה, או במיגרציה)
+    static final String LEGACY_ASSIGNED_NAMES = ShiftDocument.LEGACY_ASSIGNED_NAMES;
+    static final String LEGACY_PENDING_IDS = ShiftDocument.LEGACY_PENDING_IDS;
+    static final String LEGACY_PENDING_NAMES = ShiftDocument.LEGACY_PENDING_NAMES;
+
+    private ShiftMapper() { }
+
+    // משמרת מהמסמך, או null אם המסמך לא קיים (זמן ההמרה נמדד ב-FirestoreMetrics כשהמדידה פעילה)
+    public static Shift fromSnapshot(DocumentSnapshot doc) {
+        FirestoreMetrics metrics = FirestoreMetrics.getInstance();
+        if (!metrics.isEnabled()) return fromData(doc.getId(), doc.getData());
+
+        long start = System.nanoTime();
+        Shift shift = fromData(doc.getId(), doc.getData());
+        metrics.recordMapping("Shift", start);
+        return shift;
+    }
+
+    /**
+     * משמרת ממפת הנתונים של מסמך, או null אם אין נתונים (ראו ShiftDocument.fromData).
+     * @param documentId - מזהה המסמך (משמש כשהמזהה לא נשמר בתוך המסמך).
+     */
+    public static Shift fromData(String documentId, Map<String, Object> data) {
+        return ShiftDocument.fromData(documentId, data);
+    }
+
+    // האם המסמך עוד שומר את העובדים ברשימות המקבילות
+    static boolean hasLegacyFields(Map<String, Object> data) {
+        return ShiftDocument.hasLegacyFields(data);
+    }
+}
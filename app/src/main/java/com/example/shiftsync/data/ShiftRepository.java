@@ -0,0 +1,336 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Assignment;
+import com.example.shiftsync.models.Shift;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * מאגר משמרות משותף (Shift Repository) לכל מסכי לוח המשמרות.
+ * במקום לפתוח מאזין חדש לפיירבייס בכל לחיצה על יום בלוח השנה, המאגר מחזיק
+ * מאזין אחד לכל "חלון" של חודש, ושומר את המשמרות בזיכרון לפי ימים (ממוינות לפי שעת התחלה).
+ * מעבר בין ימים באותו חודש נענה מהזיכרון - ללא פנייה לרשת וללא מאזין נוסף.
+ * המאגר מעביר למסכים רק את השינויים (Deltas) שהגיעו מ-DocumentChange.
+ */
+public class ShiftRepository {
+
+    // מספר חלונות החודש שנשמרים פעילים במקביל (החודש הנוכחי והשכנים שלו)
+    private static final int MAX_MONTH_WINDOWS = 3;
+
+    // מיון המשמרות בתוך יום לפי שעת ההתחלה
+    private static final Comparator<Shift> BY_START_TIME = (a, b) -> Long.compare(a.getStartTime(), b.getStartTime());
+
+    /**
+     * שינוי בודד שהגיע מהשרת.
+     * מכיל את סוג השינוי, המשמרת (במצבה החדש), ואת היום שבו הייתה קודם (אם זזה).
+     */
+    public static class ShiftChange {
+        public final DocumentChange.Type type;
+        public final Shift shift;
+        public final long previousDayKey; // היום הקודם של המשמרת (או -1 אם לא הייתה במאגר)
+
+        ShiftChange(DocumentChange.Type type, Shift shift, long previousDayKey) {
+            this.type = type;
+            this.shift = shift;
+            this.previousDayKey = previousDayKey;
+        }
+
+        // האם השינוי נוגע ליום מסוים (בין אם המשמרת נכנסה אליו ובין אם יצאה ממנו)
+        public boolean touchesDay(long dayKey) {
+            return CalendarRanges.dayKey(shift.getStartTime()) == dayKey || previousDayKey == dayKey;
+        }
+    }
+
+    /**
+     * ממשק למסכים שרוצים לקבל עדכונים על שינויים במשמרות.
+     */
+    public interface OnShiftsChangedListener {
+        void onShiftsChanged(List<ShiftChange> changes);
+    }
+
+    private static final IntervalIndex EMPTY_INTERVALS = new IntervalIndex(new ArrayList<>());
+
+    private static ShiftRepository instance;
+
+    private final FirebaseFirestore db;
+
+    // מאזין אחד לכל חודש פעיל. LinkedHashMap שומר את סדר הגישה כדי לשחרר את החודש הישן ביותר
+    private final LinkedHashMap<Long, ListenerRegistration> monthWindows = new LinkedHashMap<>(8, 0.75f, true);
+
+    // החודשים שהתמונה הראשונה שלהם כבר הגיעה (רק בהם הזיכרון משקף את השרת)
+    private final Set<Long> syncedWindows = new HashSet<>();
+
+    // האינדקס: תחילת יום -> רשימת משמרות ממוינת לפי שעת התחלה
+    private final TreeMap<Long, List<Shift>> shiftsByDay = new TreeMap<>();
+
+    // גישה מהירה למשמרת לפי המזהה שלה (כדי לדעת מאיזה יום להוציא אותה בעדכון)
+    private final Map<String, Shift> shiftsById = new HashMap<>();
+
+    // אינדקס אינטרוולים לכל עובד: רק משמרות שהוא משובץ אליהן, ומשובץ + ממתין.
+    // נבנים מחדש (במעבר אחד על כל המשמרות) רק בשאלה הראשונה אחרי שינוי
+    private final Map<String, IntervalIndex> assignedIntervals = new HashMap<>();
+    private final Map<String, IntervalIndex> bookedIntervals = new HashMap<>();
+    private boolean intervalsDirty = true;
+
+    // המסכים שמאזינים כרגע למאגר
+    private final List<OnShiftsChangedListener> listeners = new ArrayList<>();
+
+    ShiftRepository(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    // גישה למופע היחיד (Singleton) של המאגר
+    public static synchronized ShiftRepository getInstance() {
+        if (instance == null) {
+            instance = new ShiftRepository(FirebaseFirestore.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * רישום מסך לקבלת עדכונים. יש לקרוא ב-onStart.
+     */
+    public void addListener(OnShiftsChangedListener listener) {
+        if (!listeners.contains(listener)) listeners.add(listener);
+    }
+
+    /**
+     * הסרת מסך מרשימת המאזינים. יש לקרוא ב-onStop.
+     * כשאין יותר מסכים שמאזינים, סוגרים את כל המאזינים לפיירבייס ומנקים את הזיכרון.
+     */
+    public void removeListener(OnShiftsChangedListener listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty()) {
+            for (ListenerRegistration registration : monthWindows.values()) {
+                registration.remove();
+            }
+            monthWindows.clear();
+            syncedWindows.clear();
+            shiftsByDay.clear();
+            shiftsById.clear();
+            intervalsDirty = true;
+        }
+    }
+
+    /**
+     * וידוא שהחודש של התאריך הנתון נטען ושיש עליו מאזין חי.
+     * אם החודש כבר פעיל - לא קורה כלום (אין פנייה נוספת לשרת).
+     */
+    public void ensureMonthLoaded(Calendar date) {
+        long monthStart = CalendarRanges.monthStart(date.getTimeInMillis());
+
+        // גישה ל-get מעדכנת את סדר השימוש של החלון
+        if (monthWindows.get(monthStart) != null) return;
+
+        long end = CalendarRanges.monthEnd(monthStart);
+
+        ListenerRegistration registration = TracedFirestore.listen("shifts.monthListener", db.collection("shifts")
+                .whereGreaterThanOrEqualTo("startTime", monthStart)
+                .whereLessThan("startTime", end),
+                (value, error) -> {
+                    if (error != null || value == null) return;
+                    if (monthWindows.containsKey(monthStart)) syncedWindows.add(monthStart);
+                    applyChanges(monthStart, value.getDocumentChanges());
+                });
+
+        monthWindows.put(monthStart, registration);
+        evictOldWindows();
+    }
+
+    /**
+     * האם כל החודשים שנוגעים בטווח [from, to) טעונים בזיכרון.
+     * כשלא - בדיקה מול getBookedIntervals לא רואה משמרות בחלק מהטווח (למשל בקצה החודש).
+     */
+    public boolean isRangeLoaded(long from, long to) {
+        for (long month = CalendarRanges.monthStart(from); month < to; month = CalendarRanges.monthEnd(month)) {
+            if (!syncedWindows.contains(month)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * שליפת המשמרות של יום מסוים מהזיכרון (ממוינות לפי שעת התחלה).
+     * מחזירה עותק כדי שהמסך יוכל להחזיק אותו בלי להיות מושפע משינויים עתידיים.
+     */
+    public List<Shift> getShiftsForDay(Calendar date) {
+        List<Shift> day = shiftsByDay.get(CalendarRanges.dayKey(date.getTimeInMillis()));
+        return day == null ? new ArrayList<>() : new ArrayList<>(day);
+    }
+
+    /**
+     * המשמרות (מתוך החודשים הטעונים) שהעובד משובץ אליהן, כאינדקס לבדיקת חפיפות.
+     */
+    public IntervalIndex getAssignedIntervals(String uid) {
+        rebuildIntervalsIfNeeded();
+        IntervalIndex index = assignedIntervals.get(uid);
+        return index == null ? EMPTY_INTERVALS : index;
+    }
+
+    /**
+     * המשמרות שהעובד משובץ אליהן או ממתין לאישור בהן (כל מה שהוא "הזמין").
+     */
+    public IntervalIndex getBookedIntervals(String uid) {
+        rebuildIntervalsIfNeeded();
+        IntervalIndex index = bookedIntervals.get(uid);
+        return index == null ? EMPTY_INTERVALS : index;
+    }
+
+    /**
+     * האם לאחד העובדים המשובצים למשמרת יש משמרת אחרת שחופפת לה.
+     */
+    public boolean hasAssignmentConflict(Shift shift) {
+        for (String uid : shift.getAssignedUserIds()) {
+            if (getAssignedIntervals(uid).findOverlap(shift.getStartTime(), shift.getEndTime(), shift.getShiftId()) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // מעבר אחד על כל המשמרות בזיכרון וקיבוץ לפי עובד
+    private void rebuildIntervalsIfNeeded() {
+        if (!intervalsDirty) return;
+
+        Map<String, List<Shift>> assigned = new HashMap<>();
+        Map<String, List<Shift>> booked = new HashMap<>();
+        for (Shift shift : shiftsById.values()) {
+            for (Map.Entry<String, Assignment> entry : shift.getAssignments().entrySet()) {
+                // משובצים תופסים זמן בשני האינדקסים, ממתינים רק ב"תפוס"
+                if (Assignment.STATUS_ASSIGNED.equals(entry.getValue().getStatus())) group(assigned, entry.getKey(), shift);
+                group(booked, entry.getKey(), shift);
+            }
+        }
+
+        assignedIntervals.clear();
+        for (Map.Entry<String, List<Shift>> entry : assigned.entrySet()) {
+            assignedIntervals.put(entry.getKey(), new IntervalIndex(entry.getValue()));
+        }
+        bookedIntervals.clear();
+        for (Map.Entry<String, List<Shift>> entry : booked.entrySet()) {
+            bookedIntervals.put(entry.getKey(), new IntervalIndex(entry.getValue()));
+        }
+        intervalsDirty = false;
+    }
+
+    private static void group(Map<String, List<Shift>> groups, String uid, Shift shift) {
+        List<Shift> list = groups.get(uid);
+        if (list == null) {
+            list = new ArrayList<>();
+            groups.put(uid, list);
+        }
+        list.add(shift);
+    }
+
+    // עיבוד השינויים שהגיעו מהמאזין של חלון החודש ועדכון האינדקס
+    private void applyChanges(long windowStart, List<DocumentChange> documentChanges) {
+        if (documentChanges.isEmpty()) return;
+
+        List<ShiftChange> changes = new ArrayList<>();
+        for (DocumentChange dc : documentChanges) {
+            Shift shift = ShiftMapper.fromSnapshot(dc.getDocument());
+            if (shift.getShiftId() == null) shift.setShiftId(dc.getDocument().getId());
+
+            ShiftChange change = applyChange(windowStart, dc.getType(), shift);
+            if (change != null) changes.add(change);
+        }
+        if (changes.isEmpty()) return;
+
+        List<ShiftChange> result = Collections.unmodifiableList(changes);
+        for (OnShiftsChangedListener listener : new ArrayList<>(listeners)) {
+            listener.onShiftsChanged(result);
+        }
+    }
+
+    /**
+     * עדכון האינדקס בשינוי בודד שהגיע מהחלון שמתחיל ב-windowStart.
+     * משמרת שעברה בין שני חודשים טעונים מגיעה כ-REMOVED מחלון אחד ו-ADDED מהשני, בסדר לא מובטח.
+     * לכן REMOVED מוציא את המשמרת רק אם הגרסה שבזיכרון עדיין שייכת לחלון ששלח אותו -
+     * אחרת ה-ADDED של החלון השני כבר הגיע, ואסור למחוק את הגרסה החדשה.
+     * מחזירה null אם השינוי לא השפיע על המאגר.
+     */
+    ShiftChange applyChange(long windowStart, DocumentChange.Type type, Shift shift) {
+        Shift previous = shiftsById.get(shift.getShiftId());
+        if (type == DocumentChange.Type.REMOVED
+                && (previous == null || !inWindow(windowStart, previous.getStartTime()))) {
+            return null;
+        }
+        intervalsDirty = true;
+
+        // הוצאת הגרסה הקודמת של המשמרת מהיום שבו הייתה
+        long previousDay = -1;
+        if (previous != null) {
+            shiftsById.remove(previous.getShiftId());
+            previousDay = CalendarRanges.dayKey(previous.getStartTime());
+            removeFromDay(previousDay, previous.getShiftId());
+        }
+
+        // הכנסת הגרסה החדשה (אלא אם המשמרת נמחקה או יצאה מטווח החודש)
+        if (type != DocumentChange.Type.REMOVED) {
+            insertIntoDay(shift);
+            shiftsById.put(shift.getShiftId(), shift);
+        }
+        return new ShiftChange(type, shift, previousDay);
+    }
+
+    private static boolean inWindow(long windowStart, long time) {
+        return time >= windowStart && time < CalendarRanges.monthEnd(windowStart);
+    }
+
+    // הכנסה ממוינת (חיפוש בינארי) לרשימת היום
+    private void insertIntoDay(Shift shift) {
+        long key = CalendarRanges.dayKey(shift.getStartTime());
+        List<Shift> day = shiftsByDay.get(key);
+        if (day == null) {
+            day = new ArrayList<>();
+            shiftsByDay.put(key, day);
+        }
+        int index = Collections.binarySearch(day, shift, BY_START_TIME);
+        if (index < 0) index = -index - 1;
+        day.add(index, shift);
+    }
+
+    private void removeFromDay(long key, String shiftId) {
+        List<Shift> day = shiftsByDay.get(key);
+        if (day == null) return;
+        for (Iterator<Shift> it = day.iterator(); it.hasNext(); ) {
+            if (shiftId.equals(it.next().getShiftId())) {
+                it.remove();
+                break;
+            }
+        }
+        if (day.isEmpty()) shiftsByDay.remove(key);
+    }
+
+    // שחרור החודשים הישנים ביותר כשיש יותר מדי חלונות פעילים
+    private void evictOldWindows() {
+        Iterator<Map.Entry<Long, ListenerRegistration>> it = monthWindows.entrySet().iterator();
+        while (monthWindows.size() > MAX_MONTH_WINDOWS && it.hasNext()) {
+            Map.Entry<Long, ListenerRegistration> oldest = it.next();
+            oldest.getValue().remove();
+            it.remove();
+            syncedWindows.remove(oldest.getKey());
+
+            // ניקוי כל הימים של החודש שהוסר מהזיכרון
+            Map<Long, List<Shift>> days = shiftsByDay.subMap(oldest.getKey(), CalendarRanges.monthEnd(oldest.getKey()));
+            for (List<Shift> day : days.values()) {
+                for (Shift s : day) shiftsById.remove(s.getShiftId());
+            }
+            days.clear();
+            intervalsDirty = true;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Assignment;
+import com.example.shiftsync.models.Shift;
+import com.example.shiftsync.models.ShiftRequest;
+import com.example.shiftsync.models.ShiftRequestItem;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * אינדקס בקשות השיבוץ (Shift Request Index).
+ * כל בקשה ממתינה נשמרת כמסמך נפרד באוסף shiftRequests, כך שמסך האישורים
+ * מאזין רק לבקשות עצמן ולא לכל המשמרות העתידיות בלוח.
+ * המסמכים נכתבים באותו Batch יחד עם השינוי ברשימות הממתינים של המשמרת.
+ */
+public class ShiftRequestIndex {
+
+    private final FirebaseFirestore db;
+
+    public ShiftRequestIndex(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    public DocumentReference requestRef(String shiftId, String userId) {
+        return db.collection("shiftRequests").document(ShiftRequest.idFor(shiftId, userId));
+    }
+
+    /**
+     * השאילתה של מסך האישורים: כל הבקשות הממתינות למשמרות עתידיות, לפי סדר המשמרות.
+     * (דורש אינדקס מורכב על status + shiftStartTime)
+     */
+    public Query pendingRequests(long fromTime) {
+        return db.collection("shiftRequests")
+                .whereEqualTo("status", ShiftRequest.STATUS_PENDING)
+                .whereGreaterThan("shiftStartTime", fromTime)
+                .orderBy("shiftStartTime", Query.Direction.ASCENDING);
+    }
+
+    // יצירת בקשה ממתינה חדשה
+    public void addPending(WriteBatch batch, Shift shift, String userId, String userName) {
+        batch.set(requestRef(shift.getShiftId(), userId), new ShiftRequest(shift, userId, userName, System.currentTimeMillis()));
+    }
+
+    // אותה יצירה בתוך טרנזקציה (הרשמה למשמרת)
+    public void addPending(Transaction transaction, Shift shift, String userId, String userName) {
+        transaction.set(requestRef(shift.getShiftId(), userId), new ShiftRequest(shift, userId, userName, System.currentTimeMillis()));
+    }
+
+    // סגירת בקשה (אושרה / נדחתה). המסמך נשאר לתיעוד אבל יוצא מהשאילתה של הממתינות.
+    // merge ולא update - כדי שבקשה ישנה שאין לה מסמך לא תכשיל את כל ה-Batch
+    public void resolve(WriteBatch batch, String shiftId, String userId, String status) {
+        Map<String, Object> update = new HashMap<>();
+        update.put("status", status);
+        batch.set(requestRef(shiftId, userId), update, SetOptions.merge());
+    }
+
+    // אותה סגירה בתוך טרנזקציה (אישור שיבוץ)
+    public void resolve(Transaction transaction, String shiftId, String userId, String status) {
+        Map<String, Object> update = new HashMap<>();
+        update.put("status", status);
+        transaction.set(requestRef(shiftId, userId), update, SetOptions.merge());
+    }
+
+    // מחיקת בקשה (העובד ביטל, או שהמשמרת נמחקה)
+    public void remove(WriteBatch batch, String shiftId, String userId) {
+        batch.delete(requestRef(shiftId, userId));
+    }
+
+    public void remove(Transaction transaction, String shiftId, String userId) {
+        transaction.delete(requestRef(shiftId, userId));
+    }
+
+    // עדכון זמני המשמרת בכל הבקשות הממתינות שלה (אחרי עריכת שעות)
+    public void updateTimes(WriteBatch batch, Shift shift, long newStart, long newEnd) {
+        Map<String, Object> times = new HashMap<>();
+        times.put("shiftStartTime", newStart);
+        times.put("shiftEndTime", newEnd);
+        for (String userId : shift.pendingUserIds()) {
+            batch.set(requestRef(shift.getShiftId(), userId), times, SetOptions.merge());
+        }
+    }
+
+    public void updateTimes(Transaction transaction, Shift shift, long newStart, long newEnd) {
+        Map<String, Object> times = new HashMap<>();
+        times.put("shiftStartTime", newStart);
+        times.put("shiftEndTime", newEnd);
+        for (String userId : shift.pendingUserIds()) {
+            transaction.set(requestRef(shift.getShiftId(), userId), times, SetOptions.merge());
+        }
+    }
+
+    /**
+     * מילוי חד-פעמי של האינדקס מבקשות שנוצרו לפני שהאוסף קיים
+     * (בקשות שנמצאות רק ברשומות הממתינים של המשמרות העתידיות).
+     * רץ פעם אחת לכל המערכת (סימון בשרת), וכל בקשה נכתבת בטרנזקציה משלה:
+     * רק אם עוד אין לה מסמך, ורק אם העובד עדיין ממתין במשמרת - כך בקשה שאושרה או נדחתה
+     * בינתיים לא חוזרת כבקשה ממתינה, וזמן הבקשה נלקח מהרשומה במשמרת.
+     */
+    public Task<Void> backfill(long fromTime) {
+        return MigrationMarkers.runOnce(db, MigrationMarkers.SHIFT_REQUESTS_BACKFILL, () -> {
+            ShiftService shifts = FirestoreStore.getInstance().getShiftService();
+            return FirestoreStore.task(shifts.pendingRequestsAfter(fromTime)).onSuccessTask(items -> {
+                List<Task<Boolean>> writes = new ArrayList<>();
+                for (ShiftRequestItem item : items) {
+                    writes.add(backfillOne(item.getShift().getShiftId(), item.getUserId()));
+                }
+                // המשימה מסתיימת (או נכשלת) רק אחרי שכל הבקשות נבדקו
+                return Tasks.whenAll(writes);
+            });
+        });
+    }
+
+    // יצירת מסמך בקשה אחד מתוך המצב הנוכחי של המשמרת. מחזיר האם נכתב מסמך
+    private Task<Boolean> backfillOne(String shiftId, String userId) {
+        DocumentReference ref = requestRef(shiftId, userId);
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot snapshot = transaction.get(db.collection("shifts").document(shiftId));
+            if (!snapshot.exists() || transaction.get(ref).exists()) return false;
+
+            Shift shift = ShiftMapper.fromSnapshot(snapshot);
+            if (shift.getShiftId() == null) shift.setShiftId(shiftId);
+            if (!shift.isPending(userId)) return false;
+
+            Assignment request = shift.getAssignments().get(userId);
+            transaction.set(ref, new ShiftRequest(shift, userId, request.getName(), request.getRequestedAt()));
+            return true;
+        });
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.ShiftTemplate;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * מאגר תבניות המשמרות (Shift Template Store).
+ * התבניות נשמרות באוסף shiftTemplates, ומהן המנהל מייצר משמרות לטווח שלם (שבוע, חודש, רבעון)
+ * במקום ליצור כל משמרת בדיאלוג נפרד.
+ */
+public class ShiftTemplateStore {
+
+    private static ShiftTemplateStore instance;
+
+    private final FirebaseFirestore db;
+
+    private ShiftTemplateStore(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    public static synchronized ShiftTemplateStore getInstance() {
+        if (instance == null) {
+            instance = new ShiftTemplateStore(FirebaseFirestore.getInstance());
+        }
+        return instance;
+    }
+
+    // כל התבניות, לפי שם
+    public Task<List<ShiftTemplate>> getAll() {
+        return TracedFirestore.get("shiftTemplates.all", db.collection("shiftTemplates").orderBy("name")).continueWith(task -> {
+            List<ShiftTemplate> templates = new ArrayList<>();
+            for (DocumentSnapshot doc : task.getResult().getDocuments()) {
+                ShiftTemplate template = doc.toObject(ShiftTemplate.class);
+                if (template != null) {
+                    template.setTemplateId(doc.getId());
+                    templates.add(template);
+                }
+            }
+            return templates;
+        });
+    }
+
+    // שמירת תבנית (תבנית חדשה מקבלת מזהה)
+    public Task<Void> save(ShiftTemplate template) {
+        if (template.getTemplateId() == null) template.setTemplateId(UUID.randomUUID().toString());
+        return db.collection("shiftTemplates").document(template.getTemplateId()).set(template);
+    }
+
+    // מחיקת תבנית (משמרות שכבר נוצרו ממנה נשארות)
+    public Task<Void> delete(String templateId) {
+        return db.collection("shiftTemplates").document(templateId).delete();
+    }
+
+    /**
+     * יצירת המשמרות של התבנית בטווח התאריכים.
+     * בטוח להריץ שוב על אותו טווח - משמרות שכבר נוצרו מדולגות.
+     * @return משימה שמחזירה את מספר המשמרות החדשות.
+     */
+    public Task<Integer> generate(ShiftTemplate template, long fromTime, long toTime) {
+        return ShiftWriter.getInstance().createShifts(ShiftTemplateExpander.expand(template, fromTime, toTime));
+    }
+}
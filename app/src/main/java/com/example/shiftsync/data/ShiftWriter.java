@@ -0,0 +1,455 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Shift;
+import com.example.shiftsync.models.ShiftRequest;
+import com.example.shiftsync.models.ShiftRequestItem;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * נקודת כתיבה מרכזית לכל שינוי במשמרות (Shift Writer).
+ * כל המסכים שמשנים משמרת (יצירה, עריכה, מחיקה, הרשמה, אישור, הסרה) עוברים דרך המחלקה הזו,
+ * כדי שהעדכונים הנלווים (ספר השכר החודשי, מוני האיוש ואינדקס הבקשות) ייכתבו באותו Batch יחד עם המשמרת עצמה.
+ * שינויים ברשימת המשובצים עוברים דרך AssignmentEngine, שמריץ אותם כטרנזקציה.
+ * העובדים במשמרת נשמרים במפה assignments לפי uid (ראו Assignment); assignedUserIds נשמר לצידה רק כאינדקס לשאילתות.
+ */
+public class ShiftWriter {
+
+    // מגבלת Firestore: עד 500 כתיבות ב-Batch או בטרנזקציה אחת
+    static final int MAX_WRITES = 500;
+
+    // משמרות בכל דף של המיגרציה (כתיבה אחת לכל משמרת, בתוך מגבלת ה-Batch)
+    private static final int MIGRATION_PAGE_SIZE = 400;
+
+    private static ShiftWriter instance;
+
+    private final FirebaseFirestore db;
+    private final PayrollLedger ledger;
+    private final StaffingStats stats;
+    private final ShiftRequestIndex requests;
+    private final AssignmentEngine assignments;
+
+    private ShiftWriter(FirebaseFirestore db) {
+        this.db = db;
+        this.ledger = new PayrollLedger(db);
+        this.stats = new StaffingStats(db);
+        this.requests = new ShiftRequestIndex(db);
+        this.assignments = new AssignmentEngine(db, ledger, stats, requests);
+    }
+
+    public static synchronized ShiftWriter getInstance() {
+        if (instance == null) {
+            instance = new ShiftWriter(FirebaseFirestore.getInstance());
+        }
+        return instance;
+    }
+
+    public PayrollLedger getLedger() {
+        return ledger;
+    }
+
+    public StaffingStats getStats() {
+        return stats;
+    }
+
+    public ShiftRequestIndex getRequests() {
+        return requests;
+    }
+
+    private DocumentReference shiftRef(String shiftId) {
+        return db.collection("shifts").document(shiftId);
+    }
+
+    // יצירת משמרת חדשה
+    public Task<Void> createShift(Shift shift) {
+        WriteBatch batch = db.batch();
+        shift.setUpdatedAt(System.currentTimeMillis());
+        batch.set(shiftRef(shift.getShiftId()), shift);
+        stats.add(batch, shift.getStartTime(), shift.getRequiredWorkers(), assignedCount(shift));
+        return batch.commit();
+    }
+
+    /**
+     * יצירת הרבה משמרות בבת אחת (למשל מתבנית), ב-Batches של עד 500 כתיבות.
+     * משמרות שהמסמך שלהן כבר קיים (לפי המזהה הקבוע) מדולגות - כך שיצירה חוזרת
+     * לא משכפלת משמרות ולא דורסת שיבוצים שכבר נעשו בהן, גם אם המשמרת הוזזה בינתיים לשעה אחרת.
+     * @return משימה שמחזירה את מספר המשמרות שנוצרו בפועל.
+     */
+    public Task<Integer> createShifts(List<Shift> shifts) {
+        if (shifts.isEmpty()) return Tasks.forResult(0);
+
+        // קריאה של כל מסמך לפי המזהה שלו (במקביל) כדי לדעת אילו משמרות כבר קיימות
+        List<Task<DocumentSnapshot>> reads = new ArrayList<>();
+        Set<String> requested = new HashSet<>();
+        for (Shift shift : shifts) {
+            if (requested.add(shift.getShiftId())) {
+                reads.add(TracedFirestore.get("shifts.templateDoc", shiftRef(shift.getShiftId())));
+            }
+        }
+
+        return Tasks.whenAllSuccess(reads)
+                .continueWithTask(existingTask -> {
+                    Set<String> existing = new HashSet<>();
+                    for (Object result : existingTask.getResult()) {
+                        DocumentSnapshot doc = (DocumentSnapshot) result;
+                        if (doc.exists()) existing.add(doc.getId());
+                    }
+
+                    List<Shift> created = new ArrayList<>();
+                    for (Shift shift : shifts) {
+                        if (existing.add(shift.getShiftId())) created.add(shift);
+                    }
+
+                    // Batch לכל חודש (ופיצול אם יש בו יותר מדי משמרות): המשמרות ועוד כתיבה אחת למוני האיוש של החודש
+                    Map<Long, List<Shift>> byMonth = new LinkedHashMap<>();
+                    for (Shift shift : created) {
+                        long month = CalendarRanges.monthStart(shift.getStartTime());
+                        if (!byMonth.containsKey(month)) byMonth.put(month, new ArrayList<>());
+                        byMonth.get(month).add(shift);
+                    }
+
+                    List<Task<Void>> commits = new ArrayList<>();
+                    int chunkSize = MAX_WRITES - 1;
+                    for (List<Shift> monthShifts : byMonth.values()) {
+                        for (int start = 0; start < monthShifts.size(); start += chunkSize) {
+                            List<Shift> chunk = monthShifts.subList(start, Math.min(start + chunkSize, monthShifts.size()));
+                            WriteBatch batch = db.batch();
+                            for (Shift shift : chunk) {
+                                shift.setUpdatedAt(System.currentTimeMillis());
+                                batch.set(shiftRef(shift.getShiftId()), shift);
+                            }
+                            stats.addAll(batch, chunk);
+                            commits.add(batch.commit());
+                        }
+                    }
+                    return Tasks.whenAll(commits).continueWith(done -> {
+                        if (!done.isSuccessful()) throw done.getException();
+                        return created.size();
+                    });
+                });
+    }
+
+    /**
+     * בקשת הרשמה של עובד למשמרת (רשומת ממתין במפה לפי ה-uid שלו, ויצירת מסמך בקשה).
+     * רצה כטרנזקציה (ראו AssignmentEngine) ונכשלת אם העובד כבר ממתין או משובץ במשמרת.
+     */
+    public Task<Void> requestSignUp(Shift shift, String uid, String name) {
+        return assignments.requestSignUp(shift.getShiftId(), uid, name);
+    }
+
+    /**
+     * אישור בקשה: בדיקת תפוסה, הסרה מהממתינים, הוספה למשובצים, סגירת מסמך הבקשה
+     * ועדכון ספר השכר ומוני האיוש - בטרנזקציה אחת (ראו AssignmentEngine).
+     * נכשל עם AssignmentRejectedException אם המשמרת כבר מלאה.
+     */
+    public Task<Void> approve(String shiftId, String uid, String name) {
+        return loadRates(singleton(uid)).continueWithTask(rates ->
+                assignments.approve(shiftId, uid, name, rates.getResult().get(uid)));
+    }
+
+    // דחיית בקשה: הסרה מרשימת הממתינים וסגירת מסמך הבקשה
+    public Task<Void> deny(String shiftId, String uid, String name) {
+        return assignments.deny(shiftId, uid);
+    }
+
+    /**
+     * אישור מרובה: הבקשות מקובצות לפי משמרת, וכל משמרת נכתבת בטרנזקציה אחת (עד שהיא מתמלאת).
+     * המשמרות רצות במקביל, כך שמאות בקשות נסגרות במספר סבבים כמספר המשמרות ולא כמספר הבקשות.
+     * קודם נבדקות התנגשויות (ShiftService.checkAssignments) - מול המשמרות של כל עובד וגם בין
+     * הבקשות שלו באותה פעולה. בקשה עם התנגשות לא נשלחת, מקבלת CONFLICT ונשארת ממתינה.
+     * @return תוצאה לכל בקשה, באותו סדר שבו הבקשות התקבלו.
+     */
+    public Task<List<BulkResult>> approveAll(List<ShiftRequestItem> items) {
+        ShiftService shifts = FirestoreStore.getInstance().getShiftService();
+        return FirestoreStore.task(shifts.checkAssignments(items)).onSuccessTask(conflicts -> {
+            List<ShiftRequestItem> clear = new ArrayList<>();
+            List<String> uids = new ArrayList<>();
+            for (ShiftRequestItem item : items) {
+                if (conflicts.containsKey(item.getRequestId())) continue;
+                clear.add(item);
+                if (!uids.contains(item.getUserId())) uids.add(item.getUserId());
+            }
+
+            // אישור כותב את מסמך הבקשה ואת ספר השכר (2 כתיבות), ועוד המשמרת ומוני האיוש
+            return loadRates(uids).continueWithTask(rates ->
+                    runBulk(clear, (MAX_WRITES - 2) / 2, (shiftId, chunk) ->
+                            assignments.approveAll(shiftId, chunk, rates.getResult())))
+                    .continueWith(done -> withConflicts(items, done.getResult(), conflicts));
+        });
+    }
+
+    // מיזוג תוצאות הכתיבה עם הבקשות שנעצרו בבדיקת ההתנגשויות, לפי סדר הבקשות המקורי
+    private static List<BulkResult> withConflicts(List<ShiftRequestItem> items, List<BulkResult> written,
+                                                  Map<String, ShiftConflicts.Conflict> conflicts) {
+        Map<String, BulkResult> byRequest = new HashMap<>();
+        for (BulkResult result : written) {
+            byRequest.put(ShiftRequest.idFor(result.getShiftId(), result.getUserId()), result);
+        }
+
+        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM HH:mm", Locale.getDefault());
+        List<BulkResult> results = new ArrayList<>();
+        for (ShiftRequestItem item : items) {
+            ShiftConflicts.Conflict conflict = conflicts.get(item.getRequestId());
+            if (conflict == null) {
+                BulkResult result = byRequest.get(item.getRequestId());
+                if (result != null) results.add(result);
+                continue;
+            }
+            String reason = conflict.overlap ? "משובץ/ת למשמרת חופפת" : "בלי מספיק מנוחה ממשמרת קרובה";
+            results.add(new BulkResult(item.getShift().getShiftId(), item.getUserId(), item.getUserName(),
+                    BulkResult.Outcome.CONFLICT, reason + " (" + sdf.format(conflict.other.getStartTime()) + ")"));
+        }
+        return results;
+    }
+
+    /**
+     * דחייה מרובה: כמו approveAll, טרנזקציה אחת לכל משמרת.
+     */
+    public Task<List<BulkResult>> denyAll(List<ShiftRequestItem> items) {
+        return runBulk(items, MAX_WRITES - 1, assignments::denyAll);
+    }
+
+    private interface ShiftOperation {
+        Task<List<BulkResult>> run(String shiftId, List<ShiftRequestItem> chunk);
+    }
+
+    private Task<List<BulkResult>> runBulk(List<ShiftRequestItem> items, int chunkSize, ShiftOperation operation) {
+        // קיבוץ לפי משמרת, ופיצול משמרת עם הרבה בקשות לחלקים שלא עוברים את מגבלת הכתיבות
+        Map<String, List<ShiftRequestItem>> byShift = new LinkedHashMap<>();
+        for (ShiftRequestItem item : items) {
+            String shiftId = item.getShift().getShiftId();
+            if (!byShift.containsKey(shiftId)) byShift.put(shiftId, new ArrayList<>());
+            byShift.get(shiftId).add(item);
+        }
+
+        List<List<ShiftRequestItem>> chunks = new ArrayList<>();
+        List<Task<List<BulkResult>>> tasks = new ArrayList<>();
+        for (Map.Entry<String, List<ShiftRequestItem>> entry : byShift.entrySet()) {
+            List<ShiftRequestItem> shiftItems = entry.getValue();
+            for (int from = 0; from < shiftItems.size(); from += chunkSize) {
+                List<ShiftRequestItem> chunk = new ArrayList<>(
+                        shiftItems.subList(from, Math.min(from + chunkSize, shiftItems.size())));
+                chunks.add(chunk);
+                tasks.add(operation.run(entry.getKey(), chunk));
+            }
+        }
+
+        // כשל של משמרת אחת לא מכשיל את האחרות - הבקשות שלה מקבלות FAILED
+        return Tasks.whenAllComplete(tasks).continueWith(done -> {
+            Map<String, BulkResult> byRequest = new HashMap<>();
+            for (int i = 0; i < tasks.size(); i++) {
+                Task<List<BulkResult>> task = tasks.get(i);
+                if (task.isSuccessful()) {
+                    for (BulkResult result : task.getResult()) {
+                        byRequest.put(ShiftRequest.idFor(result.getShiftId(), result.getUserId()), result);
+                    }
+                } else {
+                    String error = task.getException() == null ? null : task.getException().getMessage();
+                    for (ShiftRequestItem item : chunks.get(i)) {
+                        byRequest.put(item.getRequestId(), new BulkResult(item.getShift().getShiftId(),
+                                item.getUserId(), item.getUserName(), BulkResult.Outcome.FAILED, error));
+                    }
+                }
+            }
+
+            List<BulkResult> results = new ArrayList<>();
+            for (ShiftRequestItem item : items) {
+                BulkResult result = byRequest.get(item.getRequestId());
+                if (result != null) results.add(result);
+            }
+            return results;
+        });
+    }
+
+    /**
+     * הסרת עובד משובץ (ע"י המנהל) והפחתת המשמרת מספר השכר שלו.
+     */
+    public Task<Void> removeAssignment(Shift shift, String uid, String name) {
+        return loadRates(singleton(uid)).continueWithTask(rates ->
+                assignments.release(shift.getShiftId(), uid, rates.getResult().get(uid), false));
+    }
+
+    /**
+     * ביטול הרשמה ע"י העובד (גם מהממתינים וגם מהמשובצים).
+     * אם העובד היה משובץ - המשמרת יורדת גם מספר השכר שלו.
+     */
+    public Task<Void> cancelSignUp(Shift shift, String uid, String name) {
+        return loadRates(singleton(uid)).continueWithTask(rates ->
+                assignments.release(shift.getShiftId(), uid, rates.getResult().get(uid), true));
+    }
+
+    /**
+     * עריכת פרטי משמרת קיימת.
+     * רצה כטרנזקציה: המשמרת נקראת מחדש, וההפרשים בספר השכר ובמוני האיוש מחושבים מהמצב שנקרא
+     * ולא מהעותק שהמסך מחזיק (שיכול להיות ישן אם מישהו שובץ או הוסר בינתיים).
+     * אם השעות השתנו, מעבירים את כל העובדים המשובצים מהמשך הישן לחדש בספר השכר,
+     * והמשמרת עוברת במוני האיוש מהמצב הישן (חודש/כמות נדרשת) לחדש.
+     */
+    public Task<Void> updateShift(Shift shift, long newStart, long newEnd, int requiredWorkers, String notes) {
+        String shiftId = shift.getShiftId();
+        return db.runTransaction((Transaction.Function<Void>) transaction -> {
+            Shift current = ShiftMapper.fromSnapshot(transaction.get(shiftRef(shiftId)));
+            if (current == null) {
+                throw new AssignmentEngine.AssignmentRejectedException("המשמרת כבר לא קיימת");
+            }
+
+            boolean timesChanged = newStart != current.getStartTime() || newEnd != current.getEndTime();
+            List<String> affected = timesChanged ? assignedIds(current) : new ArrayList<>();
+            Map<String, Double> rates = readRates(transaction, affected);
+
+            Map<String, Object> updates = new HashMap<>();
+            updates.put("startTime", newStart);
+            updates.put("endTime", newEnd);
+            updates.put("requiredWorkers", requiredWorkers);
+            updates.put("notes", notes);
+            updates.put(SyncEngine.FIELD_UPDATED_AT, System.currentTimeMillis());
+            transaction.update(shiftRef(shiftId), updates);
+
+            if (timesChanged) requests.updateTimes(transaction, current, newStart, newEnd);
+            for (String uid : affected) {
+                double rate = rates.get(uid);
+                ledger.applyShift(transaction, uid, current.getStartTime(), current.getEndTime(), rate, -1);
+                ledger.applyShift(transaction, uid, newStart, newEnd, rate, 1);
+            }
+            int assigned = assignedCount(current);
+            stats.remove(transaction, current.getStartTime(), current.getRequiredWorkers(), assigned);
+            stats.add(transaction, newStart, requiredWorkers, assigned);
+            return null;
+        });
+    }
+
+    /**
+     * מחיקת משמרת והפחתתה מספר השכר של כל מי שהיה משובץ אליה.
+     * רצה כטרנזקציה, כך שהמשובצים, הבקשות הממתינות ומוני האיוש נלקחים מהמשמרת כפי שהיא בשרת.
+     */
+    public Task<Void> deleteShift(Shift shift) {
+        String shiftId = shift.getShiftId();
+        return db.runTransaction((Transaction.Function<Void>) transaction -> {
+            Shift current = ShiftMapper.fromSnapshot(transaction.get(shiftRef(shiftId)));
+            if (current == null) return null; // כבר נמחקה
+
+            List<String> affected = assignedIds(current);
+            Map<String, Double> rates = readRates(transaction, affected);
+
+            transaction.delete(shiftRef(shiftId));
+            SyncEngine.recordDeletion(transaction, db, SyncEngine.SHIFTS, shiftId);
+            for (String pendingUid : current.pendingUserIds()) {
+                requests.remove(transaction, shiftId, pendingUid);
+            }
+            for (String uid : affected) {
+                ledger.applyShift(transaction, uid, current.getStartTime(), current.getEndTime(), rates.get(uid), -1);
+            }
+            stats.remove(transaction, current.getStartTime(), current.getRequiredWorkers(), affected.size());
+            return null;
+        });
+    }
+
+    /**
+     * מיגרציה חד-פעמית: כל משמרת שעוד שומרת את העובדים ברשימות מקבילות נכתבת מחדש
+     * עם מפת assignments ושדה האינדקס, והרשימות הישנות נמחקות.
+     * המשמרות נקראות בדפים לפי מזהה, וכל דף נכתב ב-Batch אחד. הרצה חוזרת לא משנה משמרות שכבר הומרו.
+     * @return משימה שמחזירה את מספר המשמרות שהומרו.
+     */
+    public Task<Integer> migrateAssignments() {
+        return migratePage(null, 0);
+    }
+
+    private Task<Integer> migratePage(DocumentSnapshot after, int migrated) {
+        Query page = db.collection("shifts").orderBy(FieldPath.documentId()).limit(MIGRATION_PAGE_SIZE);
+        if (after != null) page = page.startAfter(after);
+        return TracedFirestore.get("shifts.migrationPage", page).continueWithTask(task -> {
+            List<DocumentSnapshot> docs = task.getResult().getDocuments();
+            WriteBatch batch = db.batch();
+            int count = 0;
+            for (DocumentSnapshot doc : docs) {
+                Map<String, Object> data = doc.getData();
+                if (data == null || !ShiftMapper.hasLegacyFields(data)) continue;
+                Shift shift = ShiftMapper.fromData(doc.getId(), data);
+                Map<String, Object> update = new HashMap<>();
+                update.put("assignments", shift.getAssignments());
+                update.put("assignedUserIds", shift.getAssignedUserIds());
+                update.put(ShiftMapper.LEGACY_ASSIGNED_NAMES, FieldValue.delete());
+                update.put(ShiftMapper.LEGACY_PENDING_IDS, FieldValue.delete());
+                update.put(ShiftMapper.LEGACY_PENDING_NAMES, FieldValue.delete());
+                update.put(SyncEngine.FIELD_UPDATED_AT, System.currentTimeMillis());
+                batch.update(doc.getReference(), update);
+                count++;
+            }
+            int total = migrated + count;
+            Task<Void> commit = count == 0 ? Tasks.forResult(null) : batch.commit();
+            return commit.continueWithTask(done -> {
+                if (!done.isSuccessful()) throw done.getException();
+                return docs.size() < MIGRATION_PAGE_SIZE
+                        ? Tasks.forResult(total)
+                        : migratePage(docs.get(docs.size() - 1), total);
+            });
+        });
+    }
+
+    /**
+     * טעינת התעריף השעתי הנוכחי של רשימת עובדים (במקביל).
+     * עובד שאין לו תעריף מקבל 0.
+     */
+    private Task<Map<String, Double>> loadRates(Collection<String> uids) {
+        List<Task<DocumentSnapshot>> reads = new ArrayList<>();
+        for (String uid : uids) {
+            reads.add(TracedFirestore.get("users.rate", db.collection("users").document(uid)));
+        }
+        return Tasks.whenAllSuccess(reads).continueWith(task -> {
+            Map<String, Double> rates = new HashMap<>();
+            for (Object result : task.getResult()) {
+                DocumentSnapshot doc = (DocumentSnapshot) result;
+                Double rate = doc.getDouble("hourlyRate");
+                rates.put(doc.getId(), rate == null ? 0 : rate);
+            }
+            return rates;
+        });
+    }
+
+    /**
+     * קריאת התעריף של רשימת עובדים בתוך טרנזקציה (כל הקריאות קודמות לכתיבות).
+     * עובד שאין לו תעריף מקבל 0.
+     */
+    private Map<String, Double> readRates(Transaction transaction, Collection<String> uids) throws FirebaseFirestoreException {
+        Map<String, Double> rates = new HashMap<>();
+        for (String uid : uids) {
+            Double rate = transaction.get(db.collection("users").document(uid)).getDouble("hourlyRate");
+            rates.put(uid, rate == null ? 0 : rate);
+        }
+        return rates;
+    }
+
+    private static int assignedCount(Shift shift) {
+        return shift.assignedCount();
+    }
+
+    private static List<String> assignedIds(Shift shift) {
+        return shift.getAssignedUserIds();
+    }
+
+    private static List<String> singleton(String uid) {
+        List<String> list = new ArrayList<>();
+        list.add(uid);
+        return list;
+    }
+}
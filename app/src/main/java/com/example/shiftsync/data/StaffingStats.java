@@ -0,0 +1,175 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Shift;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * מוני איוש חודשיים (Staffing Stats).
+ * לכל חודש נשמר מסמך stats/{yyyy-MM} עם: סה"כ משמרות, משמרות מאוישות במלואן, ועובדים חסרים.
+ * כל כתיבה שמשנה שיבוץ או משמרת מעדכנת את המונים בהפרש (increment) באותו Batch,
+ * כך שמסך המנהל קורא מסמך אחד במקום להוריד את כל משמרות החודש.
+ */
+public class StaffingStats {
+
+    public static final String FIELD_TOTAL_SHIFTS = "totalShifts";
+    public static final String FIELD_FULL_SHIFTS = "fullShifts";
+    public static final String FIELD_MISSING_WORKERS = "missingWorkers";
+    public static final String FIELD_UPDATED_AT = "updatedAt";
+
+    // זמן הספירה המלאה האחרונה. מסמך בלי השדה הזה נוצר רק מהפרשים ועוד לא ניתן לסמוך עליו
+    public static final String FIELD_RECOUNTED_AT = "recountedAt";
+
+    // כמה פעמים לנסות ספירה מלאה מחדש כשהמונים השתנו בזמן השאילתה
+    private static final int MAX_RECOUNT_ATTEMPTS = 3;
+
+    private final FirebaseFirestore db;
+
+    public StaffingStats(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    // הפניה למסמך המונים של החודש שבו נמצא הזמן הנתון
+    public DocumentReference statsRef(long timeInMonth) {
+        return db.collection("stats").document(PayrollLedger.monthKey(timeInMonth));
+    }
+
+    /**
+     * ספירה מלאה של משמרות החודש ושמירתה כמסמך המונים.
+     * זמן העדכון של המסמך נקרא לפני השאילתה, והכתיבה נעשית בטרנזקציה שבודקת שהוא לא השתנה:
+     * אם בזמן הספירה נכנס הפרש (increment) - הספירה כבר לא כוללת אותו, ולכן היא לא נשמרת ומתחילה מחדש.
+     * אחרי MAX_RECOUNT_ATTEMPTS ניסיונות מוחזרת הספירה האחרונה בלי לשמור, והמסמך נשאר "לא מאומת".
+     */
+    public Task<StaffingAnalyzer.Counts> recount(long timeInMonth) {
+        return recount(CalendarRanges.monthStart(timeInMonth), 1);
+    }
+
+    private Task<StaffingAnalyzer.Counts> recount(long monthStart, int attempt) {
+        DocumentReference ref = statsRef(monthStart);
+        StaffingAnalyzer staffing = FirestoreStore.getInstance().getStaffing();
+
+        return TracedFirestore.get("stats.month", ref).onSuccessTask(before -> {
+            Long updatedAt = before.getLong(FIELD_UPDATED_AT);
+            return FirestoreStore.task(staffing.monthlyCounts(monthStart)).onSuccessTask(counts ->
+                    db.runTransaction(transaction -> {
+                        DocumentSnapshot current = transaction.get(ref);
+                        if (!Objects.equals(updatedAt, current.getLong(FIELD_UPDATED_AT))) return false;
+                        transaction.set(ref, counters(counts));
+                        return true;
+                    }).onSuccessTask(written -> written || attempt >= MAX_RECOUNT_ATTEMPTS
+                            ? Tasks.forResult(counts)
+                            : recount(monthStart, attempt + 1)));
+        });
+    }
+
+    // מסמך מונים מלא (דורס את ההפרשים) מתוך ספירה מלאה
+    private static Map<String, Object> counters(StaffingAnalyzer.Counts counts) {
+        long now = System.currentTimeMillis();
+        Map<String, Object> counters = new HashMap<>();
+        counters.put(FIELD_TOTAL_SHIFTS, counts.total);
+        counters.put(FIELD_FULL_SHIFTS, counts.full);
+        counters.put(FIELD_MISSING_WORKERS, counts.missing);
+        counters.put(FIELD_UPDATED_AT, now);
+        counters.put(FIELD_RECOUNTED_AT, now);
+        return counters;
+    }
+
+    // הוספת משמרת למונים (יצירה, או הצד ה"חדש" של עריכה)
+    public void add(WriteBatch batch, long startTime, int required, int assigned) {
+        apply(batch, startTime, 1, StaffingAnalyzer.isFull(required, assigned) ? 1 : 0, StaffingAnalyzer.missing(required, assigned));
+    }
+
+    // אותה הוספה בתוך טרנזקציה (הצד ה"חדש" של עריכת משמרת)
+    public void add(Transaction transaction, long startTime, int required, int assigned) {
+        apply(transaction, startTime, 1, StaffingAnalyzer.isFull(required, assigned) ? 1 : 0, StaffingAnalyzer.missing(required, assigned));
+    }
+
+    /**
+     * הוספת הרבה משמרות חדשות (יצירה מתבנית): ההפרשים מצטברים לפי חודש,
+     * כך שנכתבת פעולה אחת לכל חודש ולא אחת לכל משמרת.
+     */
+    public void addAll(WriteBatch batch, List<Shift> shifts) {
+        Map<Long, int[]> byMonth = new LinkedHashMap<>();
+        for (Shift shift : shifts) {
+            long month = CalendarRanges.monthStart(shift.getStartTime());
+            int[] totals = byMonth.get(month);
+            if (totals == null) {
+                totals = new int[3];
+                byMonth.put(month, totals);
+            }
+            int assigned = shift.assignedCount();
+            totals[0]++;
+            totals[1] += StaffingAnalyzer.isFull(shift.getRequiredWorkers(), assigned) ? 1 : 0;
+            totals[2] += StaffingAnalyzer.missing(shift.getRequiredWorkers(), assigned);
+        }
+        for (Map.Entry<Long, int[]> entry : byMonth.entrySet()) {
+            int[] totals = entry.getValue();
+            apply(batch, entry.getKey(), totals[0], totals[1], totals[2]);
+        }
+    }
+
+    // הוצאת משמרת מהמונים (מחיקה, או הצד ה"ישן" של עריכה)
+    public void remove(WriteBatch batch, long startTime, int required, int assigned) {
+        apply(batch, startTime, -1, StaffingAnalyzer.isFull(required, assigned) ? -1 : 0, -StaffingAnalyzer.missing(required, assigned));
+    }
+
+    public void remove(Transaction transaction, long startTime, int required, int assigned) {
+        apply(transaction, startTime, -1, StaffingAnalyzer.isFull(required, assigned) ? -1 : 0, -StaffingAnalyzer.missing(required, assigned));
+    }
+
+    /**
+     * שינוי במספר המשובצים של משמרת קיימת (אישור / הסרה / ביטול).
+     * נכתב רק ההפרש בין המצב הקודם לחדש.
+     */
+    public void changeAssigned(WriteBatch batch, long startTime, int required, int assignedBefore, int assignedAfter) {
+        Map<String, Object> delta = assignedDelta(required, assignedBefore, assignedAfter);
+        if (delta != null) batch.set(statsRef(startTime), delta, SetOptions.merge());
+    }
+
+    // אותו שינוי בתוך טרנזקציה (אישור שיבוץ)
+    public void changeAssigned(Transaction transaction, long startTime, int required, int assignedBefore, int assignedAfter) {
+        Map<String, Object> delta = assignedDelta(required, assignedBefore, assignedAfter);
+        if (delta != null) transaction.set(statsRef(startTime), delta, SetOptions.merge());
+    }
+
+    private static Map<String, Object> assignedDelta(int required, int assignedBefore, int assignedAfter) {
+        int fullDelta = (StaffingAnalyzer.isFull(required, assignedAfter) ? 1 : 0) - (StaffingAnalyzer.isFull(required, assignedBefore) ? 1 : 0);
+        int missingDelta = StaffingAnalyzer.missing(required, assignedAfter) - StaffingAnalyzer.missing(required, assignedBefore);
+        return delta(0, fullDelta, missingDelta);
+    }
+
+    private void apply(WriteBatch batch, long startTime, int totalDelta, int fullDelta, int missingDelta) {
+        Map<String, Object> delta = delta(totalDelta, fullDelta, missingDelta);
+        if (delta != null) batch.set(statsRef(startTime), delta, SetOptions.merge());
+    }
+
+    private void apply(Transaction transaction, long startTime, int totalDelta, int fullDelta, int missingDelta) {
+        Map<String, Object> delta = delta(totalDelta, fullDelta, missingDelta);
+        if (delta != null) transaction.set(statsRef(startTime), delta, SetOptions.merge());
+    }
+
+    // מפת ההפרשים לכתיבה, או null אם אין שינוי
+    private static Map<String, Object> delta(int totalDelta, int fullDelta, int missingDelta) {
+        if (totalDelta == 0 && fullDelta == 0 && missingDelta == 0) return null;
+
+        Map<String, Object> delta = new HashMap<>();
+        delta.put(FIELD_TOTAL_SHIFTS, FieldValue.increment(totalDelta));
+        delta.put(FIELD_FULL_SHIFTS, FieldValue.increment(fullDelta));
+        delta.put(FIELD_MISSING_WORKERS, FieldValue.increment(missingDelta));
+        delta.put(FIELD_UPDATED_AT, System.currentTimeMillis());
+        return delta;
+    }
+}
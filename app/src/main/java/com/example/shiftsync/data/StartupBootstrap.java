@@ -0,0 +1,134 @@
+package com.example.shiftsync.data;
+
+import android.content.Context;
+import android.os.SystemClock;
+
+import com.example.shiftsync.models.User;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * טעינה מוקדמת בפתיחת האפליקציה (Startup Bootstrap).
+ * כבר בעליית התהליך (ShiftSyncApp), או מיד אחרי התחברות, כל השאילתות של המסך הראשי יוצאות במקביל:
+ * מסמך המשתמש, המשמרת הבאה וספר השכר (לעובד), ומסמך המונים של החודש (למנהל).
+ * המסך הראשי לוקח את התוצאות המוכנות (take) במקום לשלוח את אותן שאילתות שוב, אחת אחרי השנייה.
+ * תוצאה נלקחת פעם אחת בלבד, ורק סמוך לטעינה - אחר כך המסכים קוראים מהשרת כרגיל.
+ */
+public class StartupBootstrap {
+
+    // מפתחות התוצאות המוכנות
+    public static final String USER = "user";
+    public static final String NEXT_SHIFT = "nextShift";
+    public static final String LEDGER = "ledger";
+    public static final String STATS = "stats";
+
+    // תוצאה ישנה מזה כבר לא נחשבת "פתיחה" (למשל כשהתהליך נשאר חי ברקע)
+    private static final long MAX_AGE_MILLIS = 30 * 1000L;
+
+    private static StartupBootstrap instance;
+
+    private final FirebaseAuth auth;
+    private final FirebaseFirestore db;
+    private final SessionCache session;
+
+    private final Map<String, Task<?>> prefetched = new HashMap<>();
+    private String uid;
+    private long startedAt;
+
+    private StartupBootstrap(FirebaseAuth auth, FirebaseFirestore db, SessionCache session) {
+        this.auth = auth;
+        this.db = db;
+        this.session = session;
+    }
+
+    public static synchronized StartupBootstrap getInstance(Context context) {
+        if (instance == null) {
+            instance = new StartupBootstrap(FirebaseAuth.getInstance(), FirebaseFirestore.getInstance(),
+                    SessionCache.getInstance(context));
+        }
+        return instance;
+    }
+
+    /**
+     * שליחת כל השאילתות של המסך הראשי במקביל (אם יש משתמש מחובר).
+     * אם התפקיד שמור - נשלחות רק השאילתות של המסך שלו, אחרת של שני המסכים.
+     */
+    public synchronized void start() {
+        FirebaseUser user = auth.getCurrentUser();
+        if (user == null) return;
+
+        prefetched.clear();
+        uid = user.getUid();
+        startedAt = SystemClock.elapsedRealtime();
+        long now = System.currentTimeMillis();
+
+        // מסמך המשתמש - גם מעדכן את התפקיד והשם השמורים
+        String currentUid = uid;
+        prefetched.put(USER, TracedFirestore.get("users.doc", db.collection("users").document(uid)).addOnSuccessListener(doc -> {
+            User fromServer = UserMapper.fromSnapshot(doc);
+            if (fromServer != null) session.save(currentUid, fromServer);
+            else session.clear();
+        }));
+
+        String role = session.getRole(uid);
+        if (!User.ROLE_MANAGER.equals(role)) {
+            prefetched.put(NEXT_SHIFT, TracedFirestore.get("shifts.nextShift", nextShiftQuery(db, uid, now)));
+            prefetched.put(LEDGER, TracedFirestore.get("payroll.ledger", ShiftWriter.getInstance().getLedger().ledgerRef(uid, now)));
+        }
+        if (!User.ROLE_EMPLOYEE.equals(role)) {
+            prefetched.put(STATS, TracedFirestore.get("stats.month", ShiftWriter.getInstance().getStats().statsRef(now)));
+        }
+    }
+
+    /**
+     * מסמך המשתמש מהטעינה המוקדמת (בלי להוציא אותו - המסך הראשי עוד ייקח אותו),
+     * או קריאה חדשה אם אין.
+     */
+    public synchronized Task<DocumentSnapshot> getUser(String uid) {
+        Task<DocumentSnapshot> task = get(USER, uid, false);
+        return task != null ? task : TracedFirestore.get("users.doc", db.collection("users").document(uid));
+    }
+
+    // תוצאה מוכנה למסמך אחד (לפי מפתח), או null - ואז המסך קורא בעצמו
+    public synchronized Task<DocumentSnapshot> takeDocument(String key, String uid) {
+        return get(key, uid, true);
+    }
+
+    // תוצאה מוכנה לשאילתה (לפי מפתח), או null
+    public synchronized Task<QuerySnapshot> takeQuery(String key, String uid) {
+        return get(key, uid, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Task<T> get(String key, String uid, boolean remove) {
+        if (!uid.equals(this.uid) || SystemClock.elapsedRealtime() - startedAt > MAX_AGE_MILLIS) return null;
+        return (Task<T>) (remove ? prefetched.remove(key) : prefetched.get(key));
+    }
+
+    // בהתנתקות - זריקת התוצאות והפרטים השמורים
+    public synchronized void clear() {
+        prefetched.clear();
+        uid = null;
+        session.clear();
+    }
+
+    /**
+     * שאילתת המשמרת הבאה של העובד: רק המשמרות שהוא משובץ אליהן, שמתחילות אחרי now, ומסמך אחד בלבד.
+     * (דורש אינדקס מורכב ב-Firestore על assignedUserIds + startTime)
+     */
+    public static Query nextShiftQuery(FirebaseFirestore db, String uid, long now) {
+        return db.collection("shifts")
+                .whereArrayContains("assignedUserIds", uid)
+                .whereGreaterThan("startTime", now)
+                .orderBy("startTime", Query.Direction.ASCENDING)
+                .limit(1);
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.shiftsync.data;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.example.shiftsync.models.Announcement;
+import com.example.shiftsync.models.Shift;
+import com.example.shiftsync.models.UserSummary;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * מנוע הסנכרון (Sync Engine) - מעדכן את המאגר המקומי (LocalStore) מהשרת ברקע.
+ * לכל אוסף נשמרת נקודת סנכרון (High-Water Mark): זמן העדכון האחרון שכבר הגיע.
+ * בכל סנכרון נקראים רק המסמכים שהשתנו מאז (updatedAt / timestamp), בדפים,
+ * ומחיקות מגיעות כרשומות באוסף deletions (מסמך שנמחק לא מופיע יותר בשאילתה).
+ * בפעם הראשונה נטען בסיס: משמרות מחודשיים אחורה והלאה, כל המדריך, וההודעות האחרונות.
+ */
+public class SyncEngine {
+
+    private static final String TAG = "SyncEngine";
+
+    // שדה זמן העדכון שכל כתיבה למשמרת או לתקציר משתמש מעדכנת
+    public static final String FIELD_UPDATED_AT = "updatedAt";
+
+    // האוספים שמסונכרנים
+    public static final String SHIFTS = "shifts";
+    public static final String USERS = "userDirectory";
+    public static final String ANNOUNCEMENTS = "announcements";
+    private static final String DELETIONS = "deletions";
+
+    private static final int PAGE_SIZE = 500;
+
+    // הזמנים נחתמים בשעון של המכשיר הכותב, ולכן כל סנכרון חוזר קצת אחורה (הכתיבה למאגר אידמפוטנטית)
+    private static final long CLOCK_SKEW_MILLIS = 5 * 60 * 1000L;
+
+    // כמה הודעות נטענות בסנכרון הראשון
+    private static final int INITIAL_ANNOUNCEMENTS = 100;
+
+    private static SyncEngine instance;
+
+    private final FirebaseFirestore db;
+    private final LocalStore store;
+
+    // הסנכרון שרץ כרגע (קריאה נוספת מצטרפת אליו)
+    private Task<Void> running;
+
+    private SyncEngine(FirebaseFirestore db, LocalStore store) {
+        this.db = db;
+        this.store = store;
+    }
+
+    public static synchronized SyncEngine getInstance(Context context) {
+        if (instance == null) {
+            instance = new SyncEngine(FirebaseFirestore.getInstance(), LocalStore.getInstance(context));
+        }
+        return instance;
+    }
+
+    /**
+     * רישום מחיקה בתוך ה-Batch של המחיקה עצמה, כדי שמכשירים אחרים ימחקו גם מהמאגר המקומי.
+     */
+    public static void recordDeletion(WriteBatch batch, FirebaseFirestore db, String collection, String docId) {
+        Map<String, Object> deletion = new HashMap<>();
+        deletion.put("collection", collection);
+        deletion.put("docId", docId);
+        deletion.put("deletedAt", System.currentTimeMillis());
+        batch.set(db.collection(DELETIONS).document(collection + "_" + docId), deletion);
+    }
+
+    // אותו רישום בתוך טרנזקציה (מחיקת משמרת)
+    public static void recordDeletion(Transaction transaction, FirebaseFirestore db, String collection, String docId) {
+        Map<String, Object> deletion = new HashMap<>();
+        deletion.put("collection", collection);
+        deletion.put("docId", docId);
+        deletion.put("deletedAt", System.currentTimeMillis());
+        transaction.set(db.collection(DELETIONS).document(collection + "_" + docId), deletion);
+    }
+
+    /**
+     * סנכרון כל האוספים (אחד אחרי השני). בטוח לקרוא שוב בזמן שסנכרון רץ.
+     * כישלון באוסף אחד לא עוצר את האחרים (לכל אוסף נקודת סנכרון משלו),
+     * אבל כל כישלון נרשם ללוג והמשימה שמוחזרת נכשלת עם הכישלון הראשון.
+     */
+    public synchronized Task<Void> sync() {
+        if (running != null && !running.isComplete()) return running;
+
+        long startedAt = System.currentTimeMillis();
+        Map<String, Task<Void>> steps = new LinkedHashMap<>();
+        steps.put(SHIFTS, syncShifts(startedAt));
+        steps.put(USERS, steps.get(SHIFTS).continueWithTask(task -> syncUsers(startedAt)));
+        steps.put(ANNOUNCEMENTS, steps.get(USERS).continueWithTask(task -> syncAnnouncements(startedAt)));
+        steps.put(DELETIONS, steps.get(ANNOUNCEMENTS).continueWithTask(task -> syncDeletions(startedAt)));
+
+        running = Tasks.whenAllComplete(steps.values()).continueWithTask(done -> {
+            Exception failure = null;
+            for (Map.Entry<String, Task<Void>> step : steps.entrySet()) {
+                if (step.getValue().isSuccessful()) continue;
+                Log.w(TAG, "sync " + step.getKey() + " failed", step.getValue().getException());
+                if (failure == null) failure = step.getValue().getException();
+            }
+            if (failure != null) return Tasks.forException(failure);
+
+            Log.d(TAG, "sync: " + (System.currentTimeMillis() - startedAt) + "ms");
+            return Tasks.forResult(null);
+        });
+        return running;
+    }
+
+    private Task<Void> syncShifts(long startedAt) {
+        return store.write(sqlite -> store.getHighWater(sqlite, SHIFTS)).onSuccessTask(highWater -> {
+            Query query;
+            if (highWater == 0) {
+                // בסיס: מחודשיים אחורה והלאה
+                Calendar from = Calendar.getInstance();
+                from.setTimeInMillis(CalendarRanges.monthStart(startedAt));
+                from.add(Calendar.MONTH, -2);
+                query = db.collection(SHIFTS).whereGreaterThanOrEqualTo("startTime", from.getTimeInMillis()).orderBy("startTime");
+            } else {
+                query = db.collection(SHIFTS).whereGreaterThan(FIELD_UPDATED_AT, highWater - CLOCK_SKEW_MILLIS)
+                        .orderBy(FIELD_UPDATED_AT);
+            }
+            return pull(query, (sqlite, docs) -> {
+                List<Shift> shifts = new ArrayList<>();
+                for (DocumentSnapshot doc : docs) {
+                    Shift shift = ShiftMapper.fromSnapshot(doc);
+                    if (shift == null) continue;
+                    shift.setShiftId(doc.getId());
+                    shifts.add(shift);
+                }
+                store.putShifts(sqlite, shifts);
+            }).onSuccessTask(count -> setHighWater(SHIFTS, startedAt));
+        });
+    }
+
+    private Task<Void> syncUsers(long startedAt) {
+        return store.write(sqlite -> store.getHighWater(sqlite, USERS)).onSuccessTask(highWater -> {
+            Query query = highWater == 0
+                    ? db.collection(USERS).orderBy(FieldPath.documentId())
+                    : db.collection(USERS).whereGreaterThan(FIELD_UPDATED_AT, highWater - CLOCK_SKEW_MILLIS).orderBy(FIELD_UPDATED_AT);
+            return pull(query, (sqlite, docs) -> {
+                List<UserSummary> users = new ArrayList<>();
+                for (DocumentSnapshot doc : docs) {
+                    UserSummary user = doc.toObject(UserSummary.class);
+                    if (user == null) continue;
+                    user.setUid(doc.getId());
+                    users.add(user);
+                }
+                store.putUsers(sqlite, users);
+            }).onSuccessTask(count -> setHighWater(USERS, startedAt));
+        });
+    }
+
+    private Task<Void> syncAnnouncements(long startedAt) {
+        return store.write(sqlite -> store.getHighWater(sqlite, ANNOUNCEMENTS)).onSuccessTask(highWater -> {
+            PageWriter writer = (sqlite, docs) -> {
+                List<Announcement> announcements = new ArrayList<>();
+                for (DocumentSnapshot doc : docs) {
+                    Announcement announcement = AnnouncementMapper.fromSnapshot(doc);
+                    if (announcement == null) continue;
+                    if (announcement.getId() == null) announcement.setId(doc.getId());
+                    announcements.add(announcement);
+                }
+                store.putAnnouncements(sqlite, announcements);
+            };
+            Task<Integer> pulled;
+            if (highWater == 0) {
+                // בסיס: רק ההודעות האחרונות (ההיסטוריה נטענת בדפים במסך ההודעות)
+                pulled = TracedFirestore.get("sync.announcementsBase", db.collection(ANNOUNCEMENTS).orderBy("timestamp", Query.Direction.DESCENDING)
+                        .limit(INITIAL_ANNOUNCEMENTS))
+                        .onSuccessTask(snapshot -> store.write(sqlite -> {
+                            writer.write(sqlite, snapshot.getDocuments());
+                            return snapshot.size();
+                        }));
+            } else {
+                pulled = pull(db.collection(ANNOUNCEMENTS).whereGreaterThan("timestamp", highWater - CLOCK_SKEW_MILLIS)
+                        .orderBy("timestamp"), writer);
+            }
+            return pulled.onSuccessTask(count -> setHighWater(ANNOUNCEMENTS, startedAt));
+        });
+    }
+
+    private Task<Void> syncDeletions(long startedAt) {
+        return store.write(sqlite -> store.getHighWater(sqlite, DELETIONS)).onSuccessTask(highWater -> {
+            // בסנכרון הראשון אין מה למחוק - הבסיס נטען עכשיו
+            if (highWater == 0) return setHighWater(DELETIONS, startedAt);
+
+            Query query = db.collection(DELETIONS).whereGreaterThan("deletedAt", highWater - CLOCK_SKEW_MILLIS).orderBy("deletedAt");
+            return pull(query, (sqlite, docs) -> {
+                for (DocumentSnapshot doc : docs) {
+                    String collection = doc.getString("collection");
+                    String docId = doc.getString("docId");
+                    if (collection == null || docId == null) continue;
+                    switch (collection) {
+                        case SHIFTS:
+                            store.deleteShift(sqlite, docId);
+                            break;
+                        case USERS:
+                            store.deleteUser(sqlite, docId);
+                            break;
+                        case ANNOUNCEMENTS:
+                            store.deleteAnnouncement(sqlite, docId);
+                            break;
+                    }
+                }
+            }).onSuccessTask(count -> setHighWater(DELETIONS, startedAt));
+        });
+    }
+
+    private Task<Void> setHighWater(String collection, long highWater) {
+        return store.write(sqlite -> {
+            store.setHighWater(sqlite, collection, highWater);
+            return null;
+        });
+    }
+
+    // כתיבת דף אחד של מסמכים למאגר (על ה-Thread של המאגר, בתוך טרנזקציה)
+    private interface PageWriter {
+        void write(SQLiteDatabase sqlite, List<DocumentSnapshot> docs);
+    }
+
+    /**
+     * קריאת כל התוצאות של שאילתה ממוינת, דף אחרי דף, וכתיבת כל דף למאגר.
+     * @return מספר המסמכים שנקראו.
+     */
+    private Task<Integer> pull(Query query, PageWriter writer) {
+        return pullFrom(query, null, writer, 0);
+    }
+
+    private Task<Integer> pullFrom(Query query, DocumentSnapshot after, PageWriter writer, int soFar) {
+        Query page = (after == null ? query : query.startAfter(after)).limit(PAGE_SIZE);
+        return TracedFirestore.get("sync.page", page).onSuccessTask(snapshot -> {
+            List<DocumentSnapshot> docs = snapshot.getDocuments();
+            return store.write(sqlite -> {
+                writer.write(sqlite, docs);
+                return null;
+            }).onSuccessTask(done -> docs.size() < PAGE_SIZE
+                    ? Tasks.forResult(soFar + docs.size())
+                    : pullFrom(query, docs.get(docs.size() - 1), writer, soFar + docs.size()));
+        });
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.shiftsync.data;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * עטיפה דקה לקריאות Firestore, שמודדת כל קריאה ב-FirestoreMetrics (Traced Firestore).
+ * כל ה-get() וה-addSnapshotListener() באפליקציה עוברים כאן, עם שם קבוע לקריאה (label),
+ * למשל "shifts.nextShift". הקריאה משויכת למסך שהיה בחזית כשהיא יצאה.
+ * גם get() שנכשל נרשם (ונספר בנפרד), וגודל התשובה מוערך ממדגם של המסמכים.
+ * כשהמדידה כבויה הקריאה עוברת ישירות ל-Firestore, בלי שום עבודה נוספת.
+ */
+public final class TracedFirestore {
+
+    private TracedFirestore() { }
+
+    // קריאה חד-פעמית של שאילתה
+    public static Task<QuerySnapshot> get(String label, Query query) {
+        FirestoreMetrics metrics = FirestoreMetrics.getInstance();
+        if (!metrics.isEnabled()) return query.get();
+
+        String screen = metrics.getCurrentScreen();
+        long start = System.nanoTime();
+        return query.get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                metrics.recordFailure(screen, label, FirestoreMetrics.KIND_GET, start);
+                return;
+            }
+            QuerySnapshot snapshot = task.getResult();
+            metrics.record(screen, label, FirestoreMetrics.KIND_GET, start, true, snapshot.size(),
+                    FirestoreMetrics.estimateSize(snapshot.getDocuments()), snapshot.getMetadata().isFromCache());
+        });
+    }
+
+    // קריאה חד-פעמית של מסמך
+    public static Task<DocumentSnapshot> get(String label, DocumentReference ref) {
+        FirestoreMetrics metrics = FirestoreMetrics.getInstance();
+        if (!metrics.isEnabled()) return ref.get();
+
+        String screen = metrics.getCurrentScreen();
+        long start = System.nanoTime();
+        return ref.get().addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                metrics.recordFailure(screen, label, FirestoreMetrics.KIND_GET, start);
+                return;
+            }
+            DocumentSnapshot doc = task.getResult();
+            metrics.record(screen, label, FirestoreMetrics.KIND_GET, start, true,
+                    doc.exists() ? 1 : 0, FirestoreMetrics.estimateSize(doc), doc.getMetadata().isFromCache());
+        });
+    }
+
+    /**
+     * מאזין לשאילתה. הזמן עד התשובה הראשונה נכנס להיסטוגרמה;
+     * בכל עדכון נספרים רק המסמכים שהשתנו (זה מה שעובר ברשת).
+     * המאזין נספר כ"פתוח" במסך עד שקוראים ל-remove().
+     */
+    public static ListenerRegistration listen(String label, Query query, EventListener<QuerySnapshot> listener) {
+        FirestoreMetrics metrics = FirestoreMetrics.getInstance();
+        if (!metrics.isEnabled()) return query.addSnapshotListener(listener);
+
+        String screen = metrics.getCurrentScreen();
+        long start = System.nanoTime();
+        boolean[] first = {true};
+        ListenerRegistration registration = query.addSnapshotListener((value, error) -> {
+            if (value != null) {
+                List<DocumentSnapshot> changed = new ArrayList<>();
+                for (DocumentChange change : value.getDocumentChanges()) {
+                    if (change.getType() != DocumentChange.Type.REMOVED) changed.add(change.getDocument());
+                }
+                metrics.record(screen, label, FirestoreMetrics.KIND_LISTEN, start, first[0],
+                        value.getDocumentChanges().size(), FirestoreMetrics.estimateSize(changed),
+                        value.getMetadata().isFromCache());
+                first[0] = false;
+            }
+            listener.onEvent(value, error);
+        });
+        metrics.listenerAdded(screen);
+
+        boolean[] removed = {false};
+        return () -> {
+            registration.remove();
+            if (!removed[0]) {
+                removed[0] = true;
+                metrics.listenerRemoved(screen);
+            }
+        };
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.shiftsync.data;
+
+import android.content.Context;
+
+import com.example.shiftsync.models.User;
+import com.example.shiftsync.models.UserSummary;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * מדריך המשתמשים (User Directory).
+ * לכל משתמש נשמר תקציר קטן ב-userDirectory/{uid} (שם, ת.ז, תפקיד, שכר ו-hash של התמונה),
+ * שמתעדכן באותו Batch עם כל כתיבה למסמך המשתמש. מסכי רשימות וחיפושי שמות קוראים רק את התקציר,
+ * ויש מטמון בזיכרון (uid -> תקציר) שמתעדכן בכל כתיבה או קריאה דרך המחלקה הזו.
+ */
+public class UserDirectory {
+
+    private static final String COLLECTION = "userDirectory";
+
+    private static UserDirectory instance;
+
+    private final FirebaseFirestore db;
+
+    // מטמון בזיכרון (נגיש מה-UI Thread בלבד)
+    private final Map<String, UserSummary> cache = new HashMap<>();
+
+    private UserDirectory(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    public static synchronized UserDirectory getInstance() {
+        if (instance == null) {
+            instance = new UserDirectory(FirebaseFirestore.getInstance());
+        }
+        return instance;
+    }
+
+    public DocumentReference summaryRef(String uid) {
+        return db.collection(COLLECTION).document(uid);
+    }
+
+    private DocumentReference userRef(String uid) {
+        return db.collection("users").document(uid);
+    }
+
+    // השאילתה של רשימת העובדים (תקצירים בלבד)
+    public Query employees() {
+        return db.collection(COLLECTION).whereEqualTo("role", User.ROLE_EMPLOYEE);
+    }
+
+    /**
+     * קריאת תקציר משתמש: מהמטמון, ואם אין - מהמדריך.
+     * משתמש שנרשם לפני שהמדריך קיים נקרא פעם אחת מ-users והתקציר שלו נכתב למדריך.
+     */
+    public Task<UserSummary> get(String uid) {
+        UserSummary cached = cache.get(uid);
+        if (cached != null) return Tasks.forResult(cached);
+
+        return TracedFirestore.get("userSummaries.doc", summaryRef(uid)).continueWithTask(task -> {
+            UserSummary summary = task.getResult().toObject(UserSummary.class);
+            // תקציר בלי שם נוצר רק מעדכון חלקי (למשל hash של תמונה) - משלימים אותו מ-users
+            if (summary != null && summary.getFullName() != null) {
+                cache.put(uid, summary);
+                return Tasks.forResult(summary);
+            }
+            return TracedFirestore.get("users.doc", userRef(uid)).continueWith(userTask -> {
+                User user = UserMapper.fromSnapshot(userTask.getResult());
+                if (user == null) return null;
+                user.setUid(uid);
+                UserSummary fromUser = new UserSummary(user);
+                summaryRef(uid).set(fromUser);
+                cache.put(uid, fromUser);
+                return fromUser;
+            });
+        });
+    }
+
+    // שם מלא של משתמש (או null אם לא נמצא)
+    public Task<String> getName(String uid) {
+        return get(uid).continueWith(task -> task.getResult() == null ? null : task.getResult().getFullName());
+    }
+
+    /**
+     * כל התקצירים במדריך (עובדים ומנהלים), בשאילתה אחת. המטמון מתעדכן בכולם.
+     * @return עותק של המטמון לפי uid (בטוח לקריאה מ-Thread אחר).
+     */
+    public Task<Map<String, UserSummary>> getAll() {
+        return TracedFirestore.get("userSummaries.all", db.collection(COLLECTION)).continueWith(task -> {
+            for (DocumentSnapshot doc : task.getResult().getDocuments()) {
+                UserSummary summary = doc.toObject(UserSummary.class);
+                if (summary != null && summary.getFullName() != null) {
+                    summary.setUid(doc.getId());
+                    cache.put(doc.getId(), summary);
+                }
+            }
+            return new HashMap<>(cache);
+        });
+    }
+
+    // עדכון המטמון מתוצאות של מאזין/שאילתה על המדריך
+    public void remember(UserSummary summary) {
+        if (summary != null && summary.getUid() != null) cache.put(summary.getUid(), summary);
+    }
+
+    public void invalidate(String uid) {
+        cache.remove(uid);
+    }
+
+    // --- כתיבות: תמיד גם למסמך המשתמש וגם למדריך, באותו Batch ---
+
+    // יצירת משתמש חדש (הרשמה)
+    public Task<Void> createUser(User user) {
+        UserSummary summary = new UserSummary(user);
+        WriteBatch batch = db.batch();
+        batch.set(userRef(user.getUid()), user);
+        batch.set(summaryRef(user.getUid()), summary);
+        return batch.commit().addOnSuccessListener(aVoid -> cache.put(user.getUid(), summary));
+    }
+
+    /**
+     * עדכון שדות במסמך המשתמש. שדות שמופיעים גם בתקציר מתעדכנים גם במדריך.
+     */
+    public Task<Void> updateUser(String uid, Map<String, Object> fields) {
+        WriteBatch batch = db.batch();
+        batch.update(userRef(uid), fields);
+
+        Map<String, Object> summaryFields = new HashMap<>();
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            if (isSummaryField(field.getKey())) summaryFields.put(field.getKey(), field.getValue());
+        }
+        if (!summaryFields.isEmpty()) {
+            summaryFields.put("uid", uid);
+            summaryFields.put(SyncEngine.FIELD_UPDATED_AT, System.currentTimeMillis());
+            batch.set(summaryRef(uid), summaryFields, SetOptions.merge());
+        }
+
+        invalidate(uid);
+        return batch.commit();
+    }
+
+    public Task<Void> updateUser(String uid, String field, Object value) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put(field, value);
+        return updateUser(uid, fields);
+    }
+
+    // מחיקת משתמש (גם מהמדריך)
+    public Task<Void> deleteUser(String uid) {
+        WriteBatch batch = db.batch();
+        batch.delete(userRef(uid));
+        batch.delete(summaryRef(uid));
+        SyncEngine.recordDeletion(batch, db, SyncEngine.USERS, uid);
+        invalidate(uid);
+        return batch.commit();
+    }
+
+    private static boolean isSummaryField(String field) {
+        switch (field) {
+            case "fullName":
+            case "idNumber":
+            case "role":
+            case "hourlyRate":
+            case ProfileImageStore.FIELD_PROFILE_IMAGE_HASH:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * מילוי חד-פעמי של המדריך מכל המשתמשים שנרשמו לפני שהוא קיים.
+     * רץ פעם אחת לכל המערכת (סימון בשרת). כל תקציר נכתב בטרנזקציה משלו שקוראת מחדש את מסמך המשתמש,
+     * ורק אם עוד אין תקציר מלא - כך עדכון (updateUser) שנכתב בינתיים לא נדרס בנתונים ישנים.
+     * תוך כדי, תמונות ישנות (Base64 בתוך המסמך) מועברות למאגר התמונות.
+     */
+    public Task<Void> backfill(Context context) {
+        return MigrationMarkers.runOnce(db, MigrationMarkers.USER_DIRECTORY_BACKFILL, () ->
+                TracedFirestore.get("users.backfill", db.collection("users")).onSuccessTask(snapshot -> {
+                    List<User> legacyImages = new ArrayList<>();
+                    List<Task<Boolean>> writes = new ArrayList<>();
+                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                        User user = UserMapper.fromSnapshot(doc);
+                        if (user == null) continue;
+                        user.setUid(doc.getId());
+                        writes.add(backfillSummary(doc.getId()));
+
+                        if (user.getProfileImageHash() == null && user.getProfileImage() != null && !user.getProfileImage().isEmpty()) {
+                            legacyImages.add(user);
+                        }
+                    }
+
+                    // העברת התמונות רק אחרי שכל התקצירים נכתבו, כדי שה-hash החדש לא יידרס בתקציר הישן
+                    return Tasks.whenAll(writes).addOnSuccessListener(aVoid -> {
+                        for (User user : legacyImages) {
+                            ProfileImageStore.getInstance(context).migrateInlineImage(user.getUid(), user.getProfileImage());
+                        }
+                    });
+                }));
+    }
+
+    // כתיבת תקציר אחד מהמצב הנוכחי של מסמך המשתמש. מחזיר האם נכתב תקציר
+    private Task<Boolean> backfillSummary(String uid) {
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot userDoc = transaction.get(userRef(uid));
+            DocumentSnapshot summaryDoc = transaction.get(summaryRef(uid));
+            // תקציר בלי שם נוצר רק מעדכון חלקי - אותו משלימים
+            if (summaryDoc.exists() && summaryDoc.getString("fullName") != null) return false;
+
+            User user = UserMapper.fromSnapshot(userDoc);
+            if (user == null) return false;
+            user.setUid(uid);
+            transaction.set(summaryRef(uid), new UserSummary(user));
+            return true;
+        });
+    }
+}
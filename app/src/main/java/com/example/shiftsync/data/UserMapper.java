@@ -0,0 +1,44 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.User;
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.Map;
+
+/**
+ * קריאת משתמש ממסמך Firestore, ישירות ממפת הנתונים (getData) - בלי toObject ו-Reflection.
+ * התוצאה זהה ל-toObject(User.class) (ראו MapperEquivalenceTest), ולכן שדה חדש במודל צריך להתווסף גם כאן.
+ */
+public final class UserMapper {
+
+    private UserMapper() { }
+
+    // משתמש מהמסמך, או null אם המסמך לא קיים
+    public static User fromSnapshot(DocumentSnapshot doc) {
+        FirestoreMetrics metrics = FirestoreMetrics.getInstance();
+        if (!metrics.isEnabled()) return fromData(doc.getData());
+
+        long start = System.nanoTime();
+        User user = fromData(doc.getData());
+        metrics.recordMapping("User", start);
+        return user;
+    }
+
+    // משתמש ממפת הנתונים של מסמך, או null אם אין נתונים
+    public static User fromData(Map<String, Object> data) {
+        if (data == null) return null;
+
+        User user = new User();
+        user.setUid(DocumentFields.string(data, "uid"));
+        user.setFullName(DocumentFields.string(data, "fullName"));
+        user.setIdNumber(DocumentFields.string(data, "idNumber"));
+        user.setEmail(DocumentFields.string(data, "email"));
+        user.setRole(DocumentFields.string(data, "role"));
+        user.setHourlyRate(DocumentFields.doubleValue(data, "hourlyRate"));
+        // toObject קורא את isFirstLogin() כמאפיין firstLogin
+        user.setFirstLogin(DocumentFields.booleanValue(data, "firstLogin"));
+        user.setProfileImage(DocumentFields.string(data, "profileImage"));
+        user.setProfileImageHash(DocumentFields.string(data, "profileImageHash"));
+        return user;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Announcement;
+import com.example.shiftsync.models.Assignment;
+import com.example.shiftsync.models.Shift;
+import com.example.shiftsync.models.User;
+import com.google.firebase.firestore.util.CustomClassMapper;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * בדיקות שהמיפויים הידניים (ShiftMapper, UserMapper, AnnouncementMapper) מחזירים בדיוק
+ * את מה ש-toObject מחזיר, על מפות נתונים כמו ש-getData() מחזיר (מספרים שלמים כ-Long, מפות כ-HashMap).
+ * מדידת זמן ההמרה נמצאת ב-ShiftDecodeBenchmark במודול benchmarks.
+ */
+public class MapperEquivalenceTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    // מה ש-DocumentSnapshot.toObject עושה עם getData()
+    private static <T> T toObject(Map<String, Object> data, Class<T> type) {
+        return CustomClassMapper.convertToCustomClass(data, type, null);
+    }
+
+    // מסמך משמרת סינתטי במבנה הנוכחי (מפת assignments + שדה האינדקס)
+    private static Map<String, Object> shiftData(Random random, int i) {
+        long start = 1_740_000_000_000L + i * 8 * HOUR;
+        Map<String, Object> assignments = new HashMap<>();
+        List<String> assignedIds = new ArrayList<>();
+        int assigned = random.nextInt(4);
+        int pending = random.nextInt(8);
+        for (int a = 0; a < assigned + pending; a++) {
+            String uid = "u" + random.nextInt(300);
+            if (assignments.containsKey(uid)) continue;
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("name", "עובד " + uid);
+            entry.put("requestedAt", start - random.nextInt(1_000_000));
+            if (a < assigned) {
+                entry.put("status", Assignment.STATUS_ASSIGNED);
+                entry.put("assignedAt", start - random.nextInt(1_000));
+                assignedIds.add(uid);
+            } else {
+                entry.put("status", Assignment.STATUS_PENDING);
+                entry.put("assignedAt", 0L);
+            }
+            assignments.put(uid, entry);
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("shiftId", "s" + i);
+        data.put("startTime", start);
+        data.put("endTime", start + 8 * HOUR);
+        data.put("requiredWorkers", (long) (1 + random.nextInt(4)));
+        data.put("notes", i % 3 == 0 ? null : "הערה " + i);
+        data.put("updatedAt", start - HOUR);
+        data.put("assignments", assignments);
+        data.put("assignedUserIds", assignedIds);
+        return data;
+    }
+
+    private static void assertSameShift(Shift expected, Shift actual) {
+        assertEquals(expected.getShiftId(), actual.getShiftId());
+        assertEquals(expected.getStartTime(), actual.getStartTime());
+        assertEquals(expected.getEndTime(), actual.getEndTime());
+        assertEquals(expected.getRequiredWorkers(), actual.getRequiredWorkers());
+        assertEquals(expected.getNotes(), actual.getNotes());
+        assertEquals(expected.getUpdatedAt(), actual.getUpdatedAt());
+        assertEquals(expected.getAssignments(), actual.getAssignments());
+        assertEquals(expected.getAssignedUserIds(), actual.getAssignedUserIds());
+        assertEquals(expected.pendingUserIds(), actual.pendingUserIds());
+    }
+
+    @Test
+    public void shiftsMatchToObject() {
+        Random random = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            Map<String, Object> data = shiftData(random, i);
+            assertSameShift(toObject(data, Shift.class), ShiftMapper.fromData("doc" + i, data));
+        }
+    }
+
+    @Test
+    public void shiftWithoutFieldsMatchesToObject() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("assignments", new HashMap<>());
+
+        Shift expected = toObject(data, Shift.class);
+        expected.setShiftId("doc");
+        assertSameShift(expected, ShiftMapper.fromData("doc", data));
+        assertNull(ShiftMapper.fromData("missing", null));
+    }
+
+    @Test
+    public void legacyShiftIsMergedIntoAssignments() {
+        Map<String, Object> pendingEntry = new HashMap<>();
+        pendingEntry.put("name", "חדש");
+        pendingEntry.put("status", Assignment.STATUS_PENDING);
+        pendingEntry.put("requestedAt", 500L);
+        Map<String, Object> assignments = new HashMap<>();
+        assignments.put("c", pendingEntry);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("startTime", 1000L);
+        data.put("assignedUserIds", Arrays.asList("a", "b"));
+        data.put(ShiftMapper.LEGACY_ASSIGNED_NAMES, Arrays.asList("אבי"));
+        data.put(ShiftMapper.LEGACY_PENDING_IDS, Arrays.asList("c", "d"));
+        data.put(ShiftMapper.LEGACY_PENDING_NAMES, Arrays.asList("ישן", "דנה"));
+        data.put("assignments", assignments);
+
+        Shift shift = ShiftMapper.fromData("legacy", data);
+
+        assertEquals("legacy", shift.getShiftId());
+        assertEquals(Arrays.asList("a", "b"), shift.getAssignedUserIds());
+        assertEquals("אבי", shift.nameOf("a"));
+        assertEquals("עובד", shift.nameOf("b"));
+        // רשומה מהמפה גוברת על הרשימה הישנה
+        assertEquals("חדש", shift.nameOf("c"));
+        assertEquals(500L, shift.getAssignments().get("c").getRequestedAt());
+        assertEquals(Arrays.asList("d", "c"), shift.pendingUserIds());
+    }
+
+    @Test
+    public void usersMatchToObject() {
+        Map<String, Object> full = new HashMap<>();
+        full.put("uid", "u1");
+        full.put("fullName", "דנה לוי");
+        full.put("idNumber", "123456789");
+        full.put("email", "dana@example.com");
+        full.put("role", User.ROLE_EMPLOYEE);
+        full.put("hourlyRate", 52.5);
+        full.put("firstLogin", true);
+        full.put("profileImageHash", "abc");
+
+        // תעריף שלם נשמר כ-Long, ומשתמש ישן עם תמונה בתוך המסמך
+        Map<String, Object> legacy = new HashMap<>();
+        legacy.put("fullName", "אבי");
+        legacy.put("role", User.ROLE_MANAGER);
+        legacy.put("hourlyRate", 45L);
+        legacy.put("firstLogin", false);
+        legacy.put("profileImage", "iVBORw0KGgo=");
+
+        for (Map<String, Object> data : Arrays.asList(full, legacy, new HashMap<String, Object>())) {
+            User expected = toObject(data, User.class);
+            User actual = UserMapper.fromData(data);
+            assertEquals(expected.getUid(), actual.getUid());
+            assertEquals(expected.getFullName(), actual.getFullName());
+            assertEquals(expected.getIdNumber(), actual.getIdNumber());
+            assertEquals(expected.getEmail(), actual.getEmail());
+            assertEquals(expected.getRole(), actual.getRole());
+            assertEquals(expected.getHourlyRate(), actual.getHourlyRate(), 0);
+            assertEquals(expected.isFirstLogin(), actual.isFirstLogin());
+            assertEquals(expected.getProfileImage(), actual.getProfileImage());
+            assertEquals(expected.getProfileImageHash(), actual.getProfileImageHash());
+        }
+        assertNull(UserMapper.fromData(null));
+    }
+
+    @Test
+    public void announcementsMatchToObject() {
+        Map<String, Object> full = new HashMap<>();
+        full.put("id", "a1");
+        full.put("title", "כותרת");
+        full.put("content", "תוכן");
+        full.put("timestamp", 1_740_000_000_000L);
+        full.put("authorName", "מנהל");
+        full.put("updatedAt", 1_740_000_000_001L);
+
+        Map<String, Object> partial = new HashMap<>();
+        partial.put("title", "בלי מזהה");
+
+        for (Map<String, Object> data : Arrays.asList(full, partial)) {
+            Announcement expected = toObject(data, Announcement.class);
+            Announcement actual = AnnouncementMapper.fromData(data);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getContent(), actual.getContent());
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+            assertEquals(expected.getAuthorName(), actual.getAuthorName());
+        }
+        assertNull(AnnouncementMapper.fromData(null));
+    }
+}
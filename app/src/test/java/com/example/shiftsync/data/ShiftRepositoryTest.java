@@ -0,0 +1,92 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Assignment;
+import com.example.shiftsync.models.Shift;
+import com.google.firebase.firestore.DocumentChange;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * בדיקות לעדכון האינדקס של ShiftRepository כשמשמרת עוברת בין שני חלונות חודש טעונים:
+ * ה-REMOVED מהחלון הישן וה-ADDED מהחלון החדש יכולים להגיע בכל סדר.
+ */
+public class ShiftRepositoryTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private ShiftRepository repository;
+    private long march;
+    private long april;
+
+    private static long day(int month, int dayOfMonth, int hour) {
+        Calendar cal = Calendar.getInstance();
+        cal.clear();
+        cal.set(2025, month, dayOfMonth, hour, 0);
+        return cal.getTimeInMillis();
+    }
+
+    private static Calendar calendar(long time) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(time);
+        return cal;
+    }
+
+    private static Shift shift(String id, long start, String... assigned) {
+        Shift shift = new Shift(id, start, start + 8 * HOUR, 2, null);
+        for (String uid : assigned) shift.getAssignments().put(uid, Assignment.assigned("name-" + uid, 0, 0));
+        return shift;
+    }
+
+    @Before
+    public void setUp() {
+        repository = new ShiftRepository(null);
+        march = CalendarRanges.monthStart(day(Calendar.MARCH, 1, 0));
+        april = CalendarRanges.monthStart(day(Calendar.APRIL, 1, 0));
+        repository.applyChange(march, DocumentChange.Type.ADDED, shift("s1", day(Calendar.MARCH, 31, 8), "u1"));
+    }
+
+    @Test
+    public void moveAcrossWindows_removedBeforeAdded_keepsNewVersion() {
+        Shift moved = shift("s1", day(Calendar.APRIL, 1, 8), "u1");
+
+        assertNotNull(repository.applyChange(march, DocumentChange.Type.REMOVED, shift("s1", day(Calendar.MARCH, 31, 8))));
+        assertNotNull(repository.applyChange(april, DocumentChange.Type.ADDED, moved));
+
+        assertMovedTo(moved);
+    }
+
+    @Test
+    public void moveAcrossWindows_addedBeforeRemoved_keepsNewVersion() {
+        Shift moved = shift("s1", day(Calendar.APRIL, 1, 8), "u1");
+
+        ShiftRepository.ShiftChange added = repository.applyChange(april, DocumentChange.Type.ADDED, moved);
+        assertEquals(CalendarRanges.dayKey(day(Calendar.MARCH, 31, 8)), added.previousDayKey);
+
+        // ה-REMOVED המאוחר של חלון מרץ לא נוגע בגרסה ששייכת כבר לאפריל
+        assertNull(repository.applyChange(march, DocumentChange.Type.REMOVED, shift("s1", day(Calendar.MARCH, 31, 8))));
+
+        assertMovedTo(moved);
+    }
+
+    @Test
+    public void removedFromOwningWindow_evictsShift() {
+        assertNotNull(repository.applyChange(march, DocumentChange.Type.REMOVED, shift("s1", day(Calendar.MARCH, 31, 8))));
+
+        assertTrue(repository.getShiftsForDay(calendar(day(Calendar.MARCH, 31, 0))).isEmpty());
+        assertNull(repository.getAssignedIntervals("u1").findOverlap(day(Calendar.MARCH, 31, 8), day(Calendar.MARCH, 31, 16), null));
+    }
+
+    private void assertMovedTo(Shift moved) {
+        assertTrue(repository.getShiftsForDay(calendar(day(Calendar.MARCH, 31, 0))).isEmpty());
+        List<Shift> april1 = repository.getShiftsForDay(calendar(day(Calendar.APRIL, 1, 0)));
+        assertEquals(1, april1.size());
+        assertSame(moved, april1.get(0));
+        assertSame(moved, repository.getAssignedIntervals("u1").findOverlap(moved.getStartTime(), moved.getEndTime(), null));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.shiftsync.benchmarks;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * קו הבסיס של בנצ'מרק ההמרה: מיפוי מפת נתונים לאובייקט דרך Reflection, בשיטה של toObject.
+ * ה-CustomClassMapper של Firestore נמצא בספריית Android ולא זמין במודול JVM רגיל, ולכן כאן
+ * אותה עבודה בקטן: לכל שדה במפה מחפשים setter (הרשימה נשמרת לכל מחלקה, כמו שם),
+ * ממירים את הערך לסוג הפרמטר - כולל רשימות, מפות ואובייקטים מקוננים - וקוראים לו דרך Method.invoke.
+ */
+final class BeanReflectionMapper {
+
+    private static final Map<Class<?>, Map<String, Method>> setters = new ConcurrentHashMap<>();
+
+    private BeanReflectionMapper() { }
+
+    static <T> T convert(Map<String, Object> data, Class<T> type) {
+        try {
+            T bean = type.getDeclaredConstructor().newInstance();
+            Map<String, Method> properties = settersOf(type);
+            for (Map.Entry<String, Object> entry : data.entrySet()) {
+                Method setter = properties.get(entry.getKey());
+                if (setter == null) continue; // שדה שאין לו setter (toObject רק רושם אזהרה)
+                setter.invoke(bean, value(entry.getValue(), setter.getGenericParameterTypes()[0]));
+            }
+            return bean;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object value(Object value, Type type) {
+        if (value == null) return null;
+        if (type == long.class || type == Long.class) return ((Number) value).longValue();
+        if (type == int.class || type == Integer.class) return ((Number) value).intValue();
+        if (type == double.class || type == Double.class) return ((Number) value).doubleValue();
+        if (type instanceof ParameterizedType) {
+            ParameterizedType generic = (ParameterizedType) type;
+            Type[] args = generic.getActualTypeArguments();
+            if (generic.getRawType() == List.class) {
+                List<Object> list = new ArrayList<>();
+                for (Object item : (List<Object>) value) list.add(value(item, args[0]));
+                return list;
+            }
+            if (generic.getRawType() == Map.class) {
+                Map<String, Object> map = new HashMap<>();
+                for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                    map.put(entry.getKey(), value(entry.getValue(), args[1]));
+                }
+                return map;
+            }
+        }
+        if (value instanceof Map && type instanceof Class && type != Map.class) {
+            return convert((Map<String, Object>) value, (Class<?>) type);
+        }
+        return value;
+    }
+
+    private static Map<String, Method> settersOf(Class<?> type) {
+        return setters.computeIfAbsent(type, t -> {
+            Map<String, Method> properties = new HashMap<>();
+            for (Method method : t.getMethods()) {
+                String name = method.getName();
+                if (name.length() > 3 && name.startsWith("set") && method.getParameterCount() == 1) {
+                    properties.put(Character.toLowerCase(name.charAt(3)) + name.substring(4), method);
+                }
+            }
+            return properties;
+        });
+    }
+}
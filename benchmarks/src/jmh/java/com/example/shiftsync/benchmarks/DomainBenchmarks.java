@@ -0,0 +1,70 @@
+package com.example.shiftsync.benchmarks;
+
+import com.example.shiftsync.data.PayrollAggregator;
+import com.example.shiftsync.data.PayrollCalculator;
+import com.example.shiftsync.data.StaffingAnalyzer;
+import com.example.shiftsync.models.Shift;
+import com.example.shiftsync.models.ShiftRequestItem;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * החישובים שהמסכים מריצים על רשימות משמרות, על מאגר סינתטי בכל גודל (ShiftDataset):
+ * סיכום השכר (מסך השכר ומסך העובד), דוח השכר של כל החברה (צבירה, ועם השורות הממוינות), ספירת האיוש החודשית (מסך המנהל)
+ * ופריסת הבקשות הממתינות לרשימה שטוחה (מסך האישורים).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DomainBenchmarks {
+
+    @Benchmark
+    public double salaryTotal(ShiftDataset data) {
+        return PayrollCalculator.totalAmount(data.shifts, ShiftDataset.HOURLY_RATE);
+    }
+
+    // כמו מסך השכר: קודם המשמרות של עובד אחד, ואז הסיכום שלהן
+    @Benchmark
+    public double salaryForEmployee(ShiftDataset data) {
+        List<Shift> own = new ArrayList<>();
+        for (Shift shift : data.shifts) {
+            if (shift.isAssigned("u7")) own.add(shift);
+        }
+        return PayrollCalculator.totalAmount(own, ShiftDataset.HOURLY_RATE);
+    }
+
+    @Benchmark
+    public int companyPayroll(ShiftDataset data) {
+        PayrollAggregator aggregator = new PayrollAggregator();
+        for (Shift shift : data.shifts) {
+            aggregator.addShift(shift.getAssignedUserIds(), shift.getStartTime(), shift.getEndTime());
+        }
+        return aggregator.getEmployeeCount();
+    }
+
+    // הדוח המלא של ייצוא השכר: צבירה ואז חיבור לתעריפים ומיון לפי שם
+    @Benchmark
+    public List<PayrollAggregator.Line> companyPayrollReport(ShiftDataset data) {
+        PayrollAggregator aggregator = new PayrollAggregator();
+        for (Shift shift : data.shifts) {
+            aggregator.addShift(shift.getAssignedUserIds(), shift.getStartTime(), shift.getEndTime());
+        }
+        return aggregator.lines(data.users);
+    }
+
+    @Benchmark
+    public StaffingAnalyzer.Counts staffingCounts(ShiftDataset data) {
+        return StaffingAnalyzer.count(data.shifts);
+    }
+
+    @Benchmark
+    public List<ShiftRequestItem> flattenRequests(ShiftDataset data) {
+        return ShiftRequestItem.flatten(data.shifts);
+    }
+}
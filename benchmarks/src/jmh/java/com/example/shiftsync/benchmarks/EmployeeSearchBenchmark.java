@@ -0,0 +1,79 @@
+package com.example.shiftsync.benchmarks;
+
+import com.example.shiftsync.data.EmployeeSearchIndex;
+import com.example.shiftsync.models.UserSummary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * החיפוש ברשימת העובדים (EmployeesListActivity.filter): בניית האינדקס וחיפוש לפי שם או ת.ז.
+ * החיפושים מתחלפים בין מילים שאינן המשך אחת של השנייה, כדי לא למדוד רק את הצמצום ההדרגתי.
+ * typeName מודד הקלדה של שם מלא אות אחר אות, כמו בשדה החיפוש - כל הקשה צריכה להיכנס בפריים אחד (16ms).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmployeeSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {"דנה", "אבי", "יוסי", "מיכל", "נועה", "דניאל", "רון", "שירה", "עומר", "תמר"};
+    private static final String[] LAST_NAMES = {"כהן", "לוי", "מזרחי", "פרץ", "ביטון", "דהן", "אברהם", "פרידמן", "שפירא", "גבאי"};
+    private static final String[] QUERIES = {"דנ", "כהן", "12", "מיכל לוי", "ש", "אבר", "9"};
+
+    @Param({"100", "10000", "100000", "1000000"})
+    public int employeeCount;
+
+    private List<UserSummary> employees;
+    private EmployeeSearchIndex index;
+    private int next;
+    private int nextName;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(42);
+        employees = new ArrayList<>(employeeCount);
+        for (int i = 0; i < employeeCount; i++) {
+            UserSummary employee = new UserSummary();
+            employee.setUid("u" + i);
+            employee.setFullName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + i);
+            employee.setIdNumber(String.format("%09d", random.nextInt(1_000_000_000)));
+            employees.add(employee);
+        }
+        index = new EmployeeSearchIndex(employees);
+    }
+
+    @Benchmark
+    public EmployeeSearchIndex buildIndex() {
+        return new EmployeeSearchIndex(employees);
+    }
+
+    @Benchmark
+    public List<UserSummary> search() {
+        String query = QUERIES[next];
+        next = (next + 1) % QUERIES.length;
+        return index.search(query);
+    }
+
+    // הקלדה של שם של עובד קיים, הקשה אחר הקשה (כל קידומת היא חיפוש נפרד)
+    @Benchmark
+    public int typeName() {
+        String name = employees.get(nextName).getFullName();
+        nextName = (nextName + 7919) % employees.size();
+        int found = 0;
+        for (int i = 1; i <= name.length(); i++) found += index.search(name.substring(0, i)).size();
+        return found;
+    }
+}
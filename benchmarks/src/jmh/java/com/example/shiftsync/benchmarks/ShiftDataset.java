@@ -0,0 +1,85 @@
+package com.example.shiftsync.benchmarks;
+
+import com.example.shiftsync.models.Assignment;
+import com.example.shiftsync.models.Shift;
+import com.example.shiftsync.models.UserSummary;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * מאגר משמרות סינתטי לבנצ'מרקים, מ-100 ועד מיליון משמרות.
+ * משמרת כל 3 שעות, 300 עובדים, בכל משמרת 1-4 נדרשים ועד 3 בקשות ממתינות -
+ * בערך היחס שרואים בלוח אמיתי. הזרע קבוע, כך שכל הרצה מודדת את אותם נתונים.
+ */
+@State(Scope.Benchmark)
+public class ShiftDataset {
+
+    static final int EMPLOYEES = 300;
+    static final double HOURLY_RATE = 48.5;
+
+    private static final long HOUR = 60 * 60 * 1000L;
+    private static final long FIRST_SHIFT = 1_740_000_000_000L;
+
+    @Param({"100", "10000", "100000", "1000000"})
+    public int shiftCount;
+
+    public List<Shift> shifts;
+    public Map<String, UserSummary> users;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        shifts = generate(shiftCount, 42);
+        users = users();
+    }
+
+    // תקצירי העובדים של המאגר (שם ותעריף), כמו שמדריך העובדים מחזיר
+    static Map<String, UserSummary> users() {
+        Map<String, UserSummary> users = new HashMap<>();
+        for (int i = 0; i < EMPLOYEES; i++) {
+            UserSummary user = new UserSummary();
+            user.setUid("u" + i);
+            user.setFullName("עובד u" + i);
+            user.setHourlyRate(HOURLY_RATE);
+            users.put(user.getUid(), user);
+        }
+        return users;
+    }
+
+    static List<Shift> generate(int count, long seed) {
+        Random random = new Random(seed);
+        String[] uids = new String[EMPLOYEES];
+        for (int i = 0; i < uids.length; i++) uids[i] = "u" + i;
+
+        List<Shift> shifts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long start = FIRST_SHIFT + i * 3 * HOUR;
+            int required = 1 + random.nextInt(4);
+            Shift shift = new Shift("s" + i, start, start + (6 + random.nextInt(4)) * HOUR, required, null);
+
+            Map<String, Assignment> assignments = new HashMap<>();
+            int assigned = random.nextInt(required + 1);
+            int pending = random.nextInt(4);
+            for (int a = 0; a < assigned + pending; a++) {
+                String uid = uids[random.nextInt(uids.length)];
+                if (assignments.containsKey(uid)) continue;
+                long requestedAt = start - random.nextInt(1_000_000);
+                assignments.put(uid, a < assigned
+                        ? Assignment.assigned("עובד " + uid, requestedAt, requestedAt + 1)
+                        : Assignment.pending("עובד " + uid, requestedAt));
+            }
+            shift.setAssignments(assignments);
+            shifts.add(shift);
+        }
+        return shifts;
+    }
+}
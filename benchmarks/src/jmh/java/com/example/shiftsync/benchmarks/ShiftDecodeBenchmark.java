@@ -0,0 +1,101 @@
+package com.example.shiftsync.benchmarks;
+
+import com.example.shiftsync.data.ShiftDocument;
+import com.example.shiftsync.models.Assignment;
+import com.example.shiftsync.models.Shift;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * המרת מסמכי משמרות למודל: ShiftDocument (קריאה ישירה מהמפה, מה ש-ShiftMapper מריץ)
+ * מול מיפוי דרך Reflection בשיטה של toObject (BeanReflectionMapper).
+ * המסמכים הם מפות כמו ש-getData() מחזיר: מספרים שלמים כ-Long, מפת assignments ושדה האינדקס.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ShiftDecodeBenchmark {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    @Param({"100", "10000"})
+    public int documentCount;
+
+    private List<Map<String, Object>> documents;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(17);
+        documents = new ArrayList<>(documentCount);
+        for (int i = 0; i < documentCount; i++) documents.add(shiftData(random, i));
+    }
+
+    @Benchmark
+    public int shiftDocument() {
+        int assigned = 0;
+        for (int i = 0; i < documents.size(); i++) {
+            assigned += ShiftDocument.fromData("doc" + i, documents.get(i)).assignedCount();
+        }
+        return assigned;
+    }
+
+    @Benchmark
+    public int reflection() {
+        int assigned = 0;
+        for (Map<String, Object> data : documents) {
+            assigned += BeanReflectionMapper.convert(data, Shift.class).assignedCount();
+        }
+        return assigned;
+    }
+
+    // מסמך משמרת סינתטי במבנה הנוכחי (אותו מבנה כמו ב-MapperEquivalenceTest)
+    private static Map<String, Object> shiftData(Random random, int i) {
+        long start = 1_740_000_000_000L + i * 8 * HOUR;
+        Map<String, Object> assignments = new HashMap<>();
+        List<String> assignedIds = new ArrayList<>();
+        int assigned = random.nextInt(4);
+        int pending = random.nextInt(8);
+        for (int a = 0; a < assigned + pending; a++) {
+            String uid = "u" + random.nextInt(300);
+            if (assignments.containsKey(uid)) continue;
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("name", "עובד " + uid);
+            entry.put("requestedAt", start - random.nextInt(1_000_000));
+            if (a < assigned) {
+                entry.put("status", Assignment.STATUS_ASSIGNED);
+                entry.put("assignedAt", start - random.nextInt(1_000));
+                assignedIds.add(uid);
+            } else {
+                entry.put("status", Assignment.STATUS_PENDING);
+                entry.put("assignedAt", 0L);
+            }
+            assignments.put(uid, entry);
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("shiftId", "s" + i);
+        data.put("startTime", start);
+        data.put("endTime", start + 8 * HOUR);
+        data.put("requiredWorkers", (long) (1 + random.nextInt(4)));
+        data.put("notes", i % 3 == 0 ? null : "הערה " + i);
+        data.put("updatedAt", start - HOUR);
+        data.put("assignments", assignments);
+        data.put("assignedUserIds", assignedIds);
+        return data;
+    }
+}
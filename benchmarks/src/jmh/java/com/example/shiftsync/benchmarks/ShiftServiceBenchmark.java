@@ -0,0 +1,55 @@
+package com.example.shiftsync.benchmarks;
+
+import com.example.shiftsync.data.InMemoryStore;
+import com.example.shiftsync.data.ShiftService;
+import com.example.shiftsync.data.StaffingAnalyzer;
+import com.example.shiftsync.models.Shift;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * השירותים של :core מעל InMemoryStore, על המאגר הסינתטי (ShiftDataset):
+ * ספירת האיוש של חודש אחד (מסך המנהל) והמשמרות של חודש (לוח המשמרות),
+ * כלומר עלות שליפת הטווח מהמאגר ולא רק החישוב על הרשימה.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ShiftServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Loaded {
+        InMemoryStore store;
+        ShiftService service;
+        StaffingAnalyzer staffing;
+        long month; // זמן באמצע טווח המשמרות
+
+        @Setup(Level.Trial)
+        public void load(ShiftDataset data) {
+            store = new InMemoryStore();
+            store.putShifts(data.shifts);
+            service = new ShiftService(store);
+            staffing = new StaffingAnalyzer(store);
+            month = data.shifts.get(data.shifts.size() / 2).getStartTime();
+        }
+    }
+
+    @Benchmark
+    public StaffingAnalyzer.Counts monthlyCounts(Loaded loaded) {
+        return loaded.staffing.monthlyCounts(loaded.month).join();
+    }
+
+    @Benchmark
+    public List<Shift> shiftsForMonth(Loaded loaded) {
+        return loaded.service.shiftsForMonth(loaded.month).join();
+    }
+}
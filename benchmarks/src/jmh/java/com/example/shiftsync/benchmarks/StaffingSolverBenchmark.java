@@ -0,0 +1,67 @@
+package com.example.shiftsync.benchmarks;
+
+import com.example.shiftsync.data.StaffingSolver;
+import com.example.shiftsync.models.Assignment;
+import com.example.shiftsync.models.Shift;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * מנוע השיבוץ האוטומטי (ManagerScheduleActivity.proposeAutoSchedule) על חודש סינתטי:
+ * 3 משמרות ביום בכמה עמדות, בכל משמרת 1-4 נדרשים ו-3-12 מבקשים מתוך 200 עובדים.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StaffingSolverBenchmark {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+    private static final int EMPLOYEES = 200;
+
+    @Param({"500", "2000"})
+    public int shiftCount;
+
+    private List<Shift> shifts;
+    private StaffingSolver solver;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(7);
+        int[] starts = {6, 14, 22};
+        int perDay = Math.max(3, shiftCount / 30);
+        shifts = new ArrayList<>(shiftCount);
+        for (int i = 0; i < shiftCount; i++) {
+            Calendar cal = Calendar.getInstance();
+            cal.clear();
+            cal.set(2025, Calendar.MARCH, 1 + (i / perDay) % 30, starts[i % 3], 0);
+            long start = cal.getTimeInMillis();
+            Shift shift = new Shift("s" + i, start, start + 8 * HOUR, 1 + random.nextInt(4), "");
+            int requests = 3 + random.nextInt(10);
+            for (int r = 0; r < requests; r++) {
+                String uid = "u" + random.nextInt(EMPLOYEES);
+                shift.getAssignments().putIfAbsent(uid, Assignment.pending("עובד " + uid, 0));
+            }
+            shifts.add(shift);
+        }
+        solver = new StaffingSolver(StaffingSolver.Constraints.defaults());
+    }
+
+    @Benchmark
+    public StaffingSolver.Plan solve() {
+        return solver.solve(shifts);
+    }
+}
@@ -0,0 +1,18 @@
+// Plain-Java domain code (models, scheduling services and their storage interfaces) shared by the app and the benchmarks
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// the sources and test data contain Hebrew, so don't depend on the platform default charset
+tasks.withType<JavaCompile> {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
@@ -0,0 +1,49 @@
+package com.example.shiftsync.data;
+
+/**
+ * תוצאה של בקשה בודדת בתוך פעולה מרובה (אישור/דחייה של כמה בקשות יחד).
+ * כל בקשה מקבלת תוצאה משלה, כך שהמסך יכול להציג מה הצליח ומה לא.
+ */
+public class BulkResult {
+
+    public enum Outcome {
+        APPROVED,     // העובד שובץ (או שכבר היה משובץ)
+        DENIED,       // הבקשה נדחתה
+        SHIFT_FULL,   // לא נשאר מקום במשמרת - הבקשה נשארת ממתינה
+        CONFLICT,     // חפיפה או מנוחה קצרה מול משמרת אחרת של העובד - הבקשה נשארת ממתינה
+        NOT_PENDING,  // הבקשה כבר טופלה או בוטלה בינתיים
+        FAILED        // הכתיבה נכשלה (רשת, הרשאות וכו')
+    }
+
+    private final String shiftId;
+    private final String userId;
+    private final String userName;
+    private final Outcome outcome;
+    private final String error;
+
+    public BulkResult(String shiftId, String userId, String userName, Outcome outcome, String error) {
+        this.shiftId = shiftId;
+        this.userId = userId;
+        this.userName = userName;
+        this.outcome = outcome;
+        this.error = error;
+    }
+
+    public BulkResult(String shiftId, String userId, String userName, Outcome outcome) {
+        this(shiftId, userId, userName, outcome, null);
+    }
+
+    public String getShiftId() { return shiftId; }
+
+    public String getUserId() { return userId; }
+
+    public String getUserName() { return userName; }
+
+    public Outcome getOutcome() { return outcome; }
+
+    public String getError() { return error; }
+
+    public boolean isSuccessful() {
+        return outcome == Outcome.APPROVED || outcome == Outcome.DENIED;
+    }
+}
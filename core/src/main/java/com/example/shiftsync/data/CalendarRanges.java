@@ -0,0 +1,47 @@
+package com.example.shiftsync.data;
+
+import java.util.Calendar;
+
+/**
+ * חישובי טווחי זמן לפי השעון המקומי (תחילת יום, תחילת חודש וסוף חודש).
+ * כל השאילתות לפי יום או חודש, המונים החודשיים וספר השכר משתמשים באותם גבולות.
+ */
+public final class CalendarRanges {
+
+    private CalendarRanges() { }
+
+    // חישוב תחילת היום (00:00:00.000) עבור זמן נתון
+    public static long dayKey(long timeMillis) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(timeMillis);
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        return cal.getTimeInMillis();
+    }
+
+    // תחילת היום הבא (יום של 23 או 25 שעות במעבר שעון קיץ נספר נכון)
+    public static long dayEnd(long timeMillis) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(dayKey(timeMillis));
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        return cal.getTimeInMillis();
+    }
+
+    // חישוב תחילת החודש (היום הראשון ב-00:00) עבור זמן נתון
+    public static long monthStart(long timeMillis) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(dayKey(timeMillis));
+        cal.set(Calendar.DAY_OF_MONTH, 1);
+        return cal.getTimeInMillis();
+    }
+
+    // תחילת החודש הבא (הגבול העליון, לא כולל, של החודש שבו נמצא הזמן)
+    public static long monthEnd(long timeMillis) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(monthStart(timeMillis));
+        cal.add(Calendar.MONTH, 1);
+        return cal.getTimeInMillis();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.shiftsync.data;
+
+import java.util.Map;
+
+/**
+ * קריאת שדות בודדים ממפת הנתונים של מסמך (DocumentSnapshot.getData()), בשביל המיפויים הידניים.
+ * ההמרות זהות למה ש-toObject עושה לערכים תקינים: מספרים שלמים מגיעים מ-Firestore כ-Long
+ * ושברים כ-Double, וכל אחד מהם מומר לסוג של השדה. שדה חסר או מסוג לא צפוי נשאר בערך ברירת המחדל
+ * (toObject היה זורק חריגה על ערך מסוג לא צפוי).
+ * נמצא ב-:core כדי שגם ShiftDocument (ובנצ'מרק ההמרה) ישתמשו בו בלי תלות ב-Firestore.
+ */
+public final class DocumentFields {
+
+    private DocumentFields() { }
+
+    public static String string(Map<String, Object> data, String field) {
+        Object value = data.get(field);
+        return value instanceof String ? (String) value : null;
+    }
+
+    public static long longValue(Map<String, Object> data, String field) {
+        Object value = data.get(field);
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    public static int intValue(Map<String, Object> data, String field) {
+        Object value = data.get(field);
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
+    public static double doubleValue(Map<String, Object> data, String field) {
+        Object value = data.get(field);
+        return value instanceof Number ? ((Number) value).doubleValue() : 0.0;
+    }
+
+    public static boolean booleanValue(Map<String, Object> data, String field) {
+        Object value = data.get(field);
+        return value instanceof Boolean && (Boolean) value;
+    }
+
+    // תת-מפה (שדה מסוג map), או null
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> map(Map<String, Object> data, String field) {
+        Object value = data.get(field);
+        return value instanceof Map ? (Map<String, Object>) value : null;
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.UserSummary;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * אינדקס חיפוש עובדים (Employee Search Index).
+ * נבנה פעם אחת לכל עדכון של רשימת העובדים, ולא בכל הקשה במקלדת:
+ * 1. כל שם ות.ז מפורקים למילים (Tokens) מנורמלות - אותיות קטנות, בלי ניקוד, ואותיות סופיות כרגילות.
+ * 2. כל המילים של כל העובדים נשמרות במערך ממוין, כך שחיפוש לפי תחילית הוא חיפוש בינארי (כמו Trie).
+ * 3. כשהחיפוש החדש רק מאריך את הקודם (למשל "דנ" -> "דני"), מסננים רק את התוצאות הקודמות.
+ * עובד מתאים אם כל מילה בחיפוש היא תחילית של אחת המילים שלו.
+ */
+public class EmployeeSearchIndex {
+
+    // העובדים בסדר המקורי (התוצאות מוחזרות באותו סדר)
+    private final List<UserSummary> employees;
+
+    // המילים המנורמלות של כל עובד
+    private final String[][] employeeTokens;
+
+    // כל המילים של כל העובדים, ממוינות, ולצד כל מילה - מיקום העובד שלה
+    private final String[] sortedTokens;
+    private final int[] tokenOwners;
+
+    // החיפוש הקודם והתוצאות שלו (מיקומים ממוינים) - לצמצום הדרגתי
+    private String lastQuery;
+    private int[] lastResult;
+
+    private static final class Entry {
+        final String token;
+        final int owner;
+
+        Entry(String token, int owner) {
+            this.token = token;
+            this.owner = owner;
+        }
+    }
+
+    public EmployeeSearchIndex(List<UserSummary> employees) {
+        this.employees = new ArrayList<>(employees);
+        this.employeeTokens = new String[this.employees.size()][];
+
+        // כל מילה נשמרת יחד עם מיקום העובד כדי למיין את שניהם יחד
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < this.employees.size(); i++) {
+            UserSummary employee = this.employees.get(i);
+            List<String> own = tokenize(employee.getFullName());
+            own.addAll(tokenize(employee.getIdNumber()));
+            employeeTokens[i] = own.toArray(new String[0]);
+            for (String token : own) {
+                entries.add(new Entry(token, i));
+            }
+        }
+        entries.sort((a, b) -> a.token.compareTo(b.token));
+
+        sortedTokens = new String[entries.size()];
+        tokenOwners = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            sortedTokens[i] = entries.get(i).token;
+            tokenOwners[i] = entries.get(i).owner;
+        }
+    }
+
+    public int size() {
+        return employees.size();
+    }
+
+    /**
+     * חיפוש עובדים לפי טקסט חופשי (שם או ת.ז).
+     * @return העובדים המתאימים, בסדר המקורי של הרשימה. חיפוש ריק מחזיר את כולם.
+     */
+    public List<UserSummary> search(String query) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            lastQuery = null;
+            lastResult = null;
+            return new ArrayList<>(employees);
+        }
+        String normalizedQuery = String.join(" ", queryTokens);
+
+        int[] candidates;
+        if (lastQuery != null && normalizedQuery.startsWith(lastQuery)) {
+            // החיפוש רק הוארך - התוצאות החדשות הן תת-קבוצה של הקודמות
+            candidates = lastResult;
+        } else {
+            candidates = lookup(longest(queryTokens));
+        }
+
+        int[] matches = new int[candidates.length];
+        int count = 0;
+        for (int index : candidates) {
+            if (matchesAll(index, queryTokens)) matches[count++] = index;
+        }
+
+        lastQuery = normalizedQuery;
+        lastResult = Arrays.copyOf(matches, count);
+
+        List<UserSummary> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(employees.get(matches[i]));
+        }
+        return result;
+    }
+
+    // כל העובדים שיש להם מילה שמתחילה בתחילית (חיפוש בינארי על המערך הממוין)
+    private int[] lookup(String prefix) {
+        int from = lowerBound(prefix);
+        int to = lowerBound(prefix + Character.MAX_VALUE);
+
+        boolean[] seen = new boolean[employees.size()];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (!seen[tokenOwners[i]]) {
+                seen[tokenOwners[i]] = true;
+                count++;
+            }
+        }
+
+        // החזרה בסדר המקורי
+        int[] result = new int[count];
+        int next = 0;
+        for (int i = 0; i < seen.length; i++) {
+            if (seen[i]) result[next++] = i;
+        }
+        return result;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = sortedTokens.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedTokens[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private boolean matchesAll(int index, List<String> queryTokens) {
+        for (String query : queryTokens) {
+            boolean found = false;
+            for (String token : employeeTokens[index]) {
+                if (token.startsWith(query)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    // המילה הארוכה בחיפוש היא בדרך כלל הסלקטיבית ביותר
+    private static String longest(List<String> tokens) {
+        String longest = tokens.get(0);
+        for (String token : tokens) {
+            if (token.length() > longest.length()) longest = token;
+        }
+        return longest;
+    }
+
+    /**
+     * פירוק טקסט למילים מנורמלות (רווחים, מקפים וסימני פיסוק מפרידים בין מילים).
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null) return new ArrayList<>();
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) return new ArrayList<>();
+
+        List<String> tokens = new ArrayList<>();
+        Collections.addAll(tokens, normalized.split(" "));
+        return tokens;
+    }
+
+    /**
+     * נרמול טקסט לחיפוש:
+     * אותיות לטיניות קטנות, הסרת ניקוד וטעמים (וגם סימנים מעל אותיות לטיניות, כמו é),
+     * המרת אותיות סופיות (ך ם ן ף ץ) לרגילות, וכל תו שאינו אות או ספרה הופך לרווח.
+     */
+    public static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        boolean lastWasSpace = true;
+
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            int type = Character.getType(c);
+            // ניקוד עברי וסימנים מעל אותיות הם "סימנים מצורפים" (Combining Marks) - מדלגים
+            if (type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK
+                    || type == Character.ENCLOSING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(foldFinalLetter(Character.toLowerCase(c)));
+                lastWasSpace = false;
+            } else if (!lastWasSpace && c != '\'' && c != '"' && c != '׳' && c != '״') {
+                // גרש וגרשיים (למשל ג'ורג') הם חלק מהמילה ולא מפרידים
+                sb.append(' ');
+                lastWasSpace = true;
+            }
+        }
+
+        int end = sb.length();
+        if (end > 0 && sb.charAt(end - 1) == ' ') sb.setLength(end - 1);
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static char foldFinalLetter(char c) {
+        switch (c) {
+            case 'ך': return 'כ';
+            case 'ם': return 'מ';
+            case 'ן': return 'נ';
+            case 'ף': return 'פ';
+            case 'ץ': return 'צ';
+            default: return c;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Shift;
+import com.example.shiftsync.models.User;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * מאגר בזיכרון (In-Memory Store) - לבדיקות JVM, למדידות ולחישובים שרצים מחוץ לאפליקציה.
+ * המשמרות מקובצות לפי שעת ההתחלה, כך ששאילתת טווח עוברת רק על המשמרות שבטווח.
+ * כל התשובות חוזרות כבר מוכנות (completedFuture). הרשימה שחוזרת היא רשימה חדשה שאפשר לשנות,
+ * אבל המשמרות והמשתמשים בתוכה הם אותם אובייקטים ששמורים במאגר (בלי העתקה, כדי שהמדידות לא ימדדו העתקות):
+ * אין לשנות אותם במקום - במיוחד לא את שעת ההתחלה, שלפיה המאגר ממוין. שינוי נעשה ב-putShift עם אובייקט חדש.
+ */
+public class InMemoryStore implements ShiftStore, UserStore {
+
+    // שעת התחלה -> המשמרות שמתחילות בה
+    private final TreeMap<Long, List<Shift>> shiftsByStart = new TreeMap<>();
+    private final Map<String, Shift> shiftsById = new HashMap<>();
+    private final Map<String, User> users = new HashMap<>();
+
+    // הוספה או החלפה של משמרת (לפי המזהה)
+    public synchronized void putShift(Shift shift) {
+        removeShift(shift.getShiftId());
+        shiftsById.put(shift.getShiftId(), shift);
+        shiftsByStart.computeIfAbsent(shift.getStartTime(), k -> new ArrayList<>()).add(shift);
+    }
+
+    public synchronized void putShifts(List<Shift> shifts) {
+        for (Shift shift : shifts) putShift(shift);
+    }
+
+    public synchronized void removeShift(String shiftId) {
+        Shift old = shiftsById.remove(shiftId);
+        if (old == null) return;
+        List<Shift> sameStart = shiftsByStart.get(old.getStartTime());
+        sameStart.remove(old);
+        if (sameStart.isEmpty()) shiftsByStart.remove(old.getStartTime());
+    }
+
+    public synchronized void putUser(User user) {
+        users.put(user.getUid(), user);
+    }
+
+    public synchronized int shiftCount() {
+        return shiftsById.size();
+    }
+
+    @Override
+    public synchronized CompletableFuture<List<Shift>> shiftsBetween(long from, long to) {
+        return CompletableFuture.completedFuture(collect(null, from, to));
+    }
+
+    @Override
+    public synchronized CompletableFuture<List<Shift>> assignedShifts(String uid, long from, long to) {
+        return CompletableFuture.completedFuture(collect(uid, from, to));
+    }
+
+    @Override
+    public synchronized CompletableFuture<User> user(String uid) {
+        return CompletableFuture.completedFuture(users.get(uid));
+    }
+
+    // המשמרות בטווח (של עובד מסוים, או של כולם אם uid הוא null)
+    private List<Shift> collect(String uid, long from, long to) {
+        List<Shift> result = new ArrayList<>();
+        if (from >= to) return result;
+        for (List<Shift> sameStart : shiftsByStart.subMap(from, true, to, false).values()) {
+            for (Shift shift : sameStart) {
+                if (uid == null || shift.isAssigned(uid)) result.add(shift);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Shift;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * אינדקס אינטרוולים של משמרות (Interval Index) - בדרך כלל כל המשמרות של עובד אחד.
+ * המשמרות נשמרות ממוינות לפי שעת התחלה, ולצד כל מיקום נשמר סוף המשמרת המאוחר ביותר עד אליו (Prefix Max End).
+ * שאלה "האם יש משמרת שחופפת ל-[start, end)" היא חיפוש בינארי, ואחריו מעבר אחורה רק כל עוד
+ * ה-Prefix Max End מראה שלפני המיקום יש משמרת שעדיין נמשכת ב-start - O(log n + k),
+ * כש-k הוא מספר המשמרות שנסרקות. כשהמשמרות לא חופפות זו לזו k הוא לכל היותר 1,
+ * אבל משמרת ארוכה מוקדמת מכריחה לסרוק את כל המשמרות שאחריה (במקרה הגרוע O(n)).
+ */
+public class IntervalIndex {
+
+    private final Shift[] shifts;
+    private final long[] starts;
+    private final long[] maxEnds;
+
+    public IntervalIndex(List<Shift> shifts) {
+        List<Shift> sorted = new ArrayList<>(shifts);
+        Collections.sort(sorted, (a, b) -> Long.compare(a.getStartTime(), b.getStartTime()));
+
+        this.shifts = sorted.toArray(new Shift[0]);
+        this.starts = new long[this.shifts.length];
+        this.maxEnds = new long[this.shifts.length];
+        long maxEnd = Long.MIN_VALUE;
+        for (int i = 0; i < this.shifts.length; i++) {
+            starts[i] = this.shifts[i].getStartTime();
+            maxEnd = Math.max(maxEnd, this.shifts[i].getEndTime());
+            maxEnds[i] = maxEnd;
+        }
+    }
+
+    public int size() {
+        return shifts.length;
+    }
+
+    /**
+     * משמרת שחופפת לטווח [start, end), או null אם אין.
+     * @param excludeShiftId - משמרת שלא נחשבת (המשמרת עצמה, כשבודקים משמרת קיימת).
+     */
+    public Shift findOverlap(long start, long end, String excludeShiftId) {
+        // כל המשמרות שמתחילות לפני end נמצאות לפני המיקום הזה
+        int i = lowerBound(end) - 1;
+
+        // אם אף אחת מהן לא מסתיימת אחרי start - אין חפיפה (בדיקה אחת). אחרת יורדים עד שמוצאים אותה
+        while (i >= 0 && maxEnds[i] > start) {
+            Shift candidate = shifts[i];
+            if (candidate.getEndTime() > start && !candidate.getShiftId().equals(excludeShiftId)) {
+                return candidate;
+            }
+            i--;
+        }
+        return null;
+    }
+
+    /**
+     * משמרת שקרובה מדי לטווח - חופפת, או שאין ביניהן לפחות restMillis של מנוחה.
+     */
+    public Shift findRestViolation(long start, long end, long restMillis, String excludeShiftId) {
+        return findOverlap(start - restMillis, end + restMillis, excludeShiftId);
+    }
+
+    // המיקום הראשון שבו שעת ההתחלה >= key
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.shiftsync.data;
+
+/**
+ * היסטוגרמת זמנים בסגנון HDR (במיקרו-שניות).
+ * עד 64 מיקרו-שניות כל ערך הוא דלי משלו; מעל זה כל חזקה של 2 מחולקת ל-32 דליים שווים,
+ * כך שהשגיאה היחסית קטנה מ-3% בכל טווח (ממיקרו-שניות ועד שעות), בזיכרון קבוע של כ-1,000 מונים.
+ * המחלקה לא מסונכרנת - FirestoreMetrics ניגש אליה תחת נעילה.
+ */
+public class LatencyHistogram {
+
+    // 2^5 = 32 דליים לכל חזקה של 2
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // ערך מקסימלי שנשמר במדויק (2^36 מיקרו-שניות = כ-19 שעות); ערכים גדולים יותר נספרים בדלי האחרון
+    private static final int MAX_MAGNITUDE = 36;
+    private static final long MAX_VALUE = (1L << MAX_MAGNITUDE) - 1;
+
+    private final long[] counts = new long[index(MAX_VALUE) + 1];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    // רישום זמן אחד (ערך שלילי נרשם כ-0)
+    public void record(long micros) {
+        long value = Math.max(0, Math.min(micros, MAX_VALUE));
+        counts[index(value)]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public long getCount() { return count; }
+
+    public long getMin() { return count == 0 ? 0 : min; }
+
+    public long getMax() { return max; }
+
+    public long getTotal() { return sum; }
+
+    public double getMean() { return count == 0 ? 0 : (double) sum / count; }
+
+    /**
+     * הערך באחוזון המבוקש (0-100): הגבול העליון של הדלי שבו האחוזון נופל,
+     * כך שהתשובה אף פעם לא מקטינה את הזמן האמיתי (ולא עוברת את המקסימום שנמדד).
+     */
+    public long valueAtPercentile(double percentile) {
+        if (count == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) return Math.min(highestInBucket(i), max);
+        }
+        return max;
+    }
+
+    // הוספת כל הרישומים של היסטוגרמה אחרת
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+        count += other.count;
+        sum += other.sum;
+        if (other.count > 0) {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+
+    // מספר הדלי של ערך
+    static int index(long value) {
+        if (value < 2 * SUB_BUCKETS) return (int) value;
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return (int) (SUB_BUCKETS * shift + (value >>> shift));
+    }
+
+    // הערך הגבוה ביותר שנופל בדלי
+    static long highestInBucket(int index) {
+        if (index < 2 * SUB_BUCKETS) return index;
+        int shift = index / SUB_BUCKETS - 1;
+        long top = index - (long) SUB_BUCKETS * shift;
+        return ((top + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.UserSummary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * צובר שכר לכל העובדים במעבר אחד על המשמרות (Payroll Aggregator).
+ * כל עובד מקבל מספר (אינדקס) בפעם הראשונה שהוא מופיע, והשעות ומספר המשמרות נצברים
+ * במערכים פרימיטיביים לפי האינדקס - בלי אובייקט לכל משמרת ובלי Boxing.
+ * הזיכרון תלוי רק במספר העובדים, לא במספר המשמרות, כך שאפשר להזין אליו משמרות דף אחרי דף.
+ * מחלקה ב-Java טהור, כדי שאפשר יהיה להריץ ולמדוד אותה ב-JVM.
+ */
+public class PayrollAggregator {
+
+    private static final double MILLIS_PER_HOUR = 1000 * 60 * 60;
+
+    /**
+     * שורת שכר של עובד אחד.
+     */
+    public static class Line {
+        public final String uid;
+        public final String name;
+        public final double hours;
+        public final int shiftCount;
+        public final double hourlyRate;
+        public final double amount;
+        public final boolean known; // false = העובד לא נמצא במדריך (אין שם ותעריף)
+
+        Line(String uid, String name, double hours, int shiftCount, double hourlyRate, boolean known) {
+            this.uid = uid;
+            this.name = name;
+            this.hours = hours;
+            this.shiftCount = shiftCount;
+            this.hourlyRate = hourlyRate;
+            this.amount = hours * hourlyRate;
+            this.known = known;
+        }
+    }
+
+    // uid -> אינדקס במערכים
+    private final Map<String, Integer> index = new HashMap<>();
+
+    private String[] uids = new String[64];
+    private double[] hours = new double[64];
+    private int[] shiftCounts = new int[64];
+    private int size;
+
+    private int shiftsSeen;
+
+    /**
+     * הוספת משמרת לכל העובדים המשובצים אליה.
+     */
+    public void addShift(List<String> assignedUserIds, long startTime, long endTime) {
+        shiftsSeen++;
+        if (assignedUserIds == null || assignedUserIds.isEmpty()) return;
+
+        double shiftHours = (endTime - startTime) / MILLIS_PER_HOUR;
+        for (int i = 0; i < assignedUserIds.size(); i++) {
+            int slot = slotOf(assignedUserIds.get(i));
+            hours[slot] += shiftHours;
+            shiftCounts[slot]++;
+        }
+    }
+
+    // כמה משמרות עברו דרך הצובר (כולל משמרות בלי שיבוץ)
+    public int getShiftsSeen() {
+        return shiftsSeen;
+    }
+
+    // כמה עובדים שונים נמצאו
+    public int getEmployeeCount() {
+        return size;
+    }
+
+    /**
+     * שורות השכר, ממוינות לפי שם, אחרי חיבור לתעריפים מהמדריך.
+     * @param users - תקצירי המשתמשים לפי uid (שם ותעריף).
+     */
+    public List<Line> lines(Map<String, UserSummary> users) {
+        List<Line> lines = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UserSummary user = users.get(uids[i]);
+            if (user != null) {
+                String name = user.getFullName() != null ? user.getFullName() : uids[i];
+                lines.add(new Line(uids[i], name, hours[i], shiftCounts[i], user.getHourlyRate(), true));
+            } else {
+                lines.add(new Line(uids[i], uids[i], hours[i], shiftCounts[i], 0, false));
+            }
+        }
+        Collections.sort(lines, (a, b) -> a.name.compareTo(b.name));
+        return lines;
+    }
+
+    private int slotOf(String uid) {
+        Integer slot = index.get(uid);
+        if (slot != null) return slot;
+
+        if (size == uids.length) {
+            uids = Arrays.copyOf(uids, size * 2);
+            hours = Arrays.copyOf(hours, size * 2);
+            shiftCounts = Arrays.copyOf(shiftCounts, size * 2);
+        }
+        uids[size] = uid;
+        index.put(uid, size);
+        return size++;
+    }
+}
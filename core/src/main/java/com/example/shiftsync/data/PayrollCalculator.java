@@ -0,0 +1,82 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Shift;
+import com.example.shiftsync.models.User;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * חישובי השכר של עובד: משך משמרת בשעות, סכום למשמרת וסיכום על רשימת משמרות.
+ * ספר השכר, טבלת השכר ודוח ה-PDF מחשבים כולם דרך המחלקה הזו, כך שהסכומים תמיד זהים.
+ * מופע של המחלקה מחשב את השכר החודשי של עובד מתוך המאגרים (המשמרות והתעריף).
+ */
+public class PayrollCalculator {
+
+    private static final double MILLIS_PER_HOUR = 1000 * 60 * 60;
+
+    /**
+     * סיכום השכר של עובד בחודש.
+     */
+    public static class Summary {
+        public final double hours;
+        public final int shiftCount;
+        public final double hourlyRate;
+        public final double amount;
+
+        public Summary(double hours, int shiftCount, double hourlyRate) {
+            this.hours = hours;
+            this.shiftCount = shiftCount;
+            this.hourlyRate = hourlyRate;
+            this.amount = hours * hourlyRate;
+        }
+    }
+
+    private final ShiftStore shifts;
+    private final UserStore users;
+
+    public PayrollCalculator(ShiftStore shifts, UserStore users) {
+        this.shifts = shifts;
+        this.users = users;
+    }
+
+    /**
+     * השכר של העובד בחודש שבו נמצא הזמן, לפי התעריף הנוכחי שלו (משתמש שלא נמצא - תעריף 0).
+     */
+    public CompletableFuture<Summary> monthlySummary(String uid, long timeInMonth) {
+        long monthStart = CalendarRanges.monthStart(timeInMonth);
+        return users.user(uid).thenCombine(
+                shifts.assignedShifts(uid, monthStart, CalendarRanges.monthEnd(monthStart)),
+                (User user, List<Shift> monthShifts) -> new Summary(totalHours(monthShifts), monthShifts.size(),
+                        user == null ? 0 : user.getHourlyRate()));
+    }
+
+    // משך משמרת בשעות (כולל שבר עשרוני, למשל 8.5 שעות)
+    public static double hoursBetween(long startTime, long endTime) {
+        return (endTime - startTime) / MILLIS_PER_HOUR;
+    }
+
+    public static double hours(Shift shift) {
+        return hoursBetween(shift.getStartTime(), shift.getEndTime());
+    }
+
+    // הסכום לתשלום עבור משמרת אחת
+    public static double amount(Shift shift, double hourlyRate) {
+        return hours(shift) * hourlyRate;
+    }
+
+    // סך השעות ברשימת משמרות
+    public static double totalHours(List<Shift> shifts) {
+        double total = 0;
+        for (int i = 0; i < shifts.size(); i++) {
+            Shift shift = shifts.get(i);
+            total += hoursBetween(shift.getStartTime(), shift.getEndTime());
+        }
+        return total;
+    }
+
+    // סך השכר לרשימת משמרות בתעריף אחד
+    public static double totalAmount(List<Shift> shifts, double hourlyRate) {
+        return totalHours(shifts) * hourlyRate;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Shift;
+
+/**
+ * בדיקת התנגשויות לפני שיבוץ או הרשמה (Shift Conflicts):
+ * חפיפה עם משמרת אחרת של העובד, או פחות מזמן המנוחה המינימלי בין משמרות.
+ * הבדיקה נעשית על IntervalIndex של העובד, לפני שהכתיבה נשלחת לשרת.
+ * כשהמשמרות של העובד לא נמצאות בזיכרון - ShiftService.checkAssignment שולף אותן מהמאגר.
+ */
+public class ShiftConflicts {
+
+    // זמן המנוחה המינימלי בין משמרות (אותו ערך שמנוע השיבוץ האוטומטי משתמש בו)
+    public static final long MIN_REST_MILLIS = StaffingSolver.Constraints.defaults().minRestMinutes * 60_000L;
+
+    // משמרת ארוכה ביותר שנבדקת - משמרת שמתחילה יותר מזה לפני הטווח לא יכולה לחפוף לו
+    static final long MAX_SHIFT_MILLIS = 24 * 60 * 60 * 1000L;
+
+    /**
+     * התנגשות שנמצאה.
+     */
+    public static class Conflict {
+        public final boolean overlap; // true = חפיפה, false = מנוחה קצרה מדי
+        public final Shift other;
+
+        Conflict(boolean overlap, Shift other) {
+            this.overlap = overlap;
+            this.other = other;
+        }
+    }
+
+    private ShiftConflicts() { }
+
+    // הטווח שבו משמרת אחרת יכולה להתנגש במשמרת [start, end): חפיפה, או פחות מזמן המנוחה
+    public static long contextStart(long start) {
+        return start - MAX_SHIFT_MILLIS - MIN_REST_MILLIS;
+    }
+
+    public static long contextEnd(long end) {
+        return end + MIN_REST_MILLIS;
+    }
+
+    /**
+     * בדיקה מול אינדקס קיים. חפיפה קודמת למנוחה.
+     * @return ההתנגשות, או null אם אין.
+     */
+    public static Conflict check(IntervalIndex index, long start, long end, String shiftId) {
+        Shift overlapping = index.findOverlap(start, end, shiftId);
+        if (overlapping != null) return new Conflict(true, overlapping);
+
+        Shift tooClose = index.findRestViolation(start, end, MIN_REST_MILLIS, shiftId);
+        return tooClose == null ? null : new Conflict(false, tooClose);
+    }
+}
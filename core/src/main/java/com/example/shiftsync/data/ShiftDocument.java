@@ -0,0 +1,102 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Assignment;
+import com.example.shiftsync.models.Shift;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * המרה של מפת הנתונים של מסמך משמרת (getData) למודל Shift, בלי Reflection ובלי תלות ב-Firestore.
+ * ShiftMapper באפליקציה קורא מכאן לכל מסמך; ההמרה נמצאת ב-:core כדי שאפשר יהיה למדוד אותה ב-JMH.
+ * מסמכים ישנים שומרים את העובדים ברשימות מקבילות (assignedUserIds/assignedUserNames,
+ * pendingUserIds/pendingUserNames); הם מומרים כאן למפת assignments, כך ששאר הקוד מכיר רק את המפה.
+ * רשומה שכבר קיימת במפה גוברת על הרשימות הישנות (למשל בקשה חדשה שנכתבה למסמך שעוד לא הומר).
+ */
+public final class ShiftDocument {
+
+    // השדות הישנים (נמחקים מהמסמך בכתיבה הבאה של הרשימה, או במיגרציה)
+    public static final String LEGACY_ASSIGNED_NAMES = "assignedUserNames";
+    public static final String LEGACY_PENDING_IDS = "pendingUserIds";
+    public static final String LEGACY_PENDING_NAMES = "pendingUserNames";
+
+    // זמן העדכון האחרון (אותו שדה ש-SyncEngine מסנכרן לפיו)
+    public static final String FIELD_UPDATED_AT = "updatedAt";
+
+    private ShiftDocument() { }
+
+    /**
+     * משמרת ממפת הנתונים של מסמך, או null אם אין נתונים.
+     * @param documentId - מזהה המסמך (משמש כשהמזהה לא נשמר בתוך המסמך).
+     */
+    public static Shift fromData(String documentId, Map<String, Object> data) {
+        if (data == null) return null;
+
+        Shift shift = new Shift();
+        shift.setShiftId(DocumentFields.string(data, "shiftId"));
+        shift.setStartTime(DocumentFields.longValue(data, "startTime"));
+        shift.setEndTime(DocumentFields.longValue(data, "endTime"));
+        shift.setRequiredWorkers(DocumentFields.intValue(data, "requiredWorkers"));
+        shift.setNotes(DocumentFields.string(data, "notes"));
+        shift.setUpdatedAt(DocumentFields.longValue(data, FIELD_UPDATED_AT));
+        shift.setAssignments(assignments(DocumentFields.map(data, "assignments")));
+        // assignedUserIds לא נקרא: הוא נגזר מהמפה
+
+        if (shift.getShiftId() == null) shift.setShiftId(documentId);
+        if (hasLegacyFields(data)) mergeLegacy(shift, data);
+        return shift;
+    }
+
+    // האם המסמך עוד שומר את העובדים ברשימות המקבילות
+    public static boolean hasLegacyFields(Map<String, Object> data) {
+        return !data.containsKey("assignments") || data.containsKey(LEGACY_ASSIGNED_NAMES) || data.containsKey(LEGACY_PENDING_IDS);
+    }
+
+    private static Map<String, Assignment> assignments(Map<String, Object> values) {
+        Map<String, Assignment> assignments = new HashMap<>();
+        if (values == null) return assignments;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (!(entry.getValue() instanceof Map)) continue;
+            @SuppressWarnings("unchecked")
+            Map<String, Object> fields = (Map<String, Object>) entry.getValue();
+            assignments.put(entry.getKey(), new Assignment(
+                    DocumentFields.string(fields, "name"),
+                    DocumentFields.string(fields, "status"),
+                    DocumentFields.longValue(fields, "requestedAt"),
+                    DocumentFields.longValue(fields, "assignedAt")));
+        }
+        return assignments;
+    }
+
+    private static void mergeLegacy(Shift shift, Map<String, Object> data) {
+        Map<String, Assignment> assignments = shift.getAssignments();
+        List<String> assignedIds = strings(data.get("assignedUserIds"));
+        List<String> assignedNames = strings(data.get(LEGACY_ASSIGNED_NAMES));
+        List<String> pendingIds = strings(data.get(LEGACY_PENDING_IDS));
+        List<String> pendingNames = strings(data.get(LEGACY_PENDING_NAMES));
+
+        if (assignedIds != null) {
+            for (int i = 0; i < assignedIds.size(); i++) {
+                if (assignments.containsKey(assignedIds.get(i))) continue;
+                assignments.put(assignedIds.get(i), Assignment.assigned(nameAt(assignedNames, i), 0, 0));
+            }
+        }
+        if (pendingIds != null) {
+            for (int i = 0; i < pendingIds.size(); i++) {
+                if (assignments.containsKey(pendingIds.get(i))) continue;
+                assignments.put(pendingIds.get(i), Assignment.pending(nameAt(pendingNames, i), 0));
+            }
+        }
+    }
+
+    // רשימת שמות קצרה מדי (נתונים ישנים שלא יושרו) מושלמת בשם ברירת מחדל
+    private static String nameAt(List<String> names, int index) {
+        return names != null && index < names.size() && names.get(index) != null ? names.get(index) : "עובד";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> strings(Object value) {
+        return value instanceof List ? (List<String>) value : null;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Shift;
+import com.example.shiftsync.models.ShiftRequestItem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * שירות המשמרות (Shift Service) - השאילתות שהמסכים צריכים, מעל ShiftStore:
+ * משמרות של יום או חודש, המשמרות של עובד, בדיקת התנגשויות לפני שיבוץ (בודד או מרובה) ורשימת הבקשות הממתינות.
+ * גבולות הימים והחודשים מחושבים ב-CalendarRanges, כך שכל המסכים מקבלים אותם טווחים.
+ */
+public class ShiftService {
+
+    private final ShiftStore store;
+
+    public ShiftService(ShiftStore store) {
+        this.store = store;
+    }
+
+    // כל המשמרות שמתחילות ביום שבו נמצא הזמן
+    public CompletableFuture<List<Shift>> shiftsForDay(long timeInDay) {
+        return store.shiftsBetween(CalendarRanges.dayKey(timeInDay), CalendarRanges.dayEnd(timeInDay));
+    }
+
+    // כל המשמרות שמתחילות בחודש שבו נמצא הזמן
+    public CompletableFuture<List<Shift>> shiftsForMonth(long timeInMonth) {
+        return store.shiftsBetween(CalendarRanges.monthStart(timeInMonth), CalendarRanges.monthEnd(timeInMonth));
+    }
+
+    // כל המשמרות של החודש, ועוד margin לפני תחילתו ואחרי סופו
+    public CompletableFuture<List<Shift>> shiftsAroundMonth(long timeInMonth, long margin) {
+        return store.shiftsBetween(CalendarRanges.monthStart(timeInMonth) - margin, CalendarRanges.monthEnd(timeInMonth) + margin);
+    }
+
+    // המשמרות של העובד בחודש (לפי סדר כרונולוגי)
+    public CompletableFuture<List<Shift>> assignedShiftsForMonth(String uid, long timeInMonth) {
+        return store.assignedShifts(uid, CalendarRanges.monthStart(timeInMonth), CalendarRanges.monthEnd(timeInMonth));
+    }
+
+    public CompletableFuture<List<Shift>> assignedShifts(String uid, long from, long to) {
+        return store.assignedShifts(uid, from, to);
+    }
+
+    /**
+     * בדיקה לפני אישור שיבוץ, מול המשמרות שהעובד כבר משובץ אליהן סביב זמן המשמרת.
+     * נשלפות רק המשמרות הקרובות של העובד (משמרת שמתחילה מוקדם יותר לא יכולה לחפוף או להיות קרובה מדי).
+     * @return ההתנגשות, או null אם אין.
+     */
+    public CompletableFuture<ShiftConflicts.Conflict> checkAssignment(String uid, String shiftId, long start, long end) {
+        return store.assignedShifts(uid, ShiftConflicts.contextStart(start), ShiftConflicts.contextEnd(end))
+                .thenApply(shifts -> ShiftConflicts.check(new IntervalIndex(shifts), start, end, shiftId));
+    }
+
+    /**
+     * בדיקה לפני אישור מרובה. לכל עובד נשלפות פעם אחת המשמרות שהוא משובץ אליהן סביב כל הבקשות שלו,
+     * והבקשות שלו נבדקות לפי הסדר: בקשה בלי התנגשות נחשבת משובצת בבדיקת הבקשות הבאות,
+     * כך ששתי בקשות חופפות (או קרובות מדי) באותה פעולה לא יאושרו שתיהן.
+     * @return ההתנגשויות לפי מזהה הבקשה (ShiftRequestItem.getRequestId). בקשה בלי התנגשות לא מופיעה.
+     */
+    public CompletableFuture<Map<String, ShiftConflicts.Conflict>> checkAssignments(List<ShiftRequestItem> items) {
+        Map<String, List<ShiftRequestItem>> byUser = new LinkedHashMap<>();
+        for (ShiftRequestItem item : items) {
+            List<ShiftRequestItem> userItems = byUser.get(item.getUserId());
+            if (userItems == null) {
+                userItems = new ArrayList<>();
+                byUser.put(item.getUserId(), userItems);
+            }
+            userItems.add(item);
+        }
+
+        List<CompletableFuture<Map<String, ShiftConflicts.Conflict>>> checks = new ArrayList<>();
+        for (Map.Entry<String, List<ShiftRequestItem>> entry : byUser.entrySet()) {
+            long from = Long.MAX_VALUE;
+            long to = Long.MIN_VALUE;
+            for (ShiftRequestItem item : entry.getValue()) {
+                from = Math.min(from, item.getShift().getStartTime());
+                to = Math.max(to, item.getShift().getEndTime());
+            }
+            List<ShiftRequestItem> userItems = entry.getValue();
+            checks.add(store.assignedShifts(entry.getKey(), ShiftConflicts.contextStart(from), ShiftConflicts.contextEnd(to))
+                    .thenApply(assigned -> checkInOrder(assigned, userItems)));
+        }
+
+        return CompletableFuture.allOf(checks.toArray(new CompletableFuture[0])).thenApply(done -> {
+            Map<String, ShiftConflicts.Conflict> conflicts = new HashMap<>();
+            for (CompletableFuture<Map<String, ShiftConflicts.Conflict>> check : checks) {
+                conflicts.putAll(check.join());
+            }
+            return conflicts;
+        });
+    }
+
+    // הבקשות של עובד אחד מול המשמרות שלו ומול הבקשות שלו שכבר עברו את הבדיקה
+    private static Map<String, ShiftConflicts.Conflict> checkInOrder(List<Shift> assigned, List<ShiftRequestItem> items) {
+        List<Shift> booked = new ArrayList<>(assigned);
+        Map<String, ShiftConflicts.Conflict> conflicts = new HashMap<>();
+        for (ShiftRequestItem item : items) {
+            Shift shift = item.getShift();
+            ShiftConflicts.Conflict conflict = ShiftConflicts.check(new IntervalIndex(booked),
+                    shift.getStartTime(), shift.getEndTime(), shift.getShiftId());
+            if (conflict != null) {
+                conflicts.put(item.getRequestId(), conflict);
+            } else {
+                booked.add(shift);
+            }
+        }
+        return conflicts;
+    }
+
+    // כל הבקשות הממתינות למשמרות שמתחילות אחרי הזמן הנתון, כרשימה שטוחה לפי סדר המשמרות
+    public CompletableFuture<List<ShiftRequestItem>> pendingRequestsAfter(long fromTime) {
+        return store.shiftsBetween(fromTime + 1, Long.MAX_VALUE).thenApply(ShiftRequestItem::flatten);
+    }
+}
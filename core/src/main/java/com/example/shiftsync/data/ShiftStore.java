@@ -0,0 +1,20 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Shift;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * מאגר המשמרות שהשירותים של :core קוראים ממנו (Shift Store).
+ * באפליקציה המימוש הוא FirestoreStore, ובבדיקות ובמדידות - InMemoryStore.
+ * כל השאילתות הן לפי שעת ההתחלה, בטווח [from, to), וממוינות לפי שעת ההתחלה.
+ */
+public interface ShiftStore {
+
+    // כל המשמרות שמתחילות בטווח
+    CompletableFuture<List<Shift>> shiftsBetween(long from, long to);
+
+    // המשמרות בטווח שהעובד משובץ אליהן
+    CompletableFuture<List<Shift>> assignedShifts(String uid, long from, long to);
+}
@@ -0,0 +1,56 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Shift;
+import com.example.shiftsync.models.ShiftTemplate;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * פריסת תבנית משמרת על טווח תאריכים (Template Expander).
+ * לכל יום בטווח שמופיע בימי התבנית נוצרת משמרת, עם מזהה קבוע שנגזר מהתבנית ומהתאריך:
+ * tpl_{templateId}_{yyyyMMdd}. כך יצירה חוזרת של אותו טווח מגיעה לאותם מסמכים ולא משכפלת משמרות.
+ */
+public class ShiftTemplateExpander {
+
+    private ShiftTemplateExpander() { }
+
+    /**
+     * @param fromTime - תחילת הטווח (היום הראשון נכלל).
+     * @param toTime - סוף הטווח (היום שבו נמצא הזמן הזה לא נכלל).
+     * @return המשמרות, ממוינות לפי תאריך.
+     */
+    public static List<Shift> expand(ShiftTemplate template, long fromTime, long toTime) {
+        List<Shift> shifts = new ArrayList<>();
+        if (template.getDaysOfWeek() == null || template.getDaysOfWeek().isEmpty()) return shifts;
+
+        SimpleDateFormat dayFormat = new SimpleDateFormat("yyyyMMdd", Locale.US);
+        Calendar day = Calendar.getInstance();
+        day.setTimeInMillis(CalendarRanges.dayKey(fromTime));
+        long end = CalendarRanges.dayKey(toTime);
+
+        while (day.getTimeInMillis() < end) {
+            if (template.getDaysOfWeek().contains(day.get(Calendar.DAY_OF_WEEK))) {
+                // השעה נקבעת לפי השעון המקומי של אותו יום (נכון גם בימי מעבר שעון קיץ)
+                Calendar start = (Calendar) day.clone();
+                start.set(Calendar.HOUR_OF_DAY, template.getStartMinute() / 60);
+                start.set(Calendar.MINUTE, template.getStartMinute() % 60);
+                long startTime = start.getTimeInMillis();
+                long endTime = startTime + template.getDurationMinutes() * 60_000L;
+
+                shifts.add(new Shift(shiftIdFor(template, dayFormat.format(day.getTime())),
+                        startTime, endTime, template.getRequiredWorkers(), template.getNotes()));
+            }
+            day.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        return shifts;
+    }
+
+    // מזהה קבוע למשמרת של תבנית מסוימת ביום מסוים
+    public static String shiftIdFor(ShiftTemplate template, String yyyyMMdd) {
+        return "tpl_" + template.getTemplateId() + "_" + yyyyMMdd;
+    }
+}
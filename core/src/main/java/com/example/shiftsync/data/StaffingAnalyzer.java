@@ -0,0 +1,69 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Shift;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * מצב האיוש של משמרות: האם משמרת מלאה, כמה עובדים חסרים בה,
+ * וספירה חודשית (סה"כ משמרות, משמרות מלאות ועובדים חסרים) כמו במסך המנהל.
+ */
+public class StaffingAnalyzer {
+
+    private final ShiftStore shifts;
+
+    public StaffingAnalyzer(ShiftStore shifts) {
+        this.shifts = shifts;
+    }
+
+    // ספירת האיוש של כל המשמרות בחודש שבו נמצא הזמן
+    public CompletableFuture<Counts> monthlyCounts(long timeInMonth) {
+        return shifts.shiftsBetween(CalendarRanges.monthStart(timeInMonth), CalendarRanges.monthEnd(timeInMonth))
+                .thenApply(StaffingAnalyzer::count);
+    }
+
+    /**
+     * תוצאת ספירה על קבוצת משמרות.
+     */
+    public static class Counts {
+        public final int total;   // סה"כ משמרות
+        public final int full;    // כמה מהן מאוישות מלא
+        public final int missing; // סה"כ עובדים שחסרים בכל המשמרות יחד
+
+        public Counts(int total, int full, int missing) {
+            this.total = total;
+            this.full = full;
+            this.missing = missing;
+        }
+    }
+
+    // משמרת נחשבת מלאה כשמספר המשובצים הגיע למספר הנדרש
+    public static boolean isFull(int required, int assigned) {
+        return assigned >= required;
+    }
+
+    // כמה עובדים חסרים במשמרת (0 אם היא מלאה)
+    public static int missing(int required, int assigned) {
+        return Math.max(0, required - assigned);
+    }
+
+    // ספירת האיוש של רשימת משמרות (ערכי null מדולגים)
+    public static Counts count(List<Shift> shifts) {
+        int total = 0;
+        int full = 0;
+        int missing = 0;
+        for (int i = 0; i < shifts.size(); i++) {
+            Shift shift = shifts.get(i);
+            if (shift == null) continue;
+            total++;
+            int assigned = shift.assignedCount();
+            if (isFull(shift.getRequiredWorkers(), assigned)) {
+                full++;
+            } else {
+                missing += missing(shift.getRequiredWorkers(), assigned);
+            }
+        }
+        return new Counts(total, full, missing);
+    }
+}
@@ -0,0 +1,331 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Shift;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * מנוע שיבוץ אוטומטי (Staffing Solver).
+ * מקבל את משמרות החודש ומציע למי לאשר את הבקשות הממתינות, כך שכמה שפחות משמרות יישארו חסרות.
+ * המועמדים למשמרת הם העובדים שביקשו אותה (pendingUserIds) - זו הזמינות שהעובדים הצהירו עליה.
+ * האילוצים: אין חפיפה בין משמרות של אותו עובד, מנוחה מינימלית בין משמרות, ומקסימום שעות בשבוע.
+ * האלגוריתם:
+ * 1. מעבר חמדני (Greedy) - קודם המשמרות עם הכי מעט מועמדים ביחס לחוסר, ובכל משמרת העובדים הכי פחות עמוסים.
+ * 2. חיפוש מקומי (Local Search) - למשמרת שנשארה חסרה, מנסים להעביר עובד מהצעה אחרת שחוסמת אותו
+ *    ולמלא את ההצעה ההיא בעובד אחר.
+ * מחלקה ב-Java טהור (בלי Android/Firebase), כדי שאפשר יהיה להריץ ולמדוד אותה ב-JVM.
+ */
+public class StaffingSolver {
+
+    private static final long MINUTE = 60_000L;
+
+    /**
+     * כמה זמן לפני ואחרי החודש צריך לטעון כהקשר (solve עם context):
+     * שבוע שלם מכסה את השבוע שהחודש מתחיל או נגמר באמצעו, ובוודאי את זמן המנוחה.
+     */
+    public static final long CONTEXT_MILLIS = 7 * 24 * 60 * MINUTE;
+
+    /**
+     * אילוצי השיבוץ.
+     */
+    public static class Constraints {
+        public final int maxMinutesPerWeek;
+        public final int minRestMinutes;
+
+        public Constraints(int maxMinutesPerWeek, int minRestMinutes) {
+            this.maxMinutesPerWeek = maxMinutesPerWeek;
+            this.minRestMinutes = minRestMinutes;
+        }
+
+        // ברירת מחדל: עד 45 שעות בשבוע ולפחות 8 שעות מנוחה בין משמרות
+        public static Constraints defaults() {
+            return new Constraints(45 * 60, 8 * 60);
+        }
+    }
+
+    /**
+     * הצעה לאשר עובד מסוים למשמרת מסוימת.
+     */
+    public static class Proposal {
+        public final Shift shift;
+        public final String userId;
+        public final String userName;
+
+        Proposal(Shift shift, String userId, String userName) {
+            this.shift = shift;
+            this.userId = userId;
+            this.userName = userName;
+        }
+    }
+
+    /**
+     * תוכנית השיבוץ: ההצעות, וכמה עובדים חסרים לפני ואחרי.
+     */
+    public static class Plan {
+        public final List<Proposal> proposals;
+        public final int missingBefore;
+        public final int missingAfter;
+
+        Plan(List<Proposal> proposals, int missingBefore, int missingAfter) {
+            this.proposals = proposals;
+            this.missingBefore = missingBefore;
+            this.missingAfter = missingAfter;
+        }
+    }
+
+    private final Constraints constraints;
+
+    public StaffingSolver(Constraints constraints) {
+        this.constraints = constraints;
+    }
+
+    // --- מצב פנימי של ריצה אחת ---
+
+    // עובד: הזמנים התפוסים שלו (התחלה -> המשמרות שמתחילות בה), הדקות בכל שבוע, וההצעות שלו
+    private static class Worker {
+        final String uid;
+        final TreeMap<Long, List<Slot>> busy = new TreeMap<>();
+        // המשמרת הארוכה ביותר שתפסה זמן: משמרת שמתחילה יותר מזה לפני טווח לא יכולה להגיע אליו
+        long longest;
+        final Map<Long, Integer> weekMinutes = new HashMap<>();
+        final List<Slot> proposed = new ArrayList<>();
+        int totalMinutes;
+
+        Worker(String uid) {
+            this.uid = uid;
+        }
+    }
+
+    // משמרת: המועמדים (עם השמות), כמה חסרים, ומי הוצע לה
+    private static class Slot {
+        final Shift shift;
+        final long start;
+        final long end;
+        final int minutes;
+        final long week;
+        final List<Worker> candidates = new ArrayList<>();
+        final Map<Worker, String> names = new HashMap<>();
+        final List<Worker> proposed = new ArrayList<>();
+        int missing;
+
+        Slot(Shift shift, long week) {
+            this.shift = shift;
+            this.start = shift.getStartTime();
+            this.end = shift.getEndTime();
+            this.minutes = (int) ((end - start) / MINUTE);
+            this.week = week;
+        }
+    }
+
+    /**
+     * חישוב תוכנית שיבוץ. לא משנה את המשמרות עצמן.
+     */
+    public Plan solve(List<Shift> shifts) {
+        return solve(shifts, Collections.emptyList());
+    }
+
+    /**
+     * חישוב תוכנית שיבוץ למשמרות shifts בלבד, כשהמשמרות ב-context הן הקשר קבוע:
+     * העובדים המשובצים אליהן תופסים זמן (חפיפה, מנוחה ושעות שבועיות), אבל הן לא מקבלות הצעות
+     * ולא נספרות בחוסרים. כך שיבוץ של חודש רואה גם את המשמרות שבסוף החודש הקודם ובתחילת הבא.
+     */
+    public Plan solve(List<Shift> shifts, List<Shift> context) {
+        Map<String, Worker> workers = new HashMap<>();
+        List<Slot> slots = new ArrayList<>();
+        Calendar calendar = Calendar.getInstance();
+        calendar.setFirstDayOfWeek(Calendar.SUNDAY);
+
+        Set<String> targets = new HashSet<>();
+        for (Shift shift : shifts) targets.add(shift.getShiftId());
+        for (Shift shift : context) {
+            if (targets.contains(shift.getShiftId())) continue;
+            Slot fixed = new Slot(shift, weekKey(calendar, shift.getStartTime()));
+            for (String uid : shift.getAssignedUserIds()) {
+                occupy(worker(workers, uid), fixed);
+            }
+        }
+
+        // שלב 0: בניית המצב - שיבוצים קיימים תופסים זמן, ממתינים הם מועמדים
+        int missingBefore = 0;
+        for (Shift shift : shifts) {
+            Slot slot = new Slot(shift, weekKey(calendar, shift.getStartTime()));
+            List<String> assigned = shift.getAssignedUserIds();
+            for (String uid : assigned) {
+                occupy(worker(workers, uid), slot);
+            }
+
+            slot.missing = Math.max(0, shift.getRequiredWorkers() - assigned.size());
+            missingBefore += slot.missing;
+            if (slot.missing == 0) continue;
+
+            for (String uid : shift.pendingUserIds()) {
+                Worker candidate = worker(workers, uid);
+                slot.candidates.add(candidate);
+                slot.names.put(candidate, shift.nameOf(uid));
+            }
+            if (!slot.candidates.isEmpty()) slots.add(slot);
+        }
+
+        // שלב 1: מעבר חמדני - המשמרות ה"קשות" (מעט מועמדים ביחס לחוסר) קודם
+        Collections.sort(slots, (a, b) -> {
+            int slack = Integer.compare(a.candidates.size() - a.missing, b.candidates.size() - b.missing);
+            return slack != 0 ? slack : Long.compare(a.start, b.start);
+        });
+        for (Slot slot : slots) {
+            fillGreedy(slot);
+        }
+
+        // שלב 2: חיפוש מקומי למשמרות שנשארו חסרות
+        boolean improved = true;
+        for (int pass = 0; pass < 3 && improved; pass++) {
+            improved = false;
+            for (Slot slot : slots) {
+                while (slot.missing > 0 && trySwapIn(slot)) {
+                    improved = true;
+                }
+            }
+        }
+
+        List<Proposal> proposals = new ArrayList<>();
+        int missingAfter = missingBefore;
+        for (Slot slot : slots) {
+            for (Worker worker : slot.proposed) {
+                proposals.add(new Proposal(slot.shift, worker.uid, slot.names.get(worker)));
+                missingAfter--;
+            }
+        }
+        return new Plan(proposals, missingBefore, missingAfter);
+    }
+
+    private void fillGreedy(Slot slot) {
+        if (slot.missing == 0) return;
+
+        // העובדים הכי פחות עמוסים קודם (פיזור הוגן של השעות)
+        List<Worker> ordered = new ArrayList<>(slot.candidates);
+        Collections.sort(ordered, (a, b) -> Integer.compare(a.totalMinutes, b.totalMinutes));
+        for (Worker worker : ordered) {
+            if (slot.missing == 0) return;
+            if (canTake(worker, slot)) propose(worker, slot);
+        }
+    }
+
+    /**
+     * ניסיון למלא מקום אחד במשמרת: מועמד שחסום בגלל הצעה אחרת שלו משוחרר ממנה,
+     * ואם יש מישהו אחר שיכול לקחת את ההצעה ההיא - ההחלפה נשמרת.
+     */
+    private boolean trySwapIn(Slot slot) {
+        long rest = constraints.minRestMinutes * MINUTE;
+        for (Worker worker : slot.candidates) {
+            if (slot.proposed.contains(worker)) continue;
+
+            for (Slot other : new ArrayList<>(worker.proposed)) {
+                // רק הצעה באותו שבוע (שעות) או קרובה בזמן (חפיפה/מנוחה) יכולה לחסום
+                boolean near = other.start < slot.end + rest && other.end + rest > slot.start;
+                if (other.week != slot.week && !near) continue;
+
+                // הבדיקות לא משנות את המצב: האם העובד יכול לקחת את המשמרת בלי ההצעה האחרת,
+                // והאם יש מחליף להצעה ההיא (המחליף לא תלוי במעבר של העובד)
+                if (!canTake(worker, slot, other)) continue;
+                Worker replacement = findReplacement(other, worker);
+                if (replacement == null) continue;
+
+                withdraw(worker, other);
+                propose(worker, slot);
+                propose(replacement, other);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Worker findReplacement(Slot slot, Worker excluded) {
+        for (Worker candidate : slot.candidates) {
+            if (candidate != excluded && !slot.proposed.contains(candidate) && canTake(candidate, slot)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    // האם העובד יכול לקחת את המשמרת בלי לשבור אף אילוץ
+    private boolean canTake(Worker worker, Slot slot) {
+        return canTake(worker, slot, null);
+    }
+
+    // כנ"ל, כאילו ההצעה ignored כבר הוסרה מהעובד
+    private boolean canTake(Worker worker, Slot slot, Slot ignored) {
+        Integer week = worker.weekMinutes.get(slot.week);
+        int used = week == null ? 0 : week;
+        if (ignored != null && ignored.week == slot.week) used -= ignored.minutes;
+        if (used + slot.minutes > constraints.maxMinutesPerWeek) return false;
+
+        // כל משמרת תפוסה שחופפת ל-[start - rest, end + rest) חוסמת - גם משמרות שחופפות זו לזו
+        long rest = constraints.minRestMinutes * MINUTE;
+        long from = slot.start - rest - worker.longest;
+        for (List<Slot> starting : worker.busy.subMap(from, true, slot.end + rest, false).values()) {
+            for (Slot other : starting) {
+                if (other != ignored && other.end + rest > slot.start) return false;
+            }
+        }
+        return true;
+    }
+
+    private void propose(Worker worker, Slot slot) {
+        occupy(worker, slot);
+        worker.proposed.add(slot);
+        slot.proposed.add(worker);
+        slot.missing--;
+    }
+
+    private void withdraw(Worker worker, Slot slot) {
+        List<Slot> starting = worker.busy.get(slot.start);
+        starting.remove(slot);
+        if (starting.isEmpty()) worker.busy.remove(slot.start);
+        worker.weekMinutes.put(slot.week, worker.weekMinutes.get(slot.week) - slot.minutes);
+        worker.totalMinutes -= slot.minutes;
+        worker.proposed.remove(slot);
+        slot.proposed.remove(worker);
+        slot.missing++;
+    }
+
+    private static void occupy(Worker worker, Slot slot) {
+        List<Slot> starting = worker.busy.get(slot.start);
+        if (starting == null) {
+            starting = new ArrayList<>();
+            worker.busy.put(slot.start, starting);
+        }
+        starting.add(slot);
+        worker.longest = Math.max(worker.longest, slot.end - slot.start);
+        Integer week = worker.weekMinutes.get(slot.week);
+        worker.weekMinutes.put(slot.week, (week == null ? 0 : week) + slot.minutes);
+        worker.totalMinutes += slot.minutes;
+    }
+
+    private static Worker worker(Map<String, Worker> workers, String uid) {
+        Worker worker = workers.get(uid);
+        if (worker == null) {
+            worker = new Worker(uid);
+            workers.put(uid, worker);
+        }
+        return worker;
+    }
+
+    // תחילת השבוע (יום ראשון 00:00) של זמן נתון
+    private static long weekKey(Calendar calendar, long time) {
+        calendar.setTimeInMillis(time);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        calendar.set(Calendar.DAY_OF_WEEK, Calendar.SUNDAY);
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.User;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * מאגר המשתמשים שהשירותים של :core קוראים ממנו (לתעריף השעתי של עובד).
+ */
+public interface UserStore {
+
+    // המשתמש, או null אם אין כזה
+    CompletableFuture<User> user(String uid);
+}
@@ -0,0 +1,76 @@
+package com.example.shiftsync.models;
+
+import java.util.Objects;
+
+// עובד אחד במשמרת - ערך במפה Shift.assignments (המפתח הוא ה-uid של העובד)
+public class Assignment {
+
+    // סטטוסים אפשריים
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_ASSIGNED = "assigned";
+
+    // שם העובד (עותק, כדי שמסכי המשמרות לא יצטרכו לקרוא את המשתמש)
+    private String name;
+
+    // סטטוס (אחד מהקבועים למעלה)
+    private String status;
+
+    // מתי העובד ביקש את המשמרת (0 אם לא ידוע, למשל שיבוץ מנתונים ישנים)
+    private long requestedAt;
+
+    // מתי העובד שובץ (0 כל עוד הוא ממתין)
+    private long assignedAt;
+
+    // בנאים
+
+    //בנאי ריק לפיירבייס
+    public Assignment() { }
+
+    //בנאי מלא
+    public Assignment(String name, String status, long requestedAt, long assignedAt) {
+        this.name = name;
+        this.status = status;
+        this.requestedAt = requestedAt;
+        this.assignedAt = assignedAt;
+    }
+
+    // בקשה חדשה
+    public static Assignment pending(String name, long requestedAt) {
+        return new Assignment(name, STATUS_PENDING, requestedAt, 0);
+    }
+
+    // שיבוץ (שומר את זמן הבקשה המקורי)
+    public static Assignment assigned(String name, long requestedAt, long assignedAt) {
+        return new Assignment(name, STATUS_ASSIGNED, requestedAt, assignedAt);
+    }
+
+    // getters וsetters
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public long getRequestedAt() { return requestedAt; }
+    public void setRequestedAt(long requestedAt) { this.requestedAt = requestedAt; }
+
+    public long getAssignedAt() { return assignedAt; }
+    public void setAssignedAt(long assignedAt) { this.assignedAt = assignedAt; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Assignment)) return false;
+        Assignment other = (Assignment) o;
+        return requestedAt == other.requestedAt
+                && assignedAt == other.assignedAt
+                && Objects.equals(name, other.name)
+                && Objects.equals(status, other.status);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, status, requestedAt, assignedAt);
+    }
+}
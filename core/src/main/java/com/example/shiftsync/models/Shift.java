@@ -0,0 +1,129 @@
+package com.example.shiftsync.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// משמרת
+public class Shift {
+
+    // מזהה משמרת
+    private String shiftId;
+
+    // זמן התחלה
+    private long startTime;
+
+    // זמן סיום
+    private long endTime;
+
+    // מספר עובדים נדרש
+    private int requiredWorkers;
+
+    // העובדים במשמרת (משובצים וממתינים) לפי uid - כך כל עובד הוא רשומה אחת עם השם והסטטוס שלו
+    private Map<String, Assignment> assignments = new HashMap<>();
+
+    // הערות למשמרת
+    private String notes;
+
+    // זמן העדכון האחרון (לסנכרון המאגר המקומי)
+    private long updatedAt;
+
+    // בנאים
+
+    //בנאי ריק
+    public Shift() {
+        // בנאי ריק חובה ל-Firebase
+    }
+
+    //בנאי מלא
+    public Shift(String shiftId, long startTime, long endTime, int requiredWorkers, String notes) {
+        this.shiftId = shiftId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.requiredWorkers = requiredWorkers;
+        this.notes = notes;
+    }
+
+    // getters וsetters
+
+    public String getShiftId() { return shiftId; }
+    public void setShiftId(String shiftId) { this.shiftId = shiftId; }
+
+    public long getStartTime() { return startTime; }
+    public void setStartTime(long startTime) { this.startTime = startTime; }
+
+    public long getEndTime() { return endTime; }
+    public void setEndTime(long endTime) { this.endTime = endTime; }
+
+    public int getRequiredWorkers() { return requiredWorkers; }
+    public void setRequiredWorkers(int requiredWorkers) { this.requiredWorkers = requiredWorkers; }
+
+    // גישה למפת העובדים (uid -> שיבוץ)
+    public Map<String, Assignment> getAssignments() { return assignments; }
+    public void setAssignments(Map<String, Assignment> assignments) {
+        this.assignments = assignments == null ? new HashMap<>() : assignments;
+    }
+
+    /**
+     * מזהי המשובצים (לפי זמן השיבוץ). נגזר מ-assignments, ונשמר במסמך רק כשדה אינדקס
+     * לשאילתות whereArrayContains("assignedUserIds", uid).
+     */
+    public List<String> getAssignedUserIds() { return idsWithStatus(Assignment.STATUS_ASSIGNED); }
+
+    // הערך השמור במסמך לא נקרא - המפה היא המקור (מסמכים ישנים עוברים דרך ShiftMapper)
+    public void setAssignedUserIds(List<String> assignedUserIds) { }
+
+    // --- בדיקות לפי uid (חיפוש במפה, בלי לעבור על רשימות) ---
+
+    // מזהי הממתינים (לפי זמן הבקשה)
+    public List<String> pendingUserIds() { return idsWithStatus(Assignment.STATUS_PENDING); }
+
+    public boolean isAssigned(String uid) { return hasStatus(uid, Assignment.STATUS_ASSIGNED); }
+
+    public boolean isPending(String uid) { return hasStatus(uid, Assignment.STATUS_PENDING); }
+
+    // מספר המשובצים
+    public int assignedCount() {
+        int count = 0;
+        for (Assignment assignment : assignments.values()) {
+            if (Assignment.STATUS_ASSIGNED.equals(assignment.getStatus())) count++;
+        }
+        return count;
+    }
+
+    // השם של עובד במשמרת ("עובד" אם לא ידוע)
+    public String nameOf(String uid) {
+        Assignment assignment = assignments.get(uid);
+        return assignment == null || assignment.getName() == null ? "עובד" : assignment.getName();
+    }
+
+    private boolean hasStatus(String uid, String status) {
+        Assignment assignment = assignments.get(uid);
+        return assignment != null && status.equals(assignment.getStatus());
+    }
+
+    private List<String> idsWithStatus(String status) {
+        List<Map.Entry<String, Assignment>> entries = new ArrayList<>();
+        for (Map.Entry<String, Assignment> entry : assignments.entrySet()) {
+            if (status.equals(entry.getValue().getStatus())) entries.add(entry);
+        }
+        // סדר קבוע: לפי זמן השיבוץ/הבקשה, ואז לפי uid
+        boolean assigned = Assignment.STATUS_ASSIGNED.equals(status);
+        Collections.sort(entries, (a, b) -> {
+            long timeA = assigned ? a.getValue().getAssignedAt() : a.getValue().getRequestedAt();
+            long timeB = assigned ? b.getValue().getAssignedAt() : b.getValue().getRequestedAt();
+            return timeA != timeB ? Long.compare(timeA, timeB) : a.getKey().compareTo(b.getKey());
+        });
+        List<String> ids = new ArrayList<>(entries.size());
+        for (Map.Entry<String, Assignment> entry : entries) ids.add(entry.getKey());
+        return ids;
+    }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+
+    public long getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
+}
\ No newline at end of file
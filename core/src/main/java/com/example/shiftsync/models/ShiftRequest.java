@@ -0,0 +1,78 @@
+package com.example.shiftsync.models;
+
+// בקשת שיבוץ כמסמך עצמאי באוסף shiftRequests (מסמך אחד לכל בקשה)
+public class ShiftRequest {
+
+    // סטטוסים אפשריים לבקשה
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_APPROVED = "approved";
+    public static final String STATUS_DENIED = "denied";
+
+    // מזהה הבקשה - מורכב ממזהה המשמרת ומזהה העובד
+    private String requestId;
+
+    // המשמרת שעליה הבקשה
+    private String shiftId;
+
+    // העובד שביקש
+    private String userId;
+    private String userName;
+
+    // זמני המשמרת (עותק, כדי שמסך האישורים לא יצטרך לקרוא את המשמרת עצמה)
+    private long shiftStartTime;
+    private long shiftEndTime;
+
+    // סטטוס הבקשה (אחד מהקבועים למעלה)
+    private String status;
+
+    // מתי נשלחה הבקשה
+    private long createdAt;
+
+    // בנאים
+
+    //בנאי ריק לפיירבייס
+    public ShiftRequest() { }
+
+    //בנאי מלא
+    public ShiftRequest(Shift shift, String userId, String userName, long createdAt) {
+        this.requestId = idFor(shift.getShiftId(), userId);
+        this.shiftId = shift.getShiftId();
+        this.userId = userId;
+        this.userName = userName;
+        this.shiftStartTime = shift.getStartTime();
+        this.shiftEndTime = shift.getEndTime();
+        this.status = STATUS_PENDING;
+        this.createdAt = createdAt;
+    }
+
+    // מזהה קבוע לבקשה של עובד מסוים למשמרת מסוימת (מונע כפילויות)
+    public static String idFor(String shiftId, String userId) {
+        return shiftId + "_" + userId;
+    }
+
+    // getters וsetters
+
+    public String getRequestId() { return requestId; }
+    public void setRequestId(String requestId) { this.requestId = requestId; }
+
+    public String getShiftId() { return shiftId; }
+    public void setShiftId(String shiftId) { this.shiftId = shiftId; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public String getUserName() { return userName; }
+    public void setUserName(String userName) { this.userName = userName; }
+
+    public long getShiftStartTime() { return shiftStartTime; }
+    public void setShiftStartTime(long shiftStartTime) { this.shiftStartTime = shiftStartTime; }
+
+    public long getShiftEndTime() { return shiftEndTime; }
+    public void setShiftEndTime(long shiftEndTime) { this.shiftEndTime = shiftEndTime; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public long getCreatedAt() { return createdAt; }
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,57 @@
+package com.example.shiftsync.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//בקשות לאישור
+public class ShiftRequestItem {
+
+
+    // המשמרת עבורה נוצרה הבקשה
+    private Shift shift;
+
+    // מזהה העובד שביקש שיבוץ
+
+    private String userId;
+
+    // שם העובד שביקש שיבוץ
+    private String userName;
+
+    // בנאי
+
+    public ShiftRequestItem(Shift shift, String userId, String userName) {
+        this.shift = shift;
+        this.userId = userId;
+        this.userName = userName;
+    }
+
+    // יצירת פריט תצוגה ממסמך בקשה (רק זמני המשמרת נשמרים במסמך הבקשה)
+    public static ShiftRequestItem from(ShiftRequest request) {
+        Shift shift = new Shift(request.getShiftId(), request.getShiftStartTime(), request.getShiftEndTime(), 0, null);
+        return new ShiftRequestItem(shift, request.getUserId(), request.getUserName());
+    }
+
+    // רשימה שטוחה של כל הבקשות הממתינות במשמרות (לפי סדר המשמרות, ובכל משמרת לפי סדר הבקשות)
+    public static List<ShiftRequestItem> flatten(List<Shift> shifts) {
+        List<ShiftRequestItem> items = new ArrayList<>();
+        for (int i = 0; i < shifts.size(); i++) {
+            Shift shift = shifts.get(i);
+            if (shift == null) continue;
+            for (String userId : shift.pendingUserIds()) {
+                items.add(new ShiftRequestItem(shift, userId, shift.nameOf(userId)));
+            }
+        }
+        return items;
+    }
+
+    // getters
+
+    public Shift getShift() { return shift; }
+
+    public String getUserId() { return userId; }
+
+    public String getUserName() { return userName; }
+
+    // מזהה מסמך הבקשה ב-shiftRequests
+    public String getRequestId() { return ShiftRequest.idFor(shift.getShiftId(), userId); }
+}
\ No newline at end of file
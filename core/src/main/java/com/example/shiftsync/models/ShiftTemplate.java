@@ -0,0 +1,69 @@
+package com.example.shiftsync.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// תבנית משמרת חוזרת (למשל "בוקר, א'-ה', 08:00-16:00, 3 עובדים"), נשמרת באוסף shiftTemplates
+public class ShiftTemplate {
+
+    // מזהה התבנית (חלק מהמזהה של כל משמרת שנוצרת ממנה)
+    private String templateId;
+
+    // שם לתצוגה
+    private String name;
+
+    // ימי השבוע שבהם יש משמרת (ערכי Calendar.DAY_OF_WEEK: 1=ראשון ... 7=שבת)
+    private List<Integer> daysOfWeek;
+
+    // שעת התחלה בדקות מחצות (למשל 480 = 08:00)
+    private int startMinute;
+
+    // משך המשמרת בדקות (יכול לעבור את חצות)
+    private int durationMinutes;
+
+    // מספר עובדים נדרש
+    private int requiredWorkers;
+
+    // הערות שיועתקו לכל משמרת
+    private String notes;
+
+    // בנאים
+
+    //בנאי ריק לפיירבייס
+    public ShiftTemplate() { }
+
+    //בנאי מלא
+    public ShiftTemplate(String templateId, String name, List<Integer> daysOfWeek, int startMinute,
+                         int durationMinutes, int requiredWorkers, String notes) {
+        this.templateId = templateId;
+        this.name = name;
+        this.daysOfWeek = daysOfWeek == null ? new ArrayList<>() : daysOfWeek;
+        this.startMinute = startMinute;
+        this.durationMinutes = durationMinutes;
+        this.requiredWorkers = requiredWorkers;
+        this.notes = notes;
+    }
+
+    // getters וsetters
+
+    public String getTemplateId() { return templateId; }
+    public void setTemplateId(String templateId) { this.templateId = templateId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public List<Integer> getDaysOfWeek() { return daysOfWeek; }
+    public void setDaysOfWeek(List<Integer> daysOfWeek) { this.daysOfWeek = daysOfWeek; }
+
+    public int getStartMinute() { return startMinute; }
+    public void setStartMinute(int startMinute) { this.startMinute = startMinute; }
+
+    public int getDurationMinutes() { return durationMinutes; }
+    public void setDurationMinutes(int durationMinutes) { this.durationMinutes = durationMinutes; }
+
+    public int getRequiredWorkers() { return requiredWorkers; }
+    public void setRequiredWorkers(int requiredWorkers) { this.requiredWorkers = requiredWorkers; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+}
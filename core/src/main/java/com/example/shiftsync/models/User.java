@@ -31,9 +31,12 @@ public class User {
     // בדיקה האם התחברות ראשונה
     private boolean isFirstLogin;
 
-    // תמונת פרופיל - בפורמט סטרינג לשמירה פשוטה ללא תשלום
+    // תמונת פרופיל - בפורמט סטרינג (Base64). שדה ישן: נשאר רק אצל משתמשים שעוד לא הועברו למאגר התמונות
     private String profileImage;
 
+    // טביעת SHA-256 של תמונת הפרופיל במאגר התמונות (images/{hash}), או null אם אין תמונה
+    private String profileImageHash;
+
     // בנאים
 
     //בנאי ריק
@@ -78,4 +81,7 @@ public class User {
 
     public String getProfileImage() { return profileImage; }
     public void setProfileImage(String profileImage) { this.profileImage = profileImage; }
+
+    public String getProfileImageHash() { return profileImageHash; }
+    public void setProfileImageHash(String profileImageHash) { this.profileImageHash = profileImageHash; }
 }
\ No newline at end of file
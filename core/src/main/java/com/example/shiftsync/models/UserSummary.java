@@ -0,0 +1,65 @@
+package com.example.shiftsync.models;
+
+// תקציר משתמש (מסמך קטן באוסף userDirectory) - רק מה שצריך לרשימות ולחיפוש שמות
+public class UserSummary {
+
+    // מזהה ייחודי (זהה למסמך ב-users)
+    private String uid;
+
+    // שם מלא
+    private String fullName;
+
+    // תעודת זהות
+    private String idNumber;
+
+    // תפקיד (ROLE_EMPLOYEE / ROLE_MANAGER מתוך User)
+    private String role;
+
+    // שכר שעתי
+    private double hourlyRate;
+
+    // טביעת תמונת הפרופיל במאגר התמונות (או null)
+    private String profileImageHash;
+
+    // זמן העדכון האחרון (לסנכרון המאגר המקומי)
+    private long updatedAt;
+
+    // בנאים
+
+    //בנאי ריק לפיירבייס
+    public UserSummary() { }
+
+    //בנאי מתוך משתמש מלא
+    public UserSummary(User user) {
+        this.uid = user.getUid();
+        this.fullName = user.getFullName();
+        this.idNumber = user.getIdNumber();
+        this.role = user.getRole();
+        this.hourlyRate = user.getHourlyRate();
+        this.profileImageHash = user.getProfileImageHash();
+        this.updatedAt = System.currentTimeMillis();
+    }
+
+    // getters וsetters
+
+    public String getUid() { return uid; }
+    public void setUid(String uid) { this.uid = uid; }
+
+    public String getFullName() { return fullName; }
+    public void setFullName(String fullName) { this.fullName = fullName; }
+
+    public String getIdNumber() { return idNumber; }
+    public void setIdNumber(String idNumber) { this.idNumber = idNumber; }
+
+    public String getRole() { return role; }
+    public void setRole(String role) { this.role = role; }
+
+    public double getHourlyRate() { return hourlyRate; }
+    public void setHourlyRate(double hourlyRate) { this.hourlyRate = hourlyRate; }
+
+    public String getProfileImageHash() { return profileImageHash; }
+    public void setProfileImageHash(String profileImageHash) { this.profileImageHash = profileImageHash; }
+
+    public long getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,84 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.User;
+import com.example.shiftsync.models.UserSummary;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * בדיקות לאינדקס חיפוש העובדים (מדידת הזמן נמצאת ב-EmployeeSearchBenchmark במודול benchmarks).
+ */
+public class EmployeeSearchIndexTest {
+
+    private static UserSummary employee(String uid, String name, String idNumber) {
+        return new UserSummary(new User(uid, name, idNumber, uid + "@example.com", User.ROLE_EMPLOYEE, 30));
+    }
+
+    private static List<String> uids(List<UserSummary> result) {
+        List<String> uids = new ArrayList<>();
+        for (UserSummary s : result) uids.add(s.getUid());
+        return uids;
+    }
+
+    @Test
+    public void normalize_foldsCaseNiqqudAndFinalLetters() {
+        assertEquals("דני כהנ", EmployeeSearchIndex.normalize("דָּנִי כֹּהֵן"));
+        assertEquals("שלומ", EmployeeSearchIndex.normalize("שָׁלוֹם"));
+        assertEquals("jose garcia", EmployeeSearchIndex.normalize("José  GARCÍA"));
+        assertEquals("גורג", EmployeeSearchIndex.normalize("ג'ורג'"));
+        assertEquals("בנ דוד", EmployeeSearchIndex.normalize("בן-דוד"));
+    }
+
+    @Test
+    public void search_matchesTokenPrefixesOfNameAndId() {
+        List<UserSummary> employees = new ArrayList<>();
+        employees.add(employee("a", "דני כהן", "123456789"));
+        employees.add(employee("b", "Dana Levi", "987654321"));
+        employees.add(employee("c", "דנה כהנא", "111222333"));
+        EmployeeSearchIndex index = new EmployeeSearchIndex(employees);
+
+        assertEquals(3, index.search("").size());
+        assertEquals(List.of("a", "c"), uids(index.search("דנ")));
+        assertEquals(List.of("a"), uids(index.search("דני")));
+        assertEquals(List.of("a", "c"), uids(index.search("כהן")));
+        assertEquals(List.of("c"), uids(index.search("כהן דנה")));
+        assertEquals(List.of("b"), uids(index.search("dana")));
+        assertEquals(List.of("b"), uids(index.search("LEV")));
+        assertEquals(List.of("b"), uids(index.search("9876")));
+        assertTrue(index.search("xyz").isEmpty());
+    }
+
+    @Test
+    public void search_incrementalNarrowingMatchesFreshSearch() {
+        List<UserSummary> employees = randomEmployees(2_000, new Random(7));
+        EmployeeSearchIndex incremental = new EmployeeSearchIndex(employees);
+
+        String query = employees.get(42).getFullName();
+        for (int i = 1; i <= query.length(); i++) {
+            String prefix = query.substring(0, i);
+            List<UserSummary> narrowed = incremental.search(prefix);
+            List<UserSummary> fresh = new EmployeeSearchIndex(employees).search(prefix);
+            assertEquals(prefix, uids(fresh), uids(narrowed));
+        }
+        // מחיקת אות (לא הארכה) - חוזרים לחיפוש מלא באינדקס
+        assertEquals(uids(new EmployeeSearchIndex(employees).search("א")), uids(incremental.search("א")));
+    }
+
+    private static List<UserSummary> randomEmployees(int count, Random random) {
+        String[] first = {"דני", "דנה", "משה", "שָׂרָה", "יוסף", "רחל", "Dan", "Dana", "Moshe", "Sarah", "אבי", "נועה", "Noa", "Avi"};
+        String[] last = {"כהן", "לוי", "מזרחי", "פרץ", "ביטון", "Cohen", "Levi", "Mizrahi", "Peretz", "אברהם", "פרידמן", "Friedman"};
+        List<UserSummary> employees = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String name = first[random.nextInt(first.length)] + " " + last[random.nextInt(last.length)];
+            String id = String.format("%09d", random.nextInt(1_000_000_000));
+            employees.add(employee("u" + i, name, id));
+        }
+        return employees;
+    }
+}
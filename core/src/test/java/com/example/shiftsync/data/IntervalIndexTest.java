@@ -0,0 +1,80 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Shift;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * בדיקות לאינדקס האינטרוולים שמשמש את בדיקות החפיפה והמנוחה (ShiftConflicts).
+ */
+public class IntervalIndexTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private static Shift shift(String id, long startHour, long hours) {
+        return new Shift(id, startHour * HOUR, (startHour + hours) * HOUR, 1, null);
+    }
+
+    private static IntervalIndex index(Shift... shifts) {
+        List<Shift> list = new ArrayList<>();
+        for (Shift shift : shifts) list.add(shift);
+        return new IntervalIndex(list);
+    }
+
+    @Test
+    public void findsOverlap() {
+        IntervalIndex index = index(shift("morning", 8, 8), shift("night", 24, 8));
+
+        assertEquals("morning", index.findOverlap(12 * HOUR, 20 * HOUR, null).getShiftId());
+        assertEquals("night", index.findOverlap(20 * HOUR, 26 * HOUR, null).getShiftId());
+        assertNull(index.findOverlap(17 * HOUR, 23 * HOUR, null));
+    }
+
+    @Test
+    public void touchingIntervalsDoNotOverlap() {
+        IntervalIndex index = index(shift("morning", 8, 8));
+
+        // [start, end) - משמרת שמתחילה בדיוק כשאחרת נגמרת לא חופפת לה
+        assertNull(index.findOverlap(16 * HOUR, 24 * HOUR, null));
+        assertNull(index.findOverlap(0, 8 * HOUR, null));
+    }
+
+    @Test
+    public void findsRestViolation() {
+        IntervalIndex index = index(shift("morning", 8, 8));
+
+        // שעתיים אחרי הסיום - אין חפיפה, אבל אין 8 שעות מנוחה
+        assertNull(index.findOverlap(18 * HOUR, 26 * HOUR, null));
+        assertEquals("morning", index.findRestViolation(18 * HOUR, 26 * HOUR, 8 * HOUR, null).getShiftId());
+        // בדיוק 8 שעות מנוחה - מותר
+        assertNull(index.findRestViolation(24 * HOUR, 32 * HOUR, 8 * HOUR, null));
+        assertNull(index.findRestViolation(-8 * HOUR, 0, 8 * HOUR, null));
+    }
+
+    @Test
+    public void excludedShiftIsIgnored() {
+        IntervalIndex index = index(shift("morning", 8, 8), shift("overlapping", 10, 4));
+
+        assertEquals("overlapping", index.findOverlap(9 * HOUR, 12 * HOUR, "morning").getShiftId());
+        assertEquals("morning", index.findOverlap(9 * HOUR, 12 * HOUR, "overlapping").getShiftId());
+        assertNull(index.findOverlap(15 * HOUR, 17 * HOUR, "morning"));
+    }
+
+    @Test
+    public void longEarlyIntervalIsFoundBehindShortOnes() {
+        // משמרת ארוכה מוקדמת, ואחריה משמרות קצרות שכולן נגמרות לפני הטווח המבוקש
+        List<Shift> shifts = new ArrayList<>();
+        shifts.add(shift("long", 0, 100));
+        for (int i = 0; i < 20; i++) shifts.add(shift("short" + i, 1 + i * 2, 1));
+        IntervalIndex index = new IntervalIndex(shifts);
+
+        assertEquals(21, index.size());
+        assertEquals("long", index.findOverlap(60 * HOUR, 61 * HOUR, null).getShiftId());
+        assertNull(index.findOverlap(100 * HOUR, 101 * HOUR, null));
+    }
+}
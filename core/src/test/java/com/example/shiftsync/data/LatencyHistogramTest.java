@@ -0,0 +1,78 @@
+package com.example.shiftsync.data;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * בדיקות להיסטוגרמת הזמנים של מדדי Firestore.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 50; i++) histogram.record(i);
+
+        assertEquals(50, histogram.getCount());
+        assertEquals(1, histogram.getMin());
+        assertEquals(50, histogram.getMax());
+        assertEquals(25, histogram.valueAtPercentile(50));
+        assertEquals(50, histogram.valueAtPercentile(100));
+        assertEquals(25.5, histogram.getMean(), 1e-9);
+    }
+
+    @Test
+    public void bucketsAreContiguousAndWithinThreePercent() {
+        long previousHigh = -1;
+        for (int index = 0; index <= LatencyHistogram.index(1L << 35); index++) {
+            long high = LatencyHistogram.highestInBucket(index);
+            long low = previousHigh + 1;
+            // כל ערך בדלי ממופה חזרה אליו, בלי חורים בין דליים
+            assertEquals(index, LatencyHistogram.index(low));
+            assertEquals(index, LatencyHistogram.index(high));
+            assertTrue(high - low <= Math.max(0, low / 32));
+            previousHigh = high;
+        }
+    }
+
+    @Test
+    public void percentilesMatchSortedSamples() {
+        Random random = new Random(7);
+        long[] samples = new long[10_000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < samples.length; i++) {
+            // התפלגות עם זנב ארוך, כמו זמני רשת
+            samples[i] = (long) (Math.exp(random.nextGaussian() * 1.2 + 10));
+            histogram.record(samples[i]);
+        }
+        Arrays.sort(samples);
+
+        for (double p : new double[]{50, 90, 95, 99, 99.9}) {
+            long exact = samples[(int) Math.ceil(samples.length * p / 100) - 1];
+            long estimate = histogram.valueAtPercentile(p);
+            assertTrue(p + ": " + estimate + " < " + exact, estimate >= exact);
+            assertTrue(p + ": " + estimate + " vs " + exact, estimate <= exact + exact / 32 + 1);
+        }
+        assertEquals(samples[samples.length - 1], histogram.getMax());
+    }
+
+    @Test
+    public void addMergesCounts() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.record(100);
+        b.record(5_000_000);
+        b.record(-3);
+
+        a.add(b);
+
+        assertEquals(3, a.getCount());
+        assertEquals(0, a.getMin());
+        assertEquals(5_000_000, a.getMax());
+        assertEquals(0, new LatencyHistogram().valueAtPercentile(99));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.UserSummary;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * בדיקות לצובר השכר של החברה (מדידת הזמן נמצאת ב-DomainBenchmarks במודול benchmarks).
+ */
+public class PayrollAggregatorTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private static UserSummary user(String uid, String name, double rate) {
+        UserSummary user = new UserSummary();
+        user.setUid(uid);
+        user.setFullName(name);
+        user.setHourlyRate(rate);
+        return user;
+    }
+
+    @Test
+    public void sumsHoursPerEmployeeAndJoinsRates() {
+        PayrollAggregator aggregator = new PayrollAggregator();
+        aggregator.addShift(Arrays.asList("a", "b"), 0, 8 * HOUR);
+        aggregator.addShift(Collections.singletonList("a"), 10 * HOUR, 14 * HOUR);
+        aggregator.addShift(Collections.emptyList(), 0, 8 * HOUR);
+
+        Map<String, UserSummary> users = new HashMap<>();
+        users.put("a", user("a", "אבי", 50));
+        users.put("b", user("b", "בני", 40));
+        List<PayrollAggregator.Line> lines = aggregator.lines(users);
+
+        assertEquals(3, aggregator.getShiftsSeen());
+        assertEquals(2, lines.size());
+        assertEquals("אבי", lines.get(0).name);
+        assertEquals(12, lines.get(0).hours, 1e-9);
+        assertEquals(2, lines.get(0).shiftCount);
+        assertEquals(600, lines.get(0).amount, 1e-9);
+        assertEquals(320, lines.get(1).amount, 1e-9);
+    }
+
+    @Test
+    public void unknownEmployeeKeepsHoursWithoutRate() {
+        PayrollAggregator aggregator = new PayrollAggregator();
+        aggregator.addShift(Collections.singletonList("ghost"), 0, 6 * HOUR);
+
+        PayrollAggregator.Line line = aggregator.lines(new HashMap<>()).get(0);
+
+        assertFalse(line.known);
+        assertEquals(6, line.hours, 1e-9);
+        assertEquals(0, line.amount, 1e-9);
+    }
+
+    @Test
+    public void monthOf50000Shifts_countsEveryAssignmentOnce() {
+        Random random = new Random(11);
+        int employees = 500;
+        Map<String, UserSummary> users = new HashMap<>();
+        for (int u = 0; u < employees; u++) users.put("u" + u, user("u" + u, "name-" + u, 40 + u % 20));
+
+        PayrollAggregator aggregator = new PayrollAggregator();
+        int expected = 0;
+        for (int i = 0; i < 50_000; i++) {
+            List<String> assigned = new ArrayList<>();
+            int count = 1 + random.nextInt(4);
+            for (int j = 0; j < count; j++) assigned.add("u" + random.nextInt(employees));
+            long start = (i % 30) * 24 * HOUR + (i % 3) * 8 * HOUR;
+            aggregator.addShift(assigned, start, start + 8 * HOUR);
+            expected += assigned.size();
+        }
+
+        int shifts = 0;
+        double hours = 0;
+        for (PayrollAggregator.Line line : aggregator.lines(users)) {
+            shifts += line.shiftCount;
+            hours += line.hours;
+        }
+        assertEquals(50_000, aggregator.getShiftsSeen());
+        assertEquals(expected, shifts);
+        assertEquals(expected * 8.0, hours, 1e-6);
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Assignment;
+import com.example.shiftsync.models.Shift;
+import com.example.shiftsync.models.ShiftRequestItem;
+import com.example.shiftsync.models.User;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * בדיקות לשירותים של :core מעל InMemoryStore (מדידת הזמן נמצאת ב-ShiftServiceBenchmark במודול benchmarks).
+ */
+public class ShiftServiceTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private InMemoryStore store;
+    private ShiftService service;
+
+    private static long day(int month, int dayOfMonth, int hour) {
+        Calendar cal = Calendar.getInstance();
+        cal.clear();
+        cal.set(2025, month, dayOfMonth, hour, 0);
+        return cal.getTimeInMillis();
+    }
+
+    private static Shift shift(String id, long start, int hours, int required, String... assigned) {
+        Shift shift = new Shift(id, start, start + hours * HOUR, required, null);
+        for (String uid : assigned) shift.getAssignments().put(uid, Assignment.assigned("name-" + uid, 0, 0));
+        return shift;
+    }
+
+    @Before
+    public void setUp() {
+        store = new InMemoryStore();
+        service = new ShiftService(store);
+    }
+
+    @Test
+    public void dayAndMonthRangesUseLocalBoundaries() {
+        store.putShift(shift("before", day(Calendar.MARCH, 31, 23), 4, 1));
+        store.putShift(shift("morning", day(Calendar.APRIL, 1, 0), 8, 1));
+        store.putShift(shift("evening", day(Calendar.APRIL, 1, 16), 8, 1));
+        store.putShift(shift("next", day(Calendar.APRIL, 2, 0), 8, 1));
+        store.putShift(shift("may", day(Calendar.MAY, 1, 0), 8, 1));
+
+        List<Shift> day = service.shiftsForDay(day(Calendar.APRIL, 1, 12)).join();
+        assertEquals(2, day.size());
+        assertEquals("morning", day.get(0).getShiftId());
+        assertEquals("evening", day.get(1).getShiftId());
+
+        assertEquals(3, service.shiftsForMonth(day(Calendar.APRIL, 20, 9)).join().size());
+
+        // החלפה לפי מזהה מעבירה את המשמרת ליום החדש
+        store.putShift(shift("morning", day(Calendar.APRIL, 3, 8), 8, 1));
+        assertEquals(1, service.shiftsForDay(day(Calendar.APRIL, 1, 12)).join().size());
+        assertEquals(5, store.shiftCount());
+    }
+
+    @Test
+    public void checkAssignmentFindsOverlapAndShortRest() {
+        store.putShift(shift("night", day(Calendar.MARCH, 1, 22), 8, 1, "a"));
+        store.putShift(shift("other", day(Calendar.MARCH, 2, 8), 8, 1, "b"));
+
+        ShiftConflicts.Conflict overlap = service.checkAssignment("a", "new", day(Calendar.MARCH, 2, 4), day(Calendar.MARCH, 2, 10)).join();
+        assertTrue(overlap.overlap);
+        assertEquals("night", overlap.other.getShiftId());
+
+        ShiftConflicts.Conflict rest = service.checkAssignment("a", "new", day(Calendar.MARCH, 2, 8), day(Calendar.MARCH, 2, 16)).join();
+        assertFalse(rest.overlap);
+
+        assertNull(service.checkAssignment("a", "new", day(Calendar.MARCH, 3, 8), day(Calendar.MARCH, 3, 16)).join());
+        // המשמרת עצמה לא נחשבת התנגשות
+        assertNull(service.checkAssignment("a", "night", day(Calendar.MARCH, 1, 22), day(Calendar.MARCH, 2, 6)).join());
+    }
+
+    @Test
+    public void checkAssignmentsFindsConflictsWithAssignedAndWithinBatch() {
+        store.putShift(shift("night", day(Calendar.MARCH, 1, 22), 8, 1, "a"));
+
+        List<ShiftRequestItem> items = new ArrayList<>();
+        // חופפת למשמרת שכבר משובצת
+        items.add(new ShiftRequestItem(shift("overlap", day(Calendar.MARCH, 2, 4), 6, 1), "a", "A"));
+        // שתי בקשות של אותו עובד באותה פעולה: הראשונה עוברת, השנייה קרובה מדי אליה
+        items.add(new ShiftRequestItem(shift("first", day(Calendar.MARCH, 3, 8), 8, 1), "a", "A"));
+        items.add(new ShiftRequestItem(shift("tooClose", day(Calendar.MARCH, 3, 20), 8, 1), "a", "A"));
+        // אותו זמן לעובד אחר - אין התנגשות
+        items.add(new ShiftRequestItem(shift("tooClose", day(Calendar.MARCH, 3, 20), 8, 1), "b", "B"));
+
+        Map<String, ShiftConflicts.Conflict> conflicts = service.checkAssignments(items).join();
+
+        assertEquals(2, conflicts.size());
+        ShiftConflicts.Conflict overlap = conflicts.get(items.get(0).getRequestId());
+        assertTrue(overlap.overlap);
+        assertEquals("night", overlap.other.getShiftId());
+        ShiftConflicts.Conflict rest = conflicts.get(items.get(2).getRequestId());
+        assertFalse(rest.overlap);
+        assertEquals("first", rest.other.getShiftId());
+    }
+
+    @Test
+    public void pendingRequestsAreFlattenedAfterTime() {
+        Shift past = shift("past", day(Calendar.MARCH, 1, 8), 8, 2);
+        past.getAssignments().put("x", Assignment.pending("X", 1));
+        Shift future = shift("future", day(Calendar.MARCH, 5, 8), 8, 2);
+        future.getAssignments().put("y", Assignment.pending("Y", 2));
+        future.getAssignments().put("z", Assignment.pending("Z", 1));
+        store.putShift(past);
+        store.putShift(future);
+
+        List<ShiftRequestItem> items = service.pendingRequestsAfter(day(Calendar.MARCH, 1, 8)).join();
+
+        assertEquals(2, items.size());
+        assertEquals("z", items.get(0).getUserId());
+        assertEquals("Y", items.get(1).getUserName());
+    }
+
+    @Test
+    public void monthlyPayrollUsesAssignedShiftsAndRate() {
+        User user = new User();
+        user.setUid("a");
+        user.setHourlyRate(50);
+        store.putUser(user);
+        store.putShift(shift("s1", day(Calendar.MARCH, 1, 8), 8, 1, "a"));
+        store.putShift(shift("s2", day(Calendar.MARCH, 20, 8), 6, 2, "a", "b"));
+        store.putShift(shift("s3", day(Calendar.MARCH, 21, 8), 6, 1, "b"));
+        store.putShift(shift("april", day(Calendar.APRIL, 1, 8), 6, 1, "a"));
+
+        PayrollCalculator payroll = new PayrollCalculator(store, store);
+        PayrollCalculator.Summary summary = payroll.monthlySummary("a", day(Calendar.MARCH, 15, 0)).join();
+
+        assertEquals(14, summary.hours, 1e-9);
+        assertEquals(2, summary.shiftCount);
+        assertEquals(700, summary.amount, 1e-9);
+        // עובד שלא נמצא במאגר - תעריף 0
+        assertEquals(0, payroll.monthlySummary("b", day(Calendar.MARCH, 15, 0)).join().amount, 0);
+    }
+
+    /**
+     * ספירת האיוש של חודש דרך המאגר, מתוך כחצי שנה של משמרות צפופות.
+     */
+    @Test
+    public void monthlyCounts_countsOnlyTheRequestedMonth() {
+        Random random = new Random(5);
+        List<Shift> shifts = new ArrayList<>();
+        List<Shift> june = new ArrayList<>();
+        long start = day(Calendar.JANUARY, 1, 0);
+        long juneStart = day(Calendar.JUNE, 1, 0);
+        long julyStart = day(Calendar.JULY, 1, 0);
+        for (int i = 0; i < 20_000; i++) {
+            Shift shift = shift("s" + i, start + i * 13 * 60_000L, 8, 1 + random.nextInt(3));
+            for (int a = random.nextInt(4); a > 0; a--) {
+                shift.getAssignments().put("u" + random.nextInt(200), Assignment.assigned("n", 0, 0));
+            }
+            shifts.add(shift);
+            if (shift.getStartTime() >= juneStart && shift.getStartTime() < julyStart) june.add(shift);
+        }
+        store.putShifts(shifts);
+
+        StaffingAnalyzer.Counts counts = new StaffingAnalyzer(store).monthlyCounts(day(Calendar.JUNE, 10, 0)).join();
+        StaffingAnalyzer.Counts expected = StaffingAnalyzer.count(june);
+
+        assertTrue(expected.total > 3000);
+        assertEquals(expected.total, counts.total);
+        assertEquals(expected.full, counts.full);
+        assertEquals(expected.missing, counts.missing);
+        assertEquals(june.size(), service.shiftsForMonth(day(Calendar.JUNE, 10, 0)).join().size());
+    }
+}
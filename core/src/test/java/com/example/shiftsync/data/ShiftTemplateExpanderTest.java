@@ -0,0 +1,111 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Shift;
+import com.example.shiftsync.models.ShiftTemplate;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * בדיקות לפריסת תבנית משמרת: מזהים קבועים, גבול הטווח, ימי השבוע של התבנית ומעבר שעון קיץ.
+ * הבדיקות רצות באזור הזמן של ישראל (מעבר לשעון קיץ ב-28.3.2025 בשעה 02:00).
+ */
+public class ShiftTemplateExpanderTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private TimeZone originalTimeZone;
+
+    private static long day(int month, int dayOfMonth, int hour) {
+        Calendar cal = Calendar.getInstance();
+        cal.clear();
+        cal.set(2025, month, dayOfMonth, hour, 0);
+        return cal.getTimeInMillis();
+    }
+
+    // תבנית של 08:00-16:00 בימים הנתונים
+    private static ShiftTemplate template(Integer... daysOfWeek) {
+        return new ShiftTemplate("t1", "בוקר", new ArrayList<>(Arrays.asList(daysOfWeek)), 8 * 60, 8 * 60, 2, "");
+    }
+
+    private static ShiftTemplate everyDay() {
+        return template(Calendar.SUNDAY, Calendar.MONDAY, Calendar.TUESDAY, Calendar.WEDNESDAY,
+                Calendar.THURSDAY, Calendar.FRIDAY, Calendar.SATURDAY);
+    }
+
+    private static List<String> ids(List<Shift> shifts) {
+        List<String> ids = new ArrayList<>();
+        for (Shift shift : shifts) ids.add(shift.getShiftId());
+        return ids;
+    }
+
+    @Before
+    public void setUp() {
+        originalTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Jerusalem"));
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(originalTimeZone);
+    }
+
+    @Test
+    public void idsAreStableAcrossExpansions() {
+        ShiftTemplate template = everyDay();
+
+        List<Shift> first = ShiftTemplateExpander.expand(template, day(Calendar.MARCH, 2, 0), day(Calendar.MARCH, 5, 0));
+        List<Shift> second = ShiftTemplateExpander.expand(template, day(Calendar.MARCH, 2, 12), day(Calendar.MARCH, 5, 0));
+
+        assertEquals(Arrays.asList("tpl_t1_20250302", "tpl_t1_20250303", "tpl_t1_20250304"), ids(first));
+        assertEquals(ids(first), ids(second));
+    }
+
+    @Test
+    public void rangeEndIsExclusive() {
+        // גם זמן באמצע היום האחרון לא מכניס אותו לטווח
+        List<Shift> shifts = ShiftTemplateExpander.expand(everyDay(), day(Calendar.MARCH, 2, 0), day(Calendar.MARCH, 9, 15));
+
+        assertEquals(7, shifts.size());
+        assertEquals("tpl_t1_20250308", shifts.get(shifts.size() - 1).getShiftId());
+    }
+
+    @Test
+    public void onlyTemplateDaysAreGenerated() {
+        List<Shift> shifts = ShiftTemplateExpander.expand(template(Calendar.SUNDAY, Calendar.TUESDAY),
+                day(Calendar.MARCH, 1, 0), day(Calendar.MARCH, 15, 0));
+
+        assertEquals(Arrays.asList("tpl_t1_20250302", "tpl_t1_20250304", "tpl_t1_20250309", "tpl_t1_20250311"), ids(shifts));
+        Calendar cal = Calendar.getInstance();
+        for (Shift shift : shifts) {
+            cal.setTimeInMillis(shift.getStartTime());
+            int dayOfWeek = cal.get(Calendar.DAY_OF_WEEK);
+            assertTrue(dayOfWeek == Calendar.SUNDAY || dayOfWeek == Calendar.TUESDAY);
+        }
+    }
+
+    @Test
+    public void startTimeFollowsLocalClockAcrossDst() {
+        List<Shift> shifts = ShiftTemplateExpander.expand(everyDay(), day(Calendar.MARCH, 27, 0), day(Calendar.MARCH, 29, 0));
+
+        assertEquals(2, shifts.size());
+        Calendar cal = Calendar.getInstance();
+        for (Shift shift : shifts) {
+            cal.setTimeInMillis(shift.getStartTime());
+            assertEquals(8, cal.get(Calendar.HOUR_OF_DAY));
+            assertEquals(0, cal.get(Calendar.MINUTE));
+            assertEquals(8 * HOUR, shift.getEndTime() - shift.getStartTime());
+        }
+        // השעון זז שעה קדימה בלילה שבין שתי המשמרות
+        assertEquals(23 * HOUR, shifts.get(1).getStartTime() - shifts.get(0).getStartTime());
+    }
+}
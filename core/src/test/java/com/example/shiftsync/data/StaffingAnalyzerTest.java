@@ -0,0 +1,83 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Assignment;
+import com.example.shiftsync.models.Shift;
+import com.example.shiftsync.models.ShiftRequestItem;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * בדיקות לחישובי האיוש, השכר וטווחי החודש שהמסכים משתמשים בהם.
+ */
+public class StaffingAnalyzerTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private static Shift shift(String id, long start, double hours, int required, int assigned, int pending) {
+        Shift shift = new Shift(id, start, start + (long) (hours * HOUR), required, null);
+        for (int i = 0; i < assigned; i++) shift.getAssignments().put(id + "-a" + i, Assignment.assigned("a" + i, 0, 0));
+        for (int i = 0; i < pending; i++) shift.getAssignments().put(id + "-p" + i, Assignment.pending("p" + i, i));
+        return shift;
+    }
+
+    @Test
+    public void countsFullShiftsAndMissingWorkers() {
+        List<Shift> shifts = new ArrayList<>();
+        shifts.add(shift("full", 0, 8, 2, 2, 1));
+        shifts.add(shift("over", 0, 8, 1, 2, 0));
+        shifts.add(shift("short", 0, 8, 3, 1, 2));
+        shifts.add(null);
+        shifts.add(shift("empty", 0, 8, 2, 0, 0));
+
+        StaffingAnalyzer.Counts counts = StaffingAnalyzer.count(shifts);
+
+        assertEquals(4, counts.total);
+        assertEquals(2, counts.full);
+        assertEquals(4, counts.missing);
+        assertEquals(0, StaffingAnalyzer.missing(1, 3));
+    }
+
+    @Test
+    public void salarySumsFractionalHours() {
+        List<Shift> shifts = Arrays.asList(shift("a", 0, 8.5, 1, 1, 0), shift("b", 0, 4, 1, 1, 0));
+
+        assertEquals(12.5, PayrollCalculator.totalHours(shifts), 1e-9);
+        assertEquals(500.0, PayrollCalculator.totalAmount(shifts, 40), 1e-9);
+        assertEquals(340.0, PayrollCalculator.amount(shifts.get(0), 40), 1e-9);
+    }
+
+    @Test
+    public void flattenKeepsShiftAndRequestOrder() {
+        List<Shift> shifts = Arrays.asList(shift("s1", 0, 8, 1, 1, 2), shift("s2", HOUR, 8, 1, 0, 0), shift("s3", 2 * HOUR, 8, 1, 0, 1));
+
+        List<ShiftRequestItem> items = ShiftRequestItem.flatten(shifts);
+
+        assertEquals(3, items.size());
+        assertEquals("s1-p0", items.get(0).getUserId());
+        assertEquals("p1", items.get(1).getUserName());
+        assertEquals("s3", items.get(2).getShift().getShiftId());
+    }
+
+    @Test
+    public void monthRangeCoversWholeMonth() {
+        Calendar cal = Calendar.getInstance();
+        cal.clear();
+        cal.set(2025, Calendar.FEBRUARY, 17, 13, 45);
+        long start = CalendarRanges.monthStart(cal.getTimeInMillis());
+        long end = CalendarRanges.monthEnd(cal.getTimeInMillis());
+
+        cal.clear();
+        cal.set(2025, Calendar.FEBRUARY, 1);
+        assertEquals(cal.getTimeInMillis(), start);
+        cal.set(2025, Calendar.MARCH, 1);
+        assertEquals(cal.getTimeInMillis(), end);
+        assertEquals(start, CalendarRanges.monthStart(end - 1));
+    }
+}
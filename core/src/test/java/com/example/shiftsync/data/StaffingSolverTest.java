@@ -0,0 +1,243 @@
+package com.example.shiftsync.data;
+
+import com.example.shiftsync.models.Assignment;
+import com.example.shiftsync.models.Shift;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * בדיקות למנוע השיבוץ האוטומטי (מדידת הזמן נמצאת ב-StaffingSolverBenchmark במודול benchmarks).
+ */
+public class StaffingSolverTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private static long day(int dayOfMonth, int hour) {
+        Calendar cal = Calendar.getInstance();
+        cal.clear();
+        cal.set(2025, Calendar.MARCH, dayOfMonth, hour, 0);
+        return cal.getTimeInMillis();
+    }
+
+    private static Shift shift(String id, long start, int hours, int required, String... pending) {
+        Shift shift = new Shift(id, start, start + hours * HOUR, required, "");
+        for (String uid : pending) {
+            shift.getAssignments().put(uid, Assignment.pending("name-" + uid, 0));
+        }
+        return shift;
+    }
+
+    @Test
+    public void fillsFromPendingAndNeverOverAssigns() {
+        List<Shift> shifts = new ArrayList<>();
+        shifts.add(shift("s1", day(2, 8), 8, 2, "a", "b", "c"));
+
+        StaffingSolver.Plan plan = new StaffingSolver(StaffingSolver.Constraints.defaults()).solve(shifts);
+
+        assertEquals(2, plan.proposals.size());
+        assertEquals(2, plan.missingBefore);
+        assertEquals(0, plan.missingAfter);
+        assertEquals("name-" + plan.proposals.get(0).userId, plan.proposals.get(0).userName);
+    }
+
+    @Test
+    public void respectsOverlapAndRest() {
+        List<Shift> shifts = new ArrayList<>();
+        // אותו עובד לא יכול לקחת שתי משמרות חופפות, וגם לא משמרת שמתחילה שעתיים אחרי סיום
+        shifts.add(shift("morning", day(2, 8), 8, 1, "a"));
+        shifts.add(shift("overlap", day(2, 12), 8, 1, "a"));
+        shifts.add(shift("noRest", day(2, 18), 4, 1, "a"));
+        shifts.add(shift("nextDay", day(3, 8), 8, 1, "a"));
+
+        StaffingSolver.Plan plan = new StaffingSolver(StaffingSolver.Constraints.defaults()).solve(shifts);
+
+        assertValid(shifts, plan, StaffingSolver.Constraints.defaults());
+        assertEquals(2, plan.proposals.size());
+    }
+
+    @Test
+    public void respectsMaxHoursPerWeek() {
+        List<Shift> shifts = new ArrayList<>();
+        for (int d = 2; d <= 7; d++) {
+            shifts.add(shift("d" + d, day(d, 8), 8, 1, "a"));
+        }
+        StaffingSolver.Constraints constraints = new StaffingSolver.Constraints(24 * 60, 8 * 60);
+
+        StaffingSolver.Plan plan = new StaffingSolver(constraints).solve(shifts);
+
+        assertValid(shifts, plan, constraints);
+        assertEquals(3, plan.proposals.size());
+    }
+
+    @Test
+    public void existingAssignmentsBlockTime() {
+        Shift assigned = shift("assigned", day(2, 8), 8, 1);
+        assigned.getAssignments().put("a", Assignment.assigned("name-a", 0, 0));
+        List<Shift> shifts = new ArrayList<>();
+        shifts.add(assigned);
+        shifts.add(shift("overlap", day(2, 10), 8, 1, "a"));
+
+        StaffingSolver.Plan plan = new StaffingSolver(StaffingSolver.Constraints.defaults()).solve(shifts);
+
+        assertTrue(plan.proposals.isEmpty());
+        assertEquals(1, plan.missingAfter);
+    }
+
+    @Test
+    public void contextShiftsBlockTimeButGetNoProposals() {
+        // משמרת מהחודש הקודם (הקשר) שנגמרת שעתיים לפני משמרת בחודש המבוקש
+        Shift previousMonth = shift("previousMonth", day(1, 0) - 4 * HOUR, 2, 1);
+        previousMonth.getAssignments().put("a", Assignment.assigned("name-a", 0, 0));
+        Shift openInContext = shift("openInContext", day(1, 0) - 12 * HOUR, 8, 1, "b");
+        List<Shift> context = new ArrayList<>();
+        context.add(previousMonth);
+        context.add(openInContext);
+        List<Shift> shifts = new ArrayList<>();
+        shifts.add(shift("first", day(1, 0), 8, 1, "a"));
+
+        StaffingSolver.Plan plan = new StaffingSolver(StaffingSolver.Constraints.defaults()).solve(shifts, context);
+
+        assertTrue(plan.proposals.isEmpty());
+        assertEquals(1, plan.missingBefore);
+        assertEquals(1, plan.missingAfter);
+    }
+
+    @Test
+    public void overlappingContextShiftsAllBlockTime() {
+        // שתי משמרות הקשר של אותו עובד שמתחילות באותה שעה, ומשמרת ארוכה שמתחילה לפני משמרת קצרה:
+        // כל אחת מהן צריכה לחסום, ולא רק האחרונה או הקרובה ביותר
+        Shift long1 = shift("long1", day(1, 0) - 24 * HOUR, 20, 1);
+        Shift short1 = shift("short1", day(1, 0) - 24 * HOUR, 2, 1);
+        Shift long2 = shift("long2", day(1, 0) - 48 * HOUR, 20, 1);
+        Shift short2 = shift("short2", day(1, 0) - 46 * HOUR, 2, 1);
+        for (Shift fixed : new Shift[]{long1, short1, long2, short2}) {
+            fixed.getAssignments().put("a", Assignment.assigned("name-a", 0, 0));
+        }
+        List<Shift> context = new ArrayList<>();
+        context.add(short1);
+        context.add(long1);
+        context.add(long2);
+        context.add(short2);
+
+        // בלי מנוחה, כדי שרק חפיפה תחסום: שתי המשמרות נופלות בתוך המשמרות הארוכות
+        List<Shift> shifts = new ArrayList<>();
+        shifts.add(shift("afterShort1", day(1, 0) - 18 * HOUR, 4, 1, "a"));
+        shifts.add(shift("afterShort2", day(1, 0) - 40 * HOUR, 4, 1, "a"));
+        shifts.add(shift("free", day(1, 0) - 2 * HOUR, 4, 1, "a"));
+
+        StaffingSolver.Plan plan = new StaffingSolver(new StaffingSolver.Constraints(100 * 60, 0)).solve(shifts, context);
+
+        assertEquals(1, plan.proposals.size());
+        assertEquals("free", plan.proposals.get(0).shift.getShiftId());
+    }
+
+    @Test
+    public void localSearchMovesWorkerToUnfillableShift() {
+        // החמדני נותן ל-a את "second" (רק הוא ביקש אותה) ול-b את "third", ואז "first" חסומה לשניהם.
+        // החיפוש המקומי מעביר את b ל-"first" ונותן את "third" ל-a
+        List<Shift> shifts = new ArrayList<>();
+        shifts.add(shift("first", day(2, 8), 8, 1, "a", "b"));
+        shifts.add(shift("second", day(2, 9), 8, 1, "a"));
+        shifts.add(shift("third", day(2, 7), 2, 1, "b", "a"));
+
+        StaffingSolver.Plan plan = new StaffingSolver(new StaffingSolver.Constraints(45 * 60, 0)).solve(shifts);
+
+        assertValid(shifts, plan, new StaffingSolver.Constraints(45 * 60, 0));
+        Set<String> filled = new HashSet<>();
+        for (StaffingSolver.Proposal p : plan.proposals) filled.add(p.shift.getShiftId());
+        assertTrue(filled.contains("second"));
+        assertTrue(filled.contains("first"));
+    }
+
+    @Test
+    public void solve_monthOf2000ShiftsAnd200Employees_respectsConstraints() {
+        List<Shift> shifts = syntheticMonth(new Random(7), 2000, 200);
+        StaffingSolver.Constraints constraints = StaffingSolver.Constraints.defaults();
+
+        StaffingSolver.Plan plan = new StaffingSolver(constraints).solve(shifts);
+
+        assertValid(shifts, plan, constraints);
+        assertTrue(plan.missingAfter < plan.missingBefore);
+    }
+
+    // רוסטר סינתטי: 3 משמרות ביום בכמה עמדות, כל משמרת עם 1-4 נדרשים ו-3-12 מבקשים
+    private static List<Shift> syntheticMonth(Random random, int shiftCount, int employees) {
+        List<Shift> shifts = new ArrayList<>();
+        int[] starts = {6, 14, 22};
+        for (int i = 0; i < shiftCount; i++) {
+            long start = day(1 + (i / 66) % 30, starts[i % 3]);
+            Shift shift = shift("s" + i, start, 8, 1 + random.nextInt(4));
+            int requests = 3 + random.nextInt(10);
+            for (int r = 0; r < requests; r++) {
+                String uid = "u" + random.nextInt(employees);
+                shift.getAssignments().putIfAbsent(uid, Assignment.pending("name-" + uid, 0));
+            }
+            shifts.add(shift);
+        }
+        return shifts;
+    }
+
+    /**
+     * בדיקה שהתוכנית עומדת בכל האילוצים: רק ממתינים, בלי שיבוץ יתר, בלי חפיפה, מנוחה ושעות שבועיות.
+     */
+    private static void assertValid(List<Shift> shifts, StaffingSolver.Plan plan, StaffingSolver.Constraints constraints) {
+        Map<String, Integer> perShift = new HashMap<>();
+        Map<String, TreeMap<Long, Long>> busy = new HashMap<>();
+        Map<String, Map<Long, Long>> weekly = new HashMap<>();
+
+        for (Shift shift : shifts) {
+            for (String uid : shift.getAssignedUserIds()) {
+                addBusy(busy, weekly, uid, shift);
+            }
+        }
+        for (StaffingSolver.Proposal p : plan.proposals) {
+            assertTrue(p.shift.isPending(p.userId));
+            int count = perShift.merge(p.shift.getShiftId(), 1, Integer::sum);
+            assertTrue(p.shift.getAssignedUserIds().size() + count <= p.shift.getRequiredWorkers());
+            addBusy(busy, weekly, p.userId, p.shift);
+        }
+
+        long rest = constraints.minRestMinutes * 60_000L;
+        for (TreeMap<Long, Long> intervals : busy.values()) {
+            Long previousEnd = null;
+            for (Map.Entry<Long, Long> interval : intervals.entrySet()) {
+                if (previousEnd != null) assertTrue(previousEnd + rest <= interval.getKey());
+                previousEnd = interval.getValue();
+            }
+        }
+        for (Map<Long, Long> weeks : weekly.values()) {
+            for (long minutes : weeks.values()) {
+                assertTrue(minutes <= constraints.maxMinutesPerWeek);
+            }
+        }
+    }
+
+    private static void addBusy(Map<String, TreeMap<Long, Long>> busy, Map<String, Map<Long, Long>> weekly,
+                                String uid, Shift shift) {
+        TreeMap<Long, Long> intervals = busy.computeIfAbsent(uid, k -> new TreeMap<>());
+        assertNull("two shifts start together", intervals.put(shift.getStartTime(), shift.getEndTime()));
+
+        Calendar cal = Calendar.getInstance();
+        cal.setFirstDayOfWeek(Calendar.SUNDAY);
+        cal.setTimeInMillis(shift.getStartTime());
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        cal.set(Calendar.DAY_OF_WEEK, Calendar.SUNDAY);
+        long minutes = (shift.getEndTime() - shift.getStartTime()) / 60_000L;
+        weekly.computeIfAbsent(uid, k -> new HashMap<>()).merge(cal.getTimeInMillis(), minutes, Long::sum);
+    }
+}
@@ -22,3 +22,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "ShiftSync"
 include(":app")
+include(":core")
+include(":benchmarks")